@@ -0,0 +1,74 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package benchmarks;
+
+import elements.BallSystem;
+import gameRunning.GameEnvironment;
+import geomtry.Velocity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.awt.Color;
+import java.util.Random;
+
+/**
+ * The BallSystemBenchmark class measures one BallSystem step, serial and with parallel collision planning.
+ * The blocks are plain Blocks without listeners, so nothing is removed and every step does the same work.
+ * Compare threads=1 with threads=8 and threads=32 on a machine with at least that many cores.
+ */
+@State(Scope.Thread)
+public class BallSystemBenchmark {
+    @Param({"1000", "10000"})
+    private int balls;
+
+    @Param({"1000"})
+    private int blocks;
+
+    @Param({"1", "8", "32"})
+    private int threads;
+
+    private BallSystem system;
+
+    /**
+     * Builds the scene and spawns the balls at seeded random positions below the bricks.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        GameEnvironment environment = Scenes.environment("tree");
+        Scenes.fill(environment, this.blocks);
+        this.system = new BallSystem(environment);
+        Random random = new Random(11);
+        for (int i = 0; i < this.balls; i++) {
+            double x = 40 + random.nextDouble() * (Scenes.WIDTH - 80);
+            double y = Scenes.HEIGHT / 2 + 80 + random.nextDouble() * (Scenes.HEIGHT / 2 - 120);
+            Velocity v = Velocity.fromAngleAndSpeed(random.nextDouble() * 360, 4);
+            this.system.add(x, y, 3, Color.BLACK, v.getDx(), v.getDy());
+        }
+        this.system.setParallelism(this.threads);
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.system.setParallelism(1);
+    }
+
+    /**
+     * Measures one step of every ball.
+     */
+    @Benchmark
+    public void step() {
+        this.system.timePassed();
+    }
+}
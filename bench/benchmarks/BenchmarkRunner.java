@@ -0,0 +1,46 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BenchmarkRunner class runs the benchmark suite with throughput, average time and the GC profiler
+ * (allocation rate per operation), as used by "ant bench".
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args an optional regular expression selecting the benchmarks to run
+     * @throws RunnerException if JMH fails to run a benchmark
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "benchmarks\\..*";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .mode(Mode.Throughput)
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .forks(1)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package benchmarks;
+
+import gameRunning.CollisionResult;
+import gameRunning.GameEnvironment;
+import geomtry.Line;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The CollisionBenchmark class measures GameEnvironment.getClosestCollision over scenes of growing size.
+ * One invocation issues one query per ball, like a single game tick does.
+ */
+@State(Scope.Thread)
+public class CollisionBenchmark {
+    @Param({"100", "1000", "10000"})
+    private int blocks;
+
+    @Param({"1", "10", "1000"})
+    private int balls;
+
+    @Param({"grid", "tree"})
+    private String index;
+
+    private GameEnvironment environment;
+    private Line[] trajectories;
+    private CollisionResult result;
+
+    /**
+     * Builds the scene and the ball trajectories.
+     */
+    @Setup
+    public void setup() {
+        this.environment = Scenes.environment(this.index);
+        Scenes.fill(this.environment, this.blocks);
+        this.trajectories = Scenes.movementLines(this.balls, 7);
+        this.result = new CollisionResult();
+    }
+
+    /**
+     * Measures the object-returning query API.
+     *
+     * @param bh the blackhole consuming the results
+     */
+    @Benchmark
+    public void closestCollision(Blackhole bh) {
+        for (Line trajectory : this.trajectories) {
+            bh.consume(this.environment.getClosestCollision(trajectory));
+        }
+    }
+
+    /**
+     * Measures the allocation-free query API the game loop uses.
+     *
+     * @param bh the blackhole consuming the results
+     */
+    @Benchmark
+    public void closestCollisionInPlace(Blackhole bh) {
+        for (Line t : this.trajectories) {
+            bh.consume(this.environment.getClosestCollision(t.start().getX(), t.start().getY(),
+                    t.end().getX(), t.end().getY(), this.result));
+        }
+    }
+}
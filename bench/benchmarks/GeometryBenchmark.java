@@ -0,0 +1,151 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package benchmarks;
+
+import elements.Paddle;
+import geomtry.Equation;
+import geomtry.Line;
+import geomtry.Point;
+import geomtry.Rectangle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.Color;
+import java.util.List;
+
+/**
+ * The GeometryBenchmark class measures the geometry primitives the collision engine is built on.
+ * Each invocation runs the operation over a fixed array of random lines, so branches are not trivially predicted.
+ */
+@State(Scope.Thread)
+public class GeometryBenchmark {
+    private static final int LINES = 1024;
+    private Line[] lines;
+    private Point[] points;
+    private Rectangle rect;
+    private Paddle paddle;
+
+    /**
+     * Builds the random lines, the points to test against them, and a brick-sized rectangle.
+     */
+    @Setup
+    public void setup() {
+        this.lines = Scenes.randomLines(LINES, 42);
+        this.points = new Point[LINES];
+        for (int i = 0; i < LINES; i++) {
+            // Half of the points lie on the next line, half are random.
+            this.points[i] = i % 2 == 0 ? this.lines[(i + 1) % LINES].middle() : this.lines[i].end();
+        }
+        this.rect = new Rectangle(new Point(375, 275), 50, 25);
+        this.paddle = new Paddle(new Rectangle(new Point(350, 560), 100, 20), Color.ORANGE, null);
+    }
+
+    /**
+     * Measures Line.intersectionWith.
+     *
+     * @param bh the blackhole consuming the results
+     */
+    @Benchmark
+    public void intersectionWith(Blackhole bh) {
+        for (int i = 0; i < LINES; i++) {
+            bh.consume(this.lines[i].intersectionWith(this.lines[(i + 1) % LINES]));
+        }
+    }
+
+    /**
+     * Measures Line.isIntersecting.
+     *
+     * @param bh the blackhole consuming the results
+     */
+    @Benchmark
+    public void isIntersecting(Blackhole bh) {
+        for (int i = 0; i < LINES; i++) {
+            bh.consume(this.lines[i].isIntersecting(this.lines[(i + 1) % LINES]));
+        }
+    }
+
+    /**
+     * Measures Line.pointInLine.
+     *
+     * @param bh the blackhole consuming the results
+     */
+    @Benchmark
+    public void pointInLine(Blackhole bh) {
+        for (int i = 0; i < LINES; i++) {
+            bh.consume(this.lines[(i + 1) % LINES].pointInLine(this.points[i]));
+        }
+    }
+
+    /**
+     * Measures the construction of an Equation from a line.
+     *
+     * @param bh the blackhole consuming the results
+     */
+    @Benchmark
+    public void equationConstruction(Blackhole bh) {
+        for (int i = 0; i < LINES; i++) {
+            bh.consume(new Equation(this.lines[i]));
+        }
+    }
+
+    /**
+     * Measures the construction of a rectangle, which builds no edges until they are asked for.
+     *
+     * @param bh the blackhole consuming the results
+     */
+    @Benchmark
+    public void rectangleConstruction(Blackhole bh) {
+        for (int i = 0; i < LINES; i++) {
+            bh.consume(new Rectangle(this.lines[i].start(), 50, 25));
+        }
+    }
+
+    /**
+     * Measures moving the paddle, as every tick a key is held does; the GC profiler shows its allocation.
+     *
+     * @param bh the blackhole consuming the results
+     */
+    @Benchmark
+    public void paddleMove(Blackhole bh) {
+        for (int i = 0; i < LINES; i++) {
+            if ((i & 64) == 0) {
+                this.paddle.moveLeft();
+            } else {
+                this.paddle.moveRight();
+            }
+        }
+        bh.consume(this.paddle.getCollisionRectangle());
+    }
+
+    /**
+     * Measures Rectangle.intersectionPoints.
+     *
+     * @param bh the blackhole consuming the results
+     */
+    @Benchmark
+    public void rectangleIntersectionPoints(Blackhole bh) {
+        for (int i = 0; i < LINES; i++) {
+            List<Point> result = this.rect.intersectionPoints(this.lines[i]);
+            bh.consume(result);
+        }
+    }
+
+    /**
+     * Measures Line.closestIntersectionToStartOfLine, the narrowphase of every collision query.
+     *
+     * @param bh the blackhole consuming the results
+     */
+    @Benchmark
+    public void closestIntersectionToStartOfLine(Blackhole bh) {
+        for (int i = 0; i < LINES; i++) {
+            bh.consume(this.lines[i].closestIntersectionToStartOfLine(this.rect));
+        }
+    }
+}
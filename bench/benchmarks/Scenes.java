@@ -0,0 +1,114 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package benchmarks;
+
+import collections.Collidable;
+import elements.Block;
+import gameRunning.AabbTree;
+import gameRunning.GameEnvironment;
+import geomtry.Line;
+import geomtry.Point;
+import geomtry.Rectangle;
+import geomtry.Velocity;
+
+import java.awt.Color;
+import java.util.Random;
+
+/**
+ * The Scenes class builds the seeded block fields and ball trajectories the benchmarks run on.
+ */
+public final class Scenes {
+    /**
+     * The width of the benchmark world.
+     */
+    public static final double WIDTH = 800;
+    /**
+     * The height of the benchmark world.
+     */
+    public static final double HEIGHT = 600;
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private Scenes() {
+    }
+
+    /**
+     * Creates an empty environment with the given index strategy.
+     *
+     * @param index "grid" or "tree"
+     * @return the new environment
+     */
+    public static GameEnvironment environment(String index) {
+        if ("tree".equals(index)) {
+            return new GameEnvironment(new AabbTree());
+        }
+        return new GameEnvironment(WIDTH, HEIGHT, 50);
+    }
+
+    /**
+     * Fills the environment with the four borders and a grid of equally sized bricks.
+     * The brick size shrinks as the count grows, so every scene covers the same area.
+     *
+     * @param env    the environment to fill
+     * @param blocks the number of bricks
+     * @return the bricks, in insertion order
+     */
+    public static Collidable[] fill(GameEnvironment env, int blocks) {
+        env.addCollidable(new Block(new Rectangle(new Point(0, 20), WIDTH, 20), Color.gray));
+        env.addCollidable(new Block(new Rectangle(new Point(0, 40), 20, HEIGHT - 40), Color.gray));
+        env.addCollidable(new Block(new Rectangle(new Point(WIDTH - 20, 40), 20, HEIGHT - 40), Color.gray));
+        env.addCollidable(new Block(new Rectangle(new Point(0, HEIGHT), WIDTH, 20), Color.WHITE));
+        int cols = (int) Math.ceil(Math.sqrt(blocks * 2.0));
+        int rows = (int) Math.ceil(blocks / (double) cols);
+        double w = (WIDTH - 40) / cols;
+        double h = (HEIGHT / 2) / rows;
+        Collidable[] result = new Collidable[blocks];
+        for (int i = 0; i < blocks; i++) {
+            Point upperLeft = new Point(20 + (i % cols) * w, 60 + (i / cols) * h);
+            Block b = new Block(new Rectangle(upperLeft, w, h), Color.RED);
+            env.addCollidable(b);
+            result[i] = b;
+        }
+        return result;
+    }
+
+    /**
+     * Creates ball-like movement lines (length four radii) at random positions and angles.
+     *
+     * @param count the number of lines
+     * @param seed  the random seed
+     * @return the lines
+     */
+    public static Line[] movementLines(int count, long seed) {
+        Random random = new Random(seed);
+        Line[] lines = new Line[count];
+        for (int i = 0; i < count; i++) {
+            double x = 20 + random.nextDouble() * (WIDTH - 40);
+            double y = 40 + random.nextDouble() * (HEIGHT - 40);
+            Velocity v = Velocity.fromAngleAndSpeed(random.nextDouble() * 360, 1);
+            lines[i] = new Line(x - v.getDx() * 14, y - v.getDy() * 14, x + v.getDx() * 14, y + v.getDy() * 14);
+        }
+        return lines;
+    }
+
+    /**
+     * Creates random lines anywhere in the world, of any length.
+     *
+     * @param count the number of lines
+     * @param seed  the random seed
+     * @return the lines
+     */
+    public static Line[] randomLines(int count, long seed) {
+        Random random = new Random(seed);
+        Line[] lines = new Line[count];
+        for (int i = 0; i < count; i++) {
+            lines[i] = new Line(random.nextDouble() * WIDTH, random.nextDouble() * HEIGHT,
+                    random.nextDouble() * WIDTH, random.nextDouble() * HEIGHT);
+        }
+        return lines;
+    }
+}
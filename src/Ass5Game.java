@@ -3,7 +3,21 @@
  * Name: Avishag Lavi.
  */
 
+import biuoop.GUI;
 import gameRunning.Game;
+import levels.LevelCache;
+import levels.LevelDefinition;
+import levels.LevelLoader;
+import replay.RecordingKeyboard;
+import replay.ReplayFormat;
+import replay.ReplayKeyboard;
+import replay.ReplayReader;
+import replay.ReplayWriter;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * Ass3Game class serves as the entry point for the application.
@@ -11,16 +25,85 @@ import gameRunning.Game;
  * initializes it, and runs it.
  */
 public class Ass5Game {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
 
     /**
      * The entry point of the application.
      * This method creates a new Game instance, initializes it, and runs it.
+     * Running with -Dgame.renderThread=true draws the frames on a separate render thread.
+     * Running with -Dgame.level=file plays a level file, see levels.LevelParser, instead of the classic level.
+     * Running with -Dgame.compactBlocks=true keeps the blocks in a compact block table, for very large levels.
+     * Running with -Dgame.record=file records the paddle's keys to a replay file, and with
+     * -Dgame.replay=file plays a replay file back, -Dgame.replaySpeed times as fast as it was recorded;
+     * a replay keeps the block storage it was recorded with, and is rejected on any level but its own.
+     * Running with -Dgame.statsDump=seconds prints the frame statistics that often.
      *
      * @param args command line arguments (not used)
+     * @throws IOException if the level or replay file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        String record = System.getProperty("game.record", "");
+        String replay = System.getProperty("game.replay", "");
+        String levelFile = System.getProperty("game.level", "");
+        boolean compact = Boolean.getBoolean("game.compactBlocks");
+        LevelDefinition level = LevelDefinition.classic();
+        String levelHash = ReplayFormat.CLASSIC_LEVEL;
+        if (!levelFile.isEmpty()) {
+            LevelLoader loader = new LevelLoader(new LevelCache(Paths.get(".levelcache")));
+            level = loader.load(Paths.get(levelFile));
+            levelHash = loader.getLastHash();
+            System.out.print(loader.summary());
+        }
+        GUI gui = new GUI("Game", WIDTH, HEIGHT);
+        if (!replay.isEmpty()) {
+            try (ReplayReader reader = new ReplayReader(new FileInputStream(replay))) {
+                try {
+                    reader.checkLevel(levelHash);
+                } catch (IllegalArgumentException e) {
+                    gui.close();
+                    throw e;
+                }
+                Game game = new Game(gui, new ReplayKeyboard(reader));
+                game.setCompactBlocks(reader.isCompactBlocks());
+                game.initialize(level);
+                double speed = Double.parseDouble(System.getProperty("game.replaySpeed", "1"));
+                game.setUpdatesPerSecond((int) Math.max(1, Math.round(reader.getUpdatesPerSecond() * speed)));
+                game.setEventDriven(reader.isEventDriven());
+                game.setRenderThreaded(Boolean.getBoolean("game.renderThread"));
+                startStatsDump(game);
+                game.run();
+            }
+        } else if (!record.isEmpty()) {
+            try (ReplayWriter writer = new ReplayWriter(new FileOutputStream(record))) {
+                Game game = new Game(gui, new RecordingKeyboard(gui.getKeyboardSensor(), writer));
+                game.setCompactBlocks(compact);
+                game.initialize(level);
+                game.setRenderThreaded(Boolean.getBoolean("game.renderThread"));
+                startStatsDump(game);
+                writer.begin(game, levelHash);
+                game.run();
+                writer.finish(game);
+            }
+        } else {
+            Game game = new Game(gui, gui.getKeyboardSensor());
+            game.setCompactBlocks(compact);
+            game.initialize(level);
+            game.setRenderThreaded(Boolean.getBoolean("game.renderThread"));
+            startStatsDump(game);
+            game.run();
+        }
+    }
+
+    /**
+     * Turns on the periodic frame statistics dump if -Dgame.statsDump asks for it.
+     *
+     * @param game the game whose statistics to dump
      */
-    public static void main(String[] args) {
-        Game game = new Game();
-        game.initialize();
-        game.run();
+    private static void startStatsDump(Game game) {
+        double seconds = Double.parseDouble(System.getProperty("game.statsDump", "0"));
+        if (seconds > 0) {
+            game.getFrameStats().setDump(seconds, System.out);
+        }
     }
 }
@@ -0,0 +1,166 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The DeferredList class is an insertion-ordered list with O(1) removal by identity.
+ * Removing an element leaves a tombstone (null) in its slot, so the element is skipped from then on,
+ * and the slots are compacted in one stable pass by compact(), typically once per frame.
+ * This lets callers iterate with plain indices while elements are removed, without copying the list.
+ * Each element is held at most once; adding an element that is already held does nothing.
+ *
+ * @param <T> the type of the elements
+ */
+public class DeferredList<T> {
+    private Object[] slots;
+    private int end;
+    private int size;
+    private final Map<T, Handle> handles;
+
+    /**
+     * The position of an element in the slot array, updated in place when the slots are compacted.
+     */
+    private static final class Handle {
+        private int index;
+
+        /**
+         * Constructs a handle for the given slot.
+         *
+         * @param index the slot of the element
+         */
+        Handle(int index) {
+            this.index = index;
+        }
+    }
+
+    /**
+     * Constructs an empty list.
+     */
+    public DeferredList() {
+        this.slots = new Object[16];
+        this.handles = new IdentityHashMap<>();
+    }
+
+    /**
+     * Appends an element to the end of the list.
+     *
+     * @param element the element to add
+     */
+    public void add(T element) {
+        if (this.handles.containsKey(element)) {
+            return;
+        }
+        if (this.end == this.slots.length) {
+            // Grow rather than compact, so adding while iterating never moves the elements.
+            this.slots = Arrays.copyOf(this.slots, this.slots.length * 2);
+        }
+        this.handles.put(element, new Handle(this.end));
+        this.slots[this.end++] = element;
+        this.size++;
+    }
+
+    /**
+     * Removes an element in O(1), leaving a tombstone in its slot until the next compact().
+     *
+     * @param element the element to remove
+     * @return true if the element was in the list
+     */
+    public boolean remove(T element) {
+        Handle handle = this.handles.remove(element);
+        if (handle == null) {
+            return false;
+        }
+        this.slots[handle.index] = null;
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Checks if the list holds the given element.
+     *
+     * @param element the element to look for
+     * @return true if the element is in the list
+     */
+    public boolean contains(T element) {
+        return this.handles.containsKey(element);
+    }
+
+    /**
+     * Returns the number of elements in the list, not counting tombstones.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of slots in use, including tombstones. Iterate with get(i) for i below this.
+     *
+     * @return the end of the used slots
+     */
+    public int end() {
+        return this.end;
+    }
+
+    /**
+     * Returns the element in the given slot.
+     *
+     * @param index the slot, below end()
+     * @return the element, or null if the slot holds a tombstone
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) this.slots[index];
+    }
+
+    /**
+     * Removes all the tombstones, keeping the order of the remaining elements.
+     * Must not be called while iterating over the slots.
+     */
+    @SuppressWarnings("unchecked")
+    public void compact() {
+        if (this.size == this.end) {
+            return;
+        }
+        int write = 0;
+        for (int read = 0; read < this.end; read++) {
+            Object element = this.slots[read];
+            if (element != null) {
+                if (write != read) {
+                    this.slots[write] = element;
+                    this.handles.get((T) element).index = write;
+                }
+                write++;
+            }
+        }
+        Arrays.fill(this.slots, write, this.end, null);
+        this.end = write;
+    }
+
+    /**
+     * Returns a read-only snapshot of the elements.
+     *
+     * @return the elements in insertion order
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> asList() {
+        List<T> snapshot = new ArrayList<>(this.size);
+        for (int i = 0; i < this.end; i++) {
+            if (this.slots[i] != null) {
+                snapshot.add((T) this.slots[i]);
+            }
+        }
+        return Collections.unmodifiableList(snapshot);
+    }
+}
@@ -20,6 +20,17 @@ public interface Sprite {
      */
     void drawOn(DrawSurface d);
 
+    /**
+     * Draws the sprite on the given DrawSurface at a point between its previous and current state.
+     * Sprites that move override this; the default draws the current state.
+     *
+     * @param d     the DrawSurface to draw the sprite on
+     * @param alpha how far to go from the previous state (0) to the current state (1)
+     */
+    default void drawOn(DrawSurface d, double alpha) {
+        drawOn(d);
+    }
+
     /**
      * Notifies the sprite that a unit of time has passed.
      * This method is used to update the sprite's state.
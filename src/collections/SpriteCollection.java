@@ -5,23 +5,21 @@
 package collections;
 
 import biuoop.DrawSurface;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * The SpriteCollection class represents a collection of Sprite objects.
  * It provides methods to add sprites, update all sprites, and draw all sprites.
+ * A removed sprite is skipped immediately, and its slot is reclaimed at the end of the next update pass.
  */
 public class SpriteCollection {
-    private final List<Sprite> sprites;
-    private final List<Sprite> spritesToRemove;
+    private final DeferredList<Sprite> sprites;
+    private long removals;
 
     /**
      * Constructs a new SpriteCollection.
      */
     public SpriteCollection() {
-        this.sprites = new ArrayList<>();
-        this.spritesToRemove = new ArrayList<>();
+        this.sprites = new DeferredList<>();
     }
 
     /**
@@ -39,7 +37,48 @@ public class SpriteCollection {
      * @param s the sprite to remove
      */
     public void removeSprite(Sprite s) {
-        this.spritesToRemove.add(s);
+        if (this.sprites.remove(s)) {
+            this.removals++;
+        }
+    }
+
+    /**
+     * Returns the number of sprites removed from the collection so far.
+     * A renderer that keeps the previous frame compares it to know when a sprite disappeared.
+     *
+     * @return the number of removals
+     */
+    public long getRemovalCount() {
+        return this.removals;
+    }
+
+    /**
+     * Returns the number of slots in the collection, including the slots of sprites removed during this pass.
+     * Iterate with get(i) for i below this.
+     *
+     * @return the number of slots
+     */
+    public int slots() {
+        return this.sprites.end();
+    }
+
+    /**
+     * Returns the sprite in the given slot, in the order the sprites were added.
+     *
+     * @param slot the slot, below slots()
+     * @return the sprite, or null if it was removed
+     */
+    public Sprite get(int slot) {
+        return this.sprites.get(slot);
+    }
+
+    /**
+     * Returns the number of sprites in the collection.
+     *
+     * @return the number of sprites
+     */
+    public int size() {
+        return this.sprites.size();
     }
 
     /**
@@ -47,14 +86,16 @@ public class SpriteCollection {
      * This method should be called once per frame to update the state of all sprites.
      */
     public void notifyAllTimePassed() {
-        // Create a copy of the list to avoid ConcurrentModificationException
-        List<Sprite> spritesCopy = new ArrayList<>(this.sprites);
-        for (Sprite s : spritesCopy) {
-            s.timePassed();
+        // Sprites added during the pass are first updated on the next pass
+        int end = this.sprites.end();
+        for (int i = 0; i < end; i++) {
+            Sprite s = this.sprites.get(i);
+            if (s != null) {
+                s.timePassed();
+            }
         }
-        // Remove all marked sprites after the iteration
-        this.sprites.removeAll(this.spritesToRemove);
-        this.spritesToRemove.clear();
+        // Reclaim the slots of the sprites removed so far
+        this.sprites.compact();
     }
 
     /**
@@ -64,8 +105,26 @@ public class SpriteCollection {
      * @param d the DrawSurface to draw all sprites on
      */
     public void drawAllOn(DrawSurface d) {
-        for (Sprite sprite : this.sprites) {
-            sprite.drawOn(d);
+        for (int i = 0; i < this.sprites.end(); i++) {
+            Sprite sprite = this.sprites.get(i);
+            if (sprite != null) {
+                sprite.drawOn(d);
+            }
+        }
+    }
+
+    /**
+     * Calls drawOn(d, alpha) on all sprites, drawing them between their previous and current state.
+     *
+     * @param d     the DrawSurface to draw all sprites on
+     * @param alpha how far to go from the previous state (0) to the current state (1)
+     */
+    public void drawAllOn(DrawSurface d, double alpha) {
+        for (int i = 0; i < this.sprites.end(); i++) {
+            Sprite sprite = this.sprites.get(i);
+            if (sprite != null) {
+                sprite.drawOn(d, alpha);
+            }
         }
     }
 }
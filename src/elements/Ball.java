@@ -5,11 +5,8 @@
 
 package elements;
 
-import biuoop.DrawSurface;
 import collections.Sprite;
-import gameRunning.CollisionInfo;
 import gameRunning.Game;
-import gameRunning.GameEnvironment;
 import geomtry.Line;
 import geomtry.Point;
 import geomtry.Velocity;
@@ -17,46 +14,15 @@ import geomtry.Velocity;
 import java.awt.Color;
 
 /**
- * The Ball class represents a ball with a center point, radius, color, and velocity.
- * It can move, detect collisions with borders, and draw itself on a DrawSurface.
+ * The Ball class represents a ball with a center point, radius, color, and velocity, as collidables and hit
+ * listeners see it. It keeps no state of its own: a StandaloneBall keeps its own state, and the balls of a
+ * BallSystem are views of the system's arrays.
  */
-public class Ball implements Sprite {
-    private Point center;
-    private final int radius;
-    private Color color;
-    private Velocity velocity;
-    private final GameEnvironment g;
-
-    /**
-     * Constructs a Ball with the specified center coordinates, radius, color, and game environment.
-     *
-     * @param x      the x-coordinate of the ball's center
-     * @param y      the y-coordinate of the ball's center
-     * @param radius the radius of the ball
-     * @param color  the color of the ball
-     * @param g      the game environment the ball interacts with
-     */
-    public Ball(double x, double y, int radius, Color color, GameEnvironment g) {
-        this.center = new Point(x, y);
-        this.radius = radius;
-        this.color = color;
-        this.g = g;
-    }
-
+public abstract class Ball implements Sprite {
     /**
-     * Constructs a Ball with the specified center point, radius, color, and game environment.
-     *
-     * @param center the center point of the ball
-     * @param radius the radius of the ball
-     * @param color  the color of the ball
-     * @param g      the game environment the ball interacts with
-     */
-    public Ball(Point center, int radius, Color color, GameEnvironment g) {
-        this.center = center;
-        this.radius = radius;
-        this.color = color;
-        this.g = g;
-    }
+     * The number of sweeps a fast ball may make in one step: the first one, and one more after each hit.
+     */
+    static final int MAX_SWEEPS = 4;
 
     /**
      * Calculates and returns the line representing the ball's movement.
@@ -102,45 +68,49 @@ public class Ball implements Sprite {
      *
      * @return the radius of the ball
      */
-    public int getRadius() {
-        return this.radius;
-    }
+    public abstract int getRadius();
 
     /**
      * Gets the center point of the ball.
      *
      * @return the center point of the ball
      */
-    public Point getCenter() {
-        return this.center;
-    }
+    public abstract Point getCenter();
 
     /**
      * Gets the color of the ball.
      *
      * @return the color of the ball
      */
-    public Color getColor() {
-        return this.color;
-    }
+    public abstract Color getColor();
 
     /**
      * Sets the color of the ball.
      *
      * @param color the new color of the ball
      */
-    public void setColor(Color color) {
-        this.color = color;
-    }
+    public abstract void setColor(Color color);
+
+    /**
+     * Returns the collision layers the ball collides with.
+     *
+     * @return the mask of the layers (see CollisionLayer)
+     */
+    public abstract int getCollisionMask();
+
+    /**
+     * Sets the collision layers the ball collides with; it passes through the collidables of the other layers.
+     *
+     * @param mask the mask of the layers (see CollisionLayer), CollisionLayer.ALL by default
+     */
+    public abstract void setCollisionMask(int mask);
 
     /**
      * Sets the velocity of the ball.
      *
      * @param velocity the new velocity
      */
-    public void setVelocity(Velocity velocity) {
-        this.velocity = velocity;
-    }
+    public abstract void setVelocity(Velocity velocity);
 
     /**
      * Sets the velocity of the ball.
@@ -148,18 +118,14 @@ public class Ball implements Sprite {
      * @param dx the x component of the velocity
      * @param dy the y component of the velocity
      */
-    public void setVelocity(double dx, double dy) {
-        this.velocity = new Velocity(dx, dy);
-    }
+    public abstract void setVelocity(double dx, double dy);
 
     /**
      * Gets the velocity of the ball.
      *
      * @return the velocity of the ball
      */
-    public Velocity getVelocity() {
-        return this.velocity;
-    }
+    public abstract Velocity getVelocity();
 
     /**
      * Sets the speed of the ball based on its radius.
@@ -168,8 +134,8 @@ public class Ball implements Sprite {
      */
     public int setSpeed() {
         int speed = 5;
-        if (this.radius <= 50) {
-            speed = 10 - this.radius % 10;
+        if (this.getRadius() <= 50) {
+            speed = 10 - this.getRadius() % 10;
         }
         return speed;
     }
@@ -178,23 +144,19 @@ public class Ball implements Sprite {
      * Moves the ball one step, checking for collisions.
      * Changes the direction of the ball based on the side it intersects with.
      */
-    public void moveOneStep() {
-        CollisionInfo p = this.g.getClosestCollision(this.getMovementLine());
-        if (p != null) {
-            this.setVelocity(p.collisionObject().hit(this, p.collisionPoint(), this.velocity));
-        }
-        this.center = this.velocity.applyToPoint(this.getCenter());
-    }
+    public abstract void moveOneStep();
 
     /**
-     * Draws the ball on the given DrawSurface.
+     * Checks if a ball moves too fast for the movement segment of moveOneStep: farther in one step than
+     * the segment reaches ahead of its center, so it could pass through a thin collidable between two steps.
      *
-     * @param d the DrawSurface to draw the ball on
+     * @param dx     the x component of the velocity
+     * @param dy     the y component of the velocity
+     * @param radius the radius of the ball
+     * @return true if the ball must be swept instead
      */
-    @Override
-    public void drawOn(DrawSurface d) {
-        d.setColor(this.color);
-        d.fillCircle((int) this.center.getX(), (int) this.center.getY(), this.radius);
+    static boolean isFast(double dx, double dy, int radius) {
+        return dx * dx + dy * dy > 4.0 * radius * radius;
     }
 
     /**
@@ -211,16 +173,12 @@ public class Ball implements Sprite {
      *
      * @param g the game to add the ball to
      */
-    public void addToGame(Game g) {
-        g.addSprite(this);
-    }
+    public abstract void addToGame(Game g);
 
     /**
      * Removes this ball from the game.
      *
      * @param g the game to remove the ball from
      */
-    public void removeFromGame(Game g) {
-        g.removeSprite(this);
-    }
+    public abstract void removeFromGame(Game g);
 }
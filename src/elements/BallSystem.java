@@ -0,0 +1,1401 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package elements;
+
+import biuoop.DrawSurface;
+import collections.Collidable;
+import gameRunning.CollisionLayer;
+import gameRunning.CollisionResult;
+import gameRunning.CollisionSnapshot;
+import gameRunning.Game;
+import gameRunning.GameEnvironment;
+import geomtry.Point;
+import geomtry.Rectangle;
+import geomtry.Velocity;
+import rendering.DamageRegion;
+import rendering.DirtySprite;
+import rendering.SnapshotSprite;
+import rendering.SpriteSnapshot;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * The BallSystem class keeps many balls in parallel primitive arrays (structure of arrays) and steps
+ * all of them in one loop, instead of one Ball object and one virtual timePassed call per ball.
+ * Each ball moves exactly like a Ball with the same state would.
+ * Colors are stored as indices into a small palette, so a block's identity check on the ball's color still works.
+ * When a ball hits a collidable, the collidable and its listeners see a lightweight Ball view of it,
+ * created on the first hit and reused afterwards.
+ * Removed balls are skipped at once, and the arrays are compacted at the end of the step.
+ * <p>
+ * With a parallelism above one, a step has two phases. First, worker threads find every ball's closest
+ * collision concurrently, against a frozen CollisionSnapshot of the collidables. Then the balls are moved
+ * and their hits resolved serially, in slot order, so hit listeners are always notified in the same order.
+ * A planned collision is only used if it is still what the environment would return: the ball was not
+ * changed by an earlier hit, no collidable was added or moved, and the planned collidable was not removed
+ * (removing other collidables never creates a closer hit). Otherwise the ball is queried again, serially.
+ * The results are therefore bit-identical to a single-threaded step.
+ * Planned queries are not counted in the environment's query and edge test counters.
+ * <p>
+ * In event-driven mode a ball does not query the environment on every step. After each query the ball
+ * looks far ahead along its path once, and computes the first step on which its movement segment could
+ * reach a collidable, or an area registered with addMovingArea that a moving collidable (the paddle) stays
+ * inside. Until that step the ball flies freely and only advances its position. The prediction is a lower
+ * bound: removing a collidable only makes the real collision later, so the ball simply wakes, queries, finds
+ * nothing and predicts again. The prediction is dropped when a collidable is added, or when the ball's
+ * velocity is changed from outside. Balls still move in slot order, so hits happen in the same order and
+ * with the same results as when every ball queries every step.
+ * <p>
+ * Event-driven balls also keep a coherence cache: the look-ahead ray of their last prediction, the collidable
+ * it hit first (the candidate), and the distance along it that was proven free. While the velocity is the same,
+ * the ball stays on that ray, so a movement segment that ends inside the free distance is known to hit nothing,
+ * and a new prediction is the free distance minus the distance traveled; neither queries the environment.
+ * Only the step whose segment reaches the candidate queries, since another collidable may touch the candidate
+ * exactly where the ray hits it, and the index breaks that tie. The free distance ends at the first moving area
+ * on the ray once a collidable has moved since the prediction. The cache is dropped when the velocity or
+ * collision mask changes, when the candidate is removed, or when a collidable is added.
+ * <p>
+ * Fast balls, which move farther in a step than their movement segment reaches, are swept instead, like
+ * Ball.moveOneStep does: their circle is swept along the whole movement, continuing after each hit.
+ * A ball's first sweep is always made; the extra sweeps after hits are drawn from a budget per step,
+ * and a ball whose budget ran out stops at its contact until the next step, so a burst of fast balls
+ * costs a bounded number of queries. Fast balls are never planned in parallel or skipped in event-driven mode.
+ */
+public class BallSystem implements DirtySprite, SnapshotSprite {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MIN_PARALLEL_BALLS = 256;
+    private static final double SNAPSHOT_CELL_SIZE = 50;
+    // How far past its movement segment a ball looks ahead for its next collision in event-driven mode
+    private static final double EVENT_HORIZON = 1024;
+    // Slack for the rounding of positions advanced step by step, in pixels
+    private static final double EVENT_MARGIN = 1;
+    private static final int DEFAULT_SWEEP_BUDGET = 1024;
+    // How far short of the proven free distance a movement segment must end to be answered as a miss
+    private static final double COHERENCE_EPSILON = 0.000001d;
+    private final GameEnvironment environment;
+    private final CollisionResult collision;
+    private final Map<Color, Integer> colorIndices;
+    private Color[] palette;
+    private int colors;
+    private double[] x;
+    private double[] y;
+    private double[] previousX;
+    private double[] previousY;
+    private double[] dx;
+    private double[] dy;
+    private int[] radius;
+    private int[] color;
+    private int[] masks;
+    private boolean[] removed;
+    private View[] views;
+    private int count;
+    private int removedCount;
+    private final double[] segment;
+    private int parallelism;
+    private ForkJoinPool pool;
+    private List<Callable<Void>> chunks;
+    private CollisionSnapshot snapshot;
+    private double[] plannedSegment;
+    private int[] plannedHit;
+    private int[] plannedMask;
+    private double[] plannedX;
+    private double[] plannedY;
+    private long plannedVersion;
+    private int planEnd;
+    private int[] drawnX;
+    private int[] drawnY;
+    private int[] drawnRadius;
+    private int drawn;
+    private boolean eventDriven;
+    private long[] wake;
+    private Collidable[] candidates;
+    private double[] rayX;
+    private double[] rayY;
+    private double[] rayFree;
+    private double[] rayArea;
+    private long[] rayVersion;
+    private long coherenceHits;
+    private long coherenceMisses;
+    private long step;
+    private long additions;
+    private double[] movingAreas;
+    private int movingAreaCount;
+    private long freeSteps;
+    private long predictions;
+    private int sweepBudget;
+    private int sweepsLeft;
+    private long sweeps;
+    private long truncatedSweeps;
+
+    /**
+     * Constructs an empty ball system whose balls collide with the collidables of the given environment.
+     *
+     * @param environment the game environment the balls interact with
+     */
+    public BallSystem(GameEnvironment environment) {
+        this.environment = environment;
+        this.collision = new CollisionResult();
+        this.colorIndices = new IdentityHashMap<>();
+        this.palette = new Color[8];
+        this.x = new double[INITIAL_CAPACITY];
+        this.y = new double[INITIAL_CAPACITY];
+        this.previousX = new double[INITIAL_CAPACITY];
+        this.previousY = new double[INITIAL_CAPACITY];
+        this.dx = new double[INITIAL_CAPACITY];
+        this.dy = new double[INITIAL_CAPACITY];
+        this.radius = new int[INITIAL_CAPACITY];
+        this.color = new int[INITIAL_CAPACITY];
+        this.masks = new int[INITIAL_CAPACITY];
+        this.removed = new boolean[INITIAL_CAPACITY];
+        this.views = new View[INITIAL_CAPACITY];
+        this.segment = new double[4];
+        this.parallelism = 1;
+        this.drawnX = new int[INITIAL_CAPACITY];
+        this.drawnY = new int[INITIAL_CAPACITY];
+        this.drawnRadius = new int[INITIAL_CAPACITY];
+        this.wake = new long[INITIAL_CAPACITY];
+        this.candidates = new Collidable[INITIAL_CAPACITY];
+        this.rayX = new double[INITIAL_CAPACITY];
+        this.rayY = new double[INITIAL_CAPACITY];
+        this.rayFree = new double[INITIAL_CAPACITY];
+        this.rayArea = new double[INITIAL_CAPACITY];
+        this.rayVersion = new long[INITIAL_CAPACITY];
+        this.movingAreas = new double[0];
+        this.sweepBudget = DEFAULT_SWEEP_BUDGET;
+    }
+
+    /**
+     * Sets how many threads find the balls' collisions. 1 (the default) steps every ball on the calling thread.
+     * Small systems are always stepped on the calling thread.
+     *
+     * @param threads the number of worker threads
+     */
+    public void setParallelism(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("The parallelism must be positive");
+        }
+        if (this.pool != null) {
+            this.pool.shutdown();
+            this.pool = null;
+        }
+        this.parallelism = threads;
+        if (threads == 1) {
+            return;
+        }
+        this.pool = new ForkJoinPool(threads);
+        this.snapshot = new CollisionSnapshot(SNAPSHOT_CELL_SIZE);
+        this.chunks = new ArrayList<>(threads);
+        for (int j = 0; j < threads; j++) {
+            int chunk = j;
+            CollisionSnapshot.Query query = new CollisionSnapshot.Query();
+            this.chunks.add(() -> {
+                planChunk(chunk, query);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Returns the number of threads that find the balls' collisions.
+     *
+     * @return the parallelism
+     */
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Sets whether balls query the environment only when a collision may be near (see the class comment),
+     * instead of on every step.
+     *
+     * @param eventDriven true for event-driven stepping
+     */
+    public void setEventDriven(boolean eventDriven) {
+        this.eventDriven = eventDriven;
+        Arrays.fill(this.wake, 0, this.count, 0);
+        forgetAll(this.count);
+    }
+
+    /**
+     * Checks if balls query the environment only when a collision may be near.
+     *
+     * @return true for event-driven stepping
+     */
+    public boolean isEventDriven() {
+        return this.eventDriven;
+    }
+
+    /**
+     * Registers an area a moving collidable always stays inside. In event-driven mode a ball queries on
+     * every step while its path may reach such an area.
+     *
+     * @param area the area, e.g. the paddle's row across the whole screen
+     */
+    public void addMovingArea(Rectangle area) {
+        int at = 4 * this.movingAreaCount;
+        this.movingAreas = Arrays.copyOf(this.movingAreas, at + 4);
+        this.movingAreas[at] = area.getMinX() - EVENT_MARGIN;
+        this.movingAreas[at + 1] = area.getMinY() - EVENT_MARGIN;
+        this.movingAreas[at + 2] = area.getMaxX() + EVENT_MARGIN;
+        this.movingAreas[at + 3] = area.getMaxY() + EVENT_MARGIN;
+        this.movingAreaCount++;
+    }
+
+    /**
+     * Sets how many extra sweeps, after hits, all the fast balls together may make in one step.
+     *
+     * @param budget the number of extra sweeps per step
+     */
+    public void setSweepBudget(int budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("The sweep budget must not be negative");
+        }
+        this.sweepBudget = budget;
+    }
+
+    /**
+     * Returns the number of sweeps made for fast balls so far.
+     *
+     * @return the number of sweeps
+     */
+    public long getSweepCount() {
+        return this.sweeps;
+    }
+
+    /**
+     * Returns the number of fast ball steps cut short because the sweep budget of the step ran out.
+     *
+     * @return the number of truncated steps
+     */
+    public long getTruncatedSweepCount() {
+        return this.truncatedSweeps;
+    }
+
+    /**
+     * Returns the number of ball steps taken in free flight, without querying the environment.
+     *
+     * @return the number of free steps
+     */
+    public long getFreeStepCount() {
+        return this.freeSteps;
+    }
+
+    /**
+     * Returns the number of look-ahead queries made to predict the balls' next collisions.
+     *
+     * @return the number of predictions
+     */
+    public long getPredictionCount() {
+        return this.predictions;
+    }
+
+    /**
+     * Returns the number of collision queries and predictions that the coherence cache answered,
+     * without querying the environment.
+     *
+     * @return the number of cache hits
+     */
+    public long getCoherenceHitCount() {
+        return this.coherenceHits;
+    }
+
+    /**
+     * Returns the number of collision queries and predictions that the coherence cache could not answer,
+     * so the environment was queried.
+     *
+     * @return the number of cache misses
+     */
+    public long getCoherenceMissCount() {
+        return this.coherenceMisses;
+    }
+
+    /**
+     * Returns the share of the collision queries and predictions of event-driven balls that the coherence
+     * cache answered.
+     *
+     * @return the hit rate, between 0 and 1, or 0 before any lookup
+     */
+    public double getCoherenceHitRate() {
+        long lookups = this.coherenceHits + this.coherenceMisses;
+        return lookups == 0 ? 0 : (double) this.coherenceHits / lookups;
+    }
+
+    /**
+     * Adds a ball to the system. A ball added during a step moves from the next step on.
+     *
+     * @param x      the x-coordinate of the ball's center
+     * @param y      the y-coordinate of the ball's center
+     * @param radius the radius of the ball
+     * @param color  the color of the ball
+     * @param dx     the x component of the ball's velocity
+     * @param dy     the y component of the ball's velocity
+     */
+    public void add(double x, double y, int radius, Color color, double dx, double dy) {
+        if (this.count == this.x.length) {
+            grow();
+        }
+        int i = this.count++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.previousX[i] = x;
+        this.previousY[i] = y;
+        this.dx[i] = dx;
+        this.dy[i] = dy;
+        this.radius[i] = radius;
+        this.color[i] = colorIndex(color);
+        this.masks[i] = CollisionLayer.ALL;
+        this.removed[i] = false;
+        this.wake[i] = 0;
+        this.views[i] = null;
+        forget(i);
+    }
+
+    /**
+     * Adds a ball to the system, with the given velocity.
+     *
+     * @param center   the center point of the ball
+     * @param radius   the radius of the ball
+     * @param color    the color of the ball
+     * @param velocity the velocity of the ball
+     */
+    public void add(Point center, int radius, Color color, Velocity velocity) {
+        add(center.getX(), center.getY(), radius, color, velocity.getDx(), velocity.getDy());
+    }
+
+    /**
+     * Returns the number of balls in the system, not counting balls removed during the current step.
+     *
+     * @return the number of balls
+     */
+    public int size() {
+        return this.count - this.removedCount;
+    }
+
+    /**
+     * Returns a Ball view of the ball in the given slot. The view reads and writes the system's arrays.
+     * Slots are renumbered when removed balls are compacted away, so only use a slot until the next step.
+     *
+     * @param slot the slot of the ball, below size() right after a step
+     * @return the view of the ball
+     */
+    public Ball getBall(int slot) {
+        if (slot < 0 || slot >= this.count) {
+            throw new IndexOutOfBoundsException("Slot: " + slot);
+        }
+        return view(slot);
+    }
+
+    /**
+     * Returns the x-coordinate of the center of the ball in the given slot, without creating a view.
+     *
+     * @param slot the slot of the ball, below size() right after a step
+     * @return the x-coordinate of the ball's center
+     */
+    public double getX(int slot) {
+        return this.x[slot];
+    }
+
+    /**
+     * Returns the y-coordinate of the center of the ball in the given slot, without creating a view.
+     *
+     * @param slot the slot of the ball, below size() right after a step
+     * @return the y-coordinate of the ball's center
+     */
+    public double getY(int slot) {
+        return this.y[slot];
+    }
+
+    /**
+     * Returns the x component of the velocity of the ball in the given slot, without creating a view.
+     *
+     * @param slot the slot of the ball, below size() right after a step
+     * @return the x component of the ball's velocity
+     */
+    public double getDx(int slot) {
+        return this.dx[slot];
+    }
+
+    /**
+     * Returns the y component of the velocity of the ball in the given slot, without creating a view.
+     *
+     * @param slot the slot of the ball, below size() right after a step
+     * @return the y component of the ball's velocity
+     */
+    public double getDy(int slot) {
+        return this.dy[slot];
+    }
+
+    /**
+     * Returns the collision layers the ball in the given slot collides with.
+     *
+     * @param slot the slot of the ball, below size() right after a step
+     * @return the mask of the layers (see CollisionLayer)
+     */
+    public int getCollisionMask(int slot) {
+        return this.masks[slot];
+    }
+
+    /**
+     * Sets the collision layers the ball in the given slot collides with, like Ball.setCollisionMask.
+     *
+     * @param slot the slot of the ball, below size() right after a step
+     * @param mask the mask of the layers (see CollisionLayer), CollisionLayer.ALL by default
+     */
+    public void setCollisionMask(int slot, int mask) {
+        this.masks[slot] = mask;
+        // Its predicted collision may lie in a layer it no longer sees, or miss one it sees now
+        this.wake[slot] = 0;
+        forget(slot);
+    }
+
+    /**
+     * Moves every ball one step, checking for collisions, then compacts away the removed balls.
+     */
+    @Override
+    public void timePassed() {
+        int end = this.count;
+        if (this.eventDriven && this.environment.getAdditionCount() != this.additions) {
+            // A new collidable may lie on any ball's path
+            Arrays.fill(this.wake, 0, end, 0);
+            forgetAll(end);
+            this.additions = this.environment.getAdditionCount();
+        }
+        // The snapshot copies the environment's collidables, not the members of its sets
+        boolean planned = this.pool != null && end - this.removedCount >= MIN_PARALLEL_BALLS
+                && !this.environment.hasCollidableSets();
+        if (planned) {
+            plan(end);
+        }
+        this.sweepsLeft = this.sweepBudget;
+        for (int i = 0; i < end; i++) {
+            if (this.removed[i]) {
+                continue;
+            }
+            if (this.eventDriven && this.wake[i] > this.step) {
+                advance(i);
+            } else if (isFast(i)) {
+                sweepOneStep(i);
+            } else {
+                moveOneStep(i, planned);
+                if (this.eventDriven && !this.removed[i]) {
+                    predict(i);
+                }
+            }
+        }
+        compact();
+        this.step++;
+    }
+
+    /**
+     * Draws every ball on the given DrawSurface.
+     *
+     * @param d the DrawSurface to draw the balls on
+     */
+    @Override
+    public void drawOn(DrawSurface d) {
+        for (int i = 0; i < this.count; i++) {
+            if (!this.removed[i]) {
+                d.setColor(this.palette[this.color[i]]);
+                d.fillCircle((int) this.x[i], (int) this.y[i], this.radius[i]);
+            }
+        }
+    }
+
+    /**
+     * Draws every ball between its position before and after the last step.
+     *
+     * @param d     the DrawSurface to draw the balls on
+     * @param alpha how far to go from the previous position (0) to the current one (1)
+     */
+    @Override
+    public void drawOn(DrawSurface d, double alpha) {
+        for (int i = 0; i < this.count; i++) {
+            if (!this.removed[i]) {
+                d.setColor(this.palette[this.color[i]]);
+                d.fillCircle(drawX(i, alpha), drawY(i, alpha), this.radius[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds the circles the balls were last drawn at, and the circles they are drawn at now, to the damage.
+     *
+     * @param damage the damage of the current frame
+     * @param alpha  how far the frame is from the previous update (0) to the next one (1)
+     */
+    @Override
+    public void addDamage(DamageRegion damage, double alpha) {
+        for (int k = 0; k < this.drawn; k++) {
+            int r = this.drawnRadius[k];
+            damage.add(this.drawnX[k] - r, this.drawnY[k] - r, 2 * r + 1, 2 * r + 1);
+        }
+        if (this.drawnX.length < this.count) {
+            this.drawnX = new int[this.x.length];
+            this.drawnY = new int[this.x.length];
+            this.drawnRadius = new int[this.x.length];
+        }
+        this.drawn = 0;
+        for (int i = 0; i < this.count; i++) {
+            if (!this.removed[i]) {
+                int r = this.radius[i];
+                int cx = drawX(i, alpha);
+                int cy = drawY(i, alpha);
+                damage.add(cx - r, cy - r, 2 * r + 1, 2 * r + 1);
+                this.drawnX[this.drawn] = cx;
+                this.drawnY[this.drawn] = cy;
+                this.drawnRadius[this.drawn] = r;
+                this.drawn++;
+            }
+        }
+    }
+
+    /**
+     * Draws the balls whose circles may lie inside the given area, like drawOn(d, alpha) would.
+     *
+     * @param d      the DrawSurface to draw on
+     * @param x      the x-coordinate of the area's upper-left corner
+     * @param y      the y-coordinate of the area's upper-left corner
+     * @param width  the width of the area
+     * @param height the height of the area
+     * @param alpha  how far the frame is from the previous update (0) to the next one (1)
+     * @return the number of balls drawn
+     */
+    @Override
+    public int drawInside(DrawSurface d, int x, int y, int width, int height, double alpha) {
+        int drawnBalls = 0;
+        for (int i = 0; i < this.count; i++) {
+            if (!this.removed[i]) {
+                int r = this.radius[i];
+                int cx = drawX(i, alpha);
+                int cy = drawY(i, alpha);
+                if (DamageRegion.overlaps(cx - r, cy - r, 2 * r + 1, 2 * r + 1, x, y, width, height)) {
+                    d.setColor(this.palette[this.color[i]]);
+                    d.fillCircle(cx, cy, r);
+                    drawnBalls++;
+                }
+            }
+        }
+        return drawnBalls;
+    }
+
+    /**
+     * Creates a snapshot of the balls' positions and colors, to draw them on the render thread.
+     *
+     * @return a new snapshot
+     */
+    @Override
+    public SpriteSnapshot newSnapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Returns the x-coordinate a ball is drawn at, between its position before and after the last step.
+     *
+     * @param i     the slot of the ball
+     * @param alpha how far to go from the previous position (0) to the current one (1)
+     * @return the x-coordinate of the drawn center
+     */
+    private int drawX(int i, double alpha) {
+        return (int) (this.previousX[i] + (this.x[i] - this.previousX[i]) * alpha);
+    }
+
+    /**
+     * Returns the y-coordinate a ball is drawn at, between its position before and after the last step.
+     *
+     * @param i     the slot of the ball
+     * @param alpha how far to go from the previous position (0) to the current one (1)
+     * @return the y-coordinate of the drawn center
+     */
+    private int drawY(int i, double alpha) {
+        return (int) (this.previousY[i] + (this.y[i] - this.previousY[i]) * alpha);
+    }
+
+    /**
+     * Adds this ball system to the game.
+     *
+     * @param g the game to add the ball system to
+     */
+    public void addToGame(Game g) {
+        g.addSprite(this);
+    }
+
+    /**
+     * Moves the ball in the given slot one step, the same way Ball.moveOneStep does.
+     * Only a hit allocates: the collision point, the velocity passed to the collidable, and the view on the first hit.
+     *
+     * @param i       the slot of the ball
+     * @param planned whether the collisions of this step were planned in parallel
+     */
+    private void moveOneStep(int i, boolean planned) {
+        segment(i, this.segment, 0);
+        this.previousX[i] = this.x[i];
+        this.previousY[i] = this.y[i];
+        Collidable hitObject = null;
+        double hitX = 0;
+        double hitY = 0;
+        if (this.eventDriven && isProvenFree(i)) {
+            this.coherenceHits++;
+        } else if (planned && isPlanValid(i)) {
+            if (this.plannedHit[i] >= 0) {
+                hitObject = this.snapshot.getCollidable(this.plannedHit[i]);
+                hitX = this.plannedX[i];
+                hitY = this.plannedY[i];
+            }
+        } else if (this.environment.getClosestCollision(this.segment[0], this.segment[1], this.segment[2],
+                this.segment[3], this.masks[i], this.collision)) {
+            hitObject = this.collision.collisionObject();
+            hitX = this.collision.getX();
+            hitY = this.collision.getY();
+        }
+        if (hitObject != null) {
+            Point collisionPoint = new Point(hitX, hitY);
+            Velocity velocity = hitObject.hit(view(i), collisionPoint, new Velocity(this.dx[i], this.dy[i]));
+            this.dx[i] = velocity.getDx();
+            this.dy[i] = velocity.getDy();
+            forget(i);
+        }
+        this.x[i] += this.dx[i];
+        this.y[i] += this.dy[i];
+    }
+
+    /**
+     * Checks if the ball in the given slot must be swept, see Ball.isFast.
+     *
+     * @param i the slot of the ball
+     * @return true if the ball is fast
+     */
+    private boolean isFast(int i) {
+        return Ball.isFast(this.dx[i], this.dy[i], this.radius[i]);
+    }
+
+    /**
+     * Moves the fast ball in the given slot one step by sweeping its circle, the same way Ball does.
+     * The sweeps after the first are drawn from the step's budget.
+     *
+     * @param i the slot of the ball
+     */
+    private void sweepOneStep(int i) {
+        this.previousX[i] = this.x[i];
+        this.previousY[i] = this.y[i];
+        double left = 1;
+        for (int k = 0; k < Ball.MAX_SWEEPS; k++) {
+            if (k > 0) {
+                if (this.sweepsLeft == 0) {
+                    this.truncatedSweeps++;
+                    return;
+                }
+                this.sweepsLeft--;
+            }
+            this.sweeps++;
+            double x0 = this.x[i];
+            double y0 = this.y[i];
+            double vx = this.dx[i] * left;
+            double vy = this.dy[i] * left;
+            if (!this.environment.getClosestSweep(x0, y0, x0 + vx, y0 + vy, this.radius[i], this.masks[i],
+                    this.collision)) {
+                this.x[i] = x0 + vx;
+                this.y[i] = y0 + vy;
+                return;
+            }
+            double t = this.collision.getDistance() / Math.sqrt(vx * vx + vy * vy);
+            this.x[i] = x0 + vx * t;
+            this.y[i] = y0 + vy * t;
+            left *= 1 - t;
+            Point collisionPoint = new Point(this.collision.getX(), this.collision.getY());
+            Velocity velocity = this.collision.collisionObject().hit(view(i), collisionPoint,
+                    new Velocity(this.dx[i], this.dy[i]));
+            this.dx[i] = velocity.getDx();
+            this.dy[i] = velocity.getDy();
+            forget(i);
+            if (this.removed[i]) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves the ball in the given slot one step in free flight, without looking for collisions.
+     *
+     * @param i the slot of the ball
+     */
+    private void advance(int i) {
+        this.previousX[i] = this.x[i];
+        this.previousY[i] = this.y[i];
+        this.x[i] += this.dx[i];
+        this.y[i] += this.dy[i];
+        this.freeSteps++;
+    }
+
+    /**
+     * Predicts the first step on which the ball in the given slot may collide, from its current position
+     * and velocity, and lets it fly freely until then.
+     * A step's movement segment covers the ray behind and along the velocity from distance d to d + 4 radii,
+     * where d grows by the speed every step; so the first step that may hit is the first one whose segment
+     * reaches the closest collidable or moving area on the ray.
+     * If the coherence cache holds the ray the ball is on, the distance is read from it instead, and the
+     * environment is not queried; otherwise the new ray is cached.
+     *
+     * @param i the slot of the ball
+     */
+    private void predict(int i) {
+        double vx = this.dx[i];
+        double vy = this.dy[i];
+        double speed = Math.sqrt(vx * vx + vy * vy);
+        if (speed == 0 || isFast(i)) {
+            forget(i);
+            this.wake[i] = this.step + 1;
+            return;
+        }
+        double length = 4.0 * this.radius[i];
+        segment(i, this.segment, 0);
+        double traveled = traveled(i);
+        if (traveled >= 0) {
+            this.coherenceHits++;
+            double distance = Math.min(this.rayFree[i], this.rayArea[i]) - traveled;
+            // At most what a new look-ahead query would find: nothing was added, and nothing moved
+            // outside of the moving areas
+            long free = (long) Math.floor((distance - length - EVENT_MARGIN) / speed);
+            this.wake[i] = this.step + 1 + Math.max(0, free);
+            return;
+        }
+        this.coherenceMisses++;
+        this.predictions++;
+        double ex = vx / speed;
+        double ey = vy / speed;
+        double x0 = this.segment[0];
+        double y0 = this.segment[1];
+        double reach = length + EVENT_HORIZON;
+        double distance = reach;
+        this.candidates[i] = null;
+        if (this.environment.getClosestCollision(x0, y0, x0 + ex * reach, y0 + ey * reach, this.masks[i],
+                this.collision)) {
+            double hx = this.collision.getX() - x0;
+            double hy = this.collision.getY() - y0;
+            distance = Math.sqrt(hx * hx + hy * hy);
+            this.candidates[i] = this.collision.collisionObject();
+        }
+        double area = Double.POSITIVE_INFINITY;
+        for (int a = 0; a < this.movingAreaCount; a++) {
+            area = Math.min(area, areaEntry(a, x0, y0, ex, ey));
+        }
+        this.rayX[i] = x0;
+        this.rayY[i] = y0;
+        this.rayFree[i] = distance;
+        this.rayArea[i] = area;
+        this.rayVersion[i] = this.environment.getLayoutVersion();
+        distance = Math.min(distance, area);
+        long free = (long) Math.floor((distance - length - EVENT_MARGIN) / speed);
+        this.wake[i] = this.step + 1 + Math.max(0, free);
+    }
+
+    /**
+     * Checks, from the coherence cache, if the current movement segment (in this.segment) of a ball ends
+     * before the distance proven free along its cached ray, so it hits nothing.
+     *
+     * @param i the slot of the ball
+     * @return true if the segment is known to hit nothing; false if the environment must be queried
+     */
+    private boolean isProvenFree(int i) {
+        double traveled = traveled(i);
+        if (traveled < 0) {
+            this.coherenceMisses++;
+            return false;
+        }
+        // Beyond the first moving area, a moving collidable may have come in front of the candidate
+        double free = this.rayVersion[i] == this.environment.getLayoutVersion()
+                ? this.rayFree[i] : Math.min(this.rayFree[i], this.rayArea[i]);
+        if (traveled + 4.0 * this.radius[i] < free - COHERENCE_EPSILON) {
+            return true;
+        }
+        this.coherenceMisses++;
+        return false;
+    }
+
+    /**
+     * Returns how far the current movement segment (in this.segment) of a ball has moved along its cached ray.
+     *
+     * @param i the slot of the ball
+     * @return the distance from the start of the ray to the start of the segment, or -1 if the cache is empty
+     *         or no longer valid
+     */
+    private double traveled(int i) {
+        if (this.rayFree[i] < 0) {
+            return -1;
+        }
+        // A collidable added during this step may lie on the ray
+        if (this.environment.getAdditionCount() != this.additions
+                || this.candidates[i] != null && !this.environment.contains(this.candidates[i])) {
+            forget(i);
+            return -1;
+        }
+        double tx = this.segment[0] - this.rayX[i];
+        double ty = this.segment[1] - this.rayY[i];
+        return Math.sqrt(tx * tx + ty * ty);
+    }
+
+    /**
+     * Empties the coherence cache of a ball.
+     *
+     * @param i the slot of the ball
+     */
+    private void forget(int i) {
+        this.candidates[i] = null;
+        this.rayFree[i] = -1;
+    }
+
+    /**
+     * Empties the coherence caches of the balls below the given slot.
+     *
+     * @param end the number of slots
+     */
+    private void forgetAll(int end) {
+        Arrays.fill(this.candidates, 0, end, null);
+        Arrays.fill(this.rayFree, 0, end, -1);
+    }
+
+    /**
+     * Returns the distance along a ray at which it enters a moving area.
+     *
+     * @param a  the index of the area
+     * @param x0 the x-coordinate of the ray's start
+     * @param y0 the y-coordinate of the ray's start
+     * @param ex the x component of the ray's unit direction
+     * @param ey the y component of the ray's unit direction
+     * @return the distance, 0 if the ray starts inside, or infinity if it misses the area
+     */
+    private double areaEntry(int a, double x0, double y0, double ex, double ey) {
+        int at = 4 * a;
+        double near = 0;
+        double far = Double.POSITIVE_INFINITY;
+        if (ex == 0) {
+            if (x0 < this.movingAreas[at] || x0 > this.movingAreas[at + 2]) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (this.movingAreas[at] - x0) / ex;
+            double t2 = (this.movingAreas[at + 2] - x0) / ex;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        if (ey == 0) {
+            if (y0 < this.movingAreas[at + 1] || y0 > this.movingAreas[at + 3]) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (this.movingAreas[at + 1] - y0) / ey;
+            double t2 = (this.movingAreas[at + 3] - y0) / ey;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        return near <= far ? near : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Computes the movement segment of the ball in the given slot, like Ball.moveOneStep does:
+     * two radii long on each side of the center, in the direction of the velocity.
+     *
+     * @param i   the slot of the ball
+     * @param out the array the segment is written to, as x0, y0, x1, y1
+     * @param at  the index in the array to write at
+     */
+    private void segment(int i, double[] out, int at) {
+        double vx = this.dx[i];
+        double vy = this.dy[i];
+        double magnitude = Math.sqrt(vx * vx + vy * vy);
+        double unitDx = vx * 2 / magnitude;
+        double unitDy = vy * 2 / magnitude;
+        double halfLength = this.radius[i];
+        double cx = this.x[i];
+        double cy = this.y[i];
+        out[at] = cx - unitDx * halfLength;
+        out[at + 1] = cy - unitDy * halfLength;
+        out[at + 2] = cx + unitDx * halfLength;
+        out[at + 3] = cy + unitDy * halfLength;
+    }
+
+    /**
+     * Finds the closest collision of every ball below the given slot on the worker threads.
+     *
+     * @param end the number of slots to plan
+     */
+    private void plan(int end) {
+        this.snapshot.refresh(this.environment);
+        this.plannedVersion = this.environment.getLayoutVersion();
+        if (this.plannedHit == null || this.plannedHit.length < end) {
+            int capacity = this.x.length;
+            this.plannedSegment = new double[4 * capacity];
+            this.plannedHit = new int[capacity];
+            this.plannedMask = new int[capacity];
+            this.plannedX = new double[capacity];
+            this.plannedY = new double[capacity];
+        }
+        this.planEnd = end;
+        try {
+            for (Future<Void> f : this.pool.invokeAll(this.chunks)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while planning the ball collisions", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Planning the ball collisions failed", e.getCause());
+        }
+    }
+
+    /**
+     * Finds the closest collision of every ball in one contiguous share of the slots, against the snapshot.
+     * Runs on a worker thread; it only reads the ball arrays and writes the planned arrays of its own share.
+     *
+     * @param chunk the number of the share
+     * @param query the query state of this share
+     */
+    private void planChunk(int chunk, CollisionSnapshot.Query query) {
+        int from = (int) ((long) this.planEnd * chunk / this.parallelism);
+        int to = (int) ((long) this.planEnd * (chunk + 1) / this.parallelism);
+        for (int i = from; i < to; i++) {
+            if (this.removed[i] || this.eventDriven && this.wake[i] > this.step || isFast(i)) {
+                continue;
+            }
+            int at = 4 * i;
+            segment(i, this.plannedSegment, at);
+            this.plannedMask[i] = this.masks[i];
+            if (this.snapshot.closestCollision(this.plannedSegment[at], this.plannedSegment[at + 1],
+                    this.plannedSegment[at + 2], this.plannedSegment[at + 3], this.masks[i], query)) {
+                this.plannedHit[i] = query.getIndex();
+                this.plannedX[i] = query.getX();
+                this.plannedY[i] = query.getY();
+            } else {
+                this.plannedHit[i] = -1;
+            }
+        }
+    }
+
+    /**
+     * Checks if the planned collision of a ball is still what the environment would return for it now.
+     *
+     * @param i the slot of the ball
+     * @return true if the plan can be used
+     */
+    private boolean isPlanValid(int i) {
+        int at = 4 * i;
+        if (this.segment[0] != this.plannedSegment[at] || this.segment[1] != this.plannedSegment[at + 1]
+                || this.segment[2] != this.plannedSegment[at + 2] || this.segment[3] != this.plannedSegment[at + 3]) {
+            return false;
+        }
+        if (this.environment.getLayoutVersion() != this.plannedVersion || this.masks[i] != this.plannedMask[i]) {
+            return false;
+        }
+        return this.plannedHit[i] < 0 || this.environment.contains(this.snapshot.getCollidable(this.plannedHit[i]));
+    }
+
+    /**
+     * Removes the ball in the given slot. It is skipped from now on, and its slot is reclaimed after the step.
+     *
+     * @param slot the slot of the ball
+     */
+    private void remove(int slot) {
+        if (!this.removed[slot]) {
+            this.removed[slot] = true;
+            this.removedCount++;
+        }
+    }
+
+    /**
+     * Moves the remaining balls to the front of the arrays, keeping their order, and renumbers their views.
+     * Views of removed balls are detached.
+     */
+    private void compact() {
+        if (this.removedCount == 0) {
+            return;
+        }
+        int write = 0;
+        for (int read = 0; read < this.count; read++) {
+            if (this.removed[read]) {
+                if (this.views[read] != null) {
+                    this.views[read].detach();
+                }
+                continue;
+            }
+            if (write != read) {
+                this.x[write] = this.x[read];
+                this.y[write] = this.y[read];
+                this.previousX[write] = this.previousX[read];
+                this.previousY[write] = this.previousY[read];
+                this.dx[write] = this.dx[read];
+                this.dy[write] = this.dy[read];
+                this.radius[write] = this.radius[read];
+                this.color[write] = this.color[read];
+                this.masks[write] = this.masks[read];
+                this.removed[write] = false;
+                this.wake[write] = this.wake[read];
+                this.candidates[write] = this.candidates[read];
+                this.rayX[write] = this.rayX[read];
+                this.rayY[write] = this.rayY[read];
+                this.rayFree[write] = this.rayFree[read];
+                this.rayArea[write] = this.rayArea[read];
+                this.rayVersion[write] = this.rayVersion[read];
+                this.views[write] = this.views[read];
+                if (this.views[write] != null) {
+                    this.views[write].slot = write;
+                }
+            }
+            write++;
+        }
+        Arrays.fill(this.views, write, this.count, null);
+        Arrays.fill(this.candidates, write, this.count, null);
+        this.count = write;
+        this.removedCount = 0;
+    }
+
+    /**
+     * Doubles the capacity of the arrays.
+     */
+    private void grow() {
+        int capacity = this.x.length * 2;
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+        this.previousX = Arrays.copyOf(this.previousX, capacity);
+        this.previousY = Arrays.copyOf(this.previousY, capacity);
+        this.dx = Arrays.copyOf(this.dx, capacity);
+        this.dy = Arrays.copyOf(this.dy, capacity);
+        this.radius = Arrays.copyOf(this.radius, capacity);
+        this.color = Arrays.copyOf(this.color, capacity);
+        this.masks = Arrays.copyOf(this.masks, capacity);
+        this.removed = Arrays.copyOf(this.removed, capacity);
+        this.wake = Arrays.copyOf(this.wake, capacity);
+        this.candidates = Arrays.copyOf(this.candidates, capacity);
+        this.rayX = Arrays.copyOf(this.rayX, capacity);
+        this.rayY = Arrays.copyOf(this.rayY, capacity);
+        this.rayFree = Arrays.copyOf(this.rayFree, capacity);
+        this.rayArea = Arrays.copyOf(this.rayArea, capacity);
+        this.rayVersion = Arrays.copyOf(this.rayVersion, capacity);
+        this.views = Arrays.copyOf(this.views, capacity);
+    }
+
+    /**
+     * Returns the palette index of the given color, adding the color to the palette if needed.
+     * Colors are matched by identity, like Block.ballColorMatch does.
+     *
+     * @param c the color
+     * @return the index of the color in the palette
+     */
+    private int colorIndex(Color c) {
+        Integer index = this.colorIndices.get(c);
+        if (index != null) {
+            return index;
+        }
+        if (this.colors == this.palette.length) {
+            this.palette = Arrays.copyOf(this.palette, this.colors * 2);
+        }
+        this.palette[this.colors] = c;
+        this.colorIndices.put(c, this.colors);
+        return this.colors++;
+    }
+
+    /**
+     * Returns the view of the ball in the given slot, creating it on first use.
+     *
+     * @param slot the slot of the ball
+     * @return the view
+     */
+    private View view(int slot) {
+        View view = this.views[slot];
+        if (view == null) {
+            view = new View(this, slot);
+            this.views[slot] = view;
+        }
+        return view;
+    }
+
+    /**
+     * A copy of the balls' positions before and after the last step, their radii and colors.
+     * Its arrays grow with the system and are reused, so capturing allocates nothing in steady state.
+     */
+    private static final class Snapshot implements SpriteSnapshot {
+        private final BallSystem system;
+        private double[] previousX;
+        private double[] previousY;
+        private double[] x;
+        private double[] y;
+        private int[] radius;
+        private Color[] color;
+        private int count;
+
+        /**
+         * Constructs an empty snapshot of the given system.
+         *
+         * @param system the ball system
+         */
+        Snapshot(BallSystem system) {
+            this.system = system;
+            this.previousX = new double[0];
+            this.previousY = new double[0];
+            this.x = new double[0];
+            this.y = new double[0];
+            this.radius = new int[0];
+            this.color = new Color[0];
+        }
+
+        /**
+         * Copies the state of the balls that are not removed, growing the arrays to the system's capacity if needed.
+         * Called on the simulation thread.
+         */
+        @Override
+        public void capture() {
+            BallSystem s = this.system;
+            if (this.x.length < s.count) {
+                int capacity = s.x.length;
+                this.previousX = new double[capacity];
+                this.previousY = new double[capacity];
+                this.x = new double[capacity];
+                this.y = new double[capacity];
+                this.radius = new int[capacity];
+                this.color = new Color[capacity];
+            }
+            int k = 0;
+            for (int i = 0; i < s.count; i++) {
+                if (!s.removed[i]) {
+                    this.previousX[k] = s.previousX[i];
+                    this.previousY[k] = s.previousY[i];
+                    this.x[k] = s.x[i];
+                    this.y[k] = s.y[i];
+                    this.radius[k] = s.radius[i];
+                    this.color[k] = s.palette[s.color[i]];
+                    k++;
+                }
+            }
+            this.count = k;
+        }
+
+        /**
+         * Draws every captured ball between its previous and current positions. Called on the render thread.
+         *
+         * @param d     the DrawSurface to draw the balls on
+         * @param alpha how far to go from the previous positions (0) to the current ones (1)
+         */
+        @Override
+        public void drawOn(DrawSurface d, double alpha) {
+            for (int i = 0; i < this.count; i++) {
+                d.setColor(this.color[i]);
+                d.fillCircle((int) (this.previousX[i] + (this.x[i] - this.previousX[i]) * alpha),
+                        (int) (this.previousY[i] + (this.y[i] - this.previousY[i]) * alpha), this.radius[i]);
+            }
+        }
+    }
+
+    /**
+     * A Ball whose state lives in the arrays of a BallSystem, handed to collidables and hit listeners.
+     * Once its ball is removed and compacted away the view is detached: it keeps its last state and
+     * changes to it have no effect.
+     */
+    private static final class View extends Ball {
+        private final BallSystem system;
+        private int slot;
+        private double detachedX;
+        private double detachedY;
+        private Color detachedColor;
+        private int detachedMask;
+        private Velocity detachedVelocity;
+        private int detachedRadius;
+
+        /**
+         * Constructs a view of the ball in the given slot.
+         *
+         * @param system the system holding the ball
+         * @param slot   the slot of the ball
+         */
+        View(BallSystem system, int slot) {
+            this.system = system;
+            this.slot = slot;
+        }
+
+        /**
+         * Copies the ball's last state into the view and detaches it from the system.
+         */
+        private void detach() {
+            this.detachedX = this.system.x[this.slot];
+            this.detachedY = this.system.y[this.slot];
+            this.detachedColor = this.system.palette[this.system.color[this.slot]];
+            this.detachedMask = this.system.masks[this.slot];
+            this.detachedVelocity = new Velocity(this.system.dx[this.slot], this.system.dy[this.slot]);
+            this.detachedRadius = this.system.radius[this.slot];
+            this.slot = -1;
+        }
+
+        /**
+         * Returns a copy of the ball's center; moving the copy does not move the ball.
+         *
+         * @return the center point of the ball
+         */
+        @Override
+        public Point getCenter() {
+            if (this.slot < 0) {
+                return new Point(this.detachedX, this.detachedY);
+            }
+            return new Point(this.system.x[this.slot], this.system.y[this.slot]);
+        }
+
+        /**
+         * Returns the radius of the ball.
+         *
+         * @return the radius of the ball
+         */
+        @Override
+        public int getRadius() {
+            return this.slot < 0 ? this.detachedRadius : this.system.radius[this.slot];
+        }
+
+        /**
+         * Returns the color of the ball.
+         *
+         * @return the color of the ball
+         */
+        @Override
+        public Color getColor() {
+            return this.slot < 0 ? this.detachedColor : this.system.palette[this.system.color[this.slot]];
+        }
+
+        /**
+         * Sets the color of the ball.
+         *
+         * @param color the new color of the ball
+         */
+        @Override
+        public void setColor(Color color) {
+            if (this.slot >= 0) {
+                this.system.color[this.slot] = this.system.colorIndex(color);
+            }
+        }
+
+        /**
+         * Returns the collision layers the ball collides with.
+         *
+         * @return the mask of the layers
+         */
+        @Override
+        public int getCollisionMask() {
+            return this.slot < 0 ? this.detachedMask : this.system.masks[this.slot];
+        }
+
+        /**
+         * Sets the collision layers the ball collides with.
+         *
+         * @param mask the mask of the layers
+         */
+        @Override
+        public void setCollisionMask(int mask) {
+            if (this.slot >= 0) {
+                this.system.setCollisionMask(this.slot, mask);
+            }
+        }
+
+        /**
+         * Returns a copy of the ball's velocity.
+         *
+         * @return the velocity of the ball
+         */
+        @Override
+        public Velocity getVelocity() {
+            if (this.slot < 0) {
+                return this.detachedVelocity;
+            }
+            return new Velocity(this.system.dx[this.slot], this.system.dy[this.slot]);
+        }
+
+        /**
+         * Sets the velocity of the ball.
+         *
+         * @param velocity the new velocity
+         */
+        @Override
+        public void setVelocity(Velocity velocity) {
+            setVelocity(velocity.getDx(), velocity.getDy());
+        }
+
+        /**
+         * Sets the velocity of the ball.
+         *
+         * @param dx the x component of the velocity
+         * @param dy the y component of the velocity
+         */
+        @Override
+        public void setVelocity(double dx, double dy) {
+            if (this.slot >= 0) {
+                this.system.dx[this.slot] = dx;
+                this.system.dy[this.slot] = dy;
+                this.system.wake[this.slot] = 0;
+                this.system.forget(this.slot);
+            }
+        }
+
+        /**
+         * Moves the ball one step. Normally the system steps all its balls together.
+         */
+        @Override
+        public void moveOneStep() {
+            if (this.slot >= 0 && !this.system.removed[this.slot]) {
+                if (this.system.isFast(this.slot)) {
+                    this.system.sweepOneStep(this.slot);
+                } else {
+                    this.system.moveOneStep(this.slot, false);
+                }
+                this.system.wake[this.slot] = 0;
+            }
+        }
+
+        /**
+         * Draws the ball on the given DrawSurface.
+         *
+         * @param d the DrawSurface to draw the ball on
+         */
+        @Override
+        public void drawOn(DrawSurface d) {
+            d.setColor(getColor());
+            d.fillCircle(getX(), getY(), getRadius());
+        }
+
+        /**
+         * Draws the ball at its current position; the system draws its balls interpolated.
+         *
+         * @param d     the DrawSurface to draw the ball on
+         * @param alpha ignored
+         */
+        @Override
+        public void drawOn(DrawSurface d, double alpha) {
+            drawOn(d);
+        }
+
+        /**
+         * Does nothing: the ball is already part of its system, which is drawn and stepped as one sprite.
+         *
+         * @param g the game
+         */
+        @Override
+        public void addToGame(Game g) {
+        }
+
+        /**
+         * Removes the ball from its system.
+         *
+         * @param g the game
+         */
+        @Override
+        public void removeFromGame(Game g) {
+            if (this.slot >= 0) {
+                this.system.remove(this.slot);
+            }
+        }
+    }
+}
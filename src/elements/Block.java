@@ -6,18 +6,20 @@
 package elements;
 import collections.Collidable;
 import collections.Sprite;
+import gameRunning.CollisionLayer;
 import gameRunning.Game;
 import geomtry.Point;
 import geomtry.Rectangle;
 import geomtry.Velocity;
+import listeners.HitBatchListener;
+import listeners.HitEventQueue;
 import listeners.HitListener;
 import listeners.HitNotifier;
 
 import biuoop.DrawSurface;
 
 import java.awt.Color;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * The Block class represents a block in the game.
@@ -28,7 +30,10 @@ public class Block implements Collidable, Sprite, HitNotifier {
     private final Rectangle rectangle;
     private final Color color;
     private static final double EPSILON = 0.000001d;
-    private final List<HitListener> hitListeners;
+    // Replaced, never changed, when a listener is added or removed, so dispatching needs no copy
+    private HitListener[] hitListeners;
+    private HitEventQueue hitEvents;
+    private int layer;
 
     /**
      * Constructs a block with the specified rectangle and color.
@@ -39,7 +44,25 @@ public class Block implements Collidable, Sprite, HitNotifier {
     public Block(Rectangle rectangle, Color color) {
         this.rectangle = rectangle;
         this.color = color;
-        this.hitListeners = new ArrayList<>();
+        this.hitListeners = new HitListener[0];
+        this.layer = CollisionLayer.BLOCKS;
+    }
+
+    /**
+     * Constructs a block that is already in a game, e.g. one materialized from a BlockTable.
+     * The listener array may be shared with other blocks, since adding or removing a listener replaces it.
+     *
+     * @param rectangle    the rectangle representing the block's shape and position
+     * @param color        the color of the block
+     * @param hitListeners the listeners of the block
+     * @param hitEvents    the hit event queue of the game
+     */
+    Block(Rectangle rectangle, Color color, HitListener[] hitListeners, HitEventQueue hitEvents) {
+        this.rectangle = rectangle;
+        this.color = color;
+        this.hitListeners = hitListeners;
+        this.hitEvents = hitEvents;
+        this.layer = CollisionLayer.BLOCKS;
     }
 
     /**
@@ -62,6 +85,25 @@ public class Block implements Collidable, Sprite, HitNotifier {
         return this.color;
     }
 
+    /**
+     * Sets the collision layer the block is added to the game in, CollisionLayer.BLOCKS by default.
+     * Balls whose collision mask does not include it pass through the block.
+     *
+     * @param layer the collision layer, a single bit (see CollisionLayer)
+     */
+    public void setLayer(int layer) {
+        this.layer = layer;
+    }
+
+    /**
+     * Returns the collision layer of the block.
+     *
+     * @return the collision layer
+     */
+    public int getLayer() {
+        return this.layer;
+    }
+
     /**
      * Checks if two double values are approximately equal, within a small threshold.
      *
@@ -87,12 +129,12 @@ public class Block implements Collidable, Sprite, HitNotifier {
         double dx = currentVelocity.getDx();
         double dy = currentVelocity.getDy();
 
-        if (threshold(collisionPoint.getX(), rectangle.getUpperLeft().getX())
-                || threshold(collisionPoint.getX(), rectangle.getUpperLeft().getX() + rectangle.getWidth())) {
+        if (threshold(collisionPoint.getX(), rectangle.getMinX())
+                || threshold(collisionPoint.getX(), rectangle.getMaxX())) {
             dx = -dx; // Reverse horizontal velocity
         }
-        if (threshold(collisionPoint.getY(), rectangle.getUpperLeft().getY())
-                || threshold(collisionPoint.getY(), rectangle.getUpperLeft().getY() + rectangle.getHeight())) {
+        if (threshold(collisionPoint.getY(), rectangle.getMinY())
+                || threshold(collisionPoint.getY(), rectangle.getMaxY())) {
             dy = -dy; // Reverse vertical velocity
         }
         if (!ballColorMatch(hitter)) {
@@ -128,13 +170,15 @@ public class Block implements Collidable, Sprite, HitNotifier {
     }
 
     /**
-     * Adds the block to the specified game as a collidable and sprite object.
+     * Adds the block to the specified game as a collidable, drawn from the game's cached static layer.
+     * From now on its hits are queued in the game's hit event queue and dispatched at the end of each tick.
      *
      * @param g the game to add the block to
      */
     public void addToGame(Game g) {
-        g.addSprite(this);
-        g.addCollidable(this);
+        g.addStaticSprite(this);
+        g.addCollidable(this, this.layer);
+        this.hitEvents = g.getHitEvents();
     }
 
     /**
@@ -154,7 +198,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     public void removeFromGame(Game game) {
         game.removeCollidable(this);
-        game.removeSprite(this);
+        game.removeStaticSprite(this);
     }
 
     /**
@@ -164,7 +208,9 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     @Override
     public void addHitListener(HitListener hl) {
-        this.hitListeners.add(hl);
+        HitListener[] listeners = Arrays.copyOf(this.hitListeners, this.hitListeners.length + 1);
+        listeners[this.hitListeners.length] = hl;
+        this.hitListeners = listeners;
     }
 
     /**
@@ -174,20 +220,48 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     @Override
     public void removeHitListener(HitListener hl) {
-        this.hitListeners.remove(hl);
+        for (int i = 0; i < this.hitListeners.length; i++) {
+            if (this.hitListeners[i].equals(hl)) {
+                HitListener[] listeners = new HitListener[this.hitListeners.length - 1];
+                System.arraycopy(this.hitListeners, 0, listeners, 0, i);
+                System.arraycopy(this.hitListeners, i + 1, listeners, i, listeners.length - i);
+                this.hitListeners = listeners;
+                return;
+            }
+        }
     }
 
     /**
-     * Notifies all hit listeners that the block was hit by a ball.
+     * Notifies the hit listeners that the block was hit by a ball: at the end of the tick if the block is
+     * in a game, or right away otherwise.
      *
      * @param hitter the ball that hit the block
      */
     public void notifyHit(Ball hitter) {
-        // Make a copy of the hitListeners before iterating over them.
-        List<HitListener> listeners = new ArrayList<>(this.hitListeners);
-        // Notify all listeners about a hit event:
-        for (HitListener hl : listeners) {
+        if (this.hitEvents != null) {
+            this.hitEvents.record(this, hitter);
+            return;
+        }
+        // Listeners may remove themselves; the array they remove from is a new one
+        for (HitListener hl : this.hitListeners) {
             hl.hitEvent(this, hitter);
         }
     }
+
+    /**
+     * Dispatches a queued hit to the listeners of the block. Batch listeners are only counted in the queue,
+     * which calls them once it dispatched all its hits.
+     *
+     * @param hitter the ball that hit the block
+     * @param queue  the queue dispatching the hit
+     */
+    public void dispatchHit(Ball hitter, HitEventQueue queue) {
+        for (HitListener hl : this.hitListeners) {
+            if (hl instanceof HitBatchListener) {
+                queue.countBatchHit((HitBatchListener) hl);
+            } else {
+                hl.hitEvent(this, hitter);
+            }
+        }
+    }
 }
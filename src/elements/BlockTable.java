@@ -0,0 +1,638 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package elements;
+
+import biuoop.DrawSurface;
+import collections.Collidable;
+import gameRunning.CollidableSet;
+import gameRunning.CollisionLayer;
+import gameRunning.CollisionResult;
+import gameRunning.Game;
+import geomtry.Point;
+import geomtry.RayHit;
+import geomtry.Raycast;
+import geomtry.Rectangle;
+import listeners.HitEventQueue;
+import listeners.HitListener;
+import rendering.PartialSprite;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The BlockTable class holds many static blocks in packed primitive arrays instead of one Block object each:
+ * the rectangles as four double arrays, the colors as indices into a palette, and the hit listeners as
+ * the index of a listener group shared by all the blocks added with it.
+ * The table is a single sprite of the static layer and a single CollidableSet of the environment, with its
+ * own uniform grid stored as one int array of cell offsets and one of block indices.
+ * A Block object is materialized only for a block a query hits, and kept while the block is in the table,
+ * so the ball, the hit listeners and the hit event queue see an ordinary block. Blocks play exactly as
+ * separate Block objects added in the table's order would.
+ * All the blocks of a table are in one collision layer, CollisionLayer.BLOCKS unless set otherwise.
+ */
+public class BlockTable implements PartialSprite, CollidableSet {
+    private static final double EPSILON = 0.000001d;
+    private static final int MAX_GROUPS = 128;
+    // The grid's cells grow until the blocks are registered in at most this many cells each, on average
+    private static final int CELLS_PER_BLOCK = 8;
+    private double[] x;
+    private double[] y;
+    private double[] width;
+    private double[] height;
+    private short[] colors;
+    private byte[] groups;
+    private boolean[] removed;
+    private int[] stamps;
+    private Color[] palette;
+    private HitListener[][] listeners;
+    private final Map<Integer, Handle> handles;
+    private final RayHit scratch;
+    private HitEventQueue hitEvents;
+    private int layer;
+    private int count;
+    private int alive;
+    private int paletteSize;
+    private int groupCount;
+    private int queryStamp;
+    private int[] cellStart;
+    private int[] cellItems;
+    private int cols;
+    private int rows;
+    private double originX;
+    private double originY;
+    private double cell;
+    private int[] drawn;
+
+    /**
+     * A block of the table, materialized when a query hits it.
+     */
+    private final class Handle extends Block {
+        private final int index;
+
+        /**
+         * Constructs the block object of a table entry.
+         *
+         * @param index the index of the entry
+         */
+        Handle(int index) {
+            super(new Rectangle(new Point(x[index], y[index]), width[index], height[index]),
+                    palette[colors[index]], listeners[groups[index]], hitEvents);
+            this.index = index;
+            setLayer(layer);
+        }
+
+        /**
+         * Does nothing: the block is in the game through its table.
+         *
+         * @param g the game
+         */
+        @Override
+        public void addToGame(Game g) {
+        }
+
+        /**
+         * Removes the block from its table, and erases it from the game's static layer.
+         *
+         * @param game the game to remove the block from
+         */
+        @Override
+        public void removeFromGame(Game game) {
+            game.removeCollidable(this);
+            game.eraseStaticSprite(this);
+        }
+    }
+
+    /**
+     * Constructs an empty table.
+     */
+    public BlockTable() {
+        this.x = new double[16];
+        this.y = new double[16];
+        this.width = new double[16];
+        this.height = new double[16];
+        this.colors = new short[16];
+        this.groups = new byte[16];
+        this.removed = new boolean[16];
+        this.palette = new Color[4];
+        this.listeners = new HitListener[1][];
+        this.handles = new HashMap<>();
+        this.scratch = new RayHit();
+        this.drawn = new int[16];
+        this.layer = CollisionLayer.BLOCKS;
+    }
+
+    /**
+     * Sets the collision layer of the blocks in the table. Queries whose mask does not include it skip the
+     * whole table.
+     *
+     * @param layer the collision layer, a single bit (see CollisionLayer)
+     */
+    public void setLayer(int layer) {
+        this.layer = layer;
+    }
+
+    /**
+     * Returns the collision layer of the blocks in the table.
+     *
+     * @return the collision layer
+     */
+    public int getLayer() {
+        return this.layer;
+    }
+
+    /**
+     * Adds a group of hit listeners, shared by the blocks added with it.
+     *
+     * @param groupListeners the listeners, notified in this order
+     * @return the index of the group
+     * @throws IllegalStateException if the table has too many groups
+     */
+    public int addListenerGroup(HitListener... groupListeners) {
+        if (this.groupCount == MAX_GROUPS) {
+            throw new IllegalStateException("A block table has at most " + MAX_GROUPS + " listener groups");
+        }
+        if (this.groupCount == this.listeners.length) {
+            this.listeners = Arrays.copyOf(this.listeners, this.groupCount * 2);
+        }
+        this.listeners[this.groupCount] = groupListeners.clone();
+        return this.groupCount++;
+    }
+
+    /**
+     * Adds a block to the table. Blocks can only be added before the table is added to a game.
+     *
+     * @param bx    the x-coordinate of the block's upper-left corner
+     * @param by    the y-coordinate of the block's upper-left corner
+     * @param w     the width of the block
+     * @param h     the height of the block
+     * @param color the color of the block; balls of the very same Color object pass through it
+     * @param group the index of the block's listener group
+     * @throws IllegalStateException if the table is already in a game
+     */
+    public void add(double bx, double by, double w, double h, Color color, int group) {
+        if (this.cellStart != null) {
+            throw new IllegalStateException("Blocks cannot be added to a table in a game");
+        }
+        if (group < 0 || group >= this.groupCount) {
+            throw new IllegalArgumentException("No listener group " + group);
+        }
+        if (this.count == this.x.length) {
+            int capacity = this.count * 2;
+            this.x = Arrays.copyOf(this.x, capacity);
+            this.y = Arrays.copyOf(this.y, capacity);
+            this.width = Arrays.copyOf(this.width, capacity);
+            this.height = Arrays.copyOf(this.height, capacity);
+            this.colors = Arrays.copyOf(this.colors, capacity);
+            this.groups = Arrays.copyOf(this.groups, capacity);
+            this.removed = Arrays.copyOf(this.removed, capacity);
+        }
+        int k = this.count++;
+        this.x[k] = bx;
+        this.y[k] = by;
+        this.width[k] = w;
+        this.height[k] = h;
+        this.colors[k] = colorIndex(color);
+        this.groups[k] = (byte) group;
+        this.alive++;
+    }
+
+    /**
+     * Adds the table to the game: its blocks are drawn from the static layer and collide with the balls.
+     * From now on their hits are queued in the game's hit event queue.
+     *
+     * @param g the game to add the table to
+     */
+    public void addToGame(Game g) {
+        trim();
+        bucket();
+        this.hitEvents = g.getHitEvents();
+        g.addStaticSprite(this);
+        g.addCollidableSet(this);
+    }
+
+    /**
+     * Returns the number of blocks still in the table.
+     *
+     * @return the number of blocks
+     */
+    @Override
+    public int size() {
+        return this.alive;
+    }
+
+    /**
+     * Checks if the given collidable is a handle the table handed out for a block still in it.
+     *
+     * @param c the collidable
+     * @return true if it is a block of this table
+     */
+    @Override
+    public boolean contains(Collidable c) {
+        return c instanceof Handle && this.handles.get(((Handle) c).index) == c;
+    }
+
+    /**
+     * Removes the block of the given handle from the table; queries no longer hit it.
+     *
+     * @param c the handle of the block
+     * @return true if the block was in the table
+     */
+    @Override
+    public boolean remove(Collidable c) {
+        if (!contains(c)) {
+            return false;
+        }
+        int k = ((Handle) c).index;
+        this.handles.remove(k);
+        this.removed[k] = true;
+        this.alive--;
+        return true;
+    }
+
+    /**
+     * Finds the closest block along the segment (x0, y0)-(x1, y1), if the table's layer is in the mask.
+     *
+     * @param x0   the x-coordinate of the trajectory start
+     * @param y0   the y-coordinate of the trajectory start
+     * @param x1   the x-coordinate of the trajectory end
+     * @param y1   the y-coordinate of the trajectory end
+     * @param mask the layers to look in
+     * @param out  the holder the closest collision is written to; cleared if there is none
+     * @return true if a collision was found
+     */
+    @Override
+    public boolean closestCollision(double x0, double y0, double x1, double y1, int mask, CollisionResult out) {
+        if ((this.layer & mask) == 0) {
+            out.clear();
+            return false;
+        }
+        return closest(x0, y0, x1, y1, -1, out);
+    }
+
+    /**
+     * Finds the block that a circle moving from (x0, y0) to (x1, y1) touches first, if the table's layer
+     * is in the mask.
+     *
+     * @param x0     the x-coordinate of the center at the start
+     * @param y0     the y-coordinate of the center at the start
+     * @param x1     the x-coordinate of the center at the end
+     * @param y1     the y-coordinate of the center at the end
+     * @param radius the radius of the circle
+     * @param mask   the layers to look in
+     * @param out    the holder the first touch is written to; cleared if there is none
+     * @return true if the circle touches a block
+     */
+    @Override
+    public boolean closestSweep(double x0, double y0, double x1, double y1, double radius, int mask,
+                                CollisionResult out) {
+        if ((this.layer & mask) == 0) {
+            out.clear();
+            return false;
+        }
+        return closest(x0, y0, x1, y1, radius, out);
+    }
+
+    /**
+     * Returns the number of segment-edge intersection tests the table has performed so far.
+     *
+     * @return the number of edge tests
+     */
+    @Override
+    public long getEdgeTests() {
+        return this.scratch.getEdgeTests();
+    }
+
+    /**
+     * Draws the blocks in the table, in their order, like Block.drawOn.
+     *
+     * @param d the DrawSurface to draw on
+     */
+    @Override
+    public void drawOn(DrawSurface d) {
+        for (int k = 0; k < this.count; k++) {
+            if (!this.removed[k]) {
+                drawBlock(d, k);
+            }
+        }
+    }
+
+    /**
+     * Draws, in their order, the blocks whose outline may reach into the given area.
+     *
+     * @param d  the DrawSurface to draw on
+     * @param ax the x-coordinate of the area's upper-left corner
+     * @param ay the y-coordinate of the area's upper-left corner
+     * @param aw the width of the area
+     * @param ah the height of the area
+     */
+    @Override
+    public void drawInside(DrawSurface d, int ax, int ay, int aw, int ah) {
+        if (this.cellStart == null) {
+            drawOn(d);
+            return;
+        }
+        // Outlines are drawn one pixel past the rectangle's width and height
+        int firstCol = Math.max(0, cellOf(ax - 1 - this.originX));
+        int lastCol = Math.min(this.cols - 1, cellOf(ax + aw + 1 - this.originX));
+        int firstRow = Math.max(0, cellOf(ay - 1 - this.originY));
+        int lastRow = Math.min(this.rows - 1, cellOf(ay + ah + 1 - this.originY));
+        int n = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int c = row * this.cols + col;
+                for (int i = this.cellStart[c]; i < this.cellStart[c + 1]; i++) {
+                    int k = this.cellItems[i];
+                    if (this.removed[k] || this.x[k] - 1 > ax + aw || this.x[k] + this.width[k] + 1 < ax
+                            || this.y[k] - 1 > ay + ah || this.y[k] + this.height[k] + 1 < ay) {
+                        continue;
+                    }
+                    if (n == this.drawn.length) {
+                        this.drawn = Arrays.copyOf(this.drawn, n * 2);
+                    }
+                    this.drawn[n++] = k;
+                }
+            }
+        }
+        // A block in several cells is collected once per cell; drawing in table order keeps the overlaps right
+        Arrays.sort(this.drawn, 0, n);
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || this.drawn[i] != this.drawn[i - 1]) {
+                drawBlock(d, this.drawn[i]);
+            }
+        }
+    }
+
+    /**
+     * Does nothing: the blocks in the table do not move.
+     */
+    @Override
+    public void timePassed() {
+    }
+
+    /**
+     * Returns the number of bytes the table's arrays and grid take, not counting materialized blocks.
+     *
+     * @return the footprint in bytes
+     */
+    public long getFootprintBytes() {
+        long perBlock = 4L * Double.BYTES + Short.BYTES + 1 + 1 + Integer.BYTES;
+        long grid = this.cellStart == null ? 0 : (long) Integer.BYTES * (this.cellStart.length + this.cellItems.length);
+        return perBlock * this.x.length + grid + (long) Integer.BYTES * this.drawn.length;
+    }
+
+    /**
+     * Returns the number of blocks materialized as Block objects and still in the table.
+     *
+     * @return the number of materialized blocks
+     */
+    public int getMaterializedCount() {
+        return this.handles.size();
+    }
+
+    /**
+     * Draws one block: its color, then a black outline.
+     *
+     * @param d the DrawSurface to draw on
+     * @param k the index of the block
+     */
+    private void drawBlock(DrawSurface d, int k) {
+        d.setColor(this.palette[this.colors[k]]);
+        d.fillRectangle((int) this.x[k], (int) this.y[k], (int) this.width[k], (int) this.height[k]);
+        d.setColor(Color.black);
+        d.drawRectangle((int) this.x[k], (int) this.y[k], (int) this.width[k], (int) this.height[k]);
+    }
+
+    /**
+     * Tests the blocks in every cell the trajectory passes near, walking the grid column by column like
+     * UniformGrid, and materializes the closest block hit. Distance ties go to the block added first.
+     *
+     * @param x0     the x-coordinate of the trajectory start
+     * @param y0     the y-coordinate of the trajectory start
+     * @param x1     the x-coordinate of the trajectory end
+     * @param y1     the y-coordinate of the trajectory end
+     * @param radius the radius of the swept circle, or a negative number to intersect the segment with the edges
+     * @param out    the holder the closest hit is written to
+     * @return true if a hit was found
+     */
+    private boolean closest(double x0, double y0, double x1, double y1, double radius, CollisionResult out) {
+        out.clear();
+        if (this.cellStart == null || this.alive == 0) {
+            return false;
+        }
+        this.queryStamp++;
+        int best = -1;
+        double bestX = 0;
+        double bestY = 0;
+        double bestDistance = Double.MAX_VALUE;
+        double reach = Math.max(0, radius);
+        double segMinX = Math.min(x0, x1);
+        double segMaxX = Math.max(x0, x1);
+        boolean vertical = Math.abs(x1 - x0) < EPSILON;
+        double slope = vertical ? 0 : (y1 - y0) / (x1 - x0);
+        int firstCol = Math.max(0, cellOf(segMinX - reach - EPSILON - this.originX));
+        int lastCol = Math.min(this.cols - 1, cellOf(segMaxX + reach + EPSILON - this.originX));
+        for (int col = firstCol; col <= lastCol; col++) {
+            double ya;
+            double yb;
+            if (vertical) {
+                ya = y0;
+                yb = y1;
+            } else {
+                // The first and last columns also hold what is past the grid's bounds
+                double left = col == 0 ? Double.NEGATIVE_INFINITY : this.originX + col * this.cell - reach;
+                double right = col == this.cols - 1 ? Double.POSITIVE_INFINITY
+                        : this.originX + (col + 1) * this.cell + reach;
+                double xa = Math.max(segMinX, left);
+                double xb = Math.min(segMaxX, right);
+                if (xa > xb) {
+                    xa = xb;
+                }
+                ya = y0 + (xa - x0) * slope;
+                yb = y0 + (xb - x0) * slope;
+            }
+            int firstRow = Math.max(0, cellOf(Math.min(ya, yb) - reach - EPSILON - this.originY));
+            int lastRow = Math.min(this.rows - 1, cellOf(Math.max(ya, yb) + reach + EPSILON - this.originY));
+            for (int row = firstRow; row <= lastRow; row++) {
+                int c = row * this.cols + col;
+                for (int i = this.cellStart[c]; i < this.cellStart[c + 1]; i++) {
+                    int k = this.cellItems[i];
+                    if (this.removed[k] || this.stamps[k] == this.queryStamp) {
+                        continue;
+                    }
+                    this.stamps[k] = this.queryStamp;
+                    if (radius >= 0 ? !Raycast.sweptBoxHit(x0, y0, x1, y1, radius, this.x[k], this.y[k],
+                            this.width[k], this.height[k], this.scratch)
+                            : !Raycast.closestEdgeHit(x0, y0, x1, y1, this.x[k], this.y[k], this.width[k],
+                            this.height[k], this.scratch)) {
+                        continue;
+                    }
+                    double distance = this.scratch.getDistance();
+                    if (distance < bestDistance || (distance == bestDistance && k < best)) {
+                        best = k;
+                        bestX = this.scratch.getX();
+                        bestY = this.scratch.getY();
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        if (best < 0) {
+            return false;
+        }
+        out.set(handle(best), bestX, bestY, bestDistance);
+        return true;
+    }
+
+    /**
+     * Returns the Block object of a block in the table, materializing it on its first hit.
+     *
+     * @param k the index of the block
+     * @return the block object
+     */
+    private Handle handle(int k) {
+        Handle h = this.handles.get(k);
+        if (h == null) {
+            h = new Handle(k);
+            this.handles.put(k, h);
+        }
+        return h;
+    }
+
+    /**
+     * Returns the index of a color in the palette, adding it if it is not there.
+     * Colors are compared by identity, like Block.ballColorMatch does.
+     *
+     * @param color the color
+     * @return the index of the color
+     */
+    private short colorIndex(Color color) {
+        for (int i = 0; i < this.paletteSize; i++) {
+            if (this.palette[i] == color) {
+                return (short) i;
+            }
+        }
+        if (this.paletteSize == Short.MAX_VALUE) {
+            throw new IllegalStateException("A block table has at most " + Short.MAX_VALUE + " colors");
+        }
+        if (this.paletteSize == this.palette.length) {
+            this.palette = Arrays.copyOf(this.palette, this.paletteSize * 2);
+        }
+        this.palette[this.paletteSize] = color;
+        return (short) this.paletteSize++;
+    }
+
+    /**
+     * Shrinks the block arrays to the number of blocks, once no more blocks can be added.
+     */
+    private void trim() {
+        this.x = Arrays.copyOf(this.x, this.count);
+        this.y = Arrays.copyOf(this.y, this.count);
+        this.width = Arrays.copyOf(this.width, this.count);
+        this.height = Arrays.copyOf(this.height, this.count);
+        this.colors = Arrays.copyOf(this.colors, this.count);
+        this.groups = Arrays.copyOf(this.groups, this.count);
+        this.removed = Arrays.copyOf(this.removed, this.count);
+        this.stamps = new int[this.count];
+    }
+
+    /**
+     * Buckets the blocks into a grid covering their bounds (counting sort, two passes), like CollisionSnapshot.
+     * The cells start at about one block's share of the bounds, and are enlarged until the blocks are not
+     * registered in too many cells.
+     */
+    private void bucket() {
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int k = 0; k < this.count; k++) {
+            minX = Math.min(minX, this.x[k]);
+            minY = Math.min(minY, this.y[k]);
+            maxX = Math.max(maxX, this.x[k] + this.width[k]);
+            maxY = Math.max(maxY, this.y[k] + this.height[k]);
+        }
+        if (this.count == 0) {
+            minX = 0;
+            minY = 0;
+            maxX = 1;
+            maxY = 1;
+        }
+        this.originX = minX;
+        this.originY = minY;
+        this.cell = Math.max(1, Math.sqrt(Math.max(1, (maxX - minX) * (maxY - minY)) / Math.max(1, this.count)));
+        long total;
+        while (true) {
+            this.cols = Math.max(1, (int) Math.ceil((maxX - minX) / this.cell));
+            this.rows = Math.max(1, (int) Math.ceil((maxY - minY) / this.cell));
+            total = 0;
+            for (int k = 0; k < this.count; k++) {
+                total += (long) (colOf(this.x[k] + this.width[k] + EPSILON) - colOf(this.x[k] - EPSILON) + 1)
+                        * (rowOf(this.y[k] + this.height[k] + EPSILON) - rowOf(this.y[k] - EPSILON) + 1);
+            }
+            if (total <= (long) CELLS_PER_BLOCK * this.count + 16) {
+                break;
+            }
+            this.cell *= 2;
+        }
+        int cells = this.cols * this.rows;
+        this.cellStart = new int[cells + 1];
+        this.cellItems = new int[(int) total];
+        for (int k = 0; k < this.count; k++) {
+            for (int row = rowOf(this.y[k] - EPSILON); row <= rowOf(this.y[k] + this.height[k] + EPSILON); row++) {
+                for (int col = colOf(this.x[k] - EPSILON); col <= colOf(this.x[k] + this.width[k] + EPSILON); col++) {
+                    this.cellStart[row * this.cols + col + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < cells; c++) {
+            this.cellStart[c + 1] += this.cellStart[c];
+        }
+        // Fill each cell in block order, using its start as the write cursor; then shift the starts back
+        for (int k = 0; k < this.count; k++) {
+            for (int row = rowOf(this.y[k] - EPSILON); row <= rowOf(this.y[k] + this.height[k] + EPSILON); row++) {
+                for (int col = colOf(this.x[k] - EPSILON); col <= colOf(this.x[k] + this.width[k] + EPSILON); col++) {
+                    this.cellItems[this.cellStart[row * this.cols + col]++] = k;
+                }
+            }
+        }
+        for (int c = cells; c > 0; c--) {
+            this.cellStart[c] = this.cellStart[c - 1];
+        }
+        this.cellStart[0] = 0;
+    }
+
+    /**
+     * Returns the cell index (column or row) at the given offset from the grid's origin, before clamping.
+     *
+     * @param v the offset
+     * @return the cell index
+     */
+    private int cellOf(double v) {
+        return (int) Math.floor(v / this.cell);
+    }
+
+    /**
+     * Returns the grid column containing the given x-coordinate, clamped to the grid.
+     *
+     * @param v the x-coordinate
+     * @return the column
+     */
+    private int colOf(double v) {
+        return Math.max(0, Math.min(this.cols - 1, cellOf(v - this.originX)));
+    }
+
+    /**
+     * Returns the grid row containing the given y-coordinate, clamped to the grid.
+     *
+     * @param v the y-coordinate
+     * @return the row
+     */
+    private int rowOf(double v) {
+        return Math.max(0, Math.min(this.rows - 1, cellOf(v - this.originY)));
+    }
+}
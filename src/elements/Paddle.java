@@ -8,22 +8,31 @@ package elements;
 import biuoop.DrawSurface;
 import biuoop.KeyboardSensor;
 import collections.Collidable;
-import collections.Sprite;
+import gameRunning.CollisionLayer;
 import gameRunning.Game;
+import gameRunning.GameEnvironment;
 import geomtry.Point;
 import geomtry.Rectangle;
 import geomtry.Velocity;
+import rendering.DamageRegion;
+import rendering.DirtySprite;
+import rendering.SnapshotSprite;
+import rendering.SpriteSnapshot;
 
 import java.awt.Color;
 
 /**
  * The Paddle class represents the player's paddle in the game, which is controlled using the keyboard.
  */
-public class Paddle implements Sprite, Collidable {
+public class Paddle implements DirtySprite, SnapshotSprite, Collidable {
     private final biuoop.KeyboardSensor keyboard;
     private Rectangle paddleRectangle;
     private final Color color;
     private final int speed;
+    private double previousX;
+    private GameEnvironment environment;
+    private int drawnX;
+    private boolean drawn;
 
     /**
      * Constructs a Paddle with the specified properties.
@@ -33,10 +42,23 @@ public class Paddle implements Sprite, Collidable {
      * @param keyboard  the keyboard sensor to control the paddle
      */
     public Paddle(Rectangle rectangle, Color color, KeyboardSensor keyboard) {
+        this(rectangle, color, keyboard, 10);
+    }
+
+    /**
+     * Constructs a Paddle with the specified properties.
+     *
+     * @param rectangle the rectangle representing the paddle's shape and position
+     * @param color     the color of the paddle
+     * @param keyboard  the keyboard sensor to control the paddle
+     * @param speed     how far the paddle moves per tick
+     */
+    public Paddle(Rectangle rectangle, Color color, KeyboardSensor keyboard, int speed) {
         this.paddleRectangle = rectangle;
         this.color = color;
         this.keyboard = keyboard;
-        this.speed = 10; // Adjust the speed of the paddle as needed
+        this.speed = speed;
+        this.previousX = rectangle.getUpperLeft().getX();
     }
 
     /**
@@ -49,6 +71,7 @@ public class Paddle implements Sprite, Collidable {
         }
         this.paddleRectangle = new Rectangle(new Point(newX, this.paddleRectangle.getUpperLeft().getY()),
                 this.paddleRectangle.getWidth(), this.paddleRectangle.getHeight());
+        notifyMoved();
     }
 
     /**
@@ -61,12 +84,23 @@ public class Paddle implements Sprite, Collidable {
         }
         this.paddleRectangle = new Rectangle(new Point(newX, this.paddleRectangle.getUpperLeft().getY()),
                 this.paddleRectangle.getWidth(), this.paddleRectangle.getHeight());
+        notifyMoved();
+    }
+
+    /**
+     * Lets the game environment refit the paddle's entry after its rectangle was replaced.
+     */
+    private void notifyMoved() {
+        if (this.environment != null) {
+            this.environment.updateCollidable(this);
+        }
     }
 
     /**
      * Notifies the paddle that time has passed, checking for keyboard input to move the paddle.
      */
     public void timePassed() {
+        this.previousX = this.paddleRectangle.getUpperLeft().getX();
         if (keyboard.isPressed(KeyboardSensor.LEFT_KEY)) {
             moveLeft();
         }
@@ -81,16 +115,131 @@ public class Paddle implements Sprite, Collidable {
      * @param d the DrawSurface to draw the paddle on
      */
     public void drawOn(DrawSurface d) {
-        d.setColor(this.color);
-        d.fillRectangle((int) paddleRectangle.getUpperLeft().getX(),
-                (int) paddleRectangle.getUpperLeft().getY(),
-                (int) paddleRectangle.getWidth(),
-                (int) paddleRectangle.getHeight());
+        drawAt(d, paddleRectangle.getUpperLeft().getX());
+    }
+
+    /**
+     * Draws the paddle between its position before and after the last step.
+     * A wrap-around from one side to the other is not interpolated.
+     *
+     * @param d     the DrawSurface to draw the paddle on
+     * @param alpha how far to go from the previous position (0) to the current one (1)
+     */
+    @Override
+    public void drawOn(DrawSurface d, double alpha) {
+        drawAt(d, drawX(alpha));
+    }
+
+    /**
+     * Adds the paddle's last drawn bounds and its bounds now to the damage, if it moved since.
+     *
+     * @param damage the damage of the current frame
+     * @param alpha  how far the frame is from the previous update (0) to the next one (1)
+     */
+    @Override
+    public void addDamage(DamageRegion damage, double alpha) {
+        int x = (int) drawX(alpha);
+        if (this.drawn && x == this.drawnX) {
+            return;
+        }
+        int y = (int) paddleRectangle.getUpperLeft().getY();
+        // The outline covers one pixel past the width and height
+        int w = (int) paddleRectangle.getWidth() + 1;
+        int h = (int) paddleRectangle.getHeight() + 1;
+        if (this.drawn) {
+            damage.add(this.drawnX, y, w, h);
+        }
+        damage.add(x, y, w, h);
+        this.drawnX = x;
+        this.drawn = true;
+    }
+
+    /**
+     * Draws the paddle if it may lie inside the given area.
+     *
+     * @param d      the DrawSurface to draw on
+     * @param x      the x-coordinate of the area's upper-left corner
+     * @param y      the y-coordinate of the area's upper-left corner
+     * @param width  the width of the area
+     * @param height the height of the area
+     * @param alpha  how far the frame is from the previous update (0) to the next one (1)
+     * @return 1 if the paddle was drawn, 0 otherwise
+     */
+    @Override
+    public int drawInside(DrawSurface d, int x, int y, int width, int height, double alpha) {
+        double paddleX = drawX(alpha);
+        if (!DamageRegion.overlaps((int) paddleX, (int) paddleRectangle.getUpperLeft().getY(),
+                (int) paddleRectangle.getWidth() + 1, (int) paddleRectangle.getHeight() + 1, x, y, width, height)) {
+            return 0;
+        }
+        drawAt(d, paddleX);
+        return 1;
+    }
+
+    /**
+     * Returns the x-coordinate the paddle is drawn at, between its position before and after the last step.
+     * A wrap-around from one side to the other is not interpolated.
+     *
+     * @param alpha how far to go from the previous position (0) to the current one (1)
+     * @return the x-coordinate of the drawn upper-left corner
+     */
+    private double drawX(double alpha) {
+        return interpolate(this.previousX, paddleRectangle.getUpperLeft().getX(), this.speed, alpha);
+    }
+
+    /**
+     * Draws the paddle with its upper-left corner at the given x-coordinate.
+     *
+     * @param d the DrawSurface to draw the paddle on
+     * @param x the x-coordinate to draw at
+     */
+    private void drawAt(DrawSurface d, double x) {
+        draw(d, this.color, (int) x, (int) paddleRectangle.getUpperLeft().getY(),
+                (int) paddleRectangle.getWidth(), (int) paddleRectangle.getHeight());
+    }
+
+    /**
+     * Draws a paddle: a filled rectangle with a black outline.
+     *
+     * @param d      the DrawSurface to draw on
+     * @param color  the fill color
+     * @param x      the x-coordinate of the upper-left corner
+     * @param y      the y-coordinate of the upper-left corner
+     * @param width  the width
+     * @param height the height
+     */
+    private static void draw(DrawSurface d, Color color, int x, int y, int width, int height) {
+        d.setColor(color);
+        d.fillRectangle(x, y, width, height);
         d.setColor(Color.BLACK);
-        d.drawRectangle((int) paddleRectangle.getUpperLeft().getX(),
-                (int) paddleRectangle.getUpperLeft().getY(),
-                (int) paddleRectangle.getWidth(),
-                (int) paddleRectangle.getHeight());
+        d.drawRectangle(x, y, width, height);
+    }
+
+    /**
+     * Returns the x-coordinate to draw a paddle at, between its position before and after the last step.
+     * A move longer than one step is a wrap-around from one side to the other, and is not interpolated.
+     *
+     * @param previousX the x-coordinate before the last step
+     * @param x         the x-coordinate after the last step
+     * @param speed     the length of one step
+     * @param alpha     how far to go from the previous position (0) to the current one (1)
+     * @return the x-coordinate to draw at
+     */
+    private static double interpolate(double previousX, double x, int speed, double alpha) {
+        if (Math.abs(x - previousX) <= speed) {
+            return previousX + (x - previousX) * alpha;
+        }
+        return x;
+    }
+
+    /**
+     * Creates a snapshot of the paddle's position, to draw it on the render thread.
+     *
+     * @return a new snapshot
+     */
+    @Override
+    public SpriteSnapshot newSnapshot() {
+        return new Snapshot(this);
     }
 
     /**
@@ -140,6 +289,54 @@ public class Paddle implements Sprite, Collidable {
      */
     public void addToGame(Game g) {
         g.addSprite(this);
-        g.addCollidable(this);
+        g.addCollidable(this, CollisionLayer.PADDLE);
+        this.environment = g.getEnvironment();
+    }
+
+    /**
+     * A copy of the paddle's position before and after the last step.
+     */
+    private static final class Snapshot implements SpriteSnapshot {
+        private final Paddle paddle;
+        private double previousX;
+        private double x;
+        private int y;
+        private int width;
+        private int height;
+
+        /**
+         * Constructs an empty snapshot of the given paddle.
+         *
+         * @param paddle the paddle
+         */
+        Snapshot(Paddle paddle) {
+            this.paddle = paddle;
+        }
+
+        /**
+         * Copies the paddle's rectangle and its x-coordinate before the last step. Called on the simulation thread.
+         */
+        @Override
+        public void capture() {
+            Rectangle r = this.paddle.paddleRectangle;
+            this.previousX = this.paddle.previousX;
+            this.x = r.getUpperLeft().getX();
+            this.y = (int) r.getUpperLeft().getY();
+            this.width = (int) r.getWidth();
+            this.height = (int) r.getHeight();
+        }
+
+        /**
+         * Draws the paddle between its captured previous and current x-coordinates, the way Paddle.drawOn(d, alpha)
+         * would. Called on the render thread.
+         *
+         * @param d     the DrawSurface to draw the paddle on
+         * @param alpha how far to go from the previous position (0) to the current one (1)
+         */
+        @Override
+        public void drawOn(DrawSurface d, double alpha) {
+            draw(d, this.paddle.color, (int) interpolate(this.previousX, this.x, this.paddle.speed, alpha),
+                    this.y, this.width, this.height);
+        }
     }
 }
@@ -0,0 +1,324 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package elements;
+
+import biuoop.DrawSurface;
+import gameRunning.CollisionLayer;
+import gameRunning.CollisionResult;
+import gameRunning.Game;
+import gameRunning.GameEnvironment;
+import geomtry.Point;
+import geomtry.Velocity;
+import rendering.SnapshotSprite;
+import rendering.SpriteSnapshot;
+
+import java.awt.Color;
+
+/**
+ * The StandaloneBall class is a Ball that keeps its own center point, radius, color, and velocity,
+ * and queries the game environment for its collisions itself, unlike the balls of a BallSystem.
+ * It can move, detect collisions with borders, and draw itself on a DrawSurface.
+ */
+public class StandaloneBall extends Ball implements SnapshotSprite {
+    private Point center;
+    private double previousX;
+    private double previousY;
+    private final int radius;
+    private Color color;
+    private Velocity velocity;
+    private int collisionMask;
+    private final GameEnvironment g;
+    private final CollisionResult collision;
+
+    /**
+     * Constructs a ball with the specified center coordinates, radius, color, and game environment.
+     *
+     * @param x      the x-coordinate of the ball's center
+     * @param y      the y-coordinate of the ball's center
+     * @param radius the radius of the ball
+     * @param color  the color of the ball
+     * @param g      the game environment the ball interacts with
+     */
+    public StandaloneBall(double x, double y, int radius, Color color, GameEnvironment g) {
+        this.center = new Point(x, y);
+        this.previousX = x;
+        this.previousY = y;
+        this.radius = radius;
+        this.color = color;
+        this.collisionMask = CollisionLayer.ALL;
+        this.g = g;
+        this.collision = new CollisionResult();
+    }
+
+    /**
+     * Constructs a ball with the specified center point, radius, color, and game environment.
+     *
+     * @param center the center point of the ball
+     * @param radius the radius of the ball
+     * @param color  the color of the ball
+     * @param g      the game environment the ball interacts with
+     */
+    public StandaloneBall(Point center, int radius, Color color, GameEnvironment g) {
+        // The center is moved in place, so balls created from the same point must not share it.
+        this(center.getX(), center.getY(), radius, color, g);
+    }
+
+    /**
+     * Gets the radius of the ball.
+     *
+     * @return the radius of the ball
+     */
+    @Override
+    public int getRadius() {
+        return this.radius;
+    }
+
+    /**
+     * Gets the center point of the ball.
+     *
+     * @return the center point of the ball
+     */
+    @Override
+    public Point getCenter() {
+        return this.center;
+    }
+
+    /**
+     * Gets the color of the ball.
+     *
+     * @return the color of the ball
+     */
+    @Override
+    public Color getColor() {
+        return this.color;
+    }
+
+    /**
+     * Sets the color of the ball.
+     *
+     * @param color the new color of the ball
+     */
+    @Override
+    public void setColor(Color color) {
+        this.color = color;
+    }
+
+    /**
+     * Returns the collision layers the ball collides with.
+     *
+     * @return the mask of the layers (see CollisionLayer)
+     */
+    @Override
+    public int getCollisionMask() {
+        return this.collisionMask;
+    }
+
+    /**
+     * Sets the collision layers the ball collides with; it passes through the collidables of the other layers.
+     *
+     * @param mask the mask of the layers (see CollisionLayer), CollisionLayer.ALL by default
+     */
+    @Override
+    public void setCollisionMask(int mask) {
+        this.collisionMask = mask;
+    }
+
+    /**
+     * Sets the velocity of the ball.
+     *
+     * @param velocity the new velocity
+     */
+    @Override
+    public void setVelocity(Velocity velocity) {
+        this.velocity = velocity;
+    }
+
+    /**
+     * Sets the velocity of the ball.
+     *
+     * @param dx the x component of the velocity
+     * @param dy the y component of the velocity
+     */
+    @Override
+    public void setVelocity(double dx, double dy) {
+        this.velocity = new Velocity(dx, dy);
+    }
+
+    /**
+     * Gets the velocity of the ball.
+     *
+     * @return the velocity of the ball
+     */
+    @Override
+    public Velocity getVelocity() {
+        return this.velocity;
+    }
+
+    /**
+     * Moves the ball one step, checking for collisions.
+     * Changes the direction of the ball based on the side it intersects with.
+     * A step without a collision allocates nothing: the movement line is passed as coordinates
+     * and the center is moved in place.
+     * A ball that moves farther in one step than its movement segment reaches is swept instead.
+     */
+    @Override
+    public void moveOneStep() {
+        double dx = this.velocity.getDx();
+        double dy = this.velocity.getDy();
+        if (isFast(dx, dy, this.radius)) {
+            sweepOneStep();
+            return;
+        }
+        double magnitude = Math.sqrt(dx * dx + dy * dy);
+        double unitDx = dx * 2 / magnitude;
+        double unitDy = dy * 2 / magnitude;
+        double halfLength = this.radius;
+        double x = this.center.getX();
+        double y = this.center.getY();
+        this.previousX = x;
+        this.previousY = y;
+        if (this.g.getClosestCollision(x - unitDx * halfLength, y - unitDy * halfLength,
+                x + unitDx * halfLength, y + unitDy * halfLength, this.collisionMask, this.collision)) {
+            Point collisionPoint = new Point(this.collision.getX(), this.collision.getY());
+            this.setVelocity(this.collision.collisionObject().hit(this, collisionPoint, this.velocity));
+        }
+        this.center.setX(this.center.getX() + this.velocity.getDx());
+        this.center.setY(this.center.getY() + this.velocity.getDy());
+    }
+
+    /**
+     * Moves a fast ball one step by sweeping its circle along the whole movement (continuous collision
+     * detection). After a hit the rest of the movement continues in the new direction, sweeping again;
+     * after MAX_SWEEPS sweeps the ball stops at its last contact until the next step.
+     */
+    private void sweepOneStep() {
+        double x = this.center.getX();
+        double y = this.center.getY();
+        this.previousX = x;
+        this.previousY = y;
+        double left = 1;
+        for (int sweeps = 0; sweeps < MAX_SWEEPS; sweeps++) {
+            double vx = this.velocity.getDx() * left;
+            double vy = this.velocity.getDy() * left;
+            if (!this.g.getClosestSweep(x, y, x + vx, y + vy, this.radius, this.collisionMask, this.collision)) {
+                x += vx;
+                y += vy;
+                break;
+            }
+            double t = this.collision.getDistance() / Math.sqrt(vx * vx + vy * vy);
+            x += vx * t;
+            y += vy * t;
+            left *= 1 - t;
+            this.center.setX(x);
+            this.center.setY(y);
+            Point collisionPoint = new Point(this.collision.getX(), this.collision.getY());
+            this.setVelocity(this.collision.collisionObject().hit(this, collisionPoint, this.velocity));
+        }
+        this.center.setX(x);
+        this.center.setY(y);
+    }
+
+    /**
+     * Draws the ball on the given DrawSurface.
+     *
+     * @param d the DrawSurface to draw the ball on
+     */
+    @Override
+    public void drawOn(DrawSurface d) {
+        d.setColor(this.color);
+        d.fillCircle((int) this.center.getX(), (int) this.center.getY(), this.radius);
+    }
+
+    /**
+     * Draws the ball between its position before and after the last step.
+     *
+     * @param d     the DrawSurface to draw the ball on
+     * @param alpha how far to go from the previous position (0) to the current one (1)
+     */
+    @Override
+    public void drawOn(DrawSurface d, double alpha) {
+        double x = this.previousX + (this.center.getX() - this.previousX) * alpha;
+        double y = this.previousY + (this.center.getY() - this.previousY) * alpha;
+        d.setColor(this.color);
+        d.fillCircle((int) x, (int) y, this.radius);
+    }
+
+    /**
+     * Creates a snapshot of the ball's position and color, to draw it on the render thread.
+     *
+     * @return a new snapshot
+     */
+    @Override
+    public SpriteSnapshot newSnapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Adds this ball to the game.
+     *
+     * @param g the game to add the ball to
+     */
+    @Override
+    public void addToGame(Game g) {
+        g.addSprite(this);
+    }
+
+    /**
+     * Removes this ball from the game.
+     *
+     * @param g the game to remove the ball from
+     */
+    @Override
+    public void removeFromGame(Game g) {
+        g.removeSprite(this);
+    }
+
+    /**
+     * A copy of a ball's position before and after the last step, and its color.
+     */
+    private static final class Snapshot implements SpriteSnapshot {
+        private final StandaloneBall ball;
+        private double previousX;
+        private double previousY;
+        private double x;
+        private double y;
+        private Color color;
+
+        /**
+         * Constructs an empty snapshot of the given ball.
+         *
+         * @param ball the ball
+         */
+        Snapshot(StandaloneBall ball) {
+            this.ball = ball;
+        }
+
+        /**
+         * Copies the ball's position before and after its last step, and its color. Called on the simulation thread.
+         */
+        @Override
+        public void capture() {
+            this.previousX = this.ball.previousX;
+            this.previousY = this.ball.previousY;
+            this.x = this.ball.center.getX();
+            this.y = this.ball.center.getY();
+            this.color = this.ball.color;
+        }
+
+        /**
+         * Draws the ball between its captured previous and current positions. Called on the render thread.
+         *
+         * @param d     the DrawSurface to draw the ball on
+         * @param alpha how far to go from the previous position (0) to the current one (1)
+         */
+        @Override
+        public void drawOn(DrawSurface d, double alpha) {
+            d.setColor(this.color);
+            d.fillCircle((int) (this.previousX + (this.x - this.previousX) * alpha),
+                    (int) (this.previousY + (this.y - this.previousY) * alpha), this.ball.radius);
+        }
+    }
+}
@@ -0,0 +1,631 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package gameRunning;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import collections.Collidable;
+import geomtry.RayHit;
+import geomtry.Raycast;
+import geomtry.Rectangle;
+
+/**
+ * The AabbTree class is a dynamic bounding-volume tree over the collision rectangles of the collidables.
+ * Each leaf stores a fattened box around its rectangle, so small movements (like the paddle's) do not
+ * change the tree at all, and slightly larger ones only refit the ancestors of the leaf.
+ * The tree is kept balanced with AVL-style rotations on every insert and remove, so ray queries stay
+ * logarithmic even after many blocks are removed.
+ * Nodes are stored in parallel primitive arrays and recycled through a free list.
+ * Every node also holds the union of the collision layers below it, so a query skips whole subtrees
+ * that have no collidable in its mask.
+ */
+public class AabbTree implements CollisionIndex {
+    private static final double EPSILON = 0.000001d;
+    private static final double DEFAULT_MARGIN = 10;
+    private static final int NULL = -1;
+    private final double margin;
+    private double[] minX;
+    private double[] minY;
+    private double[] maxX;
+    private double[] maxY;
+    private int[] parent;
+    private int[] child1;
+    private int[] child2;
+    private int[] height;
+    private int[] layers;
+    private long[] order;
+    private Collidable[] item;
+    private Rectangle[] indexedRect;
+    private int[] stack;
+    private final RayHit scratch;
+    private int root;
+    private int freeList;
+    private int nodeCount;
+    private long nextOrder;
+    private final Map<Collidable, Integer> leafOf;
+
+    /**
+     * Constructs an empty tree with the default fattening margin.
+     */
+    public AabbTree() {
+        this(DEFAULT_MARGIN);
+    }
+
+    /**
+     * Constructs an empty tree.
+     *
+     * @param margin how far each leaf box is extended beyond its rectangle on every side
+     */
+    public AabbTree(double margin) {
+        this.margin = margin;
+        this.root = NULL;
+        this.freeList = NULL;
+        this.leafOf = new IdentityHashMap<>();
+        this.stack = new int[64];
+        this.scratch = new RayHit();
+        allocateArrays(16);
+    }
+
+    /**
+     * Adds the given collidable to the tree, using its current collision rectangle.
+     *
+     * @param c     the collidable to add
+     * @param layer the collision layer of the collidable, a single bit (see CollisionLayer)
+     */
+    @Override
+    public void insert(Collidable c, int layer) {
+        int leaf = allocateNode();
+        this.item[leaf] = c;
+        this.order[leaf] = this.nextOrder++;
+        this.height[leaf] = 0;
+        this.layers[leaf] = layer;
+        fitLeaf(leaf, c.getCollisionRectangle());
+        this.leafOf.put(c, leaf);
+        insertLeaf(leaf);
+    }
+
+    /**
+     * Removes the given collidable from the tree. Does nothing if it is not indexed.
+     *
+     * @param c the collidable to remove
+     */
+    @Override
+    public void remove(Collidable c) {
+        Integer leaf = this.leafOf.remove(c);
+        if (leaf == null) {
+            return;
+        }
+        removeLeaf(leaf);
+        freeNode(leaf);
+    }
+
+    /**
+     * Updates the leaf of the given collidable.
+     * If its new rectangle is still inside the fat box nothing happens, if it moved a little the
+     * fat box is refitted in place, and only a jump (e.g. the paddle wrapping around) reinserts the leaf.
+     *
+     * @param c the collidable that moved
+     */
+    @Override
+    public void update(Collidable c) {
+        Integer boxed = this.leafOf.get(c);
+        if (boxed == null) {
+            return;
+        }
+        int leaf = boxed;
+        Rectangle r = c.getCollisionRectangle();
+        if (r == this.indexedRect[leaf]) {
+            return;
+        }
+        double x1 = r.getMinX();
+        double y1 = r.getMinY();
+        double x2 = r.getMaxX();
+        double y2 = r.getMaxY();
+        this.indexedRect[leaf] = r;
+        if (x1 >= this.minX[leaf] && y1 >= this.minY[leaf] && x2 <= this.maxX[leaf] && y2 <= this.maxY[leaf]) {
+            return;
+        }
+        boolean nearby = x1 >= this.minX[leaf] - this.margin && y1 >= this.minY[leaf] - this.margin
+                && x2 <= this.maxX[leaf] + this.margin && y2 <= this.maxY[leaf] + this.margin;
+        if (!nearby) {
+            removeLeaf(leaf);
+            fitLeaf(leaf, r);
+            insertLeaf(leaf);
+            return;
+        }
+        fitLeaf(leaf, r);
+        for (int index = this.parent[leaf]; index != NULL; index = this.parent[index]) {
+            unionChildren(index);
+        }
+    }
+
+    /**
+     * Finds the closest collision along the segment (x0, y0)-(x1, y1) among the indexed collidables
+     * whose layer is in the mask. The result is identical to scanning them in insertion order.
+     *
+     * @param x0   the x-coordinate of the trajectory start
+     * @param y0   the y-coordinate of the trajectory start
+     * @param x1   the x-coordinate of the trajectory end
+     * @param y1   the y-coordinate of the trajectory end
+     * @param mask the layers to look in
+     * @param out  the holder the closest collision is written to; cleared if there is none
+     * @return true if a collision was found
+     */
+    @Override
+    public boolean closestCollision(double x0, double y0, double x1, double y1, int mask, CollisionResult out) {
+        return closest(x0, y0, x1, y1, -1, mask, out);
+    }
+
+    /**
+     * Finds the collidable whose layer is in the mask that a circle moving from (x0, y0) to (x1, y1) touches first.
+     * The boxes are widened by the radius, so every leaf the circle passes over is looked in.
+     *
+     * @param x0     the x-coordinate of the center at the start
+     * @param y0     the y-coordinate of the center at the start
+     * @param x1     the x-coordinate of the center at the end
+     * @param y1     the y-coordinate of the center at the end
+     * @param radius the radius of the circle
+     * @param mask   the layers to look in
+     * @param out    the holder the first touch is written to; cleared if there is none
+     * @return true if the circle touches a collidable
+     */
+    @Override
+    public boolean closestSweep(double x0, double y0, double x1, double y1, double radius, int mask,
+                                CollisionResult out) {
+        return closest(x0, y0, x1, y1, radius, mask, out);
+    }
+
+    /**
+     * Walks the tree nearest box first, pruning boxes entered beyond the best hit found so far
+     * and subtrees with no collidable in the masked layers.
+     *
+     * @param x0     the x-coordinate of the trajectory start
+     * @param y0     the y-coordinate of the trajectory start
+     * @param x1     the x-coordinate of the trajectory end
+     * @param y1     the y-coordinate of the trajectory end
+     * @param radius the radius of the swept circle, or a negative number to intersect the segment with the edges
+     * @param mask   the layers to look in
+     * @param out    the holder the closest hit is written to
+     * @return true if a hit was found
+     */
+    private boolean closest(double x0, double y0, double x1, double y1, double radius, int mask,
+                            CollisionResult out) {
+        out.clear();
+        if (this.root == NULL) {
+            return false;
+        }
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double length = Math.sqrt(dx * dx + dy * dy);
+        boolean swept = radius >= 0;
+        double pad = swept ? EPSILON + radius : EPSILON;
+
+        int best = NULL;
+        double bestDistance = Double.MAX_VALUE;
+        int top = 0;
+        this.stack[top++] = this.root;
+        while (top > 0) {
+            int index = this.stack[--top];
+            if ((this.layers[index] & mask) == 0) {
+                continue;
+            }
+            double enter = enterDistance(index, x0, y0, dx, dy, length, pad);
+            if (enter < 0 || enter - EPSILON > bestDistance) {
+                continue;
+            }
+            if (isLeaf(index)) {
+                Rectangle r = this.item[index].getCollisionRectangle();
+                if (swept ? !Raycast.sweptBoxHit(x0, y0, x1, y1, radius, r, this.scratch)
+                        : !Raycast.closestEdgeHit(x0, y0, x1, y1, r, this.scratch)) {
+                    continue;
+                }
+                double distance = this.scratch.getDistance();
+                if (distance < bestDistance
+                        || (distance == bestDistance && best != NULL && this.order[index] < this.order[best])) {
+                    best = index;
+                    bestDistance = distance;
+                    out.set(this.item[index], this.scratch.getX(), this.scratch.getY(), distance);
+                }
+                continue;
+            }
+            if (top + 2 > this.stack.length) {
+                int[] grown = new int[this.stack.length * 2];
+                System.arraycopy(this.stack, 0, grown, 0, top);
+                this.stack = grown;
+            }
+            // Push the farther child first, so the nearer one is explored first and prunes more.
+            int a = this.child1[index];
+            int b = this.child2[index];
+            if (enterDistance(a, x0, y0, dx, dy, length, pad) < enterDistance(b, x0, y0, dx, dy, length, pad)) {
+                this.stack[top++] = b;
+                this.stack[top++] = a;
+            } else {
+                this.stack[top++] = a;
+                this.stack[top++] = b;
+            }
+        }
+        return best != NULL;
+    }
+
+    /**
+     * Returns the number of segment-edge intersection tests the tree has performed so far.
+     *
+     * @return the number of edge tests
+     */
+    @Override
+    public long getEdgeTests() {
+        return this.scratch.getEdgeTests();
+    }
+
+    /**
+     * Returns the height of the tree, for diagnostics.
+     *
+     * @return the height of the root, or -1 if the tree is empty
+     */
+    public int getHeight() {
+        return this.root == NULL ? -1 : this.height[this.root];
+    }
+
+    /**
+     * Returns the distance along the segment at which it enters the box of the given node, grown by the
+     * given padding on every side (slab test).
+     *
+     * @param index  the node
+     * @param x0     the x-coordinate of the segment start
+     * @param y0     the y-coordinate of the segment start
+     * @param dx     the x extent of the segment
+     * @param dy     the y extent of the segment
+     * @param length the length of the segment
+     * @param pad    how far to grow the box
+     * @return the entry distance, 0 if the segment starts inside the box, or -1 if it misses the box
+     */
+    private double enterDistance(int index, double x0, double y0, double dx, double dy, double length, double pad) {
+        double tMin = 0;
+        double tMax = 1;
+        double lo = this.minX[index] - pad;
+        double hi = this.maxX[index] + pad;
+        if (dx == 0) {
+            if (x0 < lo || x0 > hi) {
+                return -1;
+            }
+        } else {
+            double t1 = (lo - x0) / dx;
+            double t2 = (hi - x0) / dx;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        lo = this.minY[index] - pad;
+        hi = this.maxY[index] + pad;
+        if (dy == 0) {
+            if (y0 < lo || y0 > hi) {
+                return -1;
+            }
+        } else {
+            double t1 = (lo - y0) / dy;
+            double t2 = (hi - y0) / dy;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        return tMin > tMax ? -1 : tMin * length;
+    }
+
+    /**
+     * Sets the box of a leaf to the given rectangle fattened by the margin.
+     *
+     * @param leaf the leaf node
+     * @param r    the rectangle of the leaf's collidable
+     */
+    private void fitLeaf(int leaf, Rectangle r) {
+        this.indexedRect[leaf] = r;
+        this.minX[leaf] = r.getMinX() - this.margin;
+        this.minY[leaf] = r.getMinY() - this.margin;
+        this.maxX[leaf] = r.getMaxX() + this.margin;
+        this.maxY[leaf] = r.getMaxY() + this.margin;
+    }
+
+    /**
+     * Checks if the given node is a leaf.
+     *
+     * @param index the node
+     * @return true if the node has no children
+     */
+    private boolean isLeaf(int index) {
+        return this.child1[index] == NULL;
+    }
+
+    /**
+     * Returns the perimeter of the union of two node boxes, used as the insertion cost heuristic.
+     *
+     * @param a the first node
+     * @param b the second node
+     * @return the perimeter of the combined box
+     */
+    private double unionPerimeter(int a, int b) {
+        double w = Math.max(this.maxX[a], this.maxX[b]) - Math.min(this.minX[a], this.minX[b]);
+        double h = Math.max(this.maxY[a], this.maxY[b]) - Math.min(this.minY[a], this.minY[b]);
+        return 2 * (w + h);
+    }
+
+    /**
+     * Returns the perimeter of a node box.
+     *
+     * @param a the node
+     * @return the perimeter of the box
+     */
+    private double perimeter(int a) {
+        return 2 * ((this.maxX[a] - this.minX[a]) + (this.maxY[a] - this.minY[a]));
+    }
+
+    /**
+     * Recomputes the box, height and layers of an internal node from its children.
+     *
+     * @param index the internal node
+     */
+    private void unionChildren(int index) {
+        int a = this.child1[index];
+        int b = this.child2[index];
+        this.minX[index] = Math.min(this.minX[a], this.minX[b]);
+        this.minY[index] = Math.min(this.minY[a], this.minY[b]);
+        this.maxX[index] = Math.max(this.maxX[a], this.maxX[b]);
+        this.maxY[index] = Math.max(this.maxY[a], this.maxY[b]);
+        this.height[index] = 1 + Math.max(this.height[a], this.height[b]);
+        this.layers[index] = this.layers[a] | this.layers[b];
+    }
+
+    /**
+     * Inserts a leaf into the tree, choosing the sibling with the cheapest perimeter increase.
+     *
+     * @param leaf the leaf node
+     */
+    private void insertLeaf(int leaf) {
+        if (this.root == NULL) {
+            this.root = leaf;
+            this.parent[leaf] = NULL;
+            return;
+        }
+        int index = this.root;
+        while (!isLeaf(index)) {
+            int c1 = this.child1[index];
+            int c2 = this.child2[index];
+            double area = perimeter(index);
+            double combinedArea = unionPerimeter(index, leaf);
+            double cost = 2 * combinedArea;
+            double inheritanceCost = 2 * (combinedArea - area);
+            double cost1 = unionPerimeter(c1, leaf) + inheritanceCost;
+            if (!isLeaf(c1)) {
+                cost1 -= perimeter(c1);
+            }
+            double cost2 = unionPerimeter(c2, leaf) + inheritanceCost;
+            if (!isLeaf(c2)) {
+                cost2 -= perimeter(c2);
+            }
+            if (cost < cost1 && cost < cost2) {
+                break;
+            }
+            index = cost1 < cost2 ? c1 : c2;
+        }
+        int sibling = index;
+        int oldParent = this.parent[sibling];
+        int newParent = allocateNode();
+        this.parent[newParent] = oldParent;
+        this.item[newParent] = null;
+        this.child1[newParent] = sibling;
+        this.child2[newParent] = leaf;
+        this.parent[sibling] = newParent;
+        this.parent[leaf] = newParent;
+        if (oldParent != NULL) {
+            if (this.child1[oldParent] == sibling) {
+                this.child1[oldParent] = newParent;
+            } else {
+                this.child2[oldParent] = newParent;
+            }
+        } else {
+            this.root = newParent;
+        }
+        unionChildren(newParent);
+        for (index = oldParent; index != NULL; index = this.parent[index]) {
+            index = balance(index);
+            unionChildren(index);
+        }
+    }
+
+    /**
+     * Detaches a leaf from the tree, replacing its parent by its sibling.
+     *
+     * @param leaf the leaf node
+     */
+    private void removeLeaf(int leaf) {
+        if (leaf == this.root) {
+            this.root = NULL;
+            return;
+        }
+        int p = this.parent[leaf];
+        int grandParent = this.parent[p];
+        int sibling = this.child1[p] == leaf ? this.child2[p] : this.child1[p];
+        if (grandParent != NULL) {
+            if (this.child1[grandParent] == p) {
+                this.child1[grandParent] = sibling;
+            } else {
+                this.child2[grandParent] = sibling;
+            }
+            this.parent[sibling] = grandParent;
+            freeNode(p);
+            for (int index = grandParent; index != NULL; index = this.parent[index]) {
+                index = balance(index);
+                unionChildren(index);
+            }
+        } else {
+            this.root = sibling;
+            this.parent[sibling] = NULL;
+            freeNode(p);
+        }
+        this.parent[leaf] = NULL;
+    }
+
+    /**
+     * Performs a left or right rotation if the subtree rooted at the given node is imbalanced.
+     *
+     * @param a the root of the subtree
+     * @return the new root of the subtree
+     */
+    private int balance(int a) {
+        if (isLeaf(a) || this.height[a] < 2) {
+            return a;
+        }
+        int b = this.child1[a];
+        int c = this.child2[a];
+        int diff = this.height[c] - this.height[b];
+        if (diff > 1) {
+            return rotateUp(a, c, false);
+        }
+        if (diff < -1) {
+            return rotateUp(a, b, true);
+        }
+        return a;
+    }
+
+    /**
+     * Rotates the taller child of a node up to take its place.
+     *
+     * @param a          the imbalanced node
+     * @param up         the taller child, which becomes the new subtree root
+     * @param upIsChild1 true if the taller child is child1 of a
+     * @return the new root of the subtree
+     */
+    private int rotateUp(int a, int up, boolean upIsChild1) {
+        int f = this.child1[up];
+        int g = this.child2[up];
+        this.child1[up] = a;
+        this.parent[up] = this.parent[a];
+        this.parent[a] = up;
+        int upParent = this.parent[up];
+        if (upParent != NULL) {
+            if (this.child1[upParent] == a) {
+                this.child1[upParent] = up;
+            } else {
+                this.child2[upParent] = up;
+            }
+        } else {
+            this.root = up;
+        }
+        int keep = this.height[f] > this.height[g] ? f : g;
+        int move = keep == f ? g : f;
+        this.child2[up] = keep;
+        if (upIsChild1) {
+            this.child1[a] = move;
+        } else {
+            this.child2[a] = move;
+        }
+        this.parent[move] = a;
+        this.parent[keep] = up;
+        unionChildren(a);
+        unionChildren(up);
+        return up;
+    }
+
+    /**
+     * Takes a node from the free list, growing the arrays if needed.
+     *
+     * @return the index of the new node
+     */
+    private int allocateNode() {
+        if (this.freeList == NULL) {
+            int capacity = this.minX.length;
+            if (this.nodeCount == capacity) {
+                allocateArrays(capacity * 2);
+            }
+            this.nodeCount++;
+            return this.nodeCount - 1;
+        }
+        int index = this.freeList;
+        this.freeList = this.parent[index];
+        this.parent[index] = NULL;
+        this.child1[index] = NULL;
+        this.child2[index] = NULL;
+        this.height[index] = 0;
+        return index;
+    }
+
+    /**
+     * Returns a node to the free list.
+     *
+     * @param index the node to free
+     */
+    private void freeNode(int index) {
+        this.item[index] = null;
+        this.indexedRect[index] = null;
+        this.child1[index] = NULL;
+        this.child2[index] = NULL;
+        this.height[index] = -1;
+        this.parent[index] = this.freeList;
+        this.freeList = index;
+    }
+
+    /**
+     * Grows (or creates) the node arrays, keeping the existing nodes.
+     *
+     * @param capacity the new capacity
+     */
+    private void allocateArrays(int capacity) {
+        int old = this.minX == null ? 0 : this.minX.length;
+        this.minX = grow(this.minX, capacity);
+        this.minY = grow(this.minY, capacity);
+        this.maxX = grow(this.maxX, capacity);
+        this.maxY = grow(this.maxY, capacity);
+        this.parent = grow(this.parent, capacity);
+        this.child1 = grow(this.child1, capacity);
+        this.child2 = grow(this.child2, capacity);
+        this.height = grow(this.height, capacity);
+        this.layers = grow(this.layers, capacity);
+        long[] newOrder = new long[capacity];
+        Collidable[] newItem = new Collidable[capacity];
+        Rectangle[] newRect = new Rectangle[capacity];
+        if (old > 0) {
+            System.arraycopy(this.order, 0, newOrder, 0, old);
+            System.arraycopy(this.item, 0, newItem, 0, old);
+            System.arraycopy(this.indexedRect, 0, newRect, 0, old);
+        }
+        this.order = newOrder;
+        this.item = newItem;
+        this.indexedRect = newRect;
+        for (int i = old; i < capacity; i++) {
+            this.parent[i] = NULL;
+            this.child1[i] = NULL;
+            this.child2[i] = NULL;
+        }
+    }
+
+    /**
+     * Returns a copy of the array with the given length.
+     *
+     * @param a        the array, or null
+     * @param capacity the new length
+     * @return the grown array
+     */
+    private static double[] grow(double[] a, int capacity) {
+        double[] grown = new double[capacity];
+        if (a != null) {
+            System.arraycopy(a, 0, grown, 0, a.length);
+        }
+        return grown;
+    }
+
+    /**
+     * Returns a copy of the array with the given length.
+     *
+     * @param a        the array, or null
+     * @param capacity the new length
+     * @return the grown array
+     */
+    private static int[] grow(int[] a, int capacity) {
+        int[] grown = new int[capacity];
+        if (a != null) {
+            System.arraycopy(a, 0, grown, 0, a.length);
+        }
+        return grown;
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package gameRunning;
+
+import collections.Collidable;
+
+/**
+ * The CollidableSet interface is a group of collidables that a GameEnvironment queries as a whole,
+ * next to its CollisionIndex, e.g. a table of many blocks packed into arrays with their own spatial index.
+ * The set hands out Collidable objects only for the members a query hits, and must hand out the same
+ * object for the same member for as long as the member is in the set.
+ */
+public interface CollidableSet {
+
+    /**
+     * Returns the number of collidables in the set.
+     *
+     * @return the number of collidables
+     */
+    int size();
+
+    /**
+     * Checks if the given collidable is a member of the set.
+     *
+     * @param c the collidable
+     * @return true if it was handed out by this set and was not removed since
+     */
+    boolean contains(Collidable c);
+
+    /**
+     * Removes a member from the set.
+     *
+     * @param c the collidable to remove
+     * @return true if it was a member of the set
+     */
+    boolean remove(Collidable c);
+
+    /**
+     * Finds the member hit first by a point moving from (x0, y0) to (x1, y1), like CollisionIndex.closestCollision.
+     * Distance ties are broken in favor of the member added first.
+     *
+     * @param x0   the x-coordinate of the trajectory start
+     * @param y0   the y-coordinate of the trajectory start
+     * @param x1   the x-coordinate of the trajectory end
+     * @param y1   the y-coordinate of the trajectory end
+     * @param mask the layers to look in
+     * @param out  the holder the closest hit is written to; cleared if there is none
+     * @return true if a hit was found
+     */
+    boolean closestCollision(double x0, double y0, double x1, double y1, int mask, CollisionResult out);
+
+    /**
+     * Finds the member touched first by a circle moving from (x0, y0) to (x1, y1), like CollisionIndex.closestSweep.
+     *
+     * @param x0     the x-coordinate of the center at the start
+     * @param y0     the y-coordinate of the center at the start
+     * @param x1     the x-coordinate of the center at the end
+     * @param y1     the y-coordinate of the center at the end
+     * @param radius the radius of the circle
+     * @param mask   the layers to look in
+     * @param out    the holder the first touch is written to; cleared if there is none
+     * @return true if a touch was found
+     */
+    boolean closestSweep(double x0, double y0, double x1, double y1, double radius, int mask, CollisionResult out);
+
+    /**
+     * Returns the number of edge tests the queries of the set made so far.
+     *
+     * @return the number of edge tests
+     */
+    long getEdgeTests();
+}
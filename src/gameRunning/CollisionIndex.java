@@ -0,0 +1,77 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package gameRunning;
+
+import collections.Collidable;
+
+/**
+ * The CollisionIndex interface represents a broadphase structure that the GameEnvironment
+ * uses to find the closest collision along a trajectory without testing every collidable.
+ * Implementations must return exactly what a linear scan over the collidables, in insertion order, would return.
+ */
+public interface CollisionIndex {
+
+    /**
+     * Adds the given collidable to the index, using its current collision rectangle.
+     *
+     * @param c     the collidable to add
+     * @param layer the collision layer of the collidable, a single bit (see CollisionLayer)
+     */
+    void insert(Collidable c, int layer);
+
+    /**
+     * Removes the given collidable from the index. Does nothing if it is not indexed.
+     *
+     * @param c the collidable to remove
+     */
+    void remove(Collidable c);
+
+    /**
+     * Notifies the index that the collision rectangle of the given collidable has changed.
+     *
+     * @param c the collidable that moved
+     */
+    void update(Collidable c);
+
+    /**
+     * Finds the closest collision along the segment (x0, y0)-(x1, y1) among the indexed collidables
+     * whose layer is in the mask. Collidables outside of the mask must not be intersection-tested.
+     * Implementations must not allocate.
+     *
+     * @param x0   the x-coordinate of the trajectory start
+     * @param y0   the y-coordinate of the trajectory start
+     * @param x1   the x-coordinate of the trajectory end
+     * @param y1   the y-coordinate of the trajectory end
+     * @param mask the layers to look in
+     * @param out  the holder the closest collision is written to; cleared if there is none
+     * @return true if a collision was found
+     */
+    boolean closestCollision(double x0, double y0, double x1, double y1, int mask, CollisionResult out);
+
+    /**
+     * Finds the collidable that a circle moving from (x0, y0) to (x1, y1) touches first, sweeping the circle
+     * against the collidables' rectangles as Raycast.sweptBoxHit does. Layers and ties are handled like
+     * closestCollision. Implementations must not allocate.
+     *
+     * @param x0     the x-coordinate of the center at the start
+     * @param y0     the y-coordinate of the center at the start
+     * @param x1     the x-coordinate of the center at the end
+     * @param y1     the y-coordinate of the center at the end
+     * @param radius the radius of the circle
+     * @param mask   the layers to look in
+     * @param out    the holder the first touch is written to, with the distance the center moved until it;
+     *               cleared if there is none
+     * @return true if the circle touches a collidable
+     */
+    boolean closestSweep(double x0, double y0, double x1, double y1, double radius, int mask, CollisionResult out);
+
+    /**
+     * Returns the number of segment-edge intersection tests this index has performed so far.
+     *
+     * @return the number of edge tests
+     */
+    long getEdgeTests();
+}
@@ -0,0 +1,37 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package gameRunning;
+
+/**
+ * The CollisionLayer class holds the collision layers of the game. Every collidable is registered in one
+ * layer, a single bit; a collision query takes a mask of layers, and collidables outside of the mask are
+ * skipped by the index before any intersection test.
+ * Layers above the predefined ones are free for new uses, e.g. blocks that some balls pass through.
+ */
+public final class CollisionLayer {
+    /**
+     * The layer of collidables registered without a layer.
+     */
+    public static final int DEFAULT = 1;
+    /**
+     * The layer of the blocks.
+     */
+    public static final int BLOCKS = 1 << 1;
+    /**
+     * The layer of the paddle.
+     */
+    public static final int PADDLE = 1 << 2;
+    /**
+     * The mask of all the layers.
+     */
+    public static final int ALL = -1;
+
+    /**
+     * Prevents instantiation of this constants class.
+     */
+    private CollisionLayer() {
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package gameRunning;
+
+import collections.Collidable;
+import geomtry.Point;
+
+/**
+ * The CollisionResult class is a reusable, mutable counterpart of CollisionInfo.
+ * The collision hot path writes into it, so finding the closest collision allocates nothing.
+ */
+public class CollisionResult {
+    private Collidable collisionObject;
+    private double x;
+    private double y;
+    private double distance;
+
+    /**
+     * Stores a collision.
+     *
+     * @param c        the collidable object involved in the collision
+     * @param x        the x-coordinate of the collision point
+     * @param y        the y-coordinate of the collision point
+     * @param distance the distance from the start of the trajectory to the collision point
+     */
+    public void set(Collidable c, double x, double y, double distance) {
+        this.collisionObject = c;
+        this.x = x;
+        this.y = y;
+        this.distance = distance;
+    }
+
+    /**
+     * Clears the result, so it holds no collision.
+     */
+    public void clear() {
+        this.collisionObject = null;
+    }
+
+    /**
+     * Checks if the result holds a collision.
+     *
+     * @return true if a collision was found
+     */
+    public boolean isHit() {
+        return this.collisionObject != null;
+    }
+
+    /**
+     * Returns the collidable object involved in the collision.
+     *
+     * @return the collidable object, or null if there is no collision
+     */
+    public Collidable collisionObject() {
+        return this.collisionObject;
+    }
+
+    /**
+     * Returns the x-coordinate of the collision point.
+     *
+     * @return the x-coordinate
+     */
+    public double getX() {
+        return this.x;
+    }
+
+    /**
+     * Returns the y-coordinate of the collision point.
+     *
+     * @return the y-coordinate
+     */
+    public double getY() {
+        return this.y;
+    }
+
+    /**
+     * Returns the distance from the start of the trajectory to the collision point.
+     *
+     * @return the distance
+     */
+    public double getDistance() {
+        return this.distance;
+    }
+
+    /**
+     * Returns an immutable copy of this result.
+     *
+     * @return the collision info, or null if there is no collision
+     */
+    public CollisionInfo toCollisionInfo() {
+        if (!isHit()) {
+            return null;
+        }
+        return new CollisionInfo(new Point(this.x, this.y), this.collisionObject);
+    }
+}
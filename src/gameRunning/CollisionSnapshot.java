@@ -0,0 +1,325 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package gameRunning;
+
+import java.util.Arrays;
+
+import collections.Collidable;
+import collections.DeferredList;
+import geomtry.RayHit;
+import geomtry.Raycast;
+import geomtry.Rectangle;
+
+/**
+ * The CollisionSnapshot class is a frozen, read-only copy of the collidables of a GameEnvironment,
+ * taken for one parallel update phase. Many threads may query it at once, each with its own Query.
+ * The collision rectangles are copied into flat arrays and bucketed into a uniform grid stored as one
+ * int array per grid (cell offsets plus collidable indices), so a query touches no shared mutable state.
+ * A query returns exactly what GameEnvironment.getClosestCollision returned when the snapshot was taken:
+ * the same narrowphase test on the same rectangles, with distance ties broken by insertion order.
+ * The collision layers are copied too, so a query with a layer mask skips the same collidables.
+ */
+public class CollisionSnapshot {
+    private static final double EPSILON = 0.000001d;
+    private final double cellSize;
+    private Collidable[] items;
+    private double[] x;
+    private double[] y;
+    private double[] width;
+    private double[] height;
+    private int[] layers;
+    private int[] cellStart;
+    private int[] cellItems;
+    private int count;
+    private int cols;
+    private int rows;
+    private double originX;
+    private double originY;
+    private double cell;
+    private long version = -1;
+    private int sourceCount = -1;
+
+    /**
+     * The per-thread state of a snapshot query, and the holder of its result.
+     */
+    public static final class Query {
+        private final RayHit hit;
+        private int[] stamps;
+        private int stamp;
+        private int best;
+        private double bestX;
+        private double bestY;
+
+        /**
+         * Constructs the state for queries made by a single thread.
+         */
+        public Query() {
+            this.hit = new RayHit();
+            this.stamps = new int[0];
+        }
+
+        /**
+         * Returns the index of the collidable hit by the last query, in snapshot order.
+         *
+         * @return the index of the collidable, or -1 if there was no collision
+         */
+        public int getIndex() {
+            return this.best;
+        }
+
+        /**
+         * Returns the x-coordinate of the collision point found by the last query.
+         *
+         * @return the x-coordinate
+         */
+        public double getX() {
+            return this.bestX;
+        }
+
+        /**
+         * Returns the y-coordinate of the collision point found by the last query.
+         *
+         * @return the y-coordinate
+         */
+        public double getY() {
+            return this.bestY;
+        }
+
+        /**
+         * Returns the number of segment-edge intersection tests made by this query state so far.
+         *
+         * @return the number of edge tests
+         */
+        public long getEdgeTests() {
+            return this.hit.getEdgeTests();
+        }
+    }
+
+    /**
+     * Constructs an empty snapshot whose grid cells are (at least) the given size.
+     *
+     * @param cellSize the side length of a single grid cell
+     */
+    public CollisionSnapshot(double cellSize) {
+        this.cellSize = cellSize;
+        this.items = new Collidable[0];
+        this.x = new double[0];
+        this.y = new double[0];
+        this.width = new double[0];
+        this.height = new double[0];
+        this.layers = new int[0];
+        this.cellStart = new int[2];
+        this.cellItems = new int[0];
+        this.cols = 1;
+        this.rows = 1;
+        this.cell = cellSize;
+    }
+
+    /**
+     * Copies the current collidables of the environment, unless nothing was added, moved or removed
+     * since the last copy. Must not run while the snapshot is being queried.
+     *
+     * @param environment the environment to copy
+     */
+    public void refresh(GameEnvironment environment) {
+        if (environment.getLayoutVersion() == this.version && environment.getCollidableCount() == this.sourceCount) {
+            return;
+        }
+        this.version = environment.getLayoutVersion();
+        this.sourceCount = environment.getCollidableCount();
+        DeferredList<Collidable> source = environment.collidableSlots();
+        int n = this.sourceCount;
+        if (this.items.length < n) {
+            this.items = new Collidable[n];
+            this.x = new double[n];
+            this.y = new double[n];
+            this.width = new double[n];
+            this.height = new double[n];
+            this.layers = new int[n];
+        }
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        this.count = 0;
+        for (int i = 0; i < source.end(); i++) {
+            Collidable c = source.get(i);
+            if (c == null) {
+                continue;
+            }
+            Rectangle r = c.getCollisionRectangle();
+            int k = this.count++;
+            this.items[k] = c;
+            this.x[k] = r.getUpperLeft().getX();
+            this.y[k] = r.getUpperLeft().getY();
+            this.width[k] = r.getWidth();
+            this.height[k] = r.getHeight();
+            this.layers[k] = environment.getLayer(c);
+            minX = Math.min(minX, this.x[k]);
+            minY = Math.min(minY, this.y[k]);
+            maxX = Math.max(maxX, this.x[k] + this.width[k]);
+            maxY = Math.max(maxY, this.y[k] + this.height[k]);
+        }
+        Arrays.fill(this.items, this.count, this.items.length, null);
+        bucket(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Returns the collidable with the given index, in snapshot (insertion) order.
+     *
+     * @param index the index of the collidable
+     * @return the collidable
+     */
+    public Collidable getCollidable(int index) {
+        return this.items[index];
+    }
+
+    /**
+     * Finds the closest collision along the segment (x0, y0)-(x1, y1) among the copied collidables.
+     * Safe to call from several threads at once, as long as each uses its own Query.
+     *
+     * @param x0 the x-coordinate of the trajectory start
+     * @param y0 the y-coordinate of the trajectory start
+     * @param x1 the x-coordinate of the trajectory end
+     * @param y1 the y-coordinate of the trajectory end
+     * @param q  the query state of the calling thread, which receives the result
+     * @return true if a collision was found
+     */
+    public boolean closestCollision(double x0, double y0, double x1, double y1, Query q) {
+        return closestCollision(x0, y0, x1, y1, CollisionLayer.ALL, q);
+    }
+
+    /**
+     * Version of closestCollision that only looks at the copied collidables in the given collision layers.
+     *
+     * @param x0   the x-coordinate of the trajectory start
+     * @param y0   the y-coordinate of the trajectory start
+     * @param x1   the x-coordinate of the trajectory end
+     * @param y1   the y-coordinate of the trajectory end
+     * @param mask the layers to look in
+     * @param q    the query state of the calling thread, which receives the result
+     * @return true if a collision was found
+     */
+    public boolean closestCollision(double x0, double y0, double x1, double y1, int mask, Query q) {
+        if (q.stamps.length < this.count) {
+            q.stamps = new int[this.items.length];
+        }
+        q.stamp++;
+        q.best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        int firstCol = colOf(Math.min(x0, x1) - EPSILON);
+        int lastCol = colOf(Math.max(x0, x1) + EPSILON);
+        int firstRow = rowOf(Math.min(y0, y1) - EPSILON);
+        int lastRow = rowOf(Math.max(y0, y1) + EPSILON);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int c = row * this.cols + col;
+                for (int i = this.cellStart[c]; i < this.cellStart[c + 1]; i++) {
+                    int k = this.cellItems[i];
+                    if (q.stamps[k] == q.stamp || (this.layers[k] & mask) == 0) {
+                        continue;
+                    }
+                    q.stamps[k] = q.stamp;
+                    if (!Raycast.closestEdgeHit(x0, y0, x1, y1, this.x[k], this.y[k], this.width[k], this.height[k],
+                            q.hit)) {
+                        continue;
+                    }
+                    double distance = q.hit.getDistance();
+                    if (distance < bestDistance || (distance == bestDistance && k < q.best)) {
+                        q.best = k;
+                        q.bestX = q.hit.getX();
+                        q.bestY = q.hit.getY();
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        return q.best >= 0;
+    }
+
+    /**
+     * Buckets the copied rectangles into a grid covering their bounds (counting sort, two passes).
+     * Cells are enlarged if needed, so the grid never has many more cells than there are collidables.
+     *
+     * @param minX the smallest x-coordinate of any rectangle
+     * @param minY the smallest y-coordinate of any rectangle
+     * @param maxX the largest x-coordinate of any rectangle
+     * @param maxY the largest y-coordinate of any rectangle
+     */
+    private void bucket(double minX, double minY, double maxX, double maxY) {
+        if (this.count == 0) {
+            this.cols = 1;
+            this.rows = 1;
+            this.cellStart[0] = 0;
+            this.cellStart[1] = 0;
+            return;
+        }
+        this.originX = minX;
+        this.originY = minY;
+        this.cell = this.cellSize;
+        int maxCells = 4 * this.count + 16;
+        while (true) {
+            this.cols = Math.max(1, (int) Math.ceil((maxX - minX) / this.cell));
+            this.rows = Math.max(1, (int) Math.ceil((maxY - minY) / this.cell));
+            if ((long) this.cols * this.rows <= maxCells) {
+                break;
+            }
+            this.cell *= 2;
+        }
+        int cells = this.cols * this.rows;
+        if (this.cellStart.length < cells + 1) {
+            this.cellStart = new int[cells + 1];
+        }
+        Arrays.fill(this.cellStart, 0, cells + 1, 0);
+        int total = 0;
+        for (int k = 0; k < this.count; k++) {
+            for (int row = rowOf(this.y[k] - EPSILON); row <= rowOf(this.y[k] + this.height[k] + EPSILON); row++) {
+                for (int col = colOf(this.x[k] - EPSILON); col <= colOf(this.x[k] + this.width[k] + EPSILON); col++) {
+                    this.cellStart[row * this.cols + col + 1]++;
+                    total++;
+                }
+            }
+        }
+        for (int c = 0; c < cells; c++) {
+            this.cellStart[c + 1] += this.cellStart[c];
+        }
+        if (this.cellItems.length < total) {
+            this.cellItems = new int[total];
+        }
+        // Fill each cell in collidable order, using its start as the write cursor; then shift the starts back
+        for (int k = 0; k < this.count; k++) {
+            for (int row = rowOf(this.y[k] - EPSILON); row <= rowOf(this.y[k] + this.height[k] + EPSILON); row++) {
+                for (int col = colOf(this.x[k] - EPSILON); col <= colOf(this.x[k] + this.width[k] + EPSILON); col++) {
+                    this.cellItems[this.cellStart[row * this.cols + col]++] = k;
+                }
+            }
+        }
+        for (int c = cells; c > 0; c--) {
+            this.cellStart[c] = this.cellStart[c - 1];
+        }
+        this.cellStart[0] = 0;
+    }
+
+    /**
+     * Returns the grid column containing the given x-coordinate, clamped to the grid.
+     *
+     * @param v the x-coordinate
+     * @return the column
+     */
+    private int colOf(double v) {
+        return Math.max(0, Math.min(this.cols - 1, (int) Math.floor((v - this.originX) / this.cell)));
+    }
+
+    /**
+     * Returns the grid row containing the given y-coordinate, clamped to the grid.
+     *
+     * @param v the y-coordinate
+     * @return the row
+     */
+    private int rowOf(double v) {
+        return Math.max(0, Math.min(this.rows - 1, (int) Math.floor((v - this.originY) / this.cell)));
+    }
+}
@@ -7,19 +7,28 @@ package gameRunning;
 import collections.Collidable;
 import collections.Sprite;
 import collections.SpriteCollection;
-import elements.Ball;
+import elements.BallSystem;
 import elements.Block;
+import elements.BlockTable;
 import elements.Paddle;
 import geomtry.Point;
 import geomtry.Rectangle;
 import geomtry.Velocity;
+import instrumentation.EventLog;
+import instrumentation.FrameStats;
+import levels.LevelDefinition;
+import listeners.HitEventQueue;
 import listeners.ScoreIndicator;
 import listeners.ScoreTrackingListener;
+import rendering.DirtyRectRenderer;
+import rendering.RenderThread;
+import rendering.StaticLayer;
 import removers.BallRemover;
 import removers.BlockRemover;
 
 import biuoop.DrawSurface;
 import biuoop.GUI;
+import biuoop.KeyboardSensor;
 import biuoop.Sleeper;
 
 import java.awt.Color;
@@ -28,28 +37,108 @@ import java.util.List;
 
 /**
  * The Game class initializes and manages the game, including the game environment and sprite collection.
+ * A game either owns a biuoop GUI window, or runs headless with any KeyboardSensor controlling the paddle.
  */
 public class Game {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long MAX_FRAME_NANOS = 250_000_000L;
     private final SpriteCollection sprites;
+    private final StaticLayer staticLayer;
+    private final DirtyRectRenderer renderer;
     private final GameEnvironment environment;
+    private final BallSystem balls;
+    private Paddle paddle;
     private final GUI gui;
+    private final KeyboardSensor keyboard;
     private final BlockRemover blockRemover;
     private final BallRemover ballRemover;
     private final ScoreTrackingListener scoreTrackingListener;
+    private final HitEventQueue hitEvents;
+    private final RateMeter updateRate;
+    private final RateMeter renderRate;
+    private final FrameStats frameStats;
+    private final EventLog eventLog;
+    private int updatesPerSecond;
+    private boolean renderThreaded;
+    private boolean compactBlocks;
+    private RenderThread renderThread;
 
     /**
-     * Constructs a new Game, and creates the borders.
+     * Constructs a new Game with a GUI window, and creates the borders.
      */
     public Game() {
-        this.blockRemover = new BlockRemover(this, new Counter());
-        this.ballRemover = new BallRemover(this, new Counter());
-        this.scoreTrackingListener = new ScoreTrackingListener(new Counter());
+        this(new GUI("Game", WIDTH, HEIGHT));
+    }
+
+    /**
+     * Constructs a new headless Game, and creates the borders.
+     * No window is opened; the paddle is controlled by the given keyboard sensor.
+     *
+     * @param keyboard the keyboard sensor controlling the paddle
+     */
+    public Game(KeyboardSensor keyboard) {
+        this(null, keyboard, EventLog.getDefault());
+    }
+
+    /**
+     * Constructs a new headless Game that writes its events to the given log, and creates the borders.
+     *
+     * @param keyboard the keyboard sensor controlling the paddle
+     * @param eventLog the log game events are written to
+     */
+    public Game(KeyboardSensor keyboard, EventLog eventLog) {
+        this(null, keyboard, eventLog);
+    }
+
+    /**
+     * Constructs a new Game that draws on the given GUI and reads its keyboard.
+     *
+     * @param gui the GUI to draw on
+     */
+    private Game(GUI gui) {
+        this(gui, gui.getKeyboardSensor(), EventLog.getDefault());
+    }
+
+    /**
+     * Constructs a new Game that draws on the given GUI, with the paddle controlled by the given keyboard
+     * sensor, e.g. one that records or replays the GUI's keys.
+     *
+     * @param gui      the GUI to draw on
+     * @param keyboard the keyboard sensor controlling the paddle
+     */
+    public Game(GUI gui, KeyboardSensor keyboard) {
+        this(gui, keyboard, EventLog.getDefault());
+    }
+
+    /**
+     * Constructs a new Game, and creates the borders.
+     *
+     * @param gui      the GUI to draw on, or null for a headless game
+     * @param keyboard the keyboard sensor controlling the paddle
+     * @param eventLog the log game events are written to
+     */
+    private Game(GUI gui, KeyboardSensor keyboard, EventLog eventLog) {
+        this.gui = gui;
+        this.keyboard = keyboard;
+        this.eventLog = eventLog;
+        this.updateRate = new RateMeter();
+        this.renderRate = new RateMeter();
+        this.frameStats = new FrameStats();
+        this.updatesPerSecond = 60;
+        this.blockRemover = new BlockRemover(this, new Counter(), eventLog);
+        this.ballRemover = new BallRemover(this, new Counter(), eventLog);
+        this.scoreTrackingListener = new ScoreTrackingListener(new Counter(), eventLog);
+        this.hitEvents = new HitEventQueue();
         this.sprites = new SpriteCollection();
+        this.staticLayer = new StaticLayer(WIDTH, HEIGHT, Color.lightGray);
+        this.renderer = new DirtyRectRenderer(WIDTH, HEIGHT, this.staticLayer, this.sprites);
         sprites.addSprite(new ScoreIndicator(this.scoreTrackingListener));
-        this.environment = new GameEnvironment();
-        int bWidth = 800;
-        int bHeight = 600;
-        this.gui = new GUI("Game", bWidth, bHeight);
+        this.environment = new GameEnvironment(new AabbTree());
+        this.balls = new BallSystem(this.environment);
+        int bWidth = WIDTH;
+        int bHeight = HEIGHT;
         Block border1 = new Block(new Rectangle(new Point(0, 20), 800, 20), Color.gray);
         Block border2 = new Block(new Rectangle(new Point(0, 40), 20, bHeight - 2 * 20), Color.gray);
         Block border3 = new Block(new Rectangle(new Point(bWidth - 20, 40), 20, bHeight - 2 * 20), Color.gray);
@@ -70,6 +159,25 @@ public class Game {
         this.environment.addCollidable(c);
     }
 
+    /**
+     * Adds a collidable to the game's environment, in the given collision layer.
+     *
+     * @param c     the collidable to add
+     * @param layer the collision layer, a single bit (see CollisionLayer)
+     */
+    public void addCollidable(Collidable c, int layer) {
+        this.environment.addCollidable(c, layer);
+    }
+
+    /**
+     * Adds a set of collidables to the game environment.
+     *
+     * @param set the set to add
+     */
+    public void addCollidableSet(CollidableSet set) {
+        this.environment.addCollidableSet(set);
+    }
+
     /**
      * Adds a sprite to the sprite collection.
      *
@@ -80,11 +188,39 @@ public class Game {
     }
 
     /**
-     * Initializes a new game: creates the blocks, ball, paddle, and adds them to the game.
+     * Adds a sprite that looks the same on every frame to the cached static layer.
+     * It is drawn from the cached image, and is not notified that time has passed.
+     *
+     * @param s the sprite to add
+     */
+    public void addStaticSprite(Sprite s) {
+        if (this.renderThread != null) {
+            this.renderThread.addStatic(s);
+        } else {
+            this.staticLayer.add(s);
+        }
+    }
+
+    /**
+     * Initializes a new game on the classic level: creates the blocks, ball, paddle, and adds them to the game.
      */
     public void initialize() {
-        List<Block> blocks = createBlocks();
-        createBallAndPaddle();
+        initialize(LevelDefinition.classic());
+    }
+
+    /**
+     * Initializes a new game on the given level: creates its blocks, balls and paddle, and adds them to the game.
+     *
+     * @param level the level to play
+     */
+    public void initialize(LevelDefinition level) {
+        if (this.compactBlocks) {
+            createBlockTable(level);
+            createBallsAndPaddle(level);
+            return;
+        }
+        List<Block> blocks = createBlocks(level);
+        createBallsAndPaddle(level);
         for (Block b : blocks) {
             b.addHitListener(this.blockRemover);
             b.addHitListener(this.scoreTrackingListener);
@@ -92,89 +228,384 @@ public class Game {
     }
 
     /**
-     * Creates blocks and adds them to the game.
+     * Creates the blocks of a level and adds them to the game, in the level's order.
      *
+     * @param level the level
      * @return a list of blocks created
      */
-    private List<Block> createBlocks() {
-        int blockWidth = 50;
-        int blockHeight = 25;
-        int rows = 6;
-        int cols = 12;
-        int startY = 100;
-        int startX = 730;
-        Color[] colors = {Color.RED, Color.ORANGE, Color.YELLOW, Color.GREEN, Color.BLUE, Color.magenta};
-        List<Block> blocks = new ArrayList<>();
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                Point upperLeft = new Point(startX - j * blockWidth, startY + i * blockHeight);
-                Rectangle rect = new Rectangle(upperLeft, blockWidth, blockHeight);
-                Block block = new Block(rect, colors[i % colors.length]);
-                block.addToGame(this);
-                blocks.add(block);
-                this.blockRemover.getRemainingBlocks().increase(1);
-            }
-            cols--;
+    private List<Block> createBlocks(LevelDefinition level) {
+        List<Block> blocks = new ArrayList<>(level.getBlockCount());
+        for (int i = 0; i < level.getBlockCount(); i++) {
+            Point upperLeft = new Point(level.getBlockX(i), level.getBlockY(i));
+            Rectangle rect = new Rectangle(upperLeft, level.getBlockWidth(i), level.getBlockHeight(i));
+            Block block = new Block(rect, level.getColor(level.getBlockColor(i)));
+            block.addToGame(this);
+            blocks.add(block);
         }
+        this.blockRemover.getRemainingBlocks().increase(level.getBlockCount());
         return blocks;
     }
 
     /**
-     * Creates a paddle and balls, and adds them to the game.
+     * Creates the blocks of a level in a single BlockTable and adds it to the game, in the level's order.
+     * All the blocks share one listener group, with the listeners every block of createBlocks gets.
+     *
+     * @param level the level
+     */
+    private void createBlockTable(LevelDefinition level) {
+        BlockTable table = new BlockTable();
+        int group = table.addListenerGroup(this.blockRemover, this.scoreTrackingListener);
+        for (int i = 0; i < level.getBlockCount(); i++) {
+            table.add(level.getBlockX(i), level.getBlockY(i), level.getBlockWidth(i), level.getBlockHeight(i),
+                    level.getColor(level.getBlockColor(i)), group);
+        }
+        table.addToGame(this);
+        this.blockRemover.getRemainingBlocks().increase(level.getBlockCount());
+    }
+
+    /**
+     * Creates the balls and the paddle of a level, and adds them to the game.
+     *
+     * @param level the level
      */
-    private void createBallAndPaddle() {
-        // Create and add balls
-        Point ballCenter = new Point(400, 500);
-        int ballRadius = 7;
-        Ball ball1 = new Ball(ballCenter, ballRadius, Color.BLACK, environment);
-        ball1.setVelocity(Velocity.fromAngleAndSpeed(245, 4));
-        ball1.addToGame(this);
-        Ball ball2 = new Ball(ballCenter, ballRadius, Color.BLACK, environment);
-        ball2.setVelocity(Velocity.fromAngleAndSpeed(60, 4));
-        ball2.addToGame(this);
-        Ball ball3 = new Ball(ballCenter, ballRadius, Color.BLACK, environment);
-        ball3.setVelocity(Velocity.fromAngleAndSpeed(100, 4));
-        ball3.addToGame(this);
-        this.ballRemover.getRemainingBalls().increase(3);
+    private void createBallsAndPaddle(LevelDefinition level) {
+        // Create and add balls; they all live in the ball system, which is stepped and drawn as one sprite
+        for (int i = 0; i < level.getBallCount(); i++) {
+            this.balls.add(level.getBallX(i), level.getBallY(i), level.getBallRadius(i),
+                    level.getColor(level.getBallColor(i)), level.getBallDx(i), level.getBallDy(i));
+        }
+        this.balls.addToGame(this);
+        this.ballRemover.getRemainingBalls().increase(level.getBallCount());
 
         // Create and add a paddle
-        Point paddleUpperLeft = new Point(350, 560);
-        int paddleWidth = 100;
-        int paddleHeight = 20;
-        Paddle paddle = new Paddle(new Rectangle(paddleUpperLeft, paddleWidth, paddleHeight), Color.BLACK,
-                gui.getKeyboardSensor());
-        paddle.addToGame(this);
+        Point paddleUpperLeft = new Point(level.getPaddleX(), level.getPaddleY());
+        this.paddle = new Paddle(new Rectangle(paddleUpperLeft, level.getPaddleWidth(), level.getPaddleHeight()),
+                level.getColor(level.getPaddleColor()), this.keyboard, level.getPaddleSpeed());
+        this.paddle.addToGame(this);
+        // The paddle moves sideways, wrapping around, so it can be anywhere in its row
+        this.balls.addMovingArea(new Rectangle(new Point(0, paddleUpperLeft.getY()), WIDTH, level.getPaddleHeight()));
+    }
+
+    /**
+     * Spawns balls at the given point, flying out at evenly spread angles (e.g. for a multiball power-up).
+     *
+     * @param count  the number of balls to spawn
+     * @param center the point the balls start from
+     * @param radius the radius of the balls
+     * @param color  the color of the balls
+     * @param speed  the speed of the balls
+     */
+    public void spawnBalls(int count, Point center, int radius, Color color, double speed) {
+        for (int i = 0; i < count; i++) {
+            this.balls.add(center, radius, color, Velocity.fromAngleAndSpeed(360.0 * i / count, speed));
+        }
+        this.ballRemover.getRemainingBalls().increase(count);
     }
 
     /**
      * Runs the game by starting the animation loop.
+     * Physics advances in fixed steps at the configured update rate, measured with System.nanoTime,
+     * independently of how fast frames are drawn. Each frame is drawn between the last two physics states.
+     * If a frame takes very long, the missed time is capped, so the game slows down instead of freezing.
+     * Frames are drawn on this thread by the dirty-rectangle renderer, or on a RenderThread if
+     * setRenderThreaded(true) was called.
      */
     public void run() {
+        if (this.gui == null) {
+            throw new IllegalStateException("A headless game has no GUI to run on");
+        }
+        if (this.renderThreaded) {
+            this.simulate();
+        } else {
+            this.loop();
+        }
+        this.finish();
+        gui.close();
+    }
+
+    /**
+     * Updates and draws the game on this thread until it is over, repainting only the areas that changed.
+     */
+    private void loop() {
         Sleeper sleeper = new Sleeper();
-        int framesPerSecond = 60;
-        int millisecondsPerFrame = 1000 / framesPerSecond;
-        while (this.blockRemover.getRemainingBlocks().getValue() > 0
-                && this.ballRemover.getRemainingBalls().getValue() > 0) {
-            long startTime = System.currentTimeMillis(); // timing
+        long nanosPerUpdate = NANOS_PER_SECOND / this.updatesPerSecond;
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        while (this.isRunning()) {
+            long now = System.nanoTime();
+            accumulator += Math.min(now - previous, MAX_FRAME_NANOS);
+            previous = now;
+            long queriesBefore = this.environment.getQueryCount();
+            long edgeTestsBefore = this.environment.getEdgeTestCount();
+            while (accumulator >= nanosPerUpdate && this.isRunning()) {
+                this.tick();
+                accumulator -= nanosPerUpdate;
+                this.updateRate.mark(System.nanoTime());
+            }
+            long updated = System.nanoTime();
             DrawSurface d = gui.getDrawSurface();
-            d.setColor(Color.lightGray);
-            d.fillRectangle(0, 0, 800, 600);
-            this.sprites.drawAllOn(d);
+            this.renderer.render(d, (double) accumulator / nanosPerUpdate);
+            long drawn = System.nanoTime();
             gui.show(d);
-            this.sprites.notifyAllTimePassed();
-            // timing
-            long usedTime = System.currentTimeMillis() - startTime;
-            long milliSecondLeftToSleep = millisecondsPerFrame - usedTime;
-            if (milliSecondLeftToSleep > 0) {
-                sleeper.sleepFor(milliSecondLeftToSleep);
+            long shown = System.nanoTime();
+            this.renderRate.mark(shown);
+            this.frameStats.recordFrame(updated - now, drawn - updated, shown - drawn,
+                    this.environment.getQueryCount() - queriesBefore,
+                    this.environment.getEdgeTestCount() - edgeTestsBefore);
+            // Sleep until the next update is due
+            long millisecondsLeftToSleep = (nanosPerUpdate - accumulator - (shown - previous)) / 1_000_000L;
+            if (millisecondsLeftToSleep > 0) {
+                sleeper.sleepFor(millisecondsLeftToSleep);
+                long slept = System.nanoTime() - shown;
+                this.frameStats.recordSleepOvershoot(slept - millisecondsLeftToSleep * 1_000_000L);
+            }
+        }
+    }
+
+    /**
+     * Updates the game on this thread until it is over, while a RenderThread draws the snapshot published
+     * after each tick. While it runs, the static layer belongs to the render thread.
+     */
+    private void simulate() {
+        Sleeper sleeper = new Sleeper();
+        long nanosPerUpdate = NANOS_PER_SECOND / this.updatesPerSecond;
+        RenderThread thread = new RenderThread(this.gui, this.staticLayer, this.sprites, this.renderRate,
+                this.frameStats, this.updatesPerSecond, this.updatesPerSecond);
+        long ticks = 0;
+        thread.publish(ticks);
+        this.renderThread = thread;
+        thread.start();
+        try {
+            long next = System.nanoTime();
+            while (this.isRunning()) {
+                long now = System.nanoTime();
+                if (now - next > MAX_FRAME_NANOS) {
+                    // Too far behind: drop the missed updates, so the game slows down instead of freezing
+                    next = now;
+                }
+                if (now < next) {
+                    long millisecondsLeftToSleep = (next - now) / 1_000_000L;
+                    if (millisecondsLeftToSleep > 0) {
+                        sleeper.sleepFor(millisecondsLeftToSleep);
+                    } else {
+                        Thread.yield();
+                    }
+                    continue;
+                }
+                long queriesBefore = this.environment.getQueryCount();
+                long edgeTestsBefore = this.environment.getEdgeTestCount();
+                this.tick();
+                ticks++;
+                thread.publish(ticks);
+                long updated = System.nanoTime();
+                this.updateRate.mark(updated);
+                this.frameStats.recordUpdate(updated - now,
+                        this.environment.getQueryCount() - queriesBefore,
+                        this.environment.getEdgeTestCount() - edgeTestsBefore);
+                next += nanosPerUpdate;
             }
+        } finally {
+            this.renderThread = null;
+            thread.stop();
         }
+    }
+
+    /**
+     * Sets whether balls look for collisions only when one may be near, instead of on every tick.
+     * The game plays out exactly the same; in sparse levels most ticks then make no collision queries.
+     *
+     * @param eventDriven true for event-driven ball stepping
+     */
+    public void setEventDriven(boolean eventDriven) {
+        this.balls.setEventDriven(eventDriven);
+    }
+
+    /**
+     * Checks if balls look for collisions only when one may be near.
+     *
+     * @return true for event-driven ball stepping
+     */
+    public boolean isEventDriven() {
+        return this.balls.isEventDriven();
+    }
+
+    /**
+     * Sets whether run() draws on a separate render thread, so a slow frame does not delay the physics
+     * and a slow tick does not delay the frames. Every sprite must then be a SnapshotSprite.
+     *
+     * @param renderThreaded true to draw on a render thread
+     */
+    public void setRenderThreaded(boolean renderThreaded) {
+        this.renderThreaded = renderThreaded;
+    }
+
+    /**
+     * Sets whether initialize keeps the level's blocks in one compact BlockTable instead of a Block object each.
+     * The game plays out exactly the same; a block takes tens of bytes instead of hundreds.
+     * Takes effect on the next initialize().
+     *
+     * @param compactBlocks true for a compact block table
+     */
+    public void setCompactBlocks(boolean compactBlocks) {
+        this.compactBlocks = compactBlocks;
+    }
+
+    /**
+     * Checks if initialize keeps the level's blocks in one compact BlockTable.
+     *
+     * @return true for a compact block table
+     */
+    public boolean isCompactBlocks() {
+        return this.compactBlocks;
+    }
+
+    /**
+     * Sets how many physics updates run per second of real time. Takes effect on the next run().
+     *
+     * @param updatesPerSecond the physics update rate
+     */
+    public void setUpdatesPerSecond(int updatesPerSecond) {
+        if (updatesPerSecond <= 0) {
+            throw new IllegalArgumentException("The update rate must be positive");
+        }
+        this.updatesPerSecond = updatesPerSecond;
+    }
+
+    /**
+     * Returns how many physics updates run per second of real time.
+     *
+     * @return the physics update rate
+     */
+    public int getUpdatesPerSecond() {
+        return this.updatesPerSecond;
+    }
+
+    /**
+     * Returns the per-frame statistics of the game loop.
+     * FrameStats.summary returns them at any time, and FrameStats.setDump prints them periodically
+     * on a thread of its own.
+     *
+     * @return the frame statistics
+     */
+    public FrameStats getFrameStats() {
+        return this.frameStats;
+    }
+
+    /**
+     * Returns the measured number of physics updates in the last second.
+     *
+     * @return the measured update rate
+     */
+    public double getMeasuredUpdateRate() {
+        return this.updateRate.getRate();
+    }
+
+    /**
+     * Returns the measured number of frames drawn in the last second.
+     *
+     * @return the measured render rate
+     */
+    public double getMeasuredRenderRate() {
+        return this.renderRate.getRate();
+    }
+
+    /**
+     * Checks if the game is still going: there are blocks left to clear and balls left to play with.
+     *
+     * @return true if the game is not over yet
+     */
+    public boolean isRunning() {
+        return this.blockRemover.getRemainingBlocks().getValue() > 0
+                && this.ballRemover.getRemainingBalls().getValue() > 0;
+    }
+
+    /**
+     * Advances the game by one step, notifying all sprites that time has passed.
+     * The hits of the step are dispatched once every ball has moved.
+     */
+    public void tick() {
+        this.sprites.notifyAllTimePassed();
+        this.hitEvents.dispatch();
+        this.environment.updateCollidables();
+    }
+
+    /**
+     * Draws the background and all the sprites on the given DrawSurface.
+     * The background and the static sprites are blitted from the cached static layer.
+     *
+     * @param d the DrawSurface to draw on
+     */
+    public void drawFrame(DrawSurface d) {
+        this.staticLayer.drawOn(d);
+        this.sprites.drawAllOn(d);
+    }
+
+    /**
+     * Draws the background and all the sprites, with moving sprites placed between their previous and
+     * current state.
+     *
+     * @param d     the DrawSurface to draw on
+     * @param alpha how far the current frame is from the previous update (0) to the next one (1)
+     */
+    public void drawFrame(DrawSurface d, double alpha) {
+        this.staticLayer.drawOn(d);
+        this.sprites.drawAllOn(d, alpha);
+    }
+
+    /**
+     * Ends the game: adds the bonus for clearing all the blocks and prints the final score.
+     */
+    public void finish() {
+        end();
+        System.out.println(this.scoreTrackingListener.getCurrentScore().getValue());
+    }
+
+    /**
+     * Ends the game without printing anything: adds the bonus for clearing all the blocks.
+     * Used when many games run side by side and only their results are collected.
+     */
+    public void end() {
         if (this.blockRemover.getRemainingBlocks().getValue() == 0) {
             this.scoreTrackingListener.getCurrentScore().increase(100);
         }
-        System.out.println(this.scoreTrackingListener.getCurrentScore().getValue());
         this.getEnvironment().updateCollidables();
-        gui.close();
+    }
+
+    /**
+     * Returns the number of blocks left to clear.
+     *
+     * @return the number of remaining blocks
+     */
+    public int getRemainingBlocks() {
+        return this.blockRemover.getRemainingBlocks().getValue();
+    }
+
+    /**
+     * Returns the number of balls still in play.
+     *
+     * @return the number of remaining balls
+     */
+    public int getRemainingBalls() {
+        return this.ballRemover.getRemainingBalls().getValue();
+    }
+
+    /**
+     * Returns a digest of the blocks removed so far and of their order, see BlockRemover.getRemovalDigest.
+     * Two runs of the game removed the same blocks in the same order if their digests are equal.
+     *
+     * @return the removal digest
+     */
+    public long getRemovalDigest() {
+        return this.blockRemover.getRemovalDigest();
+    }
+
+    /**
+     * Returns the current score.
+     *
+     * @return the current score
+     */
+    public int getScore() {
+        return this.scoreTrackingListener.getCurrentScore().getValue();
     }
 
     /**
@@ -183,8 +614,8 @@ public class Game {
      * @param c the collidable object to remove
      */
     public void removeCollidable(Collidable c) {
-        this.environment.getCollidables().remove(c);
-        System.out.println("Collidable removed");
+        this.environment.removeCollidable(c);
+        this.eventLog.log(EventLog.COLLIDABLE_REMOVED, this.environment.getCollidableCount());
     }
 
     /**
@@ -196,6 +627,69 @@ public class Game {
         this.sprites.removeSprite(s);
     }
 
+    /**
+     * Returns the ball system holding the game's balls.
+     *
+     * @return the ball system
+     */
+    public BallSystem getBallSystem() {
+        return this.balls;
+    }
+
+    /**
+     * Returns the paddle, once initialize() created it.
+     *
+     * @return the paddle, or null before initialize()
+     */
+    public Paddle getPaddle() {
+        return this.paddle;
+    }
+
+    /**
+     * Removes a sprite from the cached static layer.
+     *
+     * @param s the sprite to remove
+     */
+    public void removeStaticSprite(Sprite s) {
+        if (this.renderThread != null) {
+            this.renderThread.removeStatic(s);
+        } else {
+            this.staticLayer.remove(s);
+        }
+    }
+
+    /**
+     * Repaints the area of the cached static layer under a shape that a static sprite no longer draws,
+     * such as a block removed from a BlockTable.
+     *
+     * @param s the erased shape
+     */
+    public void eraseStaticSprite(Sprite s) {
+        if (this.renderThread != null) {
+            this.renderThread.eraseStatic(s);
+        } else {
+            this.staticLayer.erase(s);
+        }
+    }
+
+    /**
+     * Returns the renderer that draws the frames of run() by repainting only what changed.
+     *
+     * @return the dirty-rectangle renderer
+     */
+    public DirtyRectRenderer getRenderer() {
+        return this.renderer;
+    }
+
+    /**
+     * Returns the cached static layer the blocks are drawn from.
+     *
+     * @return the static layer
+     */
+    public StaticLayer getStaticLayer() {
+        return this.staticLayer;
+    }
+
     /**
      * Returns the game environment.
      *
@@ -204,4 +698,13 @@ public class Game {
     public GameEnvironment getEnvironment() {
         return this.environment;
     }
+
+    /**
+     * Returns the queue the hits of the game's blocks are recorded in until the end of the tick.
+     *
+     * @return the hit event queue
+     */
+    public HitEventQueue getHitEvents() {
+        return this.hitEvents;
+    }
 }
@@ -5,21 +5,40 @@
 
 package gameRunning;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import collections.Collidable;
+import collections.DeferredList;
 import geomtry.Line;
-import geomtry.Point;
-import geomtry.Rectangle;
 
 /**
  * The GameEnvironment class holds a collection of collidable objects
  * and provides methods to add collidables and find the closest collision.
+ * Collidables are kept in a CollisionIndex (a uniform grid by default, or an AABB tree),
+ * so a collision query only tests the collidables near the trajectory.
+ * A removed collidable is taken out of the index at once, in O(1) for the list;
+ * the list's storage is compacted later by updateCollidables.
+ * Large static groups of collidables can be added as a CollidableSet instead, which keeps its members in its
+ * own compact form; queries search the index and every set, and return the closest hit of all of them.
+ * Every collidable is in a collision layer (see CollisionLayer), and a query may pass a mask of the layers
+ * it looks in: the index skips the collidables of the other layers before testing them, so e.g. a ball may
+ * pass through a group of blocks, or a probe may look for the paddle alone, at no extra cost.
  */
 public class GameEnvironment {
-    private final List<Collidable> collidables;
-    private final List<Collidable> collidablesToRemove;
+    private static final double DEFAULT_WIDTH = 800;
+    private static final double DEFAULT_HEIGHT = 600;
+    private static final double DEFAULT_CELL_SIZE = 50;
+    private final DeferredList<Collidable> collidables;
+    private final CollisionIndex index;
+    private final Map<Collidable, Integer> layers;
+    private final CollisionResult setResult;
+    private CollidableSet[] sets;
+    private long queries;
+    private long layoutVersion;
+    private long additions;
 
     /**
      * Constructs a new GameEnvironment object with a given list of collidables.
@@ -27,42 +46,198 @@ public class GameEnvironment {
      * @param blocks the list of collidables to initialize the environment with
      */
     public GameEnvironment(List<Collidable> blocks) {
-        this.collidables = blocks;
-        this.collidablesToRemove = new ArrayList<>();
+        this(new UniformGrid(DEFAULT_WIDTH, DEFAULT_HEIGHT, DEFAULT_CELL_SIZE));
+        for (Collidable c : blocks) {
+            addCollidable(c);
+        }
     }
 
     /**
      * Constructs a new, empty GameEnvironment object.
      */
     public GameEnvironment() {
-        this.collidables = new ArrayList<>();
-        this.collidablesToRemove = new ArrayList<>();
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT, DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructs a new, empty GameEnvironment object whose grid covers the given area.
+     * Collidables outside of the area are still supported, they are just not bucketed.
+     *
+     * @param width    the width of the area covered by the grid
+     * @param height   the height of the area covered by the grid
+     * @param cellSize the side length of a single grid cell
+     */
+    public GameEnvironment(double width, double height, double cellSize) {
+        this(new UniformGrid(width, height, cellSize));
+    }
+
+    /**
+     * Constructs a new, empty GameEnvironment object that uses the given index strategy,
+     * e.g. an AabbTree when collidable sizes vary a lot.
+     *
+     * @param index the empty index to keep the collidables in
+     */
+    public GameEnvironment(CollisionIndex index) {
+        this.collidables = new DeferredList<>();
+        this.index = index;
+        this.layers = new IdentityHashMap<>();
+        this.setResult = new CollisionResult();
+        this.sets = new CollidableSet[0];
     }
 
     /**
-     * Adds the given collidable to the environment.
+     * Adds the given collidable to the environment, in the default collision layer.
      *
      * @param c the collidable to add
      */
     public void addCollidable(Collidable c) {
+        addCollidable(c, CollisionLayer.DEFAULT);
+    }
+
+    /**
+     * Adds the given collidable to the environment, in the given collision layer.
+     *
+     * @param c     the collidable to add
+     * @param layer the collision layer, a single bit (see CollisionLayer)
+     */
+    public void addCollidable(Collidable c, int layer) {
         this.collidables.add(c);
+        this.layers.put(c, layer);
+        this.index.insert(c, layer);
+        this.layoutVersion++;
+        this.additions++;
+    }
+
+    /**
+     * Adds a set of collidables to the environment. Its members are queried together with the other collidables,
+     * and removeCollidable removes them from the set.
+     *
+     * @param set the set to add
+     */
+    public void addCollidableSet(CollidableSet set) {
+        this.sets = Arrays.copyOf(this.sets, this.sets.length + 1);
+        this.sets[this.sets.length - 1] = set;
+        this.layoutVersion++;
+        this.additions++;
     }
 
     /**
-     * Marks the given collidable for removal from the environment.
+     * Checks if collidable sets were added, whose members are not among getCollidables.
+     *
+     * @return true if the environment has collidable sets
+     */
+    public boolean hasCollidableSets() {
+        return this.sets.length > 0;
+    }
+
+    /**
+     * Notifies the environment that the collision rectangle of the given collidable has changed.
+     * Must be called whenever a collidable moves, before the next collision query.
+     *
+     * @param c the collidable that moved
+     */
+    public void updateCollidable(Collidable c) {
+        this.index.update(c);
+        this.layoutVersion++;
+    }
+
+    /**
+     * Removes the given collidable from the environment. The following collision queries no longer see it.
      *
      * @param c the collidable to remove
      */
     public void removeCollidable(Collidable c) {
-        this.collidablesToRemove.add(c);
+        if (this.collidables.remove(c)) {
+            this.layers.remove(c);
+            this.index.remove(c);
+            return;
+        }
+        for (CollidableSet set : this.sets) {
+            if (set.remove(c)) {
+                return;
+            }
+        }
     }
 
     /**
-     * Returns the list of collidables in the environment.
+     * Returns a read-only snapshot of the collidables in the environment, not counting the members of sets.
      *
      * @return the list of collidables
      */
     public List<Collidable> getCollidables() {
+        return this.collidables.asList();
+    }
+
+    /**
+     * Returns the number of collidables in the environment.
+     *
+     * @return the number of collidables
+     */
+    public int getCollidableCount() {
+        int count = this.collidables.size();
+        for (CollidableSet set : this.sets) {
+            count += set.size();
+        }
+        return count;
+    }
+
+    /**
+     * Checks if the given collidable is in the environment.
+     *
+     * @param c the collidable to look for
+     * @return true if it was added and not removed since
+     */
+    public boolean contains(Collidable c) {
+        if (this.collidables.contains(c)) {
+            return true;
+        }
+        for (CollidableSet set : this.sets) {
+            if (set.contains(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a number that changes whenever a collidable is added or moved.
+     * If it did not change, and a collidable was not removed, an earlier query result is still valid:
+     * removing other collidables never creates a closer collision.
+     *
+     * @return the layout version
+     */
+    public long getLayoutVersion() {
+        return this.layoutVersion;
+    }
+
+    /**
+     * Returns the number of collidables added so far. Unlike the layout version it does not change when
+     * collidables move or are removed, so a cached prediction of the next collision against the collidables
+     * that do not move only becomes wrong when this changes.
+     *
+     * @return the number of additions
+     */
+    public long getAdditionCount() {
+        return this.additions;
+    }
+
+    /**
+     * Returns the collision layer of a collidable of the environment, not counting the members of sets.
+     *
+     * @param c the collidable
+     * @return its collision layer, or 0 if it is not in the environment
+     */
+    public int getLayer(Collidable c) {
+        Integer layer = this.layers.get(c);
+        return layer == null ? 0 : layer;
+    }
+
+    /**
+     * Returns the collidables' storage, for copying them in order without allocating.
+     *
+     * @return the collidables, with null in the slots of removed ones
+     */
+    DeferredList<Collidable> collidableSlots() {
         return this.collidables;
     }
 
@@ -76,31 +251,133 @@ public class GameEnvironment {
      * @return the information about the closest collision, or null if no collision occurs
      */
     public CollisionInfo getClosestCollision(Line trajectory) {
-        CollisionInfo closestCollision = null;
-        double closestDistance = Double.MAX_VALUE;
-
-        for (Collidable collidable : collidables) {
-            Rectangle rect = collidable.getCollisionRectangle();
-            Point closest = trajectory.closestIntersectionToStartOfLine(rect);
-            if (closest == null) {
-                continue;
+        CollisionResult result = new CollisionResult();
+        getClosestCollision(trajectory.start().getX(), trajectory.start().getY(),
+                trajectory.end().getX(), trajectory.end().getY(), result);
+        return result.toCollisionInfo();
+    }
+
+    /**
+     * Allocation-free version of getClosestCollision, for an object moving from (x0, y0) to (x1, y1).
+     *
+     * @param x0  the x-coordinate of the trajectory start
+     * @param y0  the y-coordinate of the trajectory start
+     * @param x1  the x-coordinate of the trajectory end
+     * @param y1  the y-coordinate of the trajectory end
+     * @param out the holder the closest collision is written to; cleared if there is none
+     * @return true if a collision will occur
+     */
+    public boolean getClosestCollision(double x0, double y0, double x1, double y1, CollisionResult out) {
+        return getClosestCollision(x0, y0, x1, y1, CollisionLayer.ALL, out);
+    }
+
+    /**
+     * Version of getClosestCollision that only looks in the given collision layers.
+     *
+     * @param x0   the x-coordinate of the trajectory start
+     * @param y0   the y-coordinate of the trajectory start
+     * @param x1   the x-coordinate of the trajectory end
+     * @param y1   the y-coordinate of the trajectory end
+     * @param mask the layers to look in
+     * @param out  the holder the closest collision is written to; cleared if there is none
+     * @return true if a collision will occur
+     */
+    public boolean getClosestCollision(double x0, double y0, double x1, double y1, int mask, CollisionResult out) {
+        this.queries++;
+        boolean hit = this.index.closestCollision(x0, y0, x1, y1, mask, out);
+        for (CollidableSet set : this.sets) {
+            if (set.closestCollision(x0, y0, x1, y1, mask, this.setResult)) {
+                hit |= closer(out);
             }
-            double distance = trajectory.start().distance(closest);
-            if (distance < closestDistance) {
-                closestDistance = distance;
-                closestCollision = new CollisionInfo(closest, collidable);
+        }
+        return hit;
+    }
+
+    /**
+     * Finds the collidable that a circle moving from (x0, y0) to (x1, y1) touches first.
+     * Unlike a segment query, a sweep covers the whole movement however long it is, so a fast circle
+     * cannot pass through a thin collidable between two steps.
+     *
+     * @param x0     the x-coordinate of the center at the start
+     * @param y0     the y-coordinate of the center at the start
+     * @param x1     the x-coordinate of the center at the end
+     * @param y1     the y-coordinate of the center at the end
+     * @param radius the radius of the circle
+     * @param out    the holder the first touch is written to: the collidable, the touched point of its
+     *               rectangle, and the distance the center moved until the touch; cleared if there is none
+     * @return true if the circle touches a collidable
+     */
+    public boolean getClosestSweep(double x0, double y0, double x1, double y1, double radius, CollisionResult out) {
+        return getClosestSweep(x0, y0, x1, y1, radius, CollisionLayer.ALL, out);
+    }
+
+    /**
+     * Version of getClosestSweep that only looks in the given collision layers.
+     *
+     * @param x0     the x-coordinate of the center at the start
+     * @param y0     the y-coordinate of the center at the start
+     * @param x1     the x-coordinate of the center at the end
+     * @param y1     the y-coordinate of the center at the end
+     * @param radius the radius of the circle
+     * @param mask   the layers to look in
+     * @param out    the holder the first touch is written to; cleared if there is none
+     * @return true if the circle touches a collidable
+     */
+    public boolean getClosestSweep(double x0, double y0, double x1, double y1, double radius, int mask,
+                                   CollisionResult out) {
+        this.queries++;
+        boolean hit = this.index.closestSweep(x0, y0, x1, y1, radius, mask, out);
+        for (CollidableSet set : this.sets) {
+            if (set.closestSweep(x0, y0, x1, y1, radius, mask, this.setResult)) {
+                hit |= closer(out);
             }
         }
+        return hit;
+    }
+
+    /**
+     * Replaces the result with the hit of a set, if that hit is strictly closer.
+     * On a tie the earlier result wins: the collidables of the index, then the sets in the order they were added.
+     *
+     * @param out the result so far
+     * @return true if the result was replaced
+     */
+    private boolean closer(CollisionResult out) {
+        if (out.isHit() && out.getDistance() <= this.setResult.getDistance()) {
+            return false;
+        }
+        out.set(this.setResult.collisionObject(), this.setResult.getX(), this.setResult.getY(),
+                this.setResult.getDistance());
+        return true;
+    }
 
-        return closestCollision;
+    /**
+     * Returns the number of collision queries issued so far.
+     *
+     * @return the number of queries
+     */
+    public long getQueryCount() {
+        return this.queries;
+    }
+
+    /**
+     * Returns the number of segment-edge intersection tests performed by the queries so far.
+     *
+     * @return the number of edge tests
+     */
+    public long getEdgeTestCount() {
+        long tests = this.index.getEdgeTests();
+        for (CollidableSet set : this.sets) {
+            tests += set.getEdgeTests();
+        }
+        return tests;
     }
 
     /**
-     * Updates the collidables list by removing all marked collidables.
+     * Updates the collidables list by reclaiming the slots of the removed collidables.
+     * Called once per tick, after all the sprites were updated.
      */
     public void updateCollidables() {
-        // Remove all marked collidables after the iteration
-        this.collidables.removeAll(this.collidablesToRemove);
-        this.collidablesToRemove.clear();
+        this.collidables.compact();
     }
 }
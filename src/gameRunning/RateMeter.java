@@ -0,0 +1,48 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package gameRunning;
+
+/**
+ * The RateMeter class measures how many times per second an event happens (e.g. updates or renders).
+ * Events are counted over a window of about one second, and the rate of the last full window is reported.
+ */
+public class RateMeter {
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    private long windowStart;
+    private int count;
+    private double rate;
+
+    /**
+     * Constructs a meter whose first window starts now.
+     */
+    public RateMeter() {
+        this.windowStart = System.nanoTime();
+    }
+
+    /**
+     * Records one event at the given time.
+     *
+     * @param now the current System.nanoTime()
+     */
+    public void mark(long now) {
+        this.count++;
+        long elapsed = now - this.windowStart;
+        if (elapsed >= WINDOW_NANOS) {
+            this.rate = this.count * 1e9 / elapsed;
+            this.count = 0;
+            this.windowStart = now;
+        }
+    }
+
+    /**
+     * Returns the rate measured over the last full window.
+     *
+     * @return the events per second, or 0 before the first window ends
+     */
+    public double getRate() {
+        return this.rate;
+    }
+}
@@ -0,0 +1,341 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package gameRunning;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import collections.Collidable;
+import geomtry.RayHit;
+import geomtry.Raycast;
+import geomtry.Rectangle;
+
+/**
+ * The UniformGrid class is a broadphase index that buckets collidables into fixed-size square cells
+ * according to the bounds of their collision rectangles.
+ * A trajectory query only visits the cells that the trajectory passes through, and then runs the exact
+ * narrowphase test on the collidables found there.
+ * Collidables that are not fully inside the grid bounds are kept in an overflow list that every query checks.
+ */
+public class UniformGrid implements CollisionIndex {
+    private static final double EPSILON = 0.000001d;
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+    private final double width;
+    private final double height;
+    private final List<List<Entry>> cells;
+    private final List<Entry> overflow;
+    private final Map<Collidable, Entry> entryOf;
+    private final RayHit scratch;
+    private long nextOrder;
+    private int queryStamp;
+
+    /**
+     * Holds the indexing state of a single collidable.
+     */
+    private static final class Entry {
+        private final Collidable collidable;
+        private final long order;
+        private final int layer;
+        private Rectangle rect;
+        private boolean inOverflow;
+        private int minCol;
+        private int maxCol;
+        private int minRow;
+        private int maxRow;
+        private int stamp;
+
+        /**
+         * Constructs an entry for the given collidable.
+         *
+         * @param collidable the indexed collidable
+         * @param order      the insertion order, used to break ties like the linear scan does
+         * @param layer      the collision layer of the collidable
+         */
+        Entry(Collidable collidable, long order, int layer) {
+            this.collidable = collidable;
+            this.order = order;
+            this.layer = layer;
+        }
+    }
+
+    /**
+     * Constructs an empty grid covering the area from (0, 0) to (width, height).
+     *
+     * @param width    the width of the covered area
+     * @param height   the height of the covered area
+     * @param cellSize the side length of a single cell
+     */
+    public UniformGrid(double width, double height, double cellSize) {
+        this.width = width;
+        this.height = height;
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = new ArrayList<>(this.cols * this.rows);
+        for (int i = 0; i < this.cols * this.rows; i++) {
+            this.cells.add(new ArrayList<>());
+        }
+        this.overflow = new ArrayList<>();
+        this.entryOf = new IdentityHashMap<>();
+        this.scratch = new RayHit();
+    }
+
+    /**
+     * Adds the given collidable to the grid, using its current collision rectangle.
+     *
+     * @param c     the collidable to add
+     * @param layer the collision layer of the collidable, a single bit (see CollisionLayer)
+     */
+    @Override
+    public void insert(Collidable c, int layer) {
+        Entry e = new Entry(c, this.nextOrder++, layer);
+        this.entryOf.put(c, e);
+        bin(e);
+    }
+
+    /**
+     * Removes the given collidable from the grid. Does nothing if it is not indexed.
+     *
+     * @param c the collidable to remove
+     */
+    @Override
+    public void remove(Collidable c) {
+        Entry e = this.entryOf.remove(c);
+        if (e == null) {
+            return;
+        }
+        unbin(e);
+    }
+
+    /**
+     * Re-buckets the given collidable if its collision rectangle was replaced since it was last indexed.
+     *
+     * @param c the collidable that moved
+     */
+    @Override
+    public void update(Collidable c) {
+        Entry e = this.entryOf.get(c);
+        if (e != null && e.collidable.getCollisionRectangle() != e.rect) {
+            unbin(e);
+            bin(e);
+        }
+    }
+
+    /**
+     * Finds the closest collision along the segment (x0, y0)-(x1, y1) among the indexed collidables
+     * whose layer is in the mask. The result is identical to scanning them in insertion order.
+     *
+     * @param x0   the x-coordinate of the trajectory start
+     * @param y0   the y-coordinate of the trajectory start
+     * @param x1   the x-coordinate of the trajectory end
+     * @param y1   the y-coordinate of the trajectory end
+     * @param mask the layers to look in
+     * @param out  the holder the closest collision is written to; cleared if there is none
+     * @return true if a collision was found
+     */
+    @Override
+    public boolean closestCollision(double x0, double y0, double x1, double y1, int mask, CollisionResult out) {
+        return closest(x0, y0, x1, y1, -1, mask, out);
+    }
+
+    /**
+     * Finds the collidable whose layer is in the mask that a circle moving from (x0, y0) to (x1, y1) touches first.
+     * The cells are widened by the radius, so every cell the circle passes over is looked in.
+     *
+     * @param x0     the x-coordinate of the center at the start
+     * @param y0     the y-coordinate of the center at the start
+     * @param x1     the x-coordinate of the center at the end
+     * @param y1     the y-coordinate of the center at the end
+     * @param radius the radius of the circle
+     * @param mask   the layers to look in
+     * @param out    the holder the first touch is written to; cleared if there is none
+     * @return true if the circle touches a collidable
+     */
+    @Override
+    public boolean closestSweep(double x0, double y0, double x1, double y1, double radius, int mask,
+                                CollisionResult out) {
+        return closest(x0, y0, x1, y1, radius, mask, out);
+    }
+
+    /**
+     * Tests the collidables of the masked layers in the overflow list and in every cell the trajectory passes near.
+     *
+     * @param x0     the x-coordinate of the trajectory start
+     * @param y0     the y-coordinate of the trajectory start
+     * @param x1     the x-coordinate of the trajectory end
+     * @param y1     the y-coordinate of the trajectory end
+     * @param radius the radius of the swept circle, or a negative number to intersect the segment with the edges
+     * @param mask   the layers to look in
+     * @param out    the holder the closest hit is written to
+     * @return true if a hit was found
+     */
+    private boolean closest(double x0, double y0, double x1, double y1, double radius, int mask,
+                            CollisionResult out) {
+        this.queryStamp++;
+        out.clear();
+        Entry best = null;
+
+        for (int i = 0; i < this.overflow.size(); i++) {
+            Entry e = this.overflow.get(i);
+            if ((e.layer & mask) == 0) {
+                continue;
+            }
+            e.stamp = this.queryStamp;
+            best = test(e, x0, y0, x1, y1, radius, best, out);
+        }
+
+        // A swept circle reaches into the cells up to a radius beside its center's path
+        double reach = Math.max(0, radius);
+        double segMinX = Math.min(x0, x1);
+        double segMaxX = Math.max(x0, x1);
+        boolean vertical = Math.abs(x1 - x0) < EPSILON;
+        double slope = vertical ? 0 : (y1 - y0) / (x1 - x0);
+
+        int firstCol = Math.max(0, cellOf(segMinX - reach - EPSILON));
+        int lastCol = Math.min(this.cols - 1, cellOf(segMaxX + reach + EPSILON));
+        for (int col = firstCol; col <= lastCol; col++) {
+            double ya;
+            double yb;
+            if (vertical) {
+                ya = y0;
+                yb = y1;
+            } else {
+                double xa = Math.max(segMinX, col * this.cellSize - reach);
+                double xb = Math.min(segMaxX, (col + 1) * this.cellSize + reach);
+                if (xa > xb) {
+                    xa = xb;
+                }
+                ya = y0 + (xa - x0) * slope;
+                yb = y0 + (xb - x0) * slope;
+            }
+            int firstRow = Math.max(0, cellOf(Math.min(ya, yb) - reach - EPSILON));
+            int lastRow = Math.min(this.rows - 1, cellOf(Math.max(ya, yb) + reach + EPSILON));
+            for (int row = firstRow; row <= lastRow; row++) {
+                List<Entry> cell = this.cells.get(row * this.cols + col);
+                for (int i = 0; i < cell.size(); i++) {
+                    Entry e = cell.get(i);
+                    if (e.stamp == this.queryStamp || (e.layer & mask) == 0) {
+                        continue;
+                    }
+                    e.stamp = this.queryStamp;
+                    best = test(e, x0, y0, x1, y1, radius, best, out);
+                }
+            }
+        }
+        return best != null;
+    }
+
+    /**
+     * Runs the narrowphase test on a candidate and records it in the result if it beats the current best.
+     *
+     * @param e      the candidate entry
+     * @param x0     the x-coordinate of the trajectory start
+     * @param y0     the y-coordinate of the trajectory start
+     * @param x1     the x-coordinate of the trajectory end
+     * @param y1     the y-coordinate of the trajectory end
+     * @param radius the radius of the swept circle, or a negative number to intersect the segment with the edges
+     * @param best   the current best entry, or null
+     * @param out    the result holding the current best collision
+     * @return the new best entry
+     */
+    private Entry test(Entry e, double x0, double y0, double x1, double y1, double radius, Entry best,
+                       CollisionResult out) {
+        Rectangle r = e.collidable.getCollisionRectangle();
+        if (radius >= 0 ? !Raycast.sweptBoxHit(x0, y0, x1, y1, radius, r, this.scratch)
+                : !Raycast.closestEdgeHit(x0, y0, x1, y1, r, this.scratch)) {
+            return best;
+        }
+        double distance = this.scratch.getDistance();
+        if (best == null || isCloser(distance, e, out.getDistance(), best)) {
+            out.set(e.collidable, this.scratch.getX(), this.scratch.getY(), distance);
+            return e;
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of segment-edge intersection tests the grid has performed so far.
+     *
+     * @return the number of edge tests
+     */
+    @Override
+    public long getEdgeTests() {
+        return this.scratch.getEdgeTests();
+    }
+
+    /**
+     * Checks if a candidate beats the current best, breaking distance ties by insertion order.
+     *
+     * @param distance     the distance of the candidate collision
+     * @param e            the candidate entry
+     * @param bestDistance the distance of the current best collision
+     * @param best         the current best entry, or null
+     * @return true if the candidate should replace the current best
+     */
+    private boolean isCloser(double distance, Entry e, double bestDistance, Entry best) {
+        return distance < bestDistance || (best != null && distance == bestDistance && e.order < best.order);
+    }
+
+    /**
+     * Returns the cell index (column or row) containing the given coordinate, before clamping.
+     *
+     * @param v the coordinate
+     * @return the cell index
+     */
+    private int cellOf(double v) {
+        return (int) Math.floor(v / this.cellSize);
+    }
+
+    /**
+     * Buckets the entry according to the current collision rectangle of its collidable.
+     *
+     * @param e the entry to bucket
+     */
+    private void bin(Entry e) {
+        Rectangle r = e.collidable.getCollisionRectangle();
+        e.rect = r;
+        double minX = r.getMinX();
+        double minY = r.getMinY();
+        double maxX = r.getMaxX();
+        double maxY = r.getMaxY();
+        if (minX < 0 || minY < 0 || maxX > this.width || maxY > this.height) {
+            e.inOverflow = true;
+            this.overflow.add(e);
+            return;
+        }
+        e.inOverflow = false;
+        e.minCol = cellOf(minX);
+        e.maxCol = Math.min(this.cols - 1, cellOf(maxX));
+        e.minRow = cellOf(minY);
+        e.maxRow = Math.min(this.rows - 1, cellOf(maxY));
+        for (int row = e.minRow; row <= e.maxRow; row++) {
+            for (int col = e.minCol; col <= e.maxCol; col++) {
+                this.cells.get(row * this.cols + col).add(e);
+            }
+        }
+    }
+
+    /**
+     * Removes the entry from every bucket it was placed in.
+     *
+     * @param e the entry to remove
+     */
+    private void unbin(Entry e) {
+        if (e.inOverflow) {
+            this.overflow.remove(e);
+            return;
+        }
+        for (int row = e.minRow; row <= e.maxRow; row++) {
+            for (int col = e.minCol; col <= e.maxCol; col++) {
+                this.cells.get(row * this.cols + col).remove(e);
+            }
+        }
+    }
+}
@@ -283,33 +283,12 @@ public class Line {
      * @return the intersection point if the lines intersect, and null otherwise
      */
     public Point intersectionWith(final Line other) {
-        // Calculate the determinant to check for parallel lines
-        double x1 = this.start.getX();
-        double y1 = this.start.getY();
-        double x2 = this.end.getX();
-        double y2 = this.end.getY();
-        double x3 = other.start.getX();
-        double y3 = other.start.getY();
-        double x4 = other.end.getX();
-        double y4 = other.end.getY();
-
-        double denominator = (y4 - y3) * (x2 - x1) - (x4 - x3) * (y2 - y1);
-        if (denominator == 0) {
-            return null; // Lines are parallel or coincident
+        RayHit hit = new RayHit();
+        if (!Raycast.segmentIntersection(this.start.getX(), this.start.getY(), this.end.getX(), this.end.getY(),
+                other.start.getX(), other.start.getY(), other.end.getX(), other.end.getY(), hit)) {
+            return null; // Parallel, coincident, or the intersection point is outside the segments
         }
-
-        // Calculate the intersection point
-        double ua = ((x4 - x3) * (y1 - y3) - (y4 - y3) * (x1 - x3)) / denominator;
-        double ub = ((x2 - x1) * (y1 - y3) - (y2 - y1) * (x1 - x3)) / denominator;
-
-        // Check if intersection point is within the segments
-        if (ua >= 0 && ua <= 1 && ub >= 0 && ub <= 1) {
-            double x = x1 + ua * (x2 - x1);
-            double y = y1 + ua * (y2 - y1);
-            return new Point(x, y);
-        }
-
-        return null; // Intersection point is outside the segments
+        return new Point(hit.getX(), hit.getY());
     }
 
 
@@ -374,20 +353,11 @@ public class Line {
      * @return the closest intersection point to the start of the line, or null if no intersection
      */
     public Point closestIntersectionToStartOfLine(Rectangle rect) {
-        Point closestPoint = null;
-        double minDistance = Double.MAX_VALUE;
-
-        for (Line edge : rect.getEdges()) {
-            Point intersection = this.intersectionWith(edge);
-            if (intersection != null) {
-                double distance = this.start.distance(intersection);
-                if (distance < minDistance) {
-                    minDistance = distance;
-                    closestPoint = intersection;
-                }
-            }
+        RayHit hit = new RayHit();
+        if (!Raycast.closestEdgeHit(this.start.getX(), this.start.getY(), this.end.getX(), this.end.getY(),
+                rect, hit)) {
+            return null;
         }
-
-        return closestPoint;
+        return new Point(hit.getX(), hit.getY());
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package geomtry;
+
+/**
+ * The RayHit class is a reusable holder for the result of a Raycast query.
+ * It lets the collision hot path report an intersection point without allocating a Point.
+ */
+public class RayHit {
+    private double x;
+    private double y;
+    private double distance;
+    private long edgeTests;
+
+    /**
+     * Stores the result of a query.
+     *
+     * @param x        the x-coordinate of the intersection point
+     * @param y        the y-coordinate of the intersection point
+     * @param distance the distance from the start of the segment to the intersection point
+     */
+    public void set(double x, double y, double distance) {
+        this.x = x;
+        this.y = y;
+        this.distance = distance;
+    }
+
+    /**
+     * Counts one segment-edge intersection test made with this holder.
+     */
+    public void countEdgeTest() {
+        this.edgeTests++;
+    }
+
+    /**
+     * Returns the number of segment-edge intersection tests made with this holder so far.
+     *
+     * @return the number of edge tests
+     */
+    public long getEdgeTests() {
+        return this.edgeTests;
+    }
+
+    /**
+     * Returns the x-coordinate of the intersection point.
+     *
+     * @return the x-coordinate
+     */
+    public double getX() {
+        return this.x;
+    }
+
+    /**
+     * Returns the y-coordinate of the intersection point.
+     *
+     * @return the y-coordinate
+     */
+    public double getY() {
+        return this.y;
+    }
+
+    /**
+     * Returns the distance from the start of the segment to the intersection point.
+     *
+     * @return the distance
+     */
+    public double getDistance() {
+        return this.distance;
+    }
+}
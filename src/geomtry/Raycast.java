@@ -0,0 +1,248 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package geomtry;
+
+/**
+ * The Raycast class holds the allocation-free segment intersection kernel used by the collision hot path.
+ * All methods work on primitive coordinates and write their result into a caller-owned RayHit.
+ * The arithmetic is the same as in Line.intersectionWith and Line.closestIntersectionToStartOfLine,
+ * so both paths always agree on the resulting point and distance.
+ */
+public final class Raycast {
+    private static final double EPSILON = 0.000001d;
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private Raycast() {
+    }
+
+    /**
+     * Checks if the segment touches the box (x, y, width, height), padded by a small threshold (slab test).
+     * This is only a quick rejection test, the exact point is found by closestEdgeHit.
+     *
+     * @param x0     the x-coordinate of the segment start
+     * @param y0     the y-coordinate of the segment start
+     * @param x1     the x-coordinate of the segment end
+     * @param y1     the y-coordinate of the segment end
+     * @param x      the x-coordinate of the box's upper-left corner
+     * @param y      the y-coordinate of the box's upper-left corner
+     * @param width  the width of the box
+     * @param height the height of the box
+     * @return true if the segment may touch the box, false if it surely does not
+     */
+    public static boolean segmentTouchesBox(double x0, double y0, double x1, double y1,
+                                            double x, double y, double width, double height) {
+        double tMin = 0;
+        double tMax = 1;
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double lo = x - EPSILON;
+        double hi = x + width + EPSILON;
+        if (dx == 0) {
+            if (x0 < lo || x0 > hi) {
+                return false;
+            }
+        } else {
+            double t1 = (lo - x0) / dx;
+            double t2 = (hi - x0) / dx;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        lo = y - EPSILON;
+        hi = y + height + EPSILON;
+        if (dy == 0) {
+            return y0 >= lo && y0 <= hi && tMin <= tMax;
+        }
+        double t1 = (lo - y0) / dy;
+        double t2 = (hi - y0) / dy;
+        tMin = Math.max(tMin, Math.min(t1, t2));
+        tMax = Math.min(tMax, Math.max(t1, t2));
+        return tMin <= tMax;
+    }
+
+    /**
+     * Finds the intersection point of the segment (x1, y1)-(x2, y2) with the segment (x3, y3)-(x4, y4).
+     * The distance stored in the result is measured from (x1, y1).
+     *
+     * @param x1  the x-coordinate of the first segment start
+     * @param y1  the y-coordinate of the first segment start
+     * @param x2  the x-coordinate of the first segment end
+     * @param y2  the y-coordinate of the first segment end
+     * @param x3  the x-coordinate of the second segment start
+     * @param y3  the y-coordinate of the second segment start
+     * @param x4  the x-coordinate of the second segment end
+     * @param y4  the y-coordinate of the second segment end
+     * @param out the holder the result is written to, only if the segments intersect
+     * @return true if the segments intersect, false if they do not or are parallel
+     */
+    public static boolean segmentIntersection(double x1, double y1, double x2, double y2,
+                                              double x3, double y3, double x4, double y4, RayHit out) {
+        out.countEdgeTest();
+        double denominator = (y4 - y3) * (x2 - x1) - (x4 - x3) * (y2 - y1);
+        if (denominator == 0) {
+            return false; // Lines are parallel or coincident
+        }
+        double ua = ((x4 - x3) * (y1 - y3) - (y4 - y3) * (x1 - x3)) / denominator;
+        double ub = ((x2 - x1) * (y1 - y3) - (y2 - y1) * (x1 - x3)) / denominator;
+        if (ua >= 0 && ua <= 1 && ub >= 0 && ub <= 1) {
+            double x = x1 + ua * (x2 - x1);
+            double y = y1 + ua * (y2 - y1);
+            double dx = x1 - x;
+            double dy = y1 - y;
+            out.set(x, y, Math.sqrt(dx * dx + dy * dy));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Finds the intersection of the segment with the edges of the rectangle (x, y, width, height)
+     * that is closest to the start of the segment.
+     * Edges are tested in the order top, left, right, bottom, and the first one wins a tie.
+     *
+     * @param x0     the x-coordinate of the segment start
+     * @param y0     the y-coordinate of the segment start
+     * @param x1     the x-coordinate of the segment end
+     * @param y1     the y-coordinate of the segment end
+     * @param x      the x-coordinate of the rectangle's upper-left corner
+     * @param y      the y-coordinate of the rectangle's upper-left corner
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     * @param out    the holder the result is written to, only if there is an intersection
+     * @return true if the segment intersects an edge of the rectangle
+     */
+    public static boolean closestEdgeHit(double x0, double y0, double x1, double y1,
+                                         double x, double y, double width, double height, RayHit out) {
+        if (!segmentTouchesBox(x0, y0, x1, y1, x, y, width, height)) {
+            return false;
+        }
+        double right = x + width;
+        double bottom = y + height;
+        boolean found = false;
+        double bestX = 0;
+        double bestY = 0;
+        double bestDistance = Double.MAX_VALUE;
+        for (int edge = 0; edge < 4; edge++) {
+            boolean hit;
+            if (edge == 0) {
+                hit = segmentIntersection(x0, y0, x1, y1, x, y, right, y, out); // Top side
+            } else if (edge == 1) {
+                hit = segmentIntersection(x0, y0, x1, y1, x, y, x, bottom, out); // Left side
+            } else if (edge == 2) {
+                hit = segmentIntersection(x0, y0, x1, y1, right, y, right, bottom, out); // Right side
+            } else {
+                hit = segmentIntersection(x0, y0, x1, y1, x, bottom, right, bottom, out); // Bottom side
+            }
+            if (hit && out.getDistance() < bestDistance) {
+                found = true;
+                bestX = out.getX();
+                bestY = out.getY();
+                bestDistance = out.getDistance();
+            }
+        }
+        if (found) {
+            out.set(bestX, bestY, bestDistance);
+        }
+        return found;
+    }
+
+    /**
+     * Runs closestEdgeHit against the given rectangle.
+     *
+     * @param x0   the x-coordinate of the segment start
+     * @param y0   the y-coordinate of the segment start
+     * @param x1   the x-coordinate of the segment end
+     * @param y1   the y-coordinate of the segment end
+     * @param rect the rectangle
+     * @param out  the holder the result is written to, only if there is an intersection
+     * @return true if the segment intersects an edge of the rectangle
+     */
+    public static boolean closestEdgeHit(double x0, double y0, double x1, double y1, Rectangle rect, RayHit out) {
+        return closestEdgeHit(x0, y0, x1, y1, rect.getMinX(), rect.getMinY(),
+                rect.getWidth(), rect.getHeight(), out);
+    }
+
+    /**
+     * Finds where a circle moving from (x0, y0) to (x1, y1) first touches the rectangle (x, y, width, height).
+     * The circle's center is swept against the rectangle grown by the radius on every side, its Minkowski sum
+     * with the circle's bounding square, so near a corner the circle touches slightly early.
+     * The distance stored in the result is how far the center moves until the touch, and the point stored is
+     * the point of the rectangle closest to the center at that moment, which lies on the touched edge.
+     * A circle that starts touching or overlapping the rectangle only hits it if it moves further in from outside.
+     *
+     * @param x0     the x-coordinate of the center at the start
+     * @param y0     the y-coordinate of the center at the start
+     * @param x1     the x-coordinate of the center at the end
+     * @param y1     the y-coordinate of the center at the end
+     * @param radius the radius of the circle
+     * @param x      the x-coordinate of the rectangle's upper-left corner
+     * @param y      the y-coordinate of the rectangle's upper-left corner
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     * @param out    the holder the result is written to, only if the circle touches the rectangle
+     * @return true if the moving circle touches the rectangle
+     */
+    public static boolean sweptBoxHit(double x0, double y0, double x1, double y1, double radius,
+                                      double x, double y, double width, double height, RayHit out) {
+        out.countEdgeTest();
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double enter = Double.NEGATIVE_INFINITY;
+        double exit = Double.POSITIVE_INFINITY;
+        double lo = x - radius;
+        double hi = x + width + radius;
+        if (dx == 0) {
+            if (x0 < lo || x0 > hi) {
+                return false;
+            }
+        } else {
+            double t1 = (lo - x0) / dx;
+            double t2 = (hi - x0) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        lo = y - radius;
+        hi = y + height + radius;
+        if (dy == 0) {
+            if (y0 < lo || y0 > hi) {
+                return false;
+            }
+        } else {
+            double t1 = (lo - y0) / dy;
+            double t2 = (hi - y0) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        // Starting inside, moving out, grazing a corner, or stopping short are not hits
+        if (enter < 0 || enter >= exit || enter > 1) {
+            return false;
+        }
+        double cx = x0 + enter * dx;
+        double cy = y0 + enter * dy;
+        out.set(Math.min(Math.max(cx, x), x + width), Math.min(Math.max(cy, y), y + height),
+                enter * Math.sqrt(dx * dx + dy * dy));
+        return true;
+    }
+
+    /**
+     * Runs sweptBoxHit against the given rectangle.
+     *
+     * @param x0     the x-coordinate of the center at the start
+     * @param y0     the y-coordinate of the center at the start
+     * @param x1     the x-coordinate of the center at the end
+     * @param y1     the y-coordinate of the center at the end
+     * @param radius the radius of the circle
+     * @param rect   the rectangle
+     * @param out    the holder the result is written to, only if the circle touches the rectangle
+     * @return true if the moving circle touches the rectangle
+     */
+    public static boolean sweptBoxHit(double x0, double y0, double x1, double y1, double radius, Rectangle rect,
+                                      RayHit out) {
+        return sweptBoxHit(x0, y0, x1, y1, radius, rect.getMinX(), rect.getMinY(),
+                rect.getWidth(), rect.getHeight(), out);
+    }
+}
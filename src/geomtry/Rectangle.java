@@ -10,12 +10,15 @@ import java.util.List;
 
 /**
  * Represents a rectangle defined by its upper-left corner, width, and height.
+ * Constructing a rectangle only stores its corner and size. Its edges are built the first time they are
+ * asked for and then kept, so callers that only need the bounds (getMinX, getMaxY, ...) never pay for them.
  */
 public class Rectangle {
     private final Point upperLeft;
     private final double width;
     private final double height;
-    private final Line[] edges;
+    // Built on first use; a race only builds equal edges twice, since the rectangle never changes
+    private volatile Line[] edges;
 
     /**
      * Constructs a new rectangle with the specified location, width, and height.
@@ -28,17 +31,6 @@ public class Rectangle {
         this.upperLeft = upperLeft;
         this.width = width;
         this.height = height;
-        this.edges = new Line[4];
-
-        // Define the sides of the rectangle
-        Point upperRight = new Point(upperLeft.getX() + width, upperLeft.getY());
-        Point lowerLeft = new Point(upperLeft.getX(), upperLeft.getY() + height);
-        Point lowerRight = new Point(upperLeft.getX() + width, upperLeft.getY() + height);
-
-        this.edges[0] = new Line(upperLeft, upperRight); // Top side
-        this.edges[1] = new Line(upperLeft, lowerLeft);  // Left side
-        this.edges[2] = new Line(upperRight, lowerRight); // Right side
-        this.edges[3] = new Line(lowerLeft, lowerRight); // Bottom side
     }
 
     /**
@@ -50,7 +42,7 @@ public class Rectangle {
     public List<Point> intersectionPoints(Line line) {
         List<Point> intersections = new ArrayList<>();
 
-        for (Line edge : edges) {
+        for (Line edge : getEdges()) {
             Point intersection = line.intersectionWith(edge);
             if (intersection != null) {
                 intersections.add(intersection);
@@ -88,13 +80,62 @@ public class Rectangle {
     }
 
     /**
-     * Returns the edges of the rectangle as an array of lines.
-     * The edges are ordered as follows: top, right, bottom, left.
+     * Returns the smallest x-coordinate of the rectangle, that of its left side.
+     *
+     * @return the left x-coordinate
+     */
+    public double getMinX() {
+        return this.upperLeft.getX();
+    }
+
+    /**
+     * Returns the smallest y-coordinate of the rectangle, that of its top side.
+     *
+     * @return the top y-coordinate
+     */
+    public double getMinY() {
+        return this.upperLeft.getY();
+    }
+
+    /**
+     * Returns the largest x-coordinate of the rectangle, that of its right side.
+     *
+     * @return the right x-coordinate
+     */
+    public double getMaxX() {
+        return this.upperLeft.getX() + this.width;
+    }
+
+    /**
+     * Returns the largest y-coordinate of the rectangle, that of its bottom side.
+     *
+     * @return the bottom y-coordinate
+     */
+    public double getMaxY() {
+        return this.upperLeft.getY() + this.height;
+    }
+
+    /**
+     * Returns the edges of the rectangle as an array of lines, building them on the first call.
+     * The edges are ordered as follows: top, left, right, bottom.
      *
      * @return an array of lines representing the edges of the rectangle
      */
     public Line[] getEdges() {
-        return this.edges;
+        Line[] lines = this.edges;
+        if (lines == null) {
+            lines = new Line[4];
+            Point upperRight = new Point(getMaxX(), getMinY());
+            Point lowerLeft = new Point(getMinX(), getMaxY());
+            Point lowerRight = new Point(getMaxX(), getMaxY());
+
+            lines[0] = new Line(this.upperLeft, upperRight); // Top side
+            lines[1] = new Line(this.upperLeft, lowerLeft);  // Left side
+            lines[2] = new Line(upperRight, lowerRight); // Right side
+            lines[3] = new Line(lowerLeft, lowerRight); // Bottom side
+            this.edges = lines;
+        }
+        return lines;
     }
 
 }
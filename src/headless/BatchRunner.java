@@ -0,0 +1,169 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package headless;
+
+import gameRunning.Game;
+import instrumentation.EventLog;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The BatchRunner class plays many complete headless games at once, each with a BotKeyboard on the paddle,
+ * and streams one CSV line per game to a results file as the games finish.
+ * Every game is a separate Game with its own environment, sprites, listeners and bot, and runs as one task
+ * on a work-stealing pool, so the batch scales with the number of cores.
+ * The games share a single QUIET event log, which never writes and never starts a thread per game.
+ * A game's result only depends on its seed, not on the thread that played it or on the other games.
+ */
+public class BatchRunner {
+    private static final double BOT_SPREAD = 0.8;
+    private final int games;
+    private final int threads;
+    private final long maxTicks;
+    private final long seed;
+    private final EventLog log;
+    private long elapsedNanos;
+    private long totalScore;
+    private int cleared;
+
+    /**
+     * Constructs a batch.
+     *
+     * @param games    the number of games to play
+     * @param threads  the number of games played at once, e.g. the number of cores
+     * @param maxTicks the tick limit of a single game
+     * @param seed     the seed of the first game; game i uses seed + i
+     */
+    public BatchRunner(int games, int threads, long maxTicks, long seed) {
+        this.games = games;
+        this.threads = threads;
+        this.maxTicks = maxTicks;
+        this.seed = seed;
+        this.log = new EventLog(OutputStream.nullOutputStream(), EventLog.QUIET, 2);
+    }
+
+    /**
+     * Plays a single game until it is over or the tick limit is reached.
+     *
+     * @param game     the number of the game in the batch
+     * @param gameSeed the seed of the game's bot
+     * @param maxTicks the tick limit
+     * @param log      the event log of the game
+     * @return the outcome of the game
+     */
+    public static GameResult play(int game, long gameSeed, long maxTicks, EventLog log) {
+        long start = System.nanoTime();
+        BotKeyboard bot = new BotKeyboard(gameSeed, BOT_SPREAD);
+        Game g = new Game(bot, log);
+        g.initialize();
+        bot.attach(g);
+        long ticks = 0;
+        while (g.isRunning() && ticks < maxTicks) {
+            g.tick();
+            ticks++;
+        }
+        g.end();
+        return new GameResult(game, gameSeed, g.getScore(), g.getRemainingBlocks(), g.getRemainingBalls(), ticks,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Plays every game of the batch and writes the header and one line per game, in the order they finish.
+     *
+     * @param out the writer the CSV results are written to; flushed after every game
+     * @throws IOException if writing the results fails
+     */
+    public void run(Writer out) throws IOException {
+        ExecutorService pool = Executors.newWorkStealingPool(this.threads);
+        CompletionService<GameResult> results = new ExecutorCompletionService<>(pool);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < this.games; i++) {
+                int game = i;
+                results.submit(() -> play(game, this.seed + game, this.maxTicks, this.log));
+            }
+            out.write(GameResult.CSV_HEADER);
+            out.write(System.lineSeparator());
+            for (int i = 0; i < this.games; i++) {
+                GameResult result = results.take().get();
+                this.totalScore += result.getScore();
+                if (result.isCleared()) {
+                    this.cleared++;
+                }
+                out.write(result.toCsv());
+                out.write(System.lineSeparator());
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running the batch", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A game of the batch failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            this.log.close();
+            this.elapsedNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Returns the throughput of the last run.
+     *
+     * @return the games played per second
+     */
+    public double getGamesPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.games * 1e9 / this.elapsedNanos;
+    }
+
+    /**
+     * Returns the mean final score of the last run.
+     *
+     * @return the mean score
+     */
+    public double getMeanScore() {
+        return this.games == 0 ? 0 : (double) this.totalScore / this.games;
+    }
+
+    /**
+     * Returns the number of games of the last run in which every block was cleared.
+     *
+     * @return the number of won games
+     */
+    public int getClearedGames() {
+        return this.cleared;
+    }
+
+    /**
+     * Plays a batch of games and prints the throughput.
+     * Arguments (all optional): the number of games, the number of threads (default: the number of cores),
+     * the tick limit per game, the results file, and the first seed.
+     *
+     * @param args command line arguments
+     * @throws IOException if the results file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long maxTicks = args.length > 2 ? Long.parseLong(args[2]) : 20000;
+        String path = args.length > 3 ? args[3] : "batch.csv";
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        BatchRunner runner = new BatchRunner(games, threads, maxTicks, seed);
+        try (Writer out = new BufferedWriter(new FileWriter(path))) {
+            runner.run(out);
+        }
+        System.out.printf("games: %d, threads: %d, games/second: %.1f, mean score: %.1f, cleared: %d%n",
+                games, threads, runner.getGamesPerSecond(), runner.getMeanScore(), runner.getClearedGames());
+    }
+}
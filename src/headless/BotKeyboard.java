@@ -0,0 +1,104 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package headless;
+
+import biuoop.KeyboardSensor;
+import elements.BallSystem;
+import gameRunning.Game;
+import geomtry.Rectangle;
+
+import java.util.Random;
+
+/**
+ * The BotKeyboard class is a KeyboardSensor that plays the paddle by itself.
+ * It steers the paddle's center towards the lowest ball that is falling, plus an aiming error that is
+ * drawn again every AIM_TICKS ticks from a seeded random generator, so games with different seeds play out
+ * differently but every game is reproducible.
+ * The paddle asks for the left key and then the right key once per tick; the bot decides on the left query
+ * and answers the right query with the same decision.
+ */
+public class BotKeyboard implements KeyboardSensor {
+    private static final int AIM_TICKS = 30;
+    private final Random random;
+    private final double spread;
+    private Game game;
+    private double aimOffset;
+    private int decisions;
+    private int direction;
+
+    /**
+     * Constructs a bot.
+     *
+     * @param seed   the seed of the aiming errors
+     * @param spread the largest aiming error, as a fraction of the paddle's width (0 aims perfectly)
+     */
+    public BotKeyboard(long seed, double spread) {
+        this.random = new Random(seed);
+        this.spread = spread;
+    }
+
+    /**
+     * Lets the bot watch the given game. Must be called before the game's first tick.
+     *
+     * @param g the game whose paddle this keyboard controls
+     */
+    public void attach(Game g) {
+        this.game = g;
+    }
+
+    /**
+     * Checks if the bot holds a key on this tick. The paddle asks for the left key first on every tick, so asking
+     * for it makes the bot decide which way to move; asking for the right key then returns the same decision.
+     * Other keys are never held.
+     *
+     * @param key the key to check
+     * @return true if the bot holds the key
+     */
+    @Override
+    public boolean isPressed(String key) {
+        if (KeyboardSensor.LEFT_KEY.equals(key)) {
+            this.direction = decide();
+            return this.direction < 0;
+        }
+        if (KeyboardSensor.RIGHT_KEY.equals(key)) {
+            return this.direction > 0;
+        }
+        return false;
+    }
+
+    /**
+     * Decides which way to move the paddle on this tick.
+     *
+     * @return -1 for left, 1 for right, 0 to stay
+     */
+    private int decide() {
+        if (this.game == null || this.game.getPaddle() == null) {
+            return 0;
+        }
+        Rectangle paddle = this.game.getPaddle().getCollisionRectangle();
+        if (this.decisions++ % AIM_TICKS == 0) {
+            this.aimOffset = (this.random.nextDouble() - 0.5) * this.spread * paddle.getWidth();
+        }
+        BallSystem balls = this.game.getBallSystem();
+        int target = -1;
+        for (int i = 0; i < balls.size(); i++) {
+            if (balls.getDy(i) > 0 && (target < 0 || balls.getY(i) > balls.getY(target))) {
+                target = i;
+            }
+        }
+        if (target < 0) {
+            return 0;
+        }
+        double center = paddle.getUpperLeft().getX() + paddle.getWidth() / 2;
+        double error = balls.getX(target) + this.aimOffset - center;
+        // Stay within half a paddle step, so the paddle does not jitter around the target
+        double deadZone = 5;
+        if (error < -deadZone) {
+            return -1;
+        }
+        return error > deadZone ? 1 : 0;
+    }
+}
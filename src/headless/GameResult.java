@@ -0,0 +1,91 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package headless;
+
+/**
+ * The GameResult class holds the outcome of one game played by the BatchRunner.
+ */
+public class GameResult {
+    /**
+     * The header line of the CSV results file, matching toCsv.
+     */
+    public static final String CSV_HEADER = "game,seed,score,remaining_blocks,remaining_balls,ticks,cleared,millis";
+    private final int game;
+    private final long seed;
+    private final int score;
+    private final int remainingBlocks;
+    private final int remainingBalls;
+    private final long ticks;
+    private final long nanos;
+
+    /**
+     * Constructs a game result.
+     *
+     * @param game            the number of the game in its batch
+     * @param seed            the seed of the game's bot
+     * @param score           the final score, including the bonus for clearing the blocks
+     * @param remainingBlocks the number of blocks left when the game ended
+     * @param remainingBalls  the number of balls left when the game ended
+     * @param ticks           the number of ticks played
+     * @param nanos           the time it took to play the game, in nanoseconds
+     */
+    public GameResult(int game, long seed, int score, int remainingBlocks, int remainingBalls, long ticks,
+                      long nanos) {
+        this.game = game;
+        this.seed = seed;
+        this.score = score;
+        this.remainingBlocks = remainingBlocks;
+        this.remainingBalls = remainingBalls;
+        this.ticks = ticks;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Returns the number of the game in its batch.
+     *
+     * @return the game number
+     */
+    public int getGame() {
+        return this.game;
+    }
+
+    /**
+     * Returns the final score.
+     *
+     * @return the score
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * Returns the number of ticks played.
+     *
+     * @return the number of ticks
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Checks if every block was cleared.
+     *
+     * @return true if the game was won
+     */
+    public boolean isCleared() {
+        return this.remainingBlocks == 0;
+    }
+
+    /**
+     * Formats the result as a line of the CSV results file, without the line separator.
+     *
+     * @return the CSV line
+     */
+    public String toCsv() {
+        return this.game + "," + this.seed + "," + this.score + "," + this.remainingBlocks + ","
+                + this.remainingBalls + "," + this.ticks + "," + isCleared() + "," + this.nanos / 1_000_000L;
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package headless;
+
+import elements.BallSystem;
+import gameRunning.Game;
+import gameRunning.GameEnvironment;
+import instrumentation.FrameStats;
+import levels.LevelCache;
+import levels.LevelDefinition;
+import levels.LevelLoader;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * The HeadlessRunner class runs a game without a display and without sleeping between ticks,
+ * so the simulation advances as fast as the CPU allows. It reports the achieved ticks per second.
+ */
+public class HeadlessRunner {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private final Game game;
+    private final ScriptedKeyboard keyboard;
+    private final NullDrawSurface surface;
+    private final boolean draw;
+    private long ticks;
+    private long elapsedNanos;
+
+    /**
+     * Constructs a runner for a new, initialized game.
+     *
+     * @param script the paddle input script, see ScriptedKeyboard
+     * @param draw   whether to also draw every frame on a NullDrawSurface
+     */
+    public HeadlessRunner(String script, boolean draw) {
+        this(script, draw, LevelDefinition.classic());
+    }
+
+    /**
+     * Constructs a runner for a new game, initialized on the given level.
+     *
+     * @param script the paddle input script, see ScriptedKeyboard
+     * @param draw   whether to also draw every frame on a NullDrawSurface
+     * @param level  the level to play
+     */
+    public HeadlessRunner(String script, boolean draw, LevelDefinition level) {
+        this(script, draw, level, false);
+    }
+
+    /**
+     * Constructs a runner for a new game, initialized on the given level.
+     *
+     * @param script  the paddle input script, see ScriptedKeyboard
+     * @param draw    whether to also draw every frame on a NullDrawSurface
+     * @param level   the level to play
+     * @param compact whether to keep the blocks in a compact BlockTable
+     */
+    public HeadlessRunner(String script, boolean draw, LevelDefinition level, boolean compact) {
+        this.keyboard = new ScriptedKeyboard(script);
+        this.game = new Game(this.keyboard);
+        this.game.setCompactBlocks(compact);
+        this.game.initialize(level);
+        this.surface = new NullDrawSurface(WIDTH, HEIGHT);
+        this.draw = draw;
+    }
+
+    /**
+     * Runs the game until it is over or the tick limit is reached.
+     *
+     * @param maxTicks the maximal number of ticks to run
+     * @return the number of ticks that were run
+     */
+    public long run(long maxTicks) {
+        FrameStats stats = this.game.getFrameStats();
+        GameEnvironment environment = this.game.getEnvironment();
+        long start = System.nanoTime();
+        while (this.game.isRunning() && this.ticks < maxTicks) {
+            long frameStart = System.nanoTime();
+            long queriesBefore = environment.getQueryCount();
+            long edgeTestsBefore = environment.getEdgeTestCount();
+            if (this.draw) {
+                this.game.drawFrame(this.surface);
+            }
+            long drawn = System.nanoTime();
+            this.game.tick();
+            this.keyboard.nextTick();
+            this.ticks++;
+            stats.recordFrame(System.nanoTime() - drawn, drawn - frameStart, 0,
+                    environment.getQueryCount() - queriesBefore, environment.getEdgeTestCount() - edgeTestsBefore);
+        }
+        this.elapsedNanos = System.nanoTime() - start;
+        this.game.finish();
+        return this.ticks;
+    }
+
+    /**
+     * Returns the game this runner drives.
+     *
+     * @return the game
+     */
+    public Game getGame() {
+        return this.game;
+    }
+
+    /**
+     * Returns the number of draw calls made so far.
+     *
+     * @return the number of draw calls
+     */
+    public long getDrawCalls() {
+        return this.surface.getDrawCalls();
+    }
+
+    /**
+     * Returns the measured simulation speed of the last run.
+     *
+     * @return the ticks per second
+     */
+    public double getTicksPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.ticks * 1e9 / this.elapsedNanos;
+    }
+
+    /**
+     * Runs a headless game and prints the ticks per second.
+     * Arguments (all optional): the tick limit, the input script, then "draw" to also render every frame,
+     * "events" for event-driven ball stepping, "compact" to keep the blocks in a compact block table,
+     * and "level=file" to play a level file instead of the classic level.
+     *
+     * @param args command line arguments
+     * @throws IOException if the level file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        long maxTicks = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+        String script = args.length > 1 ? args[1] : "";
+        boolean draw = false;
+        boolean events = false;
+        boolean compact = false;
+        LevelDefinition level = LevelDefinition.classic();
+        LevelLoader loader = new LevelLoader(new LevelCache(Paths.get(".levelcache")));
+        for (int i = 2; i < args.length; i++) {
+            draw |= "draw".equals(args[i]);
+            events |= "events".equals(args[i]);
+            compact |= "compact".equals(args[i]);
+            if (args[i].startsWith("level=")) {
+                level = loader.load(Paths.get(args[i].substring("level=".length())));
+                System.out.print(loader.summary());
+            }
+        }
+        HeadlessRunner runner = new HeadlessRunner(script, draw, level, compact);
+        runner.getGame().setEventDriven(events);
+        long ticks = runner.run(maxTicks);
+        System.out.printf("ticks: %d, score: %d, ticks/second: %.0f%n",
+                ticks, runner.getGame().getScore(), runner.getTicksPerSecond());
+        if (events) {
+            BallSystem balls = runner.getGame().getBallSystem();
+            System.out.printf("coherence cache: %d hits, %d misses, hit rate %.1f%%%n",
+                    balls.getCoherenceHitCount(), balls.getCoherenceMissCount(), 100 * balls.getCoherenceHitRate());
+        }
+        System.out.print(runner.getGame().getFrameStats().summary());
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package headless;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+
+/**
+ * The NullDrawSurface class is a DrawSurface that draws nothing and only counts the draw calls.
+ * It lets the game render without a display, so drawing code is still exercised and measured.
+ */
+public class NullDrawSurface implements DrawSurface {
+    private final int width;
+    private final int height;
+    private long drawCalls;
+
+    /**
+     * Constructs a surface of the given size.
+     *
+     * @param width  the width of the surface
+     * @param height the height of the surface
+     */
+    public NullDrawSurface(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Returns the number of draw calls made on this surface so far.
+     *
+     * @return the number of draw calls
+     */
+    public long getDrawCalls() {
+        return this.drawCalls;
+    }
+
+    /**
+     * Returns the width the surface was constructed with.
+     *
+     * @return the width in pixels
+     */
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Returns the height the surface was constructed with.
+     *
+     * @return the height in pixels
+     */
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Does nothing: there is nothing to draw with the color. Not counted as a draw call.
+     *
+     * @param color ignored
+     */
+    @Override
+    public void setColor(Color color) {
+    }
+
+    /**
+     * Counts a line as a draw call without drawing it.
+     *
+     * @param x1 the x-coordinate of the first point
+     * @param y1 the y-coordinate of the first point
+     * @param x2 the x-coordinate of the second point
+     * @param y2 the y-coordinate of the second point
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        this.drawCalls++;
+    }
+
+    /**
+     * Counts an oval outline as a draw call without drawing it.
+     *
+     * @param x      the x-coordinate of the upper-left corner
+     * @param y      the y-coordinate of the upper-left corner
+     * @param width  the width
+     * @param height the height
+     */
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        this.drawCalls++;
+    }
+
+    /**
+     * Counts a filled oval as a draw call without drawing it.
+     *
+     * @param x      the x-coordinate of the upper-left corner
+     * @param y      the y-coordinate of the upper-left corner
+     * @param width  the width
+     * @param height the height
+     */
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        this.drawCalls++;
+    }
+
+    /**
+     * Counts a rectangle outline as a draw call without drawing it.
+     *
+     * @param x      the x-coordinate of the upper-left corner
+     * @param y      the y-coordinate of the upper-left corner
+     * @param width  the width
+     * @param height the height
+     */
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+        this.drawCalls++;
+    }
+
+    /**
+     * Counts a filled rectangle as a draw call without drawing it.
+     *
+     * @param x      the x-coordinate of the upper-left corner
+     * @param y      the y-coordinate of the upper-left corner
+     * @param width  the width
+     * @param height the height
+     */
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+        this.drawCalls++;
+    }
+
+    /**
+     * Counts an image as a draw call without drawing it.
+     *
+     * @param x     the x-coordinate of the upper-left corner
+     * @param y     the y-coordinate of the upper-left corner
+     * @param image the image
+     */
+    @Override
+    public void drawImage(int x, int y, Image image) {
+        this.drawCalls++;
+    }
+
+    /**
+     * Counts a circle outline as a draw call without drawing it.
+     *
+     * @param x the x-coordinate of the center
+     * @param y the y-coordinate of the center
+     * @param r the radius
+     */
+    @Override
+    public void drawCircle(int x, int y, int r) {
+        this.drawCalls++;
+    }
+
+    /**
+     * Counts a filled circle as a draw call without drawing it.
+     *
+     * @param x the x-coordinate of the center
+     * @param y the y-coordinate of the center
+     * @param r the radius
+     */
+    @Override
+    public void fillCircle(int x, int y, int r) {
+        this.drawCalls++;
+    }
+
+    /**
+     * Counts a text as a draw call without drawing it.
+     *
+     * @param x        the x-coordinate of the text's baseline start
+     * @param y        the y-coordinate of the text's baseline
+     * @param s        the text
+     * @param fontSize the font size
+     */
+    @Override
+    public void drawText(int x, int y, String s, int fontSize) {
+        this.drawCalls++;
+    }
+
+    /**
+     * Counts a polygon outline as a draw call without drawing it.
+     *
+     * @param p the polygon
+     */
+    @Override
+    public void drawPolygon(Polygon p) {
+        this.drawCalls++;
+    }
+
+    /**
+     * Counts a filled polygon as a draw call without drawing it.
+     *
+     * @param p the polygon
+     */
+    @Override
+    public void fillPolygon(Polygon p) {
+        this.drawCalls++;
+    }
+}
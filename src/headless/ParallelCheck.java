@@ -0,0 +1,171 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package headless;
+
+import gameRunning.Game;
+import instrumentation.EventLog;
+import levels.LevelGenerator;
+
+import java.io.OutputStream;
+
+/**
+ * The ParallelCheck class checks that stepping the balls on several threads plays out exactly like stepping
+ * them on one. It generates a scene with LevelGenerator, builds two headless games on it, one serial and one
+ * with the given parallelism, with a seeded BotKeyboard on each paddle, and runs them tick by tick side by side.
+ * After every tick it compares the score and the block removal digest (Game.getRemovalDigest) of the two games,
+ * and stops at the first tick they differ on. It also prints the ticks per second of both games, which only
+ * measure the parallel speedup on a machine with at least as many cores as threads.
+ */
+public class ParallelCheck {
+    private static final double BOT_SPREAD = 0.5;
+    private final Game serial;
+    private final Game parallel;
+    private long serialNanos;
+    private long parallelNanos;
+
+    /**
+     * Constructs a check on a generated scene.
+     *
+     * @param pattern     one of LevelGenerator.PATTERNS
+     * @param blocks      the number of blocks of the scene
+     * @param balls       the number of balls of the scene
+     * @param seed        the seed of the scene and of the bots
+     * @param threads     the parallelism of the second game
+     * @param eventDriven whether the balls use event-driven stepping
+     * @param compact     whether the blocks are kept in a compact BlockTable
+     */
+    public ParallelCheck(String pattern, int blocks, int balls, long seed, int threads,
+                         boolean eventDriven, boolean compact) {
+        this.serial = newGame(pattern, blocks, balls, seed, eventDriven, compact);
+        this.parallel = newGame(pattern, blocks, balls, seed, eventDriven, compact);
+        this.parallel.getBallSystem().setParallelism(threads);
+    }
+
+    /**
+     * Runs both games until one of them is over, the tick limit is reached, or they diverge.
+     *
+     * @param maxTicks the maximal number of ticks to run
+     * @return the number of ticks both games agreed on, or the tick they diverged on as a negative number
+     */
+    public long run(long maxTicks) {
+        long ticks = 0;
+        while (ticks < maxTicks && this.serial.isRunning() && this.parallel.isRunning()) {
+            long start = System.nanoTime();
+            this.serial.tick();
+            long serialDone = System.nanoTime();
+            this.parallel.tick();
+            this.parallelNanos += System.nanoTime() - serialDone;
+            this.serialNanos += serialDone - start;
+            ticks++;
+            if (!matches()) {
+                return -ticks;
+            }
+        }
+        if (this.serial.isRunning() != this.parallel.isRunning()) {
+            return -ticks;
+        }
+        return ticks;
+    }
+
+    /**
+     * Checks if the two games have the same score and removed the same blocks in the same order so far.
+     *
+     * @return true if they match
+     */
+    public boolean matches() {
+        return this.serial.getScore() == this.parallel.getScore()
+                && this.serial.getRemovalDigest() == this.parallel.getRemovalDigest();
+    }
+
+    /**
+     * Returns the game stepped on one thread.
+     *
+     * @return the serial game
+     */
+    public Game getSerialGame() {
+        return this.serial;
+    }
+
+    /**
+     * Returns the game stepped with the given parallelism.
+     *
+     * @return the parallel game
+     */
+    public Game getParallelGame() {
+        return this.parallel;
+    }
+
+    /**
+     * Shuts down the parallel game's worker threads.
+     */
+    public void close() {
+        this.parallel.getBallSystem().setParallelism(1);
+    }
+
+    /**
+     * Builds a headless game on a generated scene, with a bot on the paddle.
+     *
+     * @param pattern     one of LevelGenerator.PATTERNS
+     * @param blocks      the number of blocks of the scene
+     * @param balls       the number of balls of the scene
+     * @param seed        the seed of the scene and of the bot
+     * @param eventDriven whether the balls use event-driven stepping
+     * @param compact     whether the blocks are kept in a compact BlockTable
+     * @return the game
+     */
+    private static Game newGame(String pattern, int blocks, int balls, long seed, boolean eventDriven,
+                                boolean compact) {
+        BotKeyboard bot = new BotKeyboard(seed, BOT_SPREAD);
+        Game game = new Game(bot, new EventLog(OutputStream.nullOutputStream(), EventLog.QUIET, 2));
+        game.setCompactBlocks(compact);
+        game.initialize(new LevelGenerator(seed).generate(pattern, blocks, balls));
+        game.setEventDriven(eventDriven);
+        bot.attach(game);
+        return game;
+    }
+
+    /**
+     * Runs a check and prints whether the parallel game played out like the serial one.
+     * Exits with status 1 if it did not.
+     * Arguments (all optional): the pattern, the number of blocks, the number of balls, the tick limit,
+     * the number of threads and the seed, then "events" for event-driven ball stepping and "compact"
+     * to keep the blocks in a compact block table.
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        String pattern = args.length > 0 ? args[0] : "random";
+        int blocks = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int balls = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        long maxTicks = args.length > 3 ? Long.parseLong(args[3]) : 2000;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+        boolean events = false;
+        boolean compact = false;
+        for (int i = 6; i < args.length; i++) {
+            events |= "events".equals(args[i]);
+            compact |= "compact".equals(args[i]);
+        }
+        ParallelCheck check = new ParallelCheck(pattern, blocks, balls, seed, threads, events, compact);
+        long ticks = check.run(maxTicks);
+        check.close();
+        Game serial = check.getSerialGame();
+        Game parallel = check.getParallelGame();
+        System.out.printf("%s, %d blocks, %d balls, %d threads, %d cores%n", pattern, blocks, balls, threads,
+                Runtime.getRuntime().availableProcessors());
+        if (ticks < 0) {
+            System.out.printf("diverged on tick %d: serial score: %d, digest: %016x; "
+                    + "parallel score: %d, digest: %016x%n", -ticks, serial.getScore(), serial.getRemovalDigest(),
+                    parallel.getScore(), parallel.getRemovalDigest());
+            System.exit(1);
+        }
+        System.out.printf("ticks: %d, score: %d, digest: %016x, ticks/second serial: %.0f, parallel: %.0f%n",
+                ticks, serial.getScore(), serial.getRemovalDigest(),
+                check.serialNanos == 0 ? 0 : ticks * 1e9 / check.serialNanos,
+                check.parallelNanos == 0 ? 0 : ticks * 1e9 / check.parallelNanos);
+        System.out.println("the parallel game matched the serial one on every tick");
+    }
+}
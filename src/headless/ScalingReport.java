@@ -0,0 +1,163 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package headless;
+
+import elements.BallSystem;
+import gameRunning.Game;
+import gameRunning.GameEnvironment;
+import instrumentation.EventLog;
+import levels.LevelDefinition;
+import levels.LevelGenerator;
+
+import java.io.OutputStream;
+
+/**
+ * The ScalingReport class measures how the engine scales with the size of the scene.
+ * For every pattern and block count it generates a level with LevelGenerator, builds a headless game on it,
+ * and prints one line: the build time and heap per block, the time to rasterize the static layer, the ticks
+ * per second with the paddle idle, the collision queries and edge tests per tick (GameEnvironment), the share
+ * of the event-driven balls' lookups answered by their coherence cache (BallSystem), and the time to draw a
+ * frame (SpriteCollection and the static layer).
+ * Every scene is built from the same seed, so runs of the report are comparable.
+ */
+public class ScalingReport {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final int FRAMES = 30;
+    private final long seed;
+    private final int balls;
+    private final long ticks;
+    private final boolean eventDriven;
+    private final boolean compact;
+    private final EventLog log;
+
+    /**
+     * Constructs a report.
+     *
+     * @param seed        the seed of the generated levels
+     * @param balls       the number of balls in every scene
+     * @param ticks       the number of ticks to run each scene for, unless its game ends first
+     * @param eventDriven whether the balls use event-driven stepping
+     * @param compact     whether the blocks are kept in a compact BlockTable
+     */
+    public ScalingReport(long seed, int balls, long ticks, boolean eventDriven, boolean compact) {
+        this.seed = seed;
+        this.balls = balls;
+        this.ticks = ticks;
+        this.eventDriven = eventDriven;
+        this.compact = compact;
+        this.log = new EventLog(OutputStream.nullOutputStream(), EventLog.QUIET, 2);
+    }
+
+    /**
+     * Returns the header of the report's table.
+     *
+     * @return the header line
+     */
+    public static String header() {
+        return String.format("%-7s %8s %9s %8s %9s %9s %10s %9s %12s %8s %9s",
+                "pattern", "blocks", "build ms", "B/block", "layer ms", "ticks", "ticks/s", "queries", "edge tests",
+                "cache %", "frame ms");
+    }
+
+    /**
+     * Builds and runs one scene.
+     *
+     * @param pattern the pattern of the blocks, see LevelGenerator
+     * @param blocks  the number of blocks
+     * @return the line of the report's table
+     */
+    public String measure(String pattern, int blocks) {
+        LevelDefinition level = new LevelGenerator(this.seed).generate(pattern, blocks, this.balls);
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        Game game = new Game(new ScriptedKeyboard(""), this.log);
+        game.setCompactBlocks(this.compact);
+        game.initialize(level);
+        game.setEventDriven(this.eventDriven);
+        long built = System.nanoTime();
+        long heap = usedHeap() - heapBefore;
+        level = null;
+
+        NullDrawSurface surface = new NullDrawSurface(WIDTH, HEIGHT);
+        long layerStart = System.nanoTime();
+        game.drawFrame(surface);
+        long layerNanos = System.nanoTime() - layerStart;
+
+        GameEnvironment environment = game.getEnvironment();
+        long queriesBefore = environment.getQueryCount();
+        long edgeTestsBefore = environment.getEdgeTestCount();
+        BallSystem ballSystem = game.getBallSystem();
+        long hitsBefore = ballSystem.getCoherenceHitCount();
+        long missesBefore = ballSystem.getCoherenceMissCount();
+        long run = 0;
+        long runStart = System.nanoTime();
+        while (game.isRunning() && run < this.ticks) {
+            game.tick();
+            run++;
+        }
+        long runNanos = System.nanoTime() - runStart;
+        long queries = environment.getQueryCount() - queriesBefore;
+        long edgeTests = environment.getEdgeTestCount() - edgeTestsBefore;
+        long hits = ballSystem.getCoherenceHitCount() - hitsBefore;
+        long lookups = hits + ballSystem.getCoherenceMissCount() - missesBefore;
+
+        long frameStart = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            game.drawFrame(surface);
+        }
+        long frameNanos = (System.nanoTime() - frameStart) / FRAMES;
+        game.end();
+        return String.format("%-7s %8d %9.1f %8.0f %9.1f %9d %10.0f %9.1f %12.1f %8.1f %9.3f",
+                pattern, blocks, (built - start) / 1e6, blocks == 0 ? 0.0 : (double) heap / blocks, layerNanos / 1e6,
+                run, runNanos == 0 ? 0.0 : run * 1e9 / runNanos, run == 0 ? 0.0 : (double) queries / run,
+                run == 0 ? 0.0 : (double) edgeTests / run, lookups == 0 ? 0.0 : 100.0 * hits / lookups,
+                frameNanos / 1e6);
+    }
+
+    /**
+     * Returns the heap in use after a garbage collection.
+     *
+     * @return the used heap in bytes
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Prints the scaling report.
+     * Arguments (all optional): the patterns, comma-separated (default: all of them); the block counts,
+     * comma-separated (default 1000,10000,100000); the number of balls (default 100); the ticks per scene
+     * (default 300); the seed (default 1); then "events" for event-driven ball stepping and "compact" to keep
+     * the blocks in a compact block table.
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        String[] patterns = args.length > 0 ? args[0].split(",") : LevelGenerator.PATTERNS;
+        String[] sizes = (args.length > 1 ? args[1] : "1000,10000,100000").split(",");
+        int balls = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        long ticks = args.length > 3 ? Long.parseLong(args[3]) : 300;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        boolean events = false;
+        boolean compact = false;
+        for (int i = 5; i < args.length; i++) {
+            events |= "events".equals(args[i]);
+            compact |= "compact".equals(args[i]);
+        }
+        ScalingReport report = new ScalingReport(seed, balls, ticks, events, compact);
+        System.out.println(header());
+        for (String pattern : patterns) {
+            for (String size : sizes) {
+                System.out.println(report.measure(pattern, Integer.parseInt(size.trim())));
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package headless;
+
+import biuoop.KeyboardSensor;
+
+/**
+ * The ScriptedKeyboard class is a KeyboardSensor that replays a fixed script instead of reading a real keyboard.
+ * The script has one character per tick: 'L' holds left, 'R' holds right, 'B' holds both, any other
+ * character holds nothing. The script repeats once it runs out.
+ */
+public class ScriptedKeyboard implements KeyboardSensor {
+    private final String script;
+    private int position;
+
+    /**
+     * Constructs a keyboard that replays the given script.
+     *
+     * @param script the keys held on each tick; an empty script never presses anything
+     */
+    public ScriptedKeyboard(String script) {
+        this.script = script;
+    }
+
+    /**
+     * Moves the script on to the next tick. Should be called once per game tick.
+     */
+    public void nextTick() {
+        if (!this.script.isEmpty()) {
+            this.position = (this.position + 1) % this.script.length();
+        }
+    }
+
+    /**
+     * Checks if a key is held on the current tick of the script: 'L' holds the left key, 'R' the right key
+     * and 'B' both. Other keys are never held.
+     *
+     * @param key the key to check
+     * @return true if the key is held
+     */
+    @Override
+    public boolean isPressed(String key) {
+        if (this.script.isEmpty()) {
+            return false;
+        }
+        char c = this.script.charAt(this.position);
+        if (KeyboardSensor.LEFT_KEY.equals(key)) {
+            return c == 'L' || c == 'B';
+        }
+        if (KeyboardSensor.RIGHT_KEY.equals(key)) {
+            return c == 'R' || c == 'B';
+        }
+        return false;
+    }
+}
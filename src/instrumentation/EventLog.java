@@ -0,0 +1,243 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package instrumentation;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The EventLog class is an asynchronous, batched log for game events.
+ * The game thread only writes an event kind and a number into a preallocated ring buffer, and a
+ * background writer thread formats and writes the events in batches. Logging never blocks and never
+ * allocates: when the buffer is full the event is dropped and counted instead.
+ * Several threads may log into the same EventLog.
+ */
+public class EventLog {
+    /**
+     * Verbosity level that logs nothing.
+     */
+    public static final int QUIET = 0;
+    /**
+     * Verbosity level that logs ball losses.
+     */
+    public static final int NORMAL = 1;
+    /**
+     * Verbosity level that also logs every hit, score change and removed block.
+     */
+    public static final int VERBOSE = 2;
+
+    /**
+     * A hit increased the score; the argument is the new score.
+     */
+    public static final int SCORE = 0;
+    /**
+     * A block was removed; the argument is the number of remaining blocks.
+     */
+    public static final int BLOCK_REMOVED = 1;
+    /**
+     * A ball was removed; the argument is the number of remaining balls.
+     */
+    public static final int BALL_REMOVED = 2;
+    /**
+     * A collidable was removed from the game environment; the argument is the number of remaining collidables.
+     */
+    public static final int COLLIDABLE_REMOVED = 3;
+
+    private static final String[] NAMES = {"score", "block-removed", "ball-removed", "collidable-removed"};
+    private static final String[] ARGUMENT_NAMES = {"score", "remaining", "remaining", "remaining"};
+    private static final int[] LEVELS = {VERBOSE, VERBOSE, NORMAL, VERBOSE};
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+    private static EventLog defaultLog;
+
+    private final int verbosity;
+    private final int mask;
+    private final int[] kinds;
+    private final long[] arguments;
+    private final AtomicLongArray published;
+    private final AtomicLong tail;
+    private final AtomicLong dropped;
+    private volatile long head;
+    private volatile boolean running;
+    private final Writer out;
+    private final Thread writer;
+
+    /**
+     * Constructs a log that writes to the given stream, and starts its writer thread.
+     *
+     * @param stream    the stream to write to
+     * @param verbosity QUIET, NORMAL or VERBOSE
+     * @param capacity  the number of events the buffer holds; rounded up to a power of two
+     */
+    public EventLog(OutputStream stream, int verbosity, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.verbosity = verbosity;
+        this.mask = size - 1;
+        this.kinds = new int[size];
+        this.arguments = new long[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.published.set(i, -1);
+        }
+        this.tail = new AtomicLong();
+        this.dropped = new AtomicLong();
+        this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        this.running = true;
+        this.writer = new Thread(this::drainLoop, "event-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Constructs a log that writes to the given file, and starts its writer thread.
+     *
+     * @param path      the file to write to; it is overwritten
+     * @param verbosity QUIET, NORMAL or VERBOSE
+     * @return the new log
+     * @throws IOException if the file cannot be opened
+     */
+    public static EventLog toFile(String path, int verbosity) throws IOException {
+        return new EventLog(new FileOutputStream(path), verbosity, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns the shared log that writes to the standard output.
+     * Its verbosity is read from the system property "eventlog.verbosity" (default VERBOSE),
+     * and it is flushed when the program exits.
+     *
+     * @return the shared log
+     */
+    public static synchronized EventLog getDefault() {
+        if (defaultLog == null) {
+            int verbosity = Integer.getInteger("eventlog.verbosity", VERBOSE);
+            defaultLog = new EventLog(System.out, verbosity, DEFAULT_CAPACITY);
+            Runtime.getRuntime().addShutdownHook(new Thread(defaultLog::close));
+        }
+        return defaultLog;
+    }
+
+    /**
+     * Checks if events of the given kind are written at this log's verbosity.
+     *
+     * @param kind the event kind
+     * @return true if such events are logged
+     */
+    public boolean isEnabled(int kind) {
+        return LEVELS[kind] <= this.verbosity;
+    }
+
+    /**
+     * Logs an event, without blocking. If the buffer is full the event is dropped and counted.
+     *
+     * @param kind     the event kind, e.g. SCORE
+     * @param argument the event's number, e.g. the new score
+     */
+    public void log(int kind, long argument) {
+        if (!isEnabled(kind) || !this.running) {
+            return;
+        }
+        long slot;
+        do {
+            slot = this.tail.get();
+            if (slot - this.head >= this.kinds.length) {
+                this.dropped.incrementAndGet();
+                return;
+            }
+        } while (!this.tail.compareAndSet(slot, slot + 1));
+        int index = (int) (slot & this.mask);
+        this.kinds[index] = kind;
+        this.arguments[index] = argument;
+        this.published.lazySet(index, slot);
+    }
+
+    /**
+     * Returns the number of events dropped because the buffer was full.
+     *
+     * @return the number of dropped events
+     */
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+    /**
+     * Stops the writer thread after it wrote every event logged so far, and flushes the output.
+     */
+    public void close() {
+        if (!this.running) {
+            return;
+        }
+        this.running = false;
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The writer thread: repeatedly writes every published event as one batch, and parks when idle.
+     */
+    private void drainLoop() {
+        StringBuilder batch = new StringBuilder();
+        try {
+            while (true) {
+                boolean stopping = !this.running;
+                if (drain(batch) == 0) {
+                    if (stopping) {
+                        break;
+                    }
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+            long lost = this.dropped.get();
+            if (lost > 0) {
+                this.out.write("event-log dropped=" + lost + System.lineSeparator());
+            }
+            this.out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes every published event that was not written yet.
+     *
+     * @param batch a reusable buffer for formatting the batch
+     * @return the number of events written
+     * @throws IOException if writing fails
+     */
+    private int drain(StringBuilder batch) throws IOException {
+        batch.setLength(0);
+        long next = this.head;
+        int written = 0;
+        while (true) {
+            int index = (int) (next & this.mask);
+            if (this.published.get(index) != next) {
+                break;
+            }
+            int kind = this.kinds[index];
+            batch.append(NAMES[kind]).append(' ').append(ARGUMENT_NAMES[kind]).append('=')
+                    .append(this.arguments[index]).append(System.lineSeparator());
+            next++;
+            written++;
+        }
+        if (written > 0) {
+            this.head = next;
+            this.out.write(batch.toString());
+            this.out.flush();
+        }
+        return written;
+    }
+}
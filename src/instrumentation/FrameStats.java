@@ -0,0 +1,275 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package instrumentation;
+
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The FrameStats class collects per-frame measurements of the game loop into histograms:
+ * update, draw and show times, sleep overshoot, and the collision queries and edge tests issued per frame.
+ * When frames are drawn on a render thread, that thread records its draw and show times into histograms
+ * of its own with recordRender, and the summary merges them with the game loop's.
+ * Recording never allocates or prints, so it stays cheap on the game loop. A summary can be pulled at any time
+ * with summary(), or dumped periodically to a stream by setDump, on a daemon thread of its own; either way the
+ * summary is built from consistent copies of the histograms, so it may be taken while the loop records.
+ */
+public class FrameStats {
+    private final Histogram updateNanos;
+    private final Histogram drawNanos;
+    private final Histogram showNanos;
+    private final Histogram sleepOvershootNanos;
+    private final Histogram collisionQueries;
+    private final Histogram edgeTests;
+    private final Histogram renderDrawNanos;
+    private final Histogram renderShowNanos;
+    private final Histogram copy;
+    private final Histogram renderCopy;
+    private ScheduledExecutorService dumper;
+
+    /**
+     * Constructs empty statistics, with the periodic dump turned off.
+     */
+    public FrameStats() {
+        this.updateNanos = new Histogram();
+        this.drawNanos = new Histogram();
+        this.showNanos = new Histogram();
+        this.sleepOvershootNanos = new Histogram();
+        this.collisionQueries = new Histogram();
+        this.edgeTests = new Histogram();
+        this.renderDrawNanos = new Histogram();
+        this.renderShowNanos = new Histogram();
+        this.copy = new Histogram();
+        this.renderCopy = new Histogram();
+    }
+
+    /**
+     * Records the measurements of one frame.
+     *
+     * @param update  the time spent updating the game, in nanoseconds
+     * @param draw    the time spent drawing, in nanoseconds
+     * @param show    the time spent showing the frame, in nanoseconds
+     * @param queries the number of collision queries issued during the frame
+     * @param tests   the number of segment-edge tests performed during the frame
+     */
+    public void recordFrame(long update, long draw, long show, long queries, long tests) {
+        this.updateNanos.record(update);
+        this.drawNanos.record(draw);
+        this.showNanos.record(show);
+        this.collisionQueries.record(queries);
+        this.edgeTests.record(tests);
+    }
+
+    /**
+     * Records the measurements of one tick of a game loop that does not draw, because a render thread does.
+     * The draw and show times are left to recordRender.
+     *
+     * @param update  the time spent updating the game, in nanoseconds
+     * @param queries the number of collision queries issued during the tick
+     * @param tests   the number of segment-edge tests performed during the tick
+     */
+    public void recordUpdate(long update, long queries, long tests) {
+        this.updateNanos.record(update);
+        this.collisionQueries.record(queries);
+        this.edgeTests.record(tests);
+    }
+
+    /**
+     * Records the draw and show times of one frame drawn on a render thread.
+     * Must always be called on the same thread, which may be another one than the game loop's.
+     *
+     * @param draw the time spent drawing, in nanoseconds
+     * @param show the time spent showing the frame, in nanoseconds
+     */
+    public void recordRender(long draw, long show) {
+        this.renderDrawNanos.record(draw);
+        this.renderShowNanos.record(show);
+    }
+
+    /**
+     * Records how much longer than requested a frame sleep took.
+     *
+     * @param overshoot the extra sleep time, in nanoseconds
+     */
+    public void recordSleepOvershoot(long overshoot) {
+        this.sleepOvershootNanos.record(overshoot);
+    }
+
+    /**
+     * Turns on the periodic summary dump: a daemon thread prints summary() to the stream at a fixed rate,
+     * so the game loop never formats or prints. Replaces the previous dump, if any.
+     *
+     * @param intervalSeconds the time between dumps, in seconds
+     * @param out             the stream to print the summaries to
+     */
+    public synchronized void setDump(double intervalSeconds, PrintStream out) {
+        stopDump();
+        long intervalNanos = Math.max(1, (long) (intervalSeconds * 1e9));
+        this.dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread t = new Thread(task, "frame-stats-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        this.dumper.scheduleAtFixedRate(() -> out.println(summary()), intervalNanos, intervalNanos,
+                TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Turns off the periodic summary dump. Does nothing if it is off.
+     */
+    public synchronized void stopDump() {
+        if (this.dumper != null) {
+            this.dumper.shutdownNow();
+            this.dumper = null;
+        }
+    }
+
+    /**
+     * Returns the histogram of update times, in nanoseconds.
+     *
+     * @return the update time histogram
+     */
+    public Histogram getUpdateNanos() {
+        return this.updateNanos;
+    }
+
+    /**
+     * Returns the histogram of draw times on the game loop, in nanoseconds.
+     * The frames drawn on a render thread are in getRenderDrawNanos.
+     *
+     * @return the draw time histogram
+     */
+    public Histogram getDrawNanos() {
+        return this.drawNanos;
+    }
+
+    /**
+     * Returns the histogram of show times on the game loop, in nanoseconds.
+     * The frames shown on a render thread are in getRenderShowNanos.
+     *
+     * @return the show time histogram
+     */
+    public Histogram getShowNanos() {
+        return this.showNanos;
+    }
+
+    /**
+     * Returns the histogram of draw times on a render thread, in nanoseconds. Written by the render thread;
+     * read it with Histogram.copyTo while the thread runs.
+     *
+     * @return the render thread's draw time histogram
+     */
+    public Histogram getRenderDrawNanos() {
+        return this.renderDrawNanos;
+    }
+
+    /**
+     * Returns the histogram of show times on a render thread, in nanoseconds. Written by the render thread;
+     * read it with Histogram.copyTo while the thread runs.
+     *
+     * @return the render thread's show time histogram
+     */
+    public Histogram getRenderShowNanos() {
+        return this.renderShowNanos;
+    }
+
+    /**
+     * Returns the histogram of sleep overshoots, in nanoseconds.
+     *
+     * @return the sleep overshoot histogram
+     */
+    public Histogram getSleepOvershootNanos() {
+        return this.sleepOvershootNanos;
+    }
+
+    /**
+     * Returns the histogram of collision queries per frame.
+     *
+     * @return the collision query histogram
+     */
+    public Histogram getCollisionQueries() {
+        return this.collisionQueries;
+    }
+
+    /**
+     * Returns the histogram of segment-edge tests per frame.
+     *
+     * @return the edge test histogram
+     */
+    public Histogram getEdgeTests() {
+        return this.edgeTests;
+    }
+
+    /**
+     * Clears all the histograms. Must not be called while a render thread records.
+     */
+    public void reset() {
+        this.updateNanos.reset();
+        this.drawNanos.reset();
+        this.showNanos.reset();
+        this.sleepOvershootNanos.reset();
+        this.collisionQueries.reset();
+        this.edgeTests.reset();
+        this.renderDrawNanos.reset();
+        this.renderShowNanos.reset();
+    }
+
+    /**
+     * Returns a multi-line summary with p50, p99, p99.9 and max of every histogram.
+     * Times are in microseconds. May be called from any thread: every histogram is copied before it is read.
+     *
+     * @return the summary
+     */
+    public synchronized String summary() {
+        StringBuilder sb = new StringBuilder();
+        this.updateNanos.copyTo(this.copy);
+        sb.append("frames: ").append(this.copy.getCount()).append('\n');
+        appendTime(sb, "update (us)", this.copy);
+        this.drawNanos.copyTo(this.copy);
+        this.renderDrawNanos.copyTo(this.renderCopy);
+        this.copy.add(this.renderCopy);
+        appendTime(sb, "draw (us)", this.copy);
+        this.showNanos.copyTo(this.copy);
+        this.renderShowNanos.copyTo(this.renderCopy);
+        this.copy.add(this.renderCopy);
+        appendTime(sb, "show (us)", this.copy);
+        this.sleepOvershootNanos.copyTo(this.copy);
+        appendTime(sb, "sleep overshoot (us)", this.copy);
+        this.collisionQueries.copyTo(this.copy);
+        appendCount(sb, "collision queries", this.copy);
+        this.edgeTests.copyTo(this.copy);
+        appendCount(sb, "edge tests", this.copy);
+        return sb.toString();
+    }
+
+    /**
+     * Appends a line for a histogram of nanoseconds, converted to microseconds.
+     *
+     * @param sb   the builder to append to
+     * @param name the name of the measurement
+     * @param h    the histogram
+     */
+    private static void appendTime(StringBuilder sb, String name, Histogram h) {
+        sb.append(String.format("%-22s p50 %9.1f  p99 %9.1f  p99.9 %9.1f  max %9.1f%n", name,
+                h.getValueAtPercentile(50) / 1e3, h.getValueAtPercentile(99) / 1e3,
+                h.getValueAtPercentile(99.9) / 1e3, h.getMax() / 1e3));
+    }
+
+    /**
+     * Appends a line for a histogram of counts.
+     *
+     * @param sb   the builder to append to
+     * @param name the name of the measurement
+     * @param h    the histogram
+     */
+    private static void appendCount(StringBuilder sb, String name, Histogram h) {
+        sb.append(String.format("%-22s p50 %9d  p99 %9d  p99.9 %9d  max %9d%n", name,
+                h.getValueAtPercentile(50), h.getValueAtPercentile(99),
+                h.getValueAtPercentile(99.9), h.getMax()));
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package instrumentation;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * The Histogram class records non-negative long values (e.g. nanoseconds) into log-linear buckets.
+ * Every power of two is split into 32 sub-buckets, so reported percentiles are within about 3% of the
+ * true value. Recording is a few arithmetic operations on a preallocated array and never allocates.
+ * A histogram has a single writer thread, but other threads may read it through copyTo, which retries
+ * until it copied the counters between two records, so it never sees a record half done.
+ */
+public class Histogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+    private final long[] counts;
+    private long count;
+    private long max;
+    private long sum;
+    // Odd while a record is in progress, so a concurrent copy can tell it read a half-updated state
+    private volatile int version;
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public Histogram() {
+        this.counts = new long[BUCKETS];
+    }
+
+    /**
+     * Records a value. Negative values are recorded as zero.
+     *
+     * @param value the value to record
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        int started = this.version + 1;
+        this.version = started;
+        VarHandle.storeStoreFence();
+        this.counts[bucketOf(v)]++;
+        this.count++;
+        this.sum += v;
+        if (v > this.max) {
+            this.max = v;
+        }
+        this.version = started + 1;
+    }
+
+    /**
+     * Copies the recorded values into another histogram, replacing its own. May be called from another
+     * thread than the one recording; the copy then holds the values of some moment between two records.
+     *
+     * @param target the histogram to copy into
+     */
+    public void copyTo(Histogram target) {
+        while (true) {
+            int before = this.version;
+            if ((before & 1) == 0) {
+                System.arraycopy(this.counts, 0, target.counts, 0, BUCKETS);
+                target.count = this.count;
+                target.max = this.max;
+                target.sum = this.sum;
+                VarHandle.loadLoadFence();
+                if (this.version == before) {
+                    return;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Adds the recorded values of another histogram to this one. Neither may be recording meanwhile;
+     * copy a histogram that may be with copyTo first.
+     *
+     * @param other the histogram to add
+     */
+    public void add(Histogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        this.count += other.count;
+        this.sum += other.sum;
+        this.max = Math.max(this.max, other.max);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the maximum, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        return this.count == 0 ? 0 : (double) this.sum / this.count;
+    }
+
+    /**
+     * Returns the value below which the given percentage of the recorded values fall.
+     * The result is the upper bound of the matching bucket, capped by the maximum.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the value at the percentile, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (this.count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(percentile / 100 * this.count);
+        target = Math.max(1, Math.min(this.count, target));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts[i];
+            if (seen >= target) {
+                return Math.min(this.max, upperBoundOf(i));
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * Clears all recorded values. Must be called on the thread that records.
+     */
+    public void reset() {
+        int started = this.version + 1;
+        this.version = started;
+        VarHandle.storeStoreFence();
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.max = 0;
+        this.sum = 0;
+        this.version = started + 1;
+    }
+
+    /**
+     * Returns the bucket a value falls in.
+     *
+     * @param v the non-negative value
+     * @return the bucket index
+     */
+    private static int bucketOf(long v) {
+        if (v < SUB_COUNT) {
+            return (int) v;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return shift * SUB_COUNT + (int) (v >>> shift);
+    }
+
+    /**
+     * Returns the largest value that falls in the given bucket.
+     *
+     * @param bucket the bucket index
+     * @return the upper bound of the bucket
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < 2 * SUB_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_COUNT - 1;
+        long sub = bucket - (long) shift * SUB_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+}
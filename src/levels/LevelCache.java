@@ -0,0 +1,162 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package levels;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The LevelCache class keeps parsed levels on disk in a binary form, one file per key, so loading a level
+ * that was parsed before only reads its arrays back. The key is a hash of the level file's contents, so an
+ * edited level file misses the cache and is parsed again. Entries are written to a temporary file and moved
+ * into place, so a reader never sees half an entry, and an entry that cannot be read counts as a miss.
+ */
+public class LevelCache {
+    private static final int MAGIC = 0x424C5643;
+    private static final int VERSION = 2;
+    private final Path directory;
+
+    /**
+     * Constructs a cache in the given directory, which is created when the first entry is written.
+     *
+     * @param directory the directory of the cache files
+     */
+    public LevelCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads the level cached under the given key.
+     *
+     * @param key the key, e.g. the hex digest of the level file
+     * @return the level, or null if it is not cached or its entry cannot be read
+     */
+    public LevelDefinition get(String key) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(entry(key))))) {
+            return read(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // A corrupt or outdated entry is parsed again and overwritten
+            return null;
+        }
+    }
+
+    /**
+     * Caches a level under the given key.
+     *
+     * @param key   the key, e.g. the hex digest of the level file
+     * @param level the level
+     * @throws IOException if the entry cannot be written
+     */
+    public void put(String key, LevelDefinition level) throws IOException {
+        Files.createDirectories(this.directory);
+        Path temporary = Files.createTempFile(this.directory, key, ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temporary)))) {
+                write(out, level);
+            }
+            try {
+                Files.move(temporary, entry(key), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, entry(key), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Returns the path of the entry of a key.
+     *
+     * @param key the key
+     * @return the path of its cache file
+     */
+    private Path entry(String key) {
+        return this.directory.resolve(key + ".lvc");
+    }
+
+    /**
+     * Writes a level in the binary form.
+     *
+     * @param out   the stream to write to
+     * @param level the level
+     * @throws IOException if it cannot be written
+     */
+    static void write(DataOutputStream out, LevelDefinition level) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(level.getName());
+        out.writeInt(level.getPaletteSize());
+        for (int i = 0; i < level.getPaletteSize(); i++) {
+            out.writeInt(level.getColor(i).getRGB());
+        }
+        out.writeDouble(level.getPaddleX());
+        out.writeDouble(level.getPaddleY());
+        out.writeDouble(level.getPaddleWidth());
+        out.writeDouble(level.getPaddleHeight());
+        out.writeInt(level.getPaddleColor());
+        out.writeInt(level.getPaddleSpeed());
+        out.writeInt(level.getBallCount());
+        for (int i = 0; i < level.getBallCount(); i++) {
+            out.writeDouble(level.getBallX(i));
+            out.writeDouble(level.getBallY(i));
+            out.writeInt(level.getBallRadius(i));
+            out.writeDouble(level.getBallDx(i));
+            out.writeDouble(level.getBallDy(i));
+            out.writeInt(level.getBallColor(i));
+        }
+        out.writeInt(level.getBlockCount());
+        for (int i = 0; i < level.getBlockCount(); i++) {
+            out.writeDouble(level.getBlockX(i));
+            out.writeDouble(level.getBlockY(i));
+            out.writeDouble(level.getBlockWidth(i));
+            out.writeDouble(level.getBlockHeight(i));
+            out.writeInt(level.getBlockColor(i));
+        }
+    }
+
+    /**
+     * Reads a level in the binary form.
+     *
+     * @param in the stream to read from
+     * @return the level
+     * @throws IOException if it cannot be read or is not a level of this version
+     */
+    static LevelDefinition read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a cached level of this version");
+        }
+        LevelDefinition level = new LevelDefinition(in.readUTF());
+        int paletteSize = in.readInt();
+        for (int i = 0; i < paletteSize; i++) {
+            // The same Color objects the parser uses, since colors are matched by identity
+            level.colorIndex(LevelParser.canonicalColor(in.readInt()));
+        }
+        level.setPaddle(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readInt(),
+                in.readInt());
+        int balls = in.readInt();
+        for (int i = 0; i < balls; i++) {
+            level.addBall(in.readDouble(), in.readDouble(), in.readInt(), in.readDouble(), in.readDouble(),
+                    in.readInt());
+        }
+        int blocks = in.readInt();
+        for (int i = 0; i < blocks; i++) {
+            level.addBlock(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readInt());
+        }
+        return level;
+    }
+}
@@ -0,0 +1,469 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package levels;
+
+import geomtry.Velocity;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * The LevelDefinition class holds what a level is made of: its blocks, balls and paddle.
+ * Blocks and balls are kept in parallel primitive arrays rather than as objects, so a level of 100,000
+ * blocks takes a few megabytes until Game.initialize builds it. Colors are kept in a palette and referred
+ * to by index; every color appears in the palette once, as the same Color object, because a ball passes
+ * through the blocks whose Color object it carries.
+ */
+public class LevelDefinition {
+    private static final int DEFAULT_PADDLE_SPEED = 10;
+    // Bytes per block and per ball in the arrays: four doubles and a palette index; four doubles, a radius and an index
+    private static final int BLOCK_BYTES = 4 * Double.BYTES + Integer.BYTES;
+    private static final int BALL_BYTES = 4 * Double.BYTES + 2 * Integer.BYTES;
+    private String name;
+    private Color[] palette;
+    private int paletteSize;
+    private double[] blockX;
+    private double[] blockY;
+    private double[] blockWidth;
+    private double[] blockHeight;
+    private int[] blockColor;
+    private int blockCount;
+    private double[] ballX;
+    private double[] ballY;
+    private int[] ballRadius;
+    private double[] ballDx;
+    private double[] ballDy;
+    private int[] ballColor;
+    private int ballCount;
+    private double paddleX;
+    private double paddleY;
+    private double paddleWidth;
+    private double paddleHeight;
+    private int paddleColor;
+    private int paddleSpeed;
+
+    /**
+     * Constructs an empty level with the classic paddle: 100 by 20, black, at the bottom center.
+     *
+     * @param name the name of the level
+     */
+    public LevelDefinition(String name) {
+        this.name = name;
+        this.palette = new Color[16];
+        this.blockX = new double[64];
+        this.blockY = new double[64];
+        this.blockWidth = new double[64];
+        this.blockHeight = new double[64];
+        this.blockColor = new int[64];
+        this.ballX = new double[4];
+        this.ballY = new double[4];
+        this.ballRadius = new int[4];
+        this.ballDx = new double[4];
+        this.ballDy = new double[4];
+        this.ballColor = new int[4];
+        setPaddle(350, 560, 100, 20, Color.BLACK, DEFAULT_PADDLE_SPEED);
+    }
+
+    /**
+     * Returns the level the game has always started with: six rows of 50 by 25 blocks, twelve in the top
+     * row and one less in each row below, right-aligned; three balls; the classic paddle.
+     *
+     * @return the classic level
+     */
+    public static LevelDefinition classic() {
+        LevelDefinition level = new LevelDefinition("classic");
+        Color[] colors = {Color.RED, Color.ORANGE, Color.YELLOW, Color.GREEN, Color.BLUE, Color.magenta};
+        int cols = 12;
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < cols; j++) {
+                level.addBlock(730 - j * 50, 100 + i * 25, 50, 25, colors[i % colors.length]);
+            }
+            cols--;
+        }
+        level.addBall(400, 500, 7, Velocity.fromAngleAndSpeed(245, 4), Color.BLACK);
+        level.addBall(400, 500, 7, Velocity.fromAngleAndSpeed(60, 4), Color.BLACK);
+        level.addBall(400, 500, 7, Velocity.fromAngleAndSpeed(100, 4), Color.BLACK);
+        return level;
+    }
+
+    /**
+     * Returns the name of the level.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Sets the name of the level.
+     *
+     * @param name the name
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the palette index of a color, adding the color to the palette if it is new.
+     * Colors with the same RGB value share one index and one Color object.
+     *
+     * @param color the color
+     * @return the index of the color in the palette
+     */
+    public int colorIndex(Color color) {
+        for (int i = 0; i < this.paletteSize; i++) {
+            if (this.palette[i].getRGB() == color.getRGB()) {
+                return i;
+            }
+        }
+        if (this.paletteSize == this.palette.length) {
+            this.palette = Arrays.copyOf(this.palette, this.paletteSize * 2);
+        }
+        this.palette[this.paletteSize] = color;
+        return this.paletteSize++;
+    }
+
+    /**
+     * Returns the palette index of an RGB color, adding it to the palette if it is new.
+     * Unlike colorIndex(Color), creates a Color only for a color the palette does not have yet.
+     *
+     * @param rgb the color as 0xRRGGBB
+     * @return the index of the color in the palette
+     */
+    public int rgbIndex(int rgb) {
+        for (int i = 0; i < this.paletteSize; i++) {
+            if ((this.palette[i].getRGB() & 0xFFFFFF) == rgb) {
+                return i;
+            }
+        }
+        return colorIndex(new Color(rgb));
+    }
+
+    /**
+     * Returns the number of colors in the palette.
+     *
+     * @return the palette size
+     */
+    public int getPaletteSize() {
+        return this.paletteSize;
+    }
+
+    /**
+     * Returns a color of the palette.
+     *
+     * @param index the index of the color, below getPaletteSize()
+     * @return the color
+     */
+    public Color getColor(int index) {
+        return this.palette[index];
+    }
+
+    /**
+     * Adds a block.
+     *
+     * @param x      the x-coordinate of the block's upper-left corner
+     * @param y      the y-coordinate of the block's upper-left corner
+     * @param width  the width of the block
+     * @param height the height of the block
+     * @param color  the color of the block
+     */
+    public void addBlock(double x, double y, double width, double height, Color color) {
+        addBlock(x, y, width, height, colorIndex(color));
+    }
+
+    /**
+     * Adds a block whose color is already in the palette.
+     *
+     * @param x      the x-coordinate of the block's upper-left corner
+     * @param y      the y-coordinate of the block's upper-left corner
+     * @param width  the width of the block
+     * @param height the height of the block
+     * @param color  the palette index of the block's color
+     */
+    public void addBlock(double x, double y, double width, double height, int color) {
+        if (this.blockCount == this.blockX.length) {
+            int capacity = this.blockCount * 2;
+            this.blockX = Arrays.copyOf(this.blockX, capacity);
+            this.blockY = Arrays.copyOf(this.blockY, capacity);
+            this.blockWidth = Arrays.copyOf(this.blockWidth, capacity);
+            this.blockHeight = Arrays.copyOf(this.blockHeight, capacity);
+            this.blockColor = Arrays.copyOf(this.blockColor, capacity);
+        }
+        this.blockX[this.blockCount] = x;
+        this.blockY[this.blockCount] = y;
+        this.blockWidth[this.blockCount] = width;
+        this.blockHeight[this.blockCount] = height;
+        this.blockColor[this.blockCount] = color;
+        this.blockCount++;
+    }
+
+    /**
+     * Adds a ball.
+     *
+     * @param x        the x-coordinate of the ball's center
+     * @param y        the y-coordinate of the ball's center
+     * @param radius   the radius of the ball
+     * @param velocity the initial velocity of the ball
+     * @param color    the color of the ball
+     */
+    public void addBall(double x, double y, int radius, Velocity velocity, Color color) {
+        addBall(x, y, radius, velocity.getDx(), velocity.getDy(), colorIndex(color));
+    }
+
+    /**
+     * Adds a ball whose color is already in the palette.
+     *
+     * @param x      the x-coordinate of the ball's center
+     * @param y      the y-coordinate of the ball's center
+     * @param radius the radius of the ball
+     * @param dx     the initial velocity of the ball along the x-axis
+     * @param dy     the initial velocity of the ball along the y-axis
+     * @param color  the palette index of the ball's color
+     */
+    public void addBall(double x, double y, int radius, double dx, double dy, int color) {
+        if (this.ballCount == this.ballX.length) {
+            int capacity = this.ballCount * 2;
+            this.ballX = Arrays.copyOf(this.ballX, capacity);
+            this.ballY = Arrays.copyOf(this.ballY, capacity);
+            this.ballRadius = Arrays.copyOf(this.ballRadius, capacity);
+            this.ballDx = Arrays.copyOf(this.ballDx, capacity);
+            this.ballDy = Arrays.copyOf(this.ballDy, capacity);
+            this.ballColor = Arrays.copyOf(this.ballColor, capacity);
+        }
+        this.ballX[this.ballCount] = x;
+        this.ballY[this.ballCount] = y;
+        this.ballRadius[this.ballCount] = radius;
+        this.ballDx[this.ballCount] = dx;
+        this.ballDy[this.ballCount] = dy;
+        this.ballColor[this.ballCount] = color;
+        this.ballCount++;
+    }
+
+    /**
+     * Sets the paddle.
+     *
+     * @param x      the x-coordinate of the paddle's upper-left corner
+     * @param y      the y-coordinate of the paddle's upper-left corner
+     * @param width  the width of the paddle
+     * @param height the height of the paddle
+     * @param color  the color of the paddle
+     * @param speed  how far the paddle moves per tick
+     */
+    public void setPaddle(double x, double y, double width, double height, Color color, int speed) {
+        setPaddle(x, y, width, height, colorIndex(color), speed);
+    }
+
+    /**
+     * Sets the paddle, with a color that is already in the palette.
+     *
+     * @param x      the x-coordinate of the paddle's upper-left corner
+     * @param y      the y-coordinate of the paddle's upper-left corner
+     * @param width  the width of the paddle
+     * @param height the height of the paddle
+     * @param color  the palette index of the paddle's color
+     * @param speed  how far the paddle moves per tick
+     */
+    public void setPaddle(double x, double y, double width, double height, int color, int speed) {
+        this.paddleX = x;
+        this.paddleY = y;
+        this.paddleWidth = width;
+        this.paddleHeight = height;
+        this.paddleColor = color;
+        this.paddleSpeed = speed;
+    }
+
+    /**
+     * Returns the number of blocks.
+     *
+     * @return the number of blocks
+     */
+    public int getBlockCount() {
+        return this.blockCount;
+    }
+
+    /**
+     * Returns the x-coordinate of a block's upper-left corner.
+     *
+     * @param i the index of the block
+     * @return the x-coordinate
+     */
+    public double getBlockX(int i) {
+        return this.blockX[i];
+    }
+
+    /**
+     * Returns the y-coordinate of a block's upper-left corner.
+     *
+     * @param i the index of the block
+     * @return the y-coordinate
+     */
+    public double getBlockY(int i) {
+        return this.blockY[i];
+    }
+
+    /**
+     * Returns the width of a block.
+     *
+     * @param i the index of the block
+     * @return the width
+     */
+    public double getBlockWidth(int i) {
+        return this.blockWidth[i];
+    }
+
+    /**
+     * Returns the height of a block.
+     *
+     * @param i the index of the block
+     * @return the height
+     */
+    public double getBlockHeight(int i) {
+        return this.blockHeight[i];
+    }
+
+    /**
+     * Returns the palette index of a block's color.
+     *
+     * @param i the index of the block
+     * @return the palette index
+     */
+    public int getBlockColor(int i) {
+        return this.blockColor[i];
+    }
+
+    /**
+     * Returns the number of balls.
+     *
+     * @return the number of balls
+     */
+    public int getBallCount() {
+        return this.ballCount;
+    }
+
+    /**
+     * Returns the x-coordinate of a ball's center.
+     *
+     * @param i the index of the ball
+     * @return the x-coordinate
+     */
+    public double getBallX(int i) {
+        return this.ballX[i];
+    }
+
+    /**
+     * Returns the y-coordinate of a ball's center.
+     *
+     * @param i the index of the ball
+     * @return the y-coordinate
+     */
+    public double getBallY(int i) {
+        return this.ballY[i];
+    }
+
+    /**
+     * Returns the radius of a ball.
+     *
+     * @param i the index of the ball
+     * @return the radius
+     */
+    public int getBallRadius(int i) {
+        return this.ballRadius[i];
+    }
+
+    /**
+     * Returns the initial velocity of a ball along the x-axis.
+     *
+     * @param i the index of the ball
+     * @return the dx
+     */
+    public double getBallDx(int i) {
+        return this.ballDx[i];
+    }
+
+    /**
+     * Returns the initial velocity of a ball along the y-axis.
+     *
+     * @param i the index of the ball
+     * @return the dy
+     */
+    public double getBallDy(int i) {
+        return this.ballDy[i];
+    }
+
+    /**
+     * Returns the palette index of a ball's color.
+     *
+     * @param i the index of the ball
+     * @return the palette index
+     */
+    public int getBallColor(int i) {
+        return this.ballColor[i];
+    }
+
+    /**
+     * Returns the x-coordinate of the paddle's upper-left corner.
+     *
+     * @return the x-coordinate
+     */
+    public double getPaddleX() {
+        return this.paddleX;
+    }
+
+    /**
+     * Returns the y-coordinate of the paddle's upper-left corner.
+     *
+     * @return the y-coordinate
+     */
+    public double getPaddleY() {
+        return this.paddleY;
+    }
+
+    /**
+     * Returns the width of the paddle.
+     *
+     * @return the width
+     */
+    public double getPaddleWidth() {
+        return this.paddleWidth;
+    }
+
+    /**
+     * Returns the height of the paddle.
+     *
+     * @return the height
+     */
+    public double getPaddleHeight() {
+        return this.paddleHeight;
+    }
+
+    /**
+     * Returns the palette index of the paddle's color.
+     *
+     * @return the palette index
+     */
+    public int getPaddleColor() {
+        return this.paddleColor;
+    }
+
+    /**
+     * Returns how far the paddle moves per tick.
+     *
+     * @return the paddle speed
+     */
+    public int getPaddleSpeed() {
+        return this.paddleSpeed;
+    }
+
+    /**
+     * Returns the number of bytes the blocks and balls take in this definition, not counting unused capacity.
+     *
+     * @return the footprint in bytes
+     */
+    public long getFootprintBytes() {
+        return (long) this.blockCount * BLOCK_BYTES + (long) this.ballCount * BALL_BYTES;
+    }
+}
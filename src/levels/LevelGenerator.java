@@ -0,0 +1,214 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package levels;
+
+import geomtry.Velocity;
+
+import java.awt.Color;
+import java.util.Random;
+
+/**
+ * The LevelGenerator class builds seeded stress levels of any size, to measure how the engine scales.
+ * The blocks fill the field between the side borders, from under the top border down to FIELD_BOTTOM,
+ * in one of these patterns:
+ * <ul>
+ *   <li>"grid": a dense grid of equal blocks covering the whole field;</li>
+ *   <li>"random": blocks of random size at random places, covering about a fifth of the field;</li>
+ *   <li>"walls": long thin horizontal and vertical walls at random places, crossing each other;</li>
+ *   <li>"frames": nests of concentric frames, each frame four thin blocks, tiling the field.</li>
+ * </ul>
+ * The balls start at random places under the field, with random directions and speeds.
+ * The same seed, pattern and counts always generate the same level.
+ */
+public class LevelGenerator {
+    /**
+     * The patterns the generator knows.
+     */
+    public static final String[] PATTERNS = {"grid", "random", "walls", "frames"};
+    private static final double FIELD_LEFT = 20;
+    private static final double FIELD_TOP = 40;
+    private static final double FIELD_RIGHT = 780;
+    private static final double FIELD_BOTTOM = 440;
+    private static final double RANDOM_COVERAGE = 0.2;
+    private static final int FRAMES_PER_NEST = 8;
+    private static final Color[] COLORS = {Color.RED, Color.ORANGE, Color.YELLOW, Color.GREEN, Color.BLUE,
+        Color.MAGENTA, Color.CYAN, Color.PINK};
+    private final Random random;
+    private int ballRadius;
+    private double minBallSpeed;
+    private double maxBallSpeed;
+
+    /**
+     * Constructs a generator with balls of radius 4 and speeds between 3 and 6.
+     *
+     * @param seed the seed of the random choices
+     */
+    public LevelGenerator(long seed) {
+        this.random = new Random(seed);
+        this.ballRadius = 4;
+        this.minBallSpeed = 3;
+        this.maxBallSpeed = 6;
+    }
+
+    /**
+     * Sets the balls the generator creates.
+     *
+     * @param radius   the radius of every ball
+     * @param minSpeed the lowest speed of a ball
+     * @param maxSpeed the highest speed of a ball
+     */
+    public void setBalls(int radius, double minSpeed, double maxSpeed) {
+        this.ballRadius = radius;
+        this.minBallSpeed = minSpeed;
+        this.maxBallSpeed = maxSpeed;
+    }
+
+    /**
+     * Generates a level.
+     *
+     * @param pattern one of PATTERNS
+     * @param blocks  the number of blocks
+     * @param balls   the number of balls
+     * @return the level, named after the pattern and the counts
+     * @throws IllegalArgumentException if the pattern is unknown
+     */
+    public LevelDefinition generate(String pattern, int blocks, int balls) {
+        LevelDefinition level = new LevelDefinition(pattern + "-" + blocks + "-" + balls);
+        int[] colors = new int[COLORS.length];
+        for (int i = 0; i < COLORS.length; i++) {
+            colors[i] = level.colorIndex(COLORS[i]);
+        }
+        if ("grid".equals(pattern)) {
+            grid(level, blocks, colors);
+        } else if ("random".equals(pattern)) {
+            scatter(level, blocks, colors);
+        } else if ("walls".equals(pattern)) {
+            walls(level, blocks, colors);
+        } else if ("frames".equals(pattern)) {
+            frames(level, blocks, colors);
+        } else {
+            throw new IllegalArgumentException("Unknown pattern " + pattern);
+        }
+        int black = level.colorIndex(Color.BLACK);
+        for (int i = 0; i < balls; i++) {
+            double x = FIELD_LEFT + this.ballRadius
+                    + this.random.nextDouble() * (FIELD_RIGHT - FIELD_LEFT - 2 * this.ballRadius);
+            double y = FIELD_BOTTOM + 20 + this.random.nextDouble() * 80;
+            double speed = this.minBallSpeed + this.random.nextDouble() * (this.maxBallSpeed - this.minBallSpeed);
+            Velocity v = Velocity.fromAngleAndSpeed(this.random.nextDouble() * 360, speed);
+            level.addBall(x, y, this.ballRadius, v.getDx(), v.getDy(), black);
+        }
+        return level;
+    }
+
+    /**
+     * Fills the field with a grid of equal blocks, row by row.
+     *
+     * @param level  the level to add the blocks to
+     * @param blocks the number of blocks
+     * @param colors the palette indexes of the block colors
+     */
+    private void grid(LevelDefinition level, int blocks, int[] colors) {
+        double width = FIELD_RIGHT - FIELD_LEFT;
+        double height = FIELD_BOTTOM - FIELD_TOP;
+        int cols = Math.max(1, (int) Math.ceil(Math.sqrt(blocks * width / height)));
+        int rows = (int) Math.ceil(blocks / (double) cols);
+        double w = width / cols;
+        double h = height / Math.max(1, rows);
+        for (int i = 0; i < blocks; i++) {
+            int row = i / cols;
+            level.addBlock(FIELD_LEFT + (i % cols) * w, FIELD_TOP + row * h, w, h, colors[row % colors.length]);
+        }
+    }
+
+    /**
+     * Scatters blocks of random size over the field; they may overlap.
+     *
+     * @param level  the level to add the blocks to
+     * @param blocks the number of blocks
+     * @param colors the palette indexes of the block colors
+     */
+    private void scatter(LevelDefinition level, int blocks, int[] colors) {
+        double width = FIELD_RIGHT - FIELD_LEFT;
+        double height = FIELD_BOTTOM - FIELD_TOP;
+        double side = Math.sqrt(RANDOM_COVERAGE * width * height / Math.max(1, blocks));
+        for (int i = 0; i < blocks; i++) {
+            double w = side * (0.5 + this.random.nextDouble());
+            double h = side * (0.5 + this.random.nextDouble());
+            double x = FIELD_LEFT + this.random.nextDouble() * (width - w);
+            double y = FIELD_TOP + this.random.nextDouble() * (height - h);
+            level.addBlock(x, y, w, h, colors[this.random.nextInt(colors.length)]);
+        }
+    }
+
+    /**
+     * Lays long thin walls over the field, alternately horizontal and vertical, a quarter to three quarters
+     * of the field long. Their bounding boxes are long and overlap a lot, the hard case for a spatial index.
+     *
+     * @param level  the level to add the blocks to
+     * @param blocks the number of blocks
+     * @param colors the palette indexes of the block colors
+     */
+    private void walls(LevelDefinition level, int blocks, int[] colors) {
+        double width = FIELD_RIGHT - FIELD_LEFT;
+        double height = FIELD_BOTTOM - FIELD_TOP;
+        double thickness = Math.max(0.05, Math.min(4, height / Math.max(1, blocks) * 4));
+        for (int i = 0; i < blocks; i++) {
+            int color = colors[this.random.nextInt(colors.length)];
+            if (i % 2 == 0) {
+                double length = width * (0.25 + this.random.nextDouble() * 0.5);
+                double x = FIELD_LEFT + this.random.nextDouble() * (width - length);
+                double y = FIELD_TOP + this.random.nextDouble() * (height - thickness);
+                level.addBlock(x, y, length, thickness, color);
+            } else {
+                double length = height * (0.25 + this.random.nextDouble() * 0.5);
+                double x = FIELD_LEFT + this.random.nextDouble() * (width - thickness);
+                double y = FIELD_TOP + this.random.nextDouble() * (height - length);
+                level.addBlock(x, y, thickness, length, color);
+            }
+        }
+    }
+
+    /**
+     * Tiles the field with nests of FRAMES_PER_NEST concentric frames, from the outside in.
+     * Each frame is its top, bottom, left and right side; the last frame may be cut short to match the count.
+     *
+     * @param level  the level to add the blocks to
+     * @param blocks the number of blocks
+     * @param colors the palette indexes of the block colors
+     */
+    private void frames(LevelDefinition level, int blocks, int[] colors) {
+        double width = FIELD_RIGHT - FIELD_LEFT;
+        double height = FIELD_BOTTOM - FIELD_TOP;
+        int nests = Math.max(1, (int) Math.ceil(blocks / (4.0 * FRAMES_PER_NEST)));
+        int cols = Math.max(1, (int) Math.ceil(Math.sqrt(nests * width / height)));
+        int rows = (int) Math.ceil(nests / (double) cols);
+        double cellWidth = width / cols;
+        double cellHeight = height / rows;
+        // Frame k is inset k steps into its cell, and its sides are half a step thick
+        double step = Math.min(cellWidth, cellHeight) / (2 * FRAMES_PER_NEST + 1);
+        double thickness = step / 2;
+        int added = 0;
+        for (int nest = 0; added < blocks; nest++) {
+            double left = FIELD_LEFT + (nest % cols) * cellWidth;
+            double top = FIELD_TOP + (nest / cols) * cellHeight;
+            for (int k = 0; k < FRAMES_PER_NEST && added < blocks; k++) {
+                int color = colors[k % colors.length];
+                double x = left + k * step;
+                double y = top + k * step;
+                double w = cellWidth - 2 * k * step;
+                double h = cellHeight - 2 * k * step;
+                double[][] sides = {{x, y, w, thickness}, {x, y + h - thickness, w, thickness},
+                    {x, y + thickness, thickness, h - 2 * thickness},
+                    {x + w - thickness, y + thickness, thickness, h - 2 * thickness}};
+                for (int s = 0; s < sides.length && added < blocks; s++) {
+                    level.addBlock(sides[s][0], sides[s][1], sides[s][2], sides[s][3], color);
+                    added++;
+                }
+            }
+        }
+    }
+}
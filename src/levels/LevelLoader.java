@@ -0,0 +1,183 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package levels;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The LevelLoader class loads level files, see LevelParser, through a LevelCache.
+ * It hashes the file first; if a level with that hash was parsed before it is read from the cache,
+ * otherwise the file is parsed and the result cached. It measures every load, so level startup can be
+ * kept within budget: summary() reports the time spent hashing, parsing and reading the cache, and the
+ * bytes per block the loaded definition takes.
+ */
+public class LevelLoader {
+    private static final int BUFFER_SIZE = 8192;
+    private final LevelCache cache;
+    private long loads;
+    private long hits;
+    private long hashNanos;
+    private long parseNanos;
+    private long cacheNanos;
+    private long lastNanos;
+    private boolean lastHit;
+    private LevelDefinition last;
+    private Path lastFile;
+    private String lastHash;
+
+    /**
+     * Constructs a loader.
+     *
+     * @param cache the cache of parsed levels, or null to parse every time
+     */
+    public LevelLoader(LevelCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Loads a level file.
+     *
+     * @param file the level file
+     * @return the level, named after the file unless it names itself
+     * @throws IOException              if the file cannot be read, or its cache entry cannot be written
+     * @throws IllegalArgumentException if the file is not a valid level
+     */
+    public LevelDefinition load(Path file) throws IOException {
+        long start = System.nanoTime();
+        String key = this.cache == null ? null : hash(file);
+        long hashed = System.nanoTime();
+        LevelDefinition level = key == null ? null : this.cache.get(key);
+        long looked = System.nanoTime();
+        this.lastHit = level != null;
+        if (level == null) {
+            String name = file.getFileName().toString().replaceFirst("\\.[^.]*$", "");
+            try (Reader in = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)) {
+                level = new LevelParser(in, name).parse();
+            }
+            if (this.cache != null) {
+                this.cache.put(key, level);
+            }
+        } else {
+            this.hits++;
+        }
+        long end = System.nanoTime();
+        this.hashNanos += hashed - start;
+        this.cacheNanos += looked - hashed;
+        this.parseNanos += end - looked;
+        this.lastNanos = end - start;
+        this.loads++;
+        this.last = level;
+        this.lastFile = file;
+        this.lastHash = key;
+        return level;
+    }
+
+    /**
+     * Returns the number of levels loaded.
+     *
+     * @return the number of loads
+     */
+    public long getLoadCount() {
+        return this.loads;
+    }
+
+    /**
+     * Returns the number of levels read from the cache instead of parsed.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return this.hits;
+    }
+
+    /**
+     * Returns how long the last load took.
+     *
+     * @return the duration of the last load in nanoseconds
+     */
+    public long getLastLoadNanos() {
+        return this.lastNanos;
+    }
+
+    /**
+     * Checks if the last level loaded was read from the cache.
+     *
+     * @return true on a cache hit
+     */
+    public boolean wasLastCacheHit() {
+        return this.lastHit;
+    }
+
+    /**
+     * Returns the SHA-256 of the last level file loaded, the key it is cached under.
+     * A loader without a cache hashes the file on the first call.
+     *
+     * @return the SHA-256 digest of the file as hex, or null if nothing was loaded
+     * @throws IOException if the file has to be hashed and cannot be read
+     */
+    public String getLastHash() throws IOException {
+        if (this.lastHash == null && this.lastFile != null) {
+            this.lastHash = hash(this.lastFile);
+        }
+        return this.lastHash;
+    }
+
+    /**
+     * Returns a summary of the loads so far: how many hit the cache, the time spent in each stage,
+     * and the size of the last level loaded.
+     *
+     * @return the summary, one line per item
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("level loads: %d, cache hits: %d%n", this.loads, this.hits));
+        sb.append(String.format("hash: %.1f ms, cache lookups: %.1f ms, parse and cache writes: %.1f ms%n",
+                this.hashNanos / 1e6, this.cacheNanos / 1e6, this.parseNanos / 1e6));
+        if (this.last != null) {
+            int blocks = this.last.getBlockCount();
+            sb.append(String.format("last: %s, %d blocks, %d balls, %s in %.1f ms, %.1f definition bytes/block%n",
+                    this.last.getName(), blocks, this.last.getBallCount(), this.lastHit ? "cached" : "parsed",
+                    this.lastNanos / 1e6, blocks == 0 ? 0.0 : (double) this.last.getFootprintBytes() / blocks));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Hashes the contents of a file.
+     *
+     * @param file the file
+     * @return the SHA-256 digest of the file as hex
+     * @throws IOException if the file cannot be read
+     */
+    public static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
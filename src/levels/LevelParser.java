@@ -0,0 +1,398 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package levels;
+
+import geomtry.Velocity;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * The LevelParser class reads a level file into a LevelDefinition.
+ * A level file has one directive per line, with its values separated by spaces; lines starting with '#' are comments:
+ * <pre>
+ * name    &lt;name&gt;
+ * paddle  &lt;x&gt; &lt;y&gt; &lt;width&gt; &lt;height&gt; &lt;color&gt; [speed]
+ * ball    &lt;x&gt; &lt;y&gt; &lt;radius&gt; &lt;angle&gt; &lt;speed&gt; &lt;color&gt;
+ * block   &lt;x&gt; &lt;y&gt; &lt;width&gt; &lt;height&gt; &lt;color&gt;
+ * row     &lt;x&gt; &lt;y&gt; &lt;width&gt; &lt;height&gt; &lt;count&gt; &lt;dx&gt; &lt;dy&gt; &lt;color&gt;
+ * </pre>
+ * A row is count blocks, the k-th at (x + k * dx, y + k * dy). A color is a name such as red or lightGray,
+ * or #RRGGBB. Blocks keep the order they appear in, which is the order they are added to the game.
+ * The parser streams the file through a fixed buffer and scans every value in place, so it holds no line,
+ * no token list and no String per value, however many blocks the level has.
+ */
+public class LevelParser {
+    private static final int BUFFER_SIZE = 8192;
+    private static final String[] COLOR_NAMES = {"black", "blue", "cyan", "darkGray", "gray", "green",
+        "lightGray", "magenta", "orange", "pink", "red", "white", "yellow"};
+    private static final Color[] COLORS = {Color.BLACK, Color.BLUE, Color.CYAN, Color.DARK_GRAY, Color.GRAY,
+        Color.GREEN, Color.LIGHT_GRAY, Color.MAGENTA, Color.ORANGE, Color.PINK, Color.RED, Color.WHITE,
+        Color.YELLOW};
+    // A mantissa of at most 15 digits is below 2^53, so it converts to a double exactly
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15};
+    private final Reader in;
+    private final char[] buffer;
+    private final LevelDefinition level;
+    private int position;
+    private int limit;
+    private int line;
+    private char[] word;
+    private int wordLength;
+
+    /**
+     * Constructs a parser.
+     *
+     * @param in   the level file; not closed by the parser
+     * @param name the name of the level, unless the file names it
+     */
+    public LevelParser(Reader in, String name) {
+        this.in = in;
+        this.buffer = new char[BUFFER_SIZE];
+        this.level = new LevelDefinition(name);
+        this.word = new char[32];
+        this.line = 1;
+    }
+
+    /**
+     * Reads the whole level file.
+     *
+     * @return the level
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid level, naming the line
+     */
+    public LevelDefinition parse() throws IOException {
+        while (peek() >= 0) {
+            if (!nextWord()) {
+                nextLine();
+                continue;
+            }
+            if (this.word[0] == '#') {
+                skipLine();
+                continue;
+            }
+            if (wordIs("block")) {
+                double x = number();
+                double y = number();
+                double width = size();
+                double height = size();
+                this.level.addBlock(x, y, width, height, color());
+            } else if (wordIs("row")) {
+                double x = number();
+                double y = number();
+                double width = size();
+                double height = size();
+                int count = integer();
+                double dx = number();
+                double dy = number();
+                int color = color();
+                for (int k = 0; k < count; k++) {
+                    this.level.addBlock(x + k * dx, y + k * dy, width, height, color);
+                }
+            } else if (wordIs("ball")) {
+                double x = number();
+                double y = number();
+                int radius = integer();
+                Velocity velocity = Velocity.fromAngleAndSpeed(number(), number());
+                this.level.addBall(x, y, radius, velocity.getDx(), velocity.getDy(), color());
+            } else if (wordIs("paddle")) {
+                double x = number();
+                double y = number();
+                double width = size();
+                double height = size();
+                int color = color();
+                int speed = nextWord() ? wordInteger() : this.level.getPaddleSpeed();
+                this.level.setPaddle(x, y, width, height, color, speed);
+            } else if (wordIs("name")) {
+                expectWord("a name");
+                this.level.setName(new String(this.word, 0, this.wordLength));
+            } else {
+                throw error("unknown directive " + new String(this.word, 0, this.wordLength));
+            }
+            if (nextWord()) {
+                throw error("unexpected value " + new String(this.word, 0, this.wordLength));
+            }
+            nextLine();
+        }
+        return this.level;
+    }
+
+    /**
+     * Returns the next character without consuming it.
+     *
+     * @return the character, or -1 at the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    private int peek() throws IOException {
+        if (this.position == this.limit) {
+            this.limit = this.in.read(this.buffer, 0, this.buffer.length);
+            this.position = 0;
+            if (this.limit <= 0) {
+                this.limit = 0;
+                return -1;
+            }
+        }
+        return this.buffer[this.position];
+    }
+
+    /**
+     * Reads the next value of the current line into the word buffer.
+     *
+     * @return false if the line has no more values
+     * @throws IOException if the file cannot be read
+     */
+    private boolean nextWord() throws IOException {
+        int c = peek();
+        while (c == ' ' || c == '\t' || c == '\r') {
+            this.position++;
+            c = peek();
+        }
+        if (c < 0 || c == '\n') {
+            return false;
+        }
+        this.wordLength = 0;
+        while (c > ' ') {
+            if (this.wordLength == this.word.length) {
+                this.word = Arrays.copyOf(this.word, this.wordLength * 2);
+            }
+            this.word[this.wordLength++] = (char) c;
+            this.position++;
+            c = peek();
+        }
+        return true;
+    }
+
+    /**
+     * Moves past the end of the current line, which must have no values left.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    private void nextLine() throws IOException {
+        if (peek() == '\n') {
+            this.position++;
+            this.line++;
+        }
+    }
+
+    /**
+     * Moves past the end of the current line, whatever it holds.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    private void skipLine() throws IOException {
+        int c = peek();
+        while (c >= 0 && c != '\n') {
+            this.position++;
+            c = peek();
+        }
+        nextLine();
+    }
+
+    /**
+     * Reads the next value of the line, which must be there.
+     *
+     * @param what what the value is, for the error message
+     * @throws IOException if the file cannot be read
+     */
+    private void expectWord(String what) throws IOException {
+        if (!nextWord()) {
+            throw error("missing " + what);
+        }
+    }
+
+    /**
+     * Checks if the word buffer holds the given word.
+     *
+     * @param s the word
+     * @return true if they are equal
+     */
+    private boolean wordIs(String s) {
+        return wordIs(s, false);
+    }
+
+    /**
+     * Checks if the word buffer holds the given word.
+     *
+     * @param s          the word
+     * @param ignoreCase whether upper and lower case letters are equal
+     * @return true if they are equal
+     */
+    private boolean wordIs(String s, boolean ignoreCase) {
+        if (s.length() != this.wordLength) {
+            return false;
+        }
+        for (int i = 0; i < this.wordLength; i++) {
+            char a = s.charAt(i);
+            char b = this.word[i];
+            if (a != b && !(ignoreCase && Character.toLowerCase(a) == Character.toLowerCase(b))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next value of the line as a number.
+     *
+     * @return the number
+     * @throws IOException if the file cannot be read
+     */
+    private double number() throws IOException {
+        expectWord("a number");
+        return wordNumber();
+    }
+
+    /**
+     * Reads the next value of the line as a positive number.
+     *
+     * @return the number
+     * @throws IOException if the file cannot be read
+     */
+    private double size() throws IOException {
+        double size = number();
+        if (!(size > 0)) {
+            throw error("a size must be positive");
+        }
+        return size;
+    }
+
+    /**
+     * Reads the next value of the line as a non-negative integer.
+     *
+     * @return the integer
+     * @throws IOException if the file cannot be read
+     */
+    private int integer() throws IOException {
+        expectWord("an integer");
+        return wordInteger();
+    }
+
+    /**
+     * Reads the next value of the line as a color, and returns its palette index.
+     *
+     * @return the palette index of the color
+     * @throws IOException if the file cannot be read
+     */
+    private int color() throws IOException {
+        expectWord("a color");
+        if (this.word[0] == '#' && this.wordLength == 7) {
+            int rgb = 0;
+            for (int i = 1; i < 7; i++) {
+                int digit = Character.digit(this.word[i], 16);
+                if (digit < 0) {
+                    throw error("bad color " + new String(this.word, 0, this.wordLength));
+                }
+                rgb = rgb << 4 | digit;
+            }
+            Color named = namedColor(0xFF000000 | rgb);
+            return named != null ? this.level.colorIndex(named) : this.level.rgbIndex(rgb);
+        }
+        for (int i = 0; i < COLOR_NAMES.length; i++) {
+            if (wordIs(COLOR_NAMES[i], true)) {
+                return this.level.colorIndex(COLORS[i]);
+            }
+        }
+        throw error("unknown color " + new String(this.word, 0, this.wordLength));
+    }
+
+    /**
+     * Returns the named Color constant with the given ARGB value, if there is one.
+     * Balls and blocks match colors by identity, so a color must become the same object however it was read:
+     * by name, as #RRGGBB, or from a LevelCache entry.
+     *
+     * @param argb the color as 0xAARRGGBB
+     * @return the Color constant, or null if no named color has this value
+     */
+    static Color namedColor(int argb) {
+        for (Color c : COLORS) {
+            if (c.getRGB() == argb) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the Color with the given ARGB value: the named Color constant if there is one (see namedColor),
+     * or a new Color otherwise.
+     *
+     * @param argb the color as 0xAARRGGBB
+     * @return the color
+     */
+    static Color canonicalColor(int argb) {
+        Color named = namedColor(argb);
+        return named != null ? named : new Color(argb, true);
+    }
+
+    /**
+     * Parses the word buffer as a number. Plain decimals of at most 15 digits are scanned in place; numbers
+     * with an exponent or more digits fall back to Double.parseDouble.
+     *
+     * @return the number
+     */
+    private double wordNumber() {
+        int i = 0;
+        boolean negative = false;
+        if (this.word[0] == '-' || this.word[0] == '+') {
+            negative = this.word[0] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < this.wordLength; i++) {
+            char c = this.word[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == this.wordLength && digits > 0 && digits <= MAX_FAST_DIGITS) {
+            // The mantissa and the power of ten are exact doubles, so the division is rounded correctly
+            double value = decimals > 0 ? mantissa / POWERS_OF_TEN[decimals] : mantissa;
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(new String(this.word, 0, this.wordLength));
+        } catch (NumberFormatException e) {
+            throw error("bad number " + new String(this.word, 0, this.wordLength));
+        }
+    }
+
+    /**
+     * Parses the word buffer as a non-negative integer.
+     *
+     * @return the integer
+     */
+    private int wordInteger() {
+        double value = wordNumber();
+        if (value < 0 || value > Integer.MAX_VALUE || value != Math.rint(value)) {
+            throw error("bad integer " + new String(this.word, 0, this.wordLength));
+        }
+        return (int) value;
+    }
+
+    /**
+     * Creates the exception for a malformed level file.
+     *
+     * @param message what is wrong
+     * @return the exception, naming the current line
+     */
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("line " + this.line + ": " + message);
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package levels;
+
+import gameRunning.Game;
+import headless.ScriptedKeyboard;
+import instrumentation.EventLog;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The LevelTool class reports what it costs to start a level: it loads a level file twice through the
+ * cache, so both a parse (unless the file was cached before) and a cache hit are measured, then builds a
+ * headless game on it and reports the time that took and the heap the game takes per block.
+ */
+public class LevelTool {
+
+    /**
+     * Loads and builds a level and prints the load times and the memory per block.
+     *
+     * @param args command line arguments: the level file, then optionally the cache directory
+     * @throws IOException if the level file cannot be read or the cache cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: LevelTool <level file> [cache directory]");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]);
+        LevelLoader loader = new LevelLoader(new LevelCache(Paths.get(args.length > 1 ? args[1] : ".levelcache")));
+        LevelDefinition level = loader.load(file);
+        System.out.printf("first load: %s in %.1f ms%n", loader.wasLastCacheHit() ? "cached" : "parsed",
+                loader.getLastLoadNanos() / 1e6);
+        level = loader.load(file);
+        System.out.printf("second load: %s in %.1f ms%n", loader.wasLastCacheHit() ? "cached" : "parsed",
+                loader.getLastLoadNanos() / 1e6);
+        System.out.print(loader.summary());
+
+        EventLog log = new EventLog(OutputStream.nullOutputStream(), EventLog.QUIET, 2);
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        Game game = new Game(new ScriptedKeyboard(""), log);
+        game.initialize(level);
+        long built = System.nanoTime();
+        long heapAfter = usedHeap();
+        int blocks = level.getBlockCount();
+        System.out.printf("build: %.1f ms, game heap: %.1f MB, %.0f bytes/block%n", (built - start) / 1e6,
+                (heapAfter - heapBefore) / 1e6, blocks == 0 ? 0.0 : (double) (heapAfter - heapBefore) / blocks);
+        // Keep the game reachable until its heap was measured
+        System.out.println("remaining blocks: " + game.getRemainingBlocks());
+    }
+
+    /**
+     * Returns the heap in use after a garbage collection.
+     *
+     * @return the used heap in bytes
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package listeners;
+
+/**
+ * The HitBatchListener interface is a HitListener that is told about the hits of a tick all at once.
+ * When the hits are dispatched from a HitEventQueue, hitBatch is called once per tick instead of
+ * hitEvent once per hit, e.g. so a score is added up once.
+ */
+public interface HitBatchListener extends HitListener {
+
+    /**
+     * Called once at the end of a tick in which blocks this listener listens to were hit,
+     * after the hits were dispatched to the other listeners.
+     *
+     * @param events all the hits of the tick, in the order they happened
+     * @param hits   how many of them were on blocks this listener listens to
+     */
+    void hitBatch(HitEventQueue events, int hits);
+}
@@ -0,0 +1,133 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package listeners;
+
+import elements.Ball;
+import elements.Block;
+
+import java.util.Arrays;
+
+/**
+ * The HitEventQueue class collects the hits of one tick and dispatches them to the listeners together,
+ * once the balls have finished moving. A hit is recorded as a (block, ball) pair in preallocated arrays,
+ * so recording allocates nothing, and listeners that remove blocks or balls do so outside the collision loop.
+ * Hits are dispatched in the order they happened; HitBatchListeners are then called once each with the
+ * number of hits that concerned them.
+ */
+public class HitEventQueue {
+    private static final int INITIAL_CAPACITY = 64;
+    private Block[] blocks;
+    private Ball[] balls;
+    private int count;
+    private HitBatchListener[] batchListeners;
+    private int[] batchHits;
+    private int batchCount;
+    private long dispatched;
+
+    /**
+     * Constructs an empty queue.
+     */
+    public HitEventQueue() {
+        this.blocks = new Block[INITIAL_CAPACITY];
+        this.balls = new Ball[INITIAL_CAPACITY];
+        this.batchListeners = new HitBatchListener[4];
+        this.batchHits = new int[4];
+    }
+
+    /**
+     * Records a hit, to be dispatched at the end of the tick.
+     *
+     * @param block the block that was hit
+     * @param ball  the ball that hit it
+     */
+    public void record(Block block, Ball ball) {
+        if (this.count == this.blocks.length) {
+            this.blocks = Arrays.copyOf(this.blocks, this.count * 2);
+            this.balls = Arrays.copyOf(this.balls, this.count * 2);
+        }
+        this.blocks[this.count] = block;
+        this.balls[this.count] = ball;
+        this.count++;
+    }
+
+    /**
+     * Dispatches the recorded hits to the listeners of their blocks, then empties the queue.
+     */
+    public void dispatch() {
+        for (int i = 0; i < this.count; i++) {
+            this.blocks[i].dispatchHit(this.balls[i], this);
+        }
+        for (int j = 0; j < this.batchCount; j++) {
+            this.batchListeners[j].hitBatch(this, this.batchHits[j]);
+            this.batchListeners[j] = null;
+        }
+        this.batchCount = 0;
+        this.dispatched += this.count;
+        Arrays.fill(this.blocks, 0, this.count, null);
+        Arrays.fill(this.balls, 0, this.count, null);
+        this.count = 0;
+    }
+
+    /**
+     * Counts a dispatched hit for a batch listener, which is called once the whole queue was dispatched.
+     * Called by the hit block while dispatching.
+     *
+     * @param listener the batch listener of the hit block
+     */
+    public void countBatchHit(HitBatchListener listener) {
+        for (int j = 0; j < this.batchCount; j++) {
+            if (this.batchListeners[j] == listener) {
+                this.batchHits[j]++;
+                return;
+            }
+        }
+        if (this.batchCount == this.batchListeners.length) {
+            this.batchListeners = Arrays.copyOf(this.batchListeners, this.batchCount * 2);
+            this.batchHits = Arrays.copyOf(this.batchHits, this.batchCount * 2);
+        }
+        this.batchListeners[this.batchCount] = listener;
+        this.batchHits[this.batchCount] = 1;
+        this.batchCount++;
+    }
+
+    /**
+     * Returns the number of hits recorded and not dispatched yet.
+     *
+     * @return the number of pending hits
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Returns the block of a pending hit.
+     *
+     * @param i the index of the hit, below size()
+     * @return the block that was hit
+     */
+    public Block getBlock(int i) {
+        return this.blocks[i];
+    }
+
+    /**
+     * Returns the ball of a pending hit.
+     *
+     * @param i the index of the hit, below size()
+     * @return the ball that hit the block
+     */
+    public Ball getBall(int i) {
+        return this.balls[i];
+    }
+
+    /**
+     * Returns the number of hits dispatched so far.
+     *
+     * @return the number of dispatched hits
+     */
+    public long getDispatchedCount() {
+        return this.dispatched;
+    }
+}
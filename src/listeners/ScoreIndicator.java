@@ -7,7 +7,10 @@ package listeners;
 
 
 import biuoop.DrawSurface;
-import collections.Sprite;
+import rendering.DamageRegion;
+import rendering.DirtySprite;
+import rendering.SnapshotSprite;
+import rendering.SpriteSnapshot;
 
 import java.awt.Color;
 
@@ -15,9 +18,13 @@ import java.awt.Color;
  * The ScoreIndicator class implements the Sprite interface.
  * It displays the current score on the screen.
  */
-public class ScoreIndicator implements Sprite {
+public class ScoreIndicator implements DirtySprite, SnapshotSprite {
+    // The bar is 20 pixels high, the text's descenders may reach a little below it
+    private static final int DAMAGE_HEIGHT = 24;
 
     private final ScoreTrackingListener scoreTracker;
+    private int drawnScore;
+    private boolean drawn;
 
     /**
      * Constructs a ScoreIndicator with a ScoreTrackingListener.
@@ -33,10 +40,63 @@ public class ScoreIndicator implements Sprite {
      */
     @Override
     public void drawOn(DrawSurface d) {
+        draw(d, scoreTracker.getCurrentScore().getValue());
+    }
+
+    /**
+     * Draws the score bar showing the given score.
+     * @param d the DrawSurface to draw on
+     * @param score the score to show
+     */
+    private static void draw(DrawSurface d, int score) {
         d.setColor(Color.WHITE);
         d.fillRectangle(0, 0, d.getWidth(), 20);
         d.setColor(Color.BLACK);
-        d.drawText(d.getWidth() / 2 - 40, 15, "Score: " + scoreTracker.getCurrentScore().getValue(), 15);
+        d.drawText(d.getWidth() / 2 - 40, 15, "Score: " + score, 15);
+    }
+
+    /**
+     * Creates a snapshot of the score, to draw it on the render thread.
+     * @return a new snapshot
+     */
+    @Override
+    public SpriteSnapshot newSnapshot() {
+        return new Snapshot(this.scoreTracker);
+    }
+
+    /**
+     * Adds the score bar to the damage if the score changed since it was last drawn.
+     * @param damage the damage of the current frame
+     * @param alpha how far the frame is from the previous update (0) to the next one (1)
+     */
+    @Override
+    public void addDamage(DamageRegion damage, double alpha) {
+        int score = scoreTracker.getCurrentScore().getValue();
+        if (this.drawn && score == this.drawnScore) {
+            return;
+        }
+        damage.add(0, 0, damage.getWidth(), DAMAGE_HEIGHT);
+        this.drawnScore = score;
+        this.drawn = true;
+    }
+
+    /**
+     * Draws the score indicator if the given area reaches the score bar.
+     * @param d the DrawSurface to draw on
+     * @param x the x-coordinate of the area's upper-left corner
+     * @param y the y-coordinate of the area's upper-left corner
+     * @param width the width of the area
+     * @param height the height of the area
+     * @param alpha how far the frame is from the previous update (0) to the next one (1)
+     * @return 1 if the score indicator was drawn, 0 otherwise
+     */
+    @Override
+    public int drawInside(DrawSurface d, int x, int y, int width, int height, double alpha) {
+        if (y >= DAMAGE_HEIGHT) {
+            return 0;
+        }
+        drawOn(d);
+        return 1;
     }
 
     /**
@@ -46,4 +106,40 @@ public class ScoreIndicator implements Sprite {
     public void timePassed() {
         // Score indicator does not change over time
     }
+
+    /**
+     * A copy of the score.
+     */
+    private static final class Snapshot implements SpriteSnapshot {
+        private final ScoreTrackingListener scoreTracker;
+        private int score;
+
+        /**
+         * Constructs an empty snapshot of the score kept by the given listener.
+         *
+         * @param scoreTracker the listener keeping the score
+         */
+        Snapshot(ScoreTrackingListener scoreTracker) {
+            this.scoreTracker = scoreTracker;
+        }
+
+        /**
+         * Copies the current score. Called on the simulation thread.
+         */
+        @Override
+        public void capture() {
+            this.score = this.scoreTracker.getCurrentScore().getValue();
+        }
+
+        /**
+         * Draws the captured score. Called on the render thread.
+         *
+         * @param d     the DrawSurface to draw the score on
+         * @param alpha ignored, the score is not interpolated
+         */
+        @Override
+        public void drawOn(DrawSurface d, double alpha) {
+            draw(d, this.score);
+        }
+    }
 }
@@ -7,21 +7,33 @@ package listeners;
 import elements.Ball;
 import elements.Block;
 import gameRunning.Counter;
+import instrumentation.EventLog;
 
 /**
- * The ScoreTrackingListener class implements the HitListener interface.
- * It tracks and updates the score whenever a hit event occurs.
+ * The ScoreTrackingListener class implements the HitBatchListener interface.
+ * It tracks and updates the score whenever a hit event occurs, or once per tick for a batch of hits.
  */
-public class ScoreTrackingListener implements HitListener {
+public class ScoreTrackingListener implements HitBatchListener {
 
     private final Counter currentScore;
+    private final EventLog log;
 
     /**
-     * Constructs a ScoreTrackingListener with a Counter for tracking the score.
+     * Constructs a ScoreTrackingListener with a Counter for tracking the score, logging to the default event log.
      * @param scoreCounter the Counter object to track the score
      */
     public ScoreTrackingListener(Counter scoreCounter) {
+        this(scoreCounter, EventLog.getDefault());
+    }
+
+    /**
+     * Constructs a ScoreTrackingListener with a Counter for tracking the score.
+     * @param scoreCounter the Counter object to track the score
+     * @param log the event log score changes are written to
+     */
+    public ScoreTrackingListener(Counter scoreCounter, EventLog log) {
         this.currentScore = scoreCounter;
+        this.log = log;
     }
 
     /**
@@ -40,6 +52,17 @@ public class ScoreTrackingListener implements HitListener {
     @Override
     public void hitEvent(Block beingHit, Ball hitter) {
         this.currentScore.increase(5); // Increase score by 5 points on hit
-        System.out.println("Score: " + this.currentScore.getValue());
+        this.log.log(EventLog.SCORE, this.currentScore.getValue());
+    }
+
+    /**
+     * Updates the score once for all the hits of a tick.
+     * @param events all the hits of the tick
+     * @param hits the number of hits on blocks this listener listens to
+     */
+    @Override
+    public void hitBatch(HitEventQueue events, int hits) {
+        this.currentScore.increase(5 * hits);
+        this.log.log(EventLog.SCORE, this.currentScore.getValue());
     }
 }
@@ -8,6 +8,7 @@ import elements.Ball;
 import elements.Block;
 import gameRunning.Counter;
 import gameRunning.Game;
+import instrumentation.EventLog;
 import listeners.HitListener;
 
 /**
@@ -18,16 +19,30 @@ import listeners.HitListener;
 public class BallRemover implements HitListener {
     private final Game game;
     private final Counter remainingBalls;
+    private final EventLog log;
 
     /**
      * Constructs a BallRemover with the specified game and counter for remaining balls.
+     * Events are written to the default event log.
      *
      * @param game the game from which balls will be removed
      * @param remainingBalls the counter for the remaining balls in the game
      */
     public BallRemover(Game game, Counter remainingBalls) {
+        this(game, remainingBalls, EventLog.getDefault());
+    }
+
+    /**
+     * Constructs a BallRemover with the specified game and counter for remaining balls.
+     *
+     * @param game the game from which balls will be removed
+     * @param remainingBalls the counter for the remaining balls in the game
+     * @param log the event log removals are written to
+     */
+    public BallRemover(Game game, Counter remainingBalls, EventLog log) {
         this.game = game;
         this.remainingBalls = remainingBalls;
+        this.log = log;
     }
 
     /**
@@ -50,7 +65,6 @@ public class BallRemover implements HitListener {
     public void hitEvent(Block beingHit, Ball hitter) {
         hitter.removeFromGame(this.game);
         this.remainingBalls.decrease(1);
-        System.out.println("Block removed");
-        System.out.println(this.remainingBalls.getValue());
+        this.log.log(EventLog.BALL_REMOVED, this.remainingBalls.getValue());
     }
 }
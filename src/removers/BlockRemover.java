@@ -8,6 +8,8 @@ import elements.Ball;
 import elements.Block;
 import gameRunning.Counter;
 import gameRunning.Game;
+import geomtry.Point;
+import instrumentation.EventLog;
 import listeners.HitListener;
 
 /**
@@ -17,16 +19,31 @@ import listeners.HitListener;
 public class BlockRemover implements HitListener {
     private final Game game;
     private final Counter remainingBlocks;
+    private final EventLog log;
+    private long removalDigest;
 
     /**
      * Constructs a BlockRemover with the specified game and remaining blocks counter.
+     * Events are written to the default event log.
      *
      * @param game           the game from which blocks will be removed
      * @param remainingBlocks the counter that tracks the number of remaining blocks
      */
     public BlockRemover(Game game, Counter remainingBlocks) {
+        this(game, remainingBlocks, EventLog.getDefault());
+    }
+
+    /**
+     * Constructs a BlockRemover with the specified game and remaining blocks counter.
+     *
+     * @param game           the game from which blocks will be removed
+     * @param remainingBlocks the counter that tracks the number of remaining blocks
+     * @param log the event log removals are written to
+     */
+    public BlockRemover(Game game, Counter remainingBlocks, EventLog log) {
         this.game = game;
         this.remainingBlocks = remainingBlocks;
+        this.log = log;
     }
 
     /**
@@ -38,6 +55,16 @@ public class BlockRemover implements HitListener {
         return this.remainingBlocks;
     }
 
+    /**
+     * Returns a digest of the blocks removed so far, in their order: a polynomial hash of the upper-left
+     * corners of their collision rectangles. Replays compare it to check they removed the same blocks.
+     *
+     * @return the removal digest
+     */
+    public long getRemovalDigest() {
+        return this.removalDigest;
+    }
+
     /**
      * Handles the event of a block being hit.
      * Removes the block from the game, sets the ball color to the block's color,
@@ -53,7 +80,9 @@ public class BlockRemover implements HitListener {
         beingHit.removeHitListener(this);
         hitter.setColor(beingHit.getColor());
         this.remainingBlocks.decrease(1);
-        System.out.println("Block removed");
-        System.out.println(this.remainingBlocks.getValue());
+        Point corner = beingHit.getCollisionRectangle().getUpperLeft();
+        this.removalDigest = this.removalDigest * 31 + Double.hashCode(corner.getX());
+        this.removalDigest = this.removalDigest * 31 + Double.hashCode(corner.getY());
+        this.log.log(EventLog.BLOCK_REMOVED, this.remainingBlocks.getValue());
     }
 }
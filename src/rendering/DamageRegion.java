@@ -0,0 +1,226 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package rendering;
+
+/**
+ * The DamageRegion class collects the screen areas that changed since the last frame, as a small set
+ * of integer rectangles clipped to the screen. Once it holds too many rectangles it gives up and
+ * marks the whole screen as damaged, so collecting stays cheap however many sprites move.
+ */
+public class DamageRegion {
+    private final int width;
+    private final int height;
+    private final int maxRects;
+    private final int[] left;
+    private final int[] top;
+    private final int[] right;
+    private final int[] bottom;
+    private int count;
+    private boolean full;
+
+    /**
+     * Constructs an empty region on a screen of the given size.
+     *
+     * @param width    the width of the screen
+     * @param height   the height of the screen
+     * @param maxRects the number of rectangles past which the whole screen counts as damaged
+     */
+    public DamageRegion(int width, int height, int maxRects) {
+        this.width = width;
+        this.height = height;
+        this.maxRects = maxRects;
+        this.left = new int[maxRects];
+        this.top = new int[maxRects];
+        this.right = new int[maxRects];
+        this.bottom = new int[maxRects];
+    }
+
+    /**
+     * Returns the width of the screen.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Returns the height of the screen.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Empties the region.
+     */
+    public void clear() {
+        this.count = 0;
+        this.full = false;
+    }
+
+    /**
+     * Marks the whole screen as damaged.
+     */
+    public void addFull() {
+        this.full = true;
+    }
+
+    /**
+     * Adds a damaged rectangle.
+     *
+     * @param x the x-coordinate of the rectangle's upper-left corner
+     * @param y the y-coordinate of the rectangle's upper-left corner
+     * @param w the width of the rectangle
+     * @param h the height of the rectangle
+     */
+    public void add(int x, int y, int w, int h) {
+        if (this.full) {
+            return;
+        }
+        int x0 = Math.max(0, x);
+        int y0 = Math.max(0, y);
+        int x1 = Math.min(this.width, x + w);
+        int y1 = Math.min(this.height, y + h);
+        if (x0 >= x1 || y0 >= y1) {
+            return;
+        }
+        if (this.count == this.maxRects) {
+            this.full = true;
+            return;
+        }
+        this.left[this.count] = x0;
+        this.top[this.count] = y0;
+        this.right[this.count] = x1;
+        this.bottom[this.count] = y1;
+        this.count++;
+    }
+
+    /**
+     * Merges overlapping or touching rectangles into their bounding rectangle, until no two of them touch.
+     * Afterwards the rectangles are disjoint, so each damaged pixel is repainted once.
+     */
+    public void merge() {
+        if (this.full) {
+            return;
+        }
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < this.count; i++) {
+                for (int j = i + 1; j < this.count; j++) {
+                    if (this.left[i] <= this.right[j] && this.left[j] <= this.right[i]
+                            && this.top[i] <= this.bottom[j] && this.top[j] <= this.bottom[i]) {
+                        this.left[i] = Math.min(this.left[i], this.left[j]);
+                        this.top[i] = Math.min(this.top[i], this.top[j]);
+                        this.right[i] = Math.max(this.right[i], this.right[j]);
+                        this.bottom[i] = Math.max(this.bottom[i], this.bottom[j]);
+                        this.count--;
+                        this.left[j] = this.left[this.count];
+                        this.top[j] = this.top[this.count];
+                        this.right[j] = this.right[this.count];
+                        this.bottom[j] = this.bottom[this.count];
+                        merged = true;
+                        j--;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the whole screen is damaged.
+     *
+     * @return true if the whole screen must be repainted
+     */
+    public boolean isFull() {
+        return this.full;
+    }
+
+    /**
+     * Returns the number of damaged rectangles; 0 if the whole screen is damaged.
+     *
+     * @return the number of rectangles
+     */
+    public int size() {
+        return this.full ? 0 : this.count;
+    }
+
+    /**
+     * Returns the damaged area in pixels. Exact once the region was merged.
+     *
+     * @return the damaged area
+     */
+    public long getArea() {
+        if (this.full) {
+            return (long) this.width * this.height;
+        }
+        long area = 0;
+        for (int i = 0; i < this.count; i++) {
+            area += (long) (this.right[i] - this.left[i]) * (this.bottom[i] - this.top[i]);
+        }
+        return area;
+    }
+
+    /**
+     * Returns the x-coordinate of the upper-left corner of a damaged rectangle.
+     *
+     * @param i the index of the rectangle, below size()
+     * @return the x-coordinate
+     */
+    public int getX(int i) {
+        return this.left[i];
+    }
+
+    /**
+     * Returns the y-coordinate of the upper-left corner of a damaged rectangle.
+     *
+     * @param i the index of the rectangle, below size()
+     * @return the y-coordinate
+     */
+    public int getY(int i) {
+        return this.top[i];
+    }
+
+    /**
+     * Returns the width of a damaged rectangle.
+     *
+     * @param i the index of the rectangle, below size()
+     * @return the width
+     */
+    public int getRectWidth(int i) {
+        return this.right[i] - this.left[i];
+    }
+
+    /**
+     * Returns the height of a damaged rectangle.
+     *
+     * @param i the index of the rectangle, below size()
+     * @return the height
+     */
+    public int getRectHeight(int i) {
+        return this.bottom[i] - this.top[i];
+    }
+
+    /**
+     * Checks if two rectangles overlap.
+     *
+     * @param x  the x-coordinate of the first rectangle's upper-left corner
+     * @param y  the y-coordinate of the first rectangle's upper-left corner
+     * @param w  the width of the first rectangle
+     * @param h  the height of the first rectangle
+     * @param x2 the x-coordinate of the second rectangle's upper-left corner
+     * @param y2 the y-coordinate of the second rectangle's upper-left corner
+     * @param w2 the width of the second rectangle
+     * @param h2 the height of the second rectangle
+     * @return true if they share at least one pixel
+     */
+    public static boolean overlaps(int x, int y, int w, int h, int x2, int y2, int w2, int h2) {
+        return x < x2 + w2 && x2 < x + w && y < y2 + h2 && y2 < y + h;
+    }
+}
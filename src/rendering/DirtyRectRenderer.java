@@ -0,0 +1,233 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package rendering;
+
+import biuoop.DrawSurface;
+import collections.Sprite;
+import collections.SpriteCollection;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * The DirtyRectRenderer class draws frames by repainting only the screen areas that changed.
+ * It keeps the previous frames in two offscreen images and draws into them in turn, since a surface may still
+ * be reading the image of the last frame: the image drawn the frame before last is first brought up to date
+ * by copying the areas repainted last frame over from the other image. Each frame, the static layer and every
+ * DirtySprite report their damage (where they were and where they are now), the damage is merged into disjoint
+ * rectangles, and within each rectangle the static layer is blitted and only the sprites intersecting it
+ * are redrawn, clipped to it. The finished image is then drawn on the target surface with one call,
+ * since a biuoop surface always shows a whole new frame.
+ * If a sprite is not a DirtySprite, a sprite was removed, or the damage covers more than the threshold share
+ * of the screen, the frame is repainted in full instead.
+ */
+public class DirtyRectRenderer {
+    private static final int MAX_RECTS = 64;
+    private static final double DEFAULT_THRESHOLD = 0.5;
+    private final int width;
+    private final int height;
+    private final StaticLayer layer;
+    private final SpriteCollection sprites;
+    private final ImageDrawSurface[] images;
+    private DamageRegion damage;
+    private DamageRegion previous;
+    private ImageDrawSurface frame;
+    private int back;
+    private double threshold;
+    private boolean painted;
+    private long removals;
+    private long frames;
+    private long fullRepaints;
+    private long lastDamageArea;
+    private long lastRedraws;
+    private long totalDamageArea;
+    private long totalRedraws;
+
+    /**
+     * Constructs a renderer of the given layer and sprites.
+     *
+     * @param width   the width of the screen
+     * @param height  the height of the screen
+     * @param layer   the static layer, drawn under the sprites
+     * @param sprites the sprites, drawn in their order
+     */
+    public DirtyRectRenderer(int width, int height, StaticLayer layer, SpriteCollection sprites) {
+        this.width = width;
+        this.height = height;
+        this.layer = layer;
+        this.sprites = sprites;
+        this.damage = new DamageRegion(width, height, MAX_RECTS);
+        this.previous = new DamageRegion(width, height, MAX_RECTS);
+        // The images are allocated by the first render, so a game that never draws, e.g. a headless one, has none
+        this.images = new ImageDrawSurface[2];
+        this.threshold = DEFAULT_THRESHOLD;
+    }
+
+    /**
+     * Sets the share of the screen past which a frame is repainted in full rather than by its damage.
+     *
+     * @param threshold the share of the screen, between 0 (always repaint in full) and 1
+     */
+    public void setFullRepaintThreshold(double threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Renders a frame and draws it on the target surface.
+     *
+     * @param target the surface to draw the frame on
+     * @param alpha  how far the frame is from the previous update (0) to the next one (1)
+     */
+    public void render(DrawSurface target, double alpha) {
+        this.damage.clear();
+        // A removed sprite cannot report where it was drawn, so its disappearance repaints everything
+        if (!this.painted || this.sprites.getRemovalCount() != this.removals) {
+            this.damage.addFull();
+            this.removals = this.sprites.getRemovalCount();
+        }
+        this.layer.addDamage(this.damage);
+        for (int i = 0; i < this.sprites.slots(); i++) {
+            Sprite s = this.sprites.get(i);
+            if (s instanceof DirtySprite) {
+                ((DirtySprite) s).addDamage(this.damage, alpha);
+            } else if (s != null) {
+                this.damage.addFull();
+            }
+        }
+        this.damage.merge();
+        long area = this.damage.getArea();
+        long redraws = 0;
+        if (this.images[this.back] == null) {
+            this.images[this.back] = new ImageDrawSurface(
+                    new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_RGB));
+        }
+        ImageDrawSurface shown = this.images[1 - this.back];
+        this.frame = this.images[this.back];
+        if (this.damage.isFull() || area > this.threshold * this.width * this.height) {
+            this.damage.addFull();
+            area = (long) this.width * this.height;
+            redraws = repaint(0, 0, this.width, this.height, alpha);
+            this.fullRepaints++;
+        } else {
+            copyForward(shown);
+            for (int r = 0; r < this.damage.size(); r++) {
+                redraws += repaint(this.damage.getX(r), this.damage.getY(r), this.damage.getRectWidth(r),
+                        this.damage.getRectHeight(r), alpha);
+            }
+        }
+        this.painted = true;
+        this.frames++;
+        this.lastDamageArea = area;
+        this.lastRedraws = redraws;
+        this.totalDamageArea += area;
+        this.totalRedraws += redraws;
+        target.drawImage(0, 0, this.frame.getImage());
+        // The image just handed to the target is left alone until the next frame was drawn
+        DamageRegion drawn = this.damage;
+        this.damage = this.previous;
+        this.previous = drawn;
+        this.back = 1 - this.back;
+    }
+
+    /**
+     * Returns the number of frames rendered.
+     *
+     * @return the number of frames
+     */
+    public long getFrameCount() {
+        return this.frames;
+    }
+
+    /**
+     * Returns the number of frames that were repainted in full.
+     *
+     * @return the number of full repaints
+     */
+    public long getFullRepaintCount() {
+        return this.fullRepaints;
+    }
+
+    /**
+     * Returns the number of pixels repainted in the last frame.
+     *
+     * @return the damaged area of the last frame
+     */
+    public long getLastDamageArea() {
+        return this.lastDamageArea;
+    }
+
+    /**
+     * Returns the number of shapes redrawn in the last frame (the static layer counts as one per rectangle).
+     *
+     * @return the redraw count of the last frame
+     */
+    public long getLastRedrawCount() {
+        return this.lastRedraws;
+    }
+
+    /**
+     * Returns the mean share of the screen repainted per frame so far.
+     *
+     * @return the mean damaged share, between 0 and 1
+     */
+    public double getMeanDamageShare() {
+        return this.frames == 0 ? 0 : (double) this.totalDamageArea / this.frames / this.width / this.height;
+    }
+
+    /**
+     * Returns the mean number of shapes redrawn per frame so far.
+     *
+     * @return the mean redraw count
+     */
+    public double getMeanRedrawCount() {
+        return this.frames == 0 ? 0 : (double) this.totalRedraws / this.frames;
+    }
+
+    /**
+     * Brings the image about to be drawn into up to date with the last frame shown, by copying over the areas
+     * that were repainted in the last frame. The image was shown the frame before, so it is behind by exactly those.
+     *
+     * @param shown the image of the last frame
+     */
+    private void copyForward(ImageDrawSurface shown) {
+        if (this.previous.isFull()) {
+            this.frame.drawImage(0, 0, shown.getImage());
+            return;
+        }
+        for (int r = 0; r < this.previous.size(); r++) {
+            this.frame.setClip(this.previous.getX(r), this.previous.getY(r), this.previous.getRectWidth(r),
+                    this.previous.getRectHeight(r));
+            this.frame.drawImage(0, 0, shown.getImage());
+        }
+        this.frame.clearClip();
+    }
+
+    /**
+     * Repaints one area of the frame: the static layer, then the sprites that may lie inside it.
+     *
+     * @param x      the x-coordinate of the area's upper-left corner
+     * @param y      the y-coordinate of the area's upper-left corner
+     * @param w      the width of the area
+     * @param h      the height of the area
+     * @param alpha  how far the frame is from the previous update (0) to the next one (1)
+     * @return the number of shapes drawn
+     */
+    private long repaint(int x, int y, int w, int h, double alpha) {
+        this.frame.setClip(x, y, w, h);
+        this.layer.drawOn(this.frame);
+        long redraws = 1;
+        for (int i = 0; i < this.sprites.slots(); i++) {
+            Sprite s = this.sprites.get(i);
+            if (s instanceof DirtySprite) {
+                redraws += ((DirtySprite) s).drawInside(this.frame, x, y, w, h, alpha);
+            } else if (s != null) {
+                s.drawOn(this.frame, alpha);
+                redraws++;
+            }
+        }
+        this.frame.clearClip();
+        return redraws;
+    }
+}
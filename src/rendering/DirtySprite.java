@@ -0,0 +1,40 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package rendering;
+
+import biuoop.DrawSurface;
+import collections.Sprite;
+
+/**
+ * The DirtySprite interface is a Sprite that can tell the DirtyRectRenderer which screen areas it
+ * changes between frames, and can draw only the part of itself inside a given area.
+ */
+public interface DirtySprite extends Sprite {
+
+    /**
+     * Adds to the damage the bounds the sprite occupied when it was last drawn, and the bounds it will
+     * occupy when drawn now; then remembers the new bounds as the last drawn ones.
+     * Called once per frame, before any drawing. A sprite that did not change adds nothing.
+     *
+     * @param damage the damage of the current frame
+     * @param alpha  how far the frame is from the previous update (0) to the next one (1)
+     */
+    void addDamage(DamageRegion damage, double alpha);
+
+    /**
+     * Draws the parts of the sprite that may lie inside the given area, like drawOn(d, alpha) would.
+     * Drawing outside the area is allowed, the renderer clips it.
+     *
+     * @param d      the DrawSurface to draw on
+     * @param x      the x-coordinate of the area's upper-left corner
+     * @param y      the y-coordinate of the area's upper-left corner
+     * @param width  the width of the area
+     * @param height the height of the area
+     * @param alpha  how far the frame is from the previous update (0) to the next one (1)
+     * @return the number of shapes drawn
+     */
+    int drawInside(DrawSurface d, int x, int y, int width, int height, double alpha);
+}
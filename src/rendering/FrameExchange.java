@@ -0,0 +1,97 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package rendering;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The FrameExchange class hands frames from the simulation thread to the render thread with triple buffering.
+ * The simulation owns the back frame and the renderer owns the front frame, so neither ever sees a frame
+ * the other is writing or reading; the third frame waits in the middle. Publishing swaps the back frame
+ * with the middle one, taking swaps the middle frame with the front one, each with a single atomic
+ * exchange. Neither side waits for the other or allocates, and the renderer always gets the newest frame;
+ * frames published faster than they are taken are dropped.
+ */
+public class FrameExchange {
+    // The middle slot holds the index of the middle frame, plus this bit if it was published and not taken yet
+    private static final int FRESH = 4;
+    private static final int INDEX = 3;
+    private final RenderFrame[] frames;
+    private final AtomicInteger middle;
+    private int back;
+    private int front;
+    private long published;
+    private volatile long taken;
+
+    /**
+     * Constructs an exchange of three empty frames.
+     */
+    public FrameExchange() {
+        this.frames = new RenderFrame[] {new RenderFrame(), new RenderFrame(), new RenderFrame()};
+        this.back = 0;
+        this.middle = new AtomicInteger(1);
+        this.front = 2;
+    }
+
+    /**
+     * Returns the frame the simulation thread writes into. Only the simulation thread may call this.
+     *
+     * @return the back frame
+     */
+    public RenderFrame getBack() {
+        return this.frames[this.back];
+    }
+
+    /**
+     * Publishes the back frame to the render thread and takes a new back frame.
+     * Only the simulation thread may call this.
+     */
+    public void publish() {
+        this.back = this.middle.getAndSet(this.back | FRESH) & INDEX;
+        this.published++;
+    }
+
+    /**
+     * Checks if a frame was published since the render thread last took one.
+     *
+     * @return true if take() would return a new frame
+     */
+    public boolean hasFresh() {
+        return (this.middle.get() & FRESH) != 0;
+    }
+
+    /**
+     * Takes the newest published frame, or returns the current front frame again if none was published since.
+     * Only the render thread may call this.
+     *
+     * @return the front frame, to read until the next call
+     */
+    public RenderFrame take() {
+        if (hasFresh()) {
+            this.front = this.middle.getAndSet(this.front) & INDEX;
+            this.taken++;
+        }
+        return this.frames[this.front];
+    }
+
+    /**
+     * Returns the number of frames published. Only meaningful on the simulation thread.
+     *
+     * @return the number of published frames
+     */
+    public long getPublishedCount() {
+        return this.published;
+    }
+
+    /**
+     * Returns the number of frames the render thread took.
+     *
+     * @return the number of taken frames
+     */
+    public long getTakenCount() {
+        return this.taken;
+    }
+}
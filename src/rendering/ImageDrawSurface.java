@@ -0,0 +1,236 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package rendering;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+
+/**
+ * The ImageDrawSurface class is a DrawSurface that draws into an offscreen BufferedImage,
+ * with the same Java2D calls the biuoop GUI uses, so sprites look the same on it as in the window.
+ * Drawing can be restricted to a clip rectangle, to repaint only part of the image.
+ */
+public class ImageDrawSurface implements DrawSurface {
+    private final BufferedImage image;
+    private final Graphics2D g;
+
+    /**
+     * Constructs a surface that draws into the given image.
+     *
+     * @param image the image to draw into
+     */
+    public ImageDrawSurface(BufferedImage image) {
+        this.image = image;
+        this.g = image.createGraphics();
+    }
+
+    /**
+     * Returns the image this surface draws into.
+     *
+     * @return the image
+     */
+    public BufferedImage getImage() {
+        return this.image;
+    }
+
+    /**
+     * Restricts the following drawing to the given rectangle.
+     *
+     * @param x      the x-coordinate of the rectangle's upper-left corner
+     * @param y      the y-coordinate of the rectangle's upper-left corner
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    public void setClip(int x, int y, int width, int height) {
+        this.g.setClip(x, y, width, height);
+    }
+
+    /**
+     * Lets the following drawing cover the whole image again.
+     */
+    public void clearClip() {
+        this.g.setClip(null);
+    }
+
+    /**
+     * Releases the graphics context. The surface must not be used afterwards.
+     */
+    public void dispose() {
+        this.g.dispose();
+    }
+
+    /**
+     * Returns the width of the image.
+     *
+     * @return the width in pixels
+     */
+    @Override
+    public int getWidth() {
+        return this.image.getWidth();
+    }
+
+    /**
+     * Returns the height of the image.
+     *
+     * @return the height in pixels
+     */
+    @Override
+    public int getHeight() {
+        return this.image.getHeight();
+    }
+
+    /**
+     * Sets the color of the following drawing.
+     *
+     * @param color the color
+     */
+    @Override
+    public void setColor(Color color) {
+        this.g.setColor(color);
+    }
+
+    /**
+     * Draws a line between two points.
+     *
+     * @param x1 the x-coordinate of the first point
+     * @param y1 the y-coordinate of the first point
+     * @param x2 the x-coordinate of the second point
+     * @param y2 the y-coordinate of the second point
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        this.g.drawLine(x1, y1, x2, y2);
+    }
+
+    /**
+     * Draws the outline of the oval bounded by the given rectangle.
+     *
+     * @param x      the x-coordinate of the upper-left corner
+     * @param y      the y-coordinate of the upper-left corner
+     * @param width  the width
+     * @param height the height
+     */
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        this.g.drawOval(x, y, width, height);
+    }
+
+    /**
+     * Fills the oval bounded by the given rectangle.
+     *
+     * @param x      the x-coordinate of the upper-left corner
+     * @param y      the y-coordinate of the upper-left corner
+     * @param width  the width
+     * @param height the height
+     */
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        this.g.fillOval(x, y, width, height);
+    }
+
+    /**
+     * Draws the outline of the given rectangle.
+     *
+     * @param x      the x-coordinate of the upper-left corner
+     * @param y      the y-coordinate of the upper-left corner
+     * @param width  the width
+     * @param height the height
+     */
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+        this.g.drawRect(x, y, width, height);
+    }
+
+    /**
+     * Fills the given rectangle.
+     *
+     * @param x      the x-coordinate of the upper-left corner
+     * @param y      the y-coordinate of the upper-left corner
+     * @param width  the width
+     * @param height the height
+     */
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+        this.g.fillRect(x, y, width, height);
+    }
+
+    /**
+     * Draws an image with its upper-left corner at the given point.
+     *
+     * @param x   the x-coordinate of the upper-left corner
+     * @param y   the y-coordinate of the upper-left corner
+     * @param img the image to draw
+     */
+    @Override
+    public void drawImage(int x, int y, Image img) {
+        this.g.drawImage(img, x, y, null);
+    }
+
+    /**
+     * Draws the outline of a circle.
+     *
+     * @param x the x-coordinate of the center
+     * @param y the y-coordinate of the center
+     * @param r the radius
+     */
+    @Override
+    public void drawCircle(int x, int y, int r) {
+        this.g.drawOval(x - r, y - r, 2 * r, 2 * r);
+    }
+
+    /**
+     * Fills a circle.
+     *
+     * @param x the x-coordinate of the center
+     * @param y the y-coordinate of the center
+     * @param r the radius
+     */
+    @Override
+    public void fillCircle(int x, int y, int r) {
+        this.g.fillOval(x - r, y - r, 2 * r, 2 * r);
+    }
+
+    /**
+     * Draws text in the current font, resized to the given size.
+     *
+     * @param x        the x-coordinate of the text's baseline start
+     * @param y        the y-coordinate of the text's baseline
+     * @param s        the text
+     * @param fontSize the font size
+     */
+    @Override
+    public void drawText(int x, int y, String s, int fontSize) {
+        Font font = this.g.getFont();
+        this.g.setFont(new Font(font.getFontName(), font.getStyle(), fontSize));
+        this.g.drawString(s, x, y);
+    }
+
+    /**
+     * Draws the outline of a polygon.
+     *
+     * @param p the polygon
+     */
+    @Override
+    public void drawPolygon(Polygon p) {
+        this.g.drawPolygon(p);
+    }
+
+    /**
+     * Fills a polygon.
+     *
+     * @param p the polygon
+     */
+    @Override
+    public void fillPolygon(Polygon p) {
+        this.g.fillPolygon(p);
+    }
+}
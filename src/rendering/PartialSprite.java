@@ -0,0 +1,28 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package rendering;
+
+import biuoop.DrawSurface;
+import collections.Sprite;
+
+/**
+ * The PartialSprite interface is a static Sprite that can draw only the part of itself inside a given area,
+ * so the StaticLayer can patch a small area without drawing the whole sprite, e.g. a table of many blocks.
+ */
+public interface PartialSprite extends Sprite {
+
+    /**
+     * Draws the parts of the sprite that may lie inside the given area, like drawOn would.
+     * Drawing outside the area is allowed, the layer clips it.
+     *
+     * @param d      the DrawSurface to draw on
+     * @param x      the x-coordinate of the area's upper-left corner
+     * @param y      the y-coordinate of the area's upper-left corner
+     * @param width  the width of the area
+     * @param height the height of the area
+     */
+    void drawInside(DrawSurface d, int x, int y, int width, int height);
+}
@@ -0,0 +1,170 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package rendering;
+
+import biuoop.DrawSurface;
+import collections.Sprite;
+import collections.SpriteCollection;
+
+import java.util.List;
+
+/**
+ * The RenderFrame class is the render state of all the sprites after one tick: a snapshot per sprite,
+ * in drawing order. The snapshots are kept and recaptured in place frame after frame; new snapshots are
+ * only created when the sprites in the collection change, so capturing allocates nothing in steady state.
+ * A frame is written only by the simulation thread and read only by the render thread, one at a time,
+ * as arranged by the FrameExchange.
+ */
+public class RenderFrame {
+    private static final int INITIAL_CAPACITY = 8;
+    private Sprite[] owners;
+    private SpriteSnapshot[] snapshots;
+    private int count;
+    private long tick;
+    private long capturedNanos;
+    private long staticOpsEnd;
+    private List<Sprite> staticSprites;
+    private long staticSpritesEnd;
+
+    /**
+     * Constructs an empty frame.
+     */
+    public RenderFrame() {
+        this.owners = new Sprite[INITIAL_CAPACITY];
+        this.snapshots = new SpriteSnapshot[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Captures the state of all the sprites in the collection.
+     *
+     * @param sprites       the sprites, in drawing order
+     * @param tick          the number of the tick the state is from
+     * @param nanos         the System.nanoTime the state was captured at
+     * @param staticOpsEnd  the number of static layer changes made up to this tick
+     * @throws IllegalStateException if a sprite is not a SnapshotSprite
+     */
+    public void capture(SpriteCollection sprites, long tick, long nanos, long staticOpsEnd) {
+        int k = 0;
+        for (int i = 0; i < sprites.slots(); i++) {
+            Sprite s = sprites.get(i);
+            if (s == null) {
+                continue;
+            }
+            if (k == this.owners.length) {
+                grow();
+            }
+            if (this.owners[k] != s) {
+                if (!(s instanceof SnapshotSprite)) {
+                    throw new IllegalStateException(s.getClass().getName() + " cannot be drawn from a snapshot");
+                }
+                this.owners[k] = s;
+                this.snapshots[k] = ((SnapshotSprite) s).newSnapshot();
+            }
+            this.snapshots[k].capture();
+            k++;
+        }
+        // Let go of the sprites that were removed
+        for (int i = k; i < this.count; i++) {
+            this.owners[i] = null;
+            this.snapshots[i] = null;
+        }
+        this.count = k;
+        this.tick = tick;
+        this.capturedNanos = nanos;
+        this.staticOpsEnd = staticOpsEnd;
+    }
+
+    /**
+     * Draws the captured sprites in order.
+     *
+     * @param d     the DrawSurface to draw on
+     * @param alpha how far to go from the previous state (0) to the current state (1)
+     */
+    public void drawOn(DrawSurface d, double alpha) {
+        for (int i = 0; i < this.count; i++) {
+            this.snapshots[i].drawOn(d, alpha);
+        }
+    }
+
+    /**
+     * Returns the number of the tick the frame was captured after.
+     *
+     * @return the tick
+     */
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Returns the System.nanoTime the frame was captured at.
+     *
+     * @return the capture time
+     */
+    public long getCapturedNanos() {
+        return this.capturedNanos;
+    }
+
+    /**
+     * Returns the number of static layer changes made up to the frame's tick, which the render thread
+     * applies to its static layer before drawing the frame.
+     *
+     * @return the end of the frame's static layer changes
+     */
+    public long getStaticOpsEnd() {
+        return this.staticOpsEnd;
+    }
+
+    /**
+     * Sets the static layer's whole sprite list, which replaces the static layer changes before its position
+     * after the changes overflowed the render thread's queue.
+     *
+     * @param sprites the sprites of the static layer, or null if the changes did not overflow
+     * @param end     the number of static layer changes made when the sprites were listed
+     */
+    public void setStaticSprites(List<Sprite> sprites, long end) {
+        this.staticSprites = sprites;
+        this.staticSpritesEnd = end;
+    }
+
+    /**
+     * Returns the static layer's sprite list set by setStaticSprites.
+     *
+     * @return the sprites of the static layer, or null if there is no list
+     */
+    public List<Sprite> getStaticSprites() {
+        return this.staticSprites;
+    }
+
+    /**
+     * Returns the number of static layer changes made when the static layer's sprites were listed.
+     *
+     * @return the position of the sprite list
+     */
+    public long getStaticSpritesEnd() {
+        return this.staticSpritesEnd;
+    }
+
+    /**
+     * Returns the number of sprites captured.
+     *
+     * @return the number of sprites
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Doubles the capacity of the arrays.
+     */
+    private void grow() {
+        Sprite[] newOwners = new Sprite[this.owners.length * 2];
+        SpriteSnapshot[] newSnapshots = new SpriteSnapshot[this.owners.length * 2];
+        System.arraycopy(this.owners, 0, newOwners, 0, this.owners.length);
+        System.arraycopy(this.snapshots, 0, newSnapshots, 0, this.snapshots.length);
+        this.owners = newOwners;
+        this.snapshots = newSnapshots;
+    }
+}
@@ -0,0 +1,323 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package rendering;
+
+import biuoop.DrawSurface;
+import biuoop.GUI;
+import collections.DeferredList;
+import collections.Sprite;
+import collections.SpriteCollection;
+import gameRunning.RateMeter;
+import instrumentation.FrameStats;
+
+import java.util.List;
+
+/**
+ * The RenderThread class draws and shows frames on its own thread, so a slow gui.show does not stall the
+ * simulation and a long tick does not drop frames. After each tick the simulation publishes a snapshot of
+ * the sprites through a FrameExchange; the render thread draws the newest snapshot, placed between its
+ * previous and current state by the time passed since it was captured.
+ * While the thread runs it owns the static layer: the simulation queues additions, removals and erasures in a ring,
+ * and each frame carries how many of them happened up to its tick, so the layer always matches the frame.
+ * If the render thread falls so far behind that the ring fills up, the simulation does not wait for it: the
+ * changes that do not fit are dropped, and the next frame hands over the layer's whole sprite list instead,
+ * which the render thread rebuilds the layer from.
+ * In steady state neither publishing nor drawing allocates, and neither thread ever waits for the other.
+ */
+public class RenderThread {
+    // The number of static layer changes that may be queued and not yet drawn; a power of two
+    private static final int STATIC_OPS = 4096;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final byte ADD = 0;
+    private static final byte REMOVE = 1;
+    private static final byte ERASE = 2;
+    private final GUI gui;
+    private final StaticLayer layer;
+    private final SpriteCollection sprites;
+    private final RateMeter renderRate;
+    private final FrameStats stats;
+    private final FrameExchange exchange;
+    private final Sprite[] opSprites;
+    private final byte[] opKinds;
+    private final DeferredList<Sprite> staticSprites;
+    private final long nanosPerUpdate;
+    private final long nanosPerFrame;
+    private Thread thread;
+    private volatile boolean running;
+    private volatile RuntimeException failure;
+    private long opsWritten;
+    private volatile long opsApplied;
+    private volatile long framesDrawn;
+    private boolean overflowed;
+    private long overflows;
+    private List<Sprite> resyncSprites;
+    private long resyncEnd;
+
+    /**
+     * Constructs a render thread. It does not start until start() is called.
+     *
+     * @param gui              the GUI to draw on
+     * @param layer            the static layer, drawn under the sprites
+     * @param sprites          the sprites, captured in their order
+     * @param renderRate       the meter marked on every frame shown
+     * @param stats            the statistics the draw and show time of every frame are recorded in
+     * @param updatesPerSecond the simulation's update rate
+     * @param framesPerSecond  the rate to draw frames at
+     */
+    public RenderThread(GUI gui, StaticLayer layer, SpriteCollection sprites, RateMeter renderRate,
+                        FrameStats stats, int updatesPerSecond, int framesPerSecond) {
+        this.gui = gui;
+        this.layer = layer;
+        this.sprites = sprites;
+        this.renderRate = renderRate;
+        this.stats = stats;
+        this.exchange = new FrameExchange();
+        this.opSprites = new Sprite[STATIC_OPS];
+        this.opKinds = new byte[STATIC_OPS];
+        this.staticSprites = new DeferredList<>();
+        for (Sprite s : layer.getSprites()) {
+            this.staticSprites.add(s);
+        }
+        this.nanosPerUpdate = 1_000_000_000L / updatesPerSecond;
+        this.nanosPerFrame = 1_000_000_000L / framesPerSecond;
+    }
+
+    /**
+     * Captures the sprites after a tick and hands the snapshot to the render thread.
+     * Called on the simulation thread.
+     *
+     * @param tick the number of the tick just run
+     * @throws IllegalStateException if the render thread failed
+     */
+    public void publish(long tick) {
+        checkFailure();
+        postResync();
+        RenderFrame frame = this.exchange.getBack();
+        frame.capture(this.sprites, tick, System.nanoTime(), this.opsWritten);
+        frame.setStaticSprites(this.resyncSprites, this.resyncEnd);
+        this.exchange.publish();
+    }
+
+    /**
+     * Queues adding a sprite to the static layer, from the next published frame on.
+     * Called on the simulation thread.
+     *
+     * @param s the sprite to add
+     */
+    public void addStatic(Sprite s) {
+        queue(s, ADD);
+    }
+
+    /**
+     * Queues removing a sprite from the static layer, from the next published frame on.
+     * Called on the simulation thread.
+     *
+     * @param s the sprite to remove
+     */
+    public void removeStatic(Sprite s) {
+        queue(s, REMOVE);
+    }
+
+    /**
+     * Queues erasing a shape from the static layer (see StaticLayer.erase), from the next published frame on.
+     * Called on the simulation thread.
+     *
+     * @param s the erased shape
+     */
+    public void eraseStatic(Sprite s) {
+        queue(s, ERASE);
+    }
+
+    /**
+     * Starts drawing frames on a new thread.
+     */
+    public void start() {
+        this.running = true;
+        this.thread = new Thread(this::loop, "render");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops drawing frames and waits for the render thread to finish its frame.
+     * The static layer changes that were queued are applied, so the layer can be used again on this thread.
+     *
+     * @throws IllegalStateException if the render thread failed
+     */
+    public void stop() {
+        this.running = false;
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkFailure();
+        postResync();
+        applyStaticOps(this.opsWritten, this.resyncSprites, this.resyncEnd);
+    }
+
+    /**
+     * Draws the newest published frame: the static layer, then the sprites between their previous and
+     * current state. Called on the render thread.
+     *
+     * @param d   the DrawSurface to draw on
+     * @param now the current System.nanoTime
+     */
+    public void renderFrame(DrawSurface d, long now) {
+        RenderFrame frame = this.exchange.take();
+        applyStaticOps(frame.getStaticOpsEnd(), frame.getStaticSprites(), frame.getStaticSpritesEnd());
+        double alpha = Math.min(1.0, Math.max(0.0, (double) (now - frame.getCapturedNanos()) / this.nanosPerUpdate));
+        this.layer.drawOn(d);
+        frame.drawOn(d, alpha);
+        this.framesDrawn++;
+    }
+
+    /**
+     * Returns the number of frames drawn so far.
+     *
+     * @return the number of frames drawn
+     */
+    public long getFramesDrawn() {
+        return this.framesDrawn;
+    }
+
+    /**
+     * Returns the number of snapshots published that the render thread never drew, because a newer one
+     * was published before it took the next frame. Called on the simulation thread.
+     *
+     * @return the number of dropped snapshots
+     */
+    public long getDroppedCount() {
+        long dropped = this.exchange.getPublishedCount() - this.exchange.getTakenCount();
+        // The newest snapshot may still be waiting to be taken
+        return Math.max(0, this.exchange.hasFresh() ? dropped - 1 : dropped);
+    }
+
+    /**
+     * Returns the number of times the static layer changes overflowed the ring and the layer was rebuilt
+     * from its sprite list instead. Called on the simulation thread.
+     *
+     * @return the number of overflows
+     */
+    public long getOverflowCount() {
+        return this.overflows;
+    }
+
+    /**
+     * Draws and shows frames at the frame rate until stopped.
+     */
+    private void loop() {
+        try {
+            while (this.running) {
+                long start = System.nanoTime();
+                DrawSurface d = this.gui.getDrawSurface();
+                renderFrame(d, start);
+                long drawn = System.nanoTime();
+                this.gui.show(d);
+                long shown = System.nanoTime();
+                this.renderRate.mark(shown);
+                this.stats.recordRender(drawn - start, shown - drawn);
+                long millisecondsLeftToSleep = (this.nanosPerFrame - (shown - start)) / NANOS_PER_MILLI;
+                if (millisecondsLeftToSleep > 0) {
+                    Thread.sleep(millisecondsLeftToSleep);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            this.failure = e;
+        }
+    }
+
+    /**
+     * Appends a static layer change to the ring. If the ring is full the change is dropped, and the next
+     * published frame carries the layer's whole sprite list instead, see postResync.
+     *
+     * @param s    the sprite
+     * @param kind ADD, REMOVE or ERASE
+     */
+    private void queue(Sprite s, byte kind) {
+        checkFailure();
+        if (kind == ADD) {
+            this.staticSprites.add(s);
+        } else if (kind == REMOVE) {
+            this.staticSprites.remove(s);
+            if (this.staticSprites.end() > 2 * this.staticSprites.size() + STATIC_OPS) {
+                this.staticSprites.compact();
+            }
+        }
+        // The render thread cannot apply changes that no published frame includes yet, so never wait for it
+        if (!this.overflowed && this.opsWritten - this.opsApplied >= STATIC_OPS) {
+            this.overflowed = true;
+            this.overflows++;
+        }
+        if (!this.overflowed) {
+            int i = (int) (this.opsWritten & (STATIC_OPS - 1));
+            this.opSprites[i] = s;
+            this.opKinds[i] = kind;
+        }
+        this.opsWritten++;
+    }
+
+    /**
+     * Lists the static layer's sprites for the next published frame if changes were dropped since the last list.
+     * The list stands for every change before its position, so the frames carry it until the render thread
+     * has applied it. Called on the simulation thread.
+     */
+    private void postResync() {
+        if (this.overflowed) {
+            this.resyncSprites = this.staticSprites.asList();
+            this.resyncEnd = this.opsWritten;
+            this.overflowed = false;
+        } else if (this.resyncSprites != null && this.opsApplied >= this.resyncEnd) {
+            this.resyncSprites = null;
+        }
+    }
+
+    /**
+     * Applies the queued static layer changes up to the given position. A sprite list the layer has not
+     * taken yet replaces the changes before its position: the layer takes the list and rebuilds in full.
+     *
+     * @param end        the position to apply the changes up to
+     * @param sprites    the sprites of the layer as of position listEnd, or null
+     * @param listEnd    the position of the list
+     */
+    private void applyStaticOps(long end, List<Sprite> sprites, long listEnd) {
+        long applied = this.opsApplied;
+        if (sprites != null && listEnd > applied) {
+            while (applied < listEnd) {
+                this.opSprites[(int) (applied & (STATIC_OPS - 1))] = null;
+                applied++;
+            }
+            this.layer.reset(sprites);
+        }
+        while (applied < end) {
+            int i = (int) (applied & (STATIC_OPS - 1));
+            if (this.opKinds[i] == ADD) {
+                this.layer.add(this.opSprites[i]);
+            } else if (this.opKinds[i] == REMOVE) {
+                this.layer.remove(this.opSprites[i]);
+            } else {
+                this.layer.erase(this.opSprites[i]);
+            }
+            this.opSprites[i] = null;
+            applied++;
+        }
+        this.opsApplied = applied;
+    }
+
+    /**
+     * Rethrows a failure of the render thread on the calling thread.
+     *
+     * @throws IllegalStateException if the render thread failed
+     */
+    private void checkFailure() {
+        RuntimeException e = this.failure;
+        if (e != null) {
+            throw new IllegalStateException("The render thread failed", e);
+        }
+    }
+}
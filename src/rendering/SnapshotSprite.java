@@ -0,0 +1,22 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package rendering;
+
+import collections.Sprite;
+
+/**
+ * The SnapshotSprite interface is a Sprite that can be drawn from a snapshot of its state,
+ * which lets the RenderThread draw it while the simulation runs on another thread.
+ */
+public interface SnapshotSprite extends Sprite {
+
+    /**
+     * Creates an empty snapshot of this sprite. Its capture() copies this sprite's state.
+     *
+     * @return a new snapshot
+     */
+    SpriteSnapshot newSnapshot();
+}
@@ -0,0 +1,29 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package rendering;
+
+import biuoop.DrawSurface;
+
+/**
+ * The SpriteSnapshot interface holds a copy of the render state of one sprite, so the sprite can be drawn
+ * on the render thread while the simulation thread keeps changing it.
+ * A snapshot is reused from frame to frame: capture overwrites its state in place without allocating.
+ */
+public interface SpriteSnapshot {
+
+    /**
+     * Copies the current render state of the sprite into the snapshot. Called on the simulation thread.
+     */
+    void capture();
+
+    /**
+     * Draws the captured state like the sprite's drawOn(d, alpha) would. Called on the render thread.
+     *
+     * @param d     the DrawSurface to draw on
+     * @param alpha how far the frame is from the captured previous state (0) to the captured current one (1)
+     */
+    void drawOn(DrawSurface d, double alpha);
+}
@@ -0,0 +1,326 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package rendering;
+
+import biuoop.DrawSurface;
+import collections.Collidable;
+import collections.DeferredList;
+import collections.Sprite;
+import geomtry.Rectangle;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * The StaticLayer class is a render cache for sprites that look the same on every frame, such as blocks.
+ * It rasterizes the background and all its sprites into an offscreen image once, and each frame only
+ * blits that image. Removing a collidable sprite patches the image: only the area under the sprite's
+ * collision rectangle is cleared and the sprites overlapping it are redrawn, clipped to that area.
+ * Adding a sprite, removing a sprite that is not collidable, or invalidate() rebuilds the image on the next draw.
+ * A sprite that stands for many shapes, such as a table of blocks, stays in the layer while its shapes are
+ * erased one by one; a PartialSprite redraws only its shapes near a patched area.
+ * The areas that changed since the last frame are reported to the DirtyRectRenderer by addDamage.
+ * The image is double-buffered, since a DrawSurface may still be reading the image it was handed after
+ * drawOn returns: changes go to a back image, which becomes the drawn image on the next drawOn, and the image
+ * drawn on one frame is only written again once the next frame was drawn, after the areas it is behind by
+ * are copied over from the other image.
+ */
+public class StaticLayer {
+    private final int width;
+    private final int height;
+    private final Color background;
+    private final DeferredList<Sprite> sprites;
+    private final DamageRegion changed;
+    private ImageDrawSurface surface;
+    private ImageDrawSurface front;
+    private DamageRegion pending;
+    private DamageRegion behind;
+    private boolean editing;
+    private boolean valid;
+    private long rebuilds;
+    private long patches;
+
+    /**
+     * Constructs an empty layer.
+     *
+     * @param width      the width of the layer
+     * @param height     the height of the layer
+     * @param background the color the layer is filled with under its sprites
+     */
+    public StaticLayer(int width, int height, Color background) {
+        this.width = width;
+        this.height = height;
+        this.background = background;
+        this.sprites = new DeferredList<>();
+        this.changed = new DamageRegion(width, height, 64);
+        this.changed.addFull();
+        this.pending = new DamageRegion(width, height, 64);
+        this.behind = new DamageRegion(width, height, 64);
+    }
+
+    /**
+     * Adds a sprite to the layer. Its drawOn must draw the same thing on every frame.
+     *
+     * @param s the sprite to add
+     */
+    public void add(Sprite s) {
+        this.sprites.add(s);
+        this.valid = false;
+        this.changed.addFull();
+    }
+
+    /**
+     * Removes a sprite from the layer, patching the cached image if possible.
+     *
+     * @param s the sprite to remove
+     */
+    public void remove(Sprite s) {
+        if (!this.sprites.remove(s)) {
+            return;
+        }
+        if (!this.valid) {
+            return;
+        }
+        if (s instanceof Collidable) {
+            patch(((Collidable) s).getCollisionRectangle());
+        } else {
+            this.valid = false;
+            this.changed.addFull();
+        }
+    }
+
+    /**
+     * Repaints the area under a shape that a sprite of the layer no longer draws, e.g. a block removed from
+     * a table of blocks. The shape itself is not in the layer; only its collision rectangle is used.
+     *
+     * @param s the erased shape, which must be collidable to be patched rather than rebuilt
+     */
+    public void erase(Sprite s) {
+        if (!this.valid) {
+            return;
+        }
+        if (s instanceof Collidable) {
+            patch(((Collidable) s).getCollisionRectangle());
+        } else {
+            this.valid = false;
+            this.changed.addFull();
+        }
+    }
+
+    /**
+     * Replaces the layer's sprites and rebuilds its image on the next draw.
+     *
+     * @param list the new sprites, in their order
+     */
+    public void reset(List<Sprite> list) {
+        for (int i = 0; i < this.sprites.end(); i++) {
+            Sprite s = this.sprites.get(i);
+            if (s != null) {
+                this.sprites.remove(s);
+            }
+        }
+        this.sprites.compact();
+        for (Sprite s : list) {
+            this.sprites.add(s);
+        }
+        invalidate();
+    }
+
+    /**
+     * Returns the layer's sprites.
+     *
+     * @return a read-only snapshot of the sprites, in their order
+     */
+    public List<Sprite> getSprites() {
+        return this.sprites.asList();
+    }
+
+    /**
+     * Makes the layer rebuild its image on the next draw, e.g. after a sprite in it changed its look.
+     */
+    public void invalidate() {
+        this.valid = false;
+        this.changed.addFull();
+    }
+
+    /**
+     * Adds the areas of the layer that changed since the last call to the given damage.
+     *
+     * @param damage the damage of the current frame
+     */
+    public void addDamage(DamageRegion damage) {
+        if (this.changed.isFull()) {
+            damage.addFull();
+        }
+        for (int i = 0; i < this.changed.size(); i++) {
+            damage.add(this.changed.getX(i), this.changed.getY(i), this.changed.getRectWidth(i),
+                    this.changed.getRectHeight(i));
+        }
+        this.changed.clear();
+    }
+
+    /**
+     * Returns the number of sprites in the layer.
+     *
+     * @return the number of sprites
+     */
+    public int size() {
+        return this.sprites.size();
+    }
+
+    /**
+     * Returns the number of times the whole image was rasterized.
+     *
+     * @return the number of rebuilds
+     */
+    public long getRebuildCount() {
+        return this.rebuilds;
+    }
+
+    /**
+     * Returns the number of times part of the image was repainted after a removal.
+     *
+     * @return the number of patches
+     */
+    public long getPatchCount() {
+        return this.patches;
+    }
+
+    /**
+     * Draws the layer, the background included, rebuilding its image first if needed.
+     * The image changed since the last frame becomes the drawn one, and is not written again until the next
+     * frame was drawn.
+     *
+     * @param d the DrawSurface to draw on
+     */
+    public void drawOn(DrawSurface d) {
+        if (!this.valid) {
+            rebuild();
+        }
+        if (this.editing) {
+            swap();
+        }
+        d.drawImage(0, 0, this.front.getImage());
+    }
+
+    /**
+     * Makes the back image the drawn one. The old drawn image becomes the back image, behind by the areas changed
+     * in the new one.
+     */
+    private void swap() {
+        ImageDrawSurface drawn = this.front;
+        this.front = this.surface;
+        this.surface = drawn;
+        DamageRegion region = this.behind;
+        this.behind = this.pending;
+        this.pending = region;
+        this.pending.clear();
+        this.editing = false;
+    }
+
+    /**
+     * Prepares the back image for changes: brings it up to date with the drawn image, unless it was already.
+     */
+    private void beginEdit() {
+        if (this.editing) {
+            return;
+        }
+        if (this.surface == null) {
+            this.surface = newSurface();
+            this.behind.addFull();
+        }
+        if (this.behind.isFull()) {
+            this.surface.drawImage(0, 0, this.front.getImage());
+        } else {
+            for (int i = 0; i < this.behind.size(); i++) {
+                this.surface.setClip(this.behind.getX(i), this.behind.getY(i), this.behind.getRectWidth(i),
+                        this.behind.getRectHeight(i));
+                this.surface.drawImage(0, 0, this.front.getImage());
+            }
+            this.surface.clearClip();
+        }
+        this.behind.clear();
+        this.editing = true;
+    }
+
+    /**
+     * Creates an image surface the size of the layer.
+     *
+     * @return the surface
+     */
+    private ImageDrawSurface newSurface() {
+        return new ImageDrawSurface(new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_RGB));
+    }
+
+    /**
+     * Rasterizes the background and every sprite of the layer into the back image.
+     */
+    private void rebuild() {
+        if (this.surface == null) {
+            this.surface = newSurface();
+        }
+        this.sprites.compact();
+        this.surface.clearClip();
+        this.surface.setColor(this.background);
+        this.surface.fillRectangle(0, 0, this.width, this.height);
+        for (int i = 0; i < this.sprites.end(); i++) {
+            this.sprites.get(i).drawOn(this.surface);
+        }
+        this.pending.addFull();
+        this.editing = true;
+        this.valid = true;
+        this.rebuilds++;
+    }
+
+    /**
+     * Repaints the area a removed sprite covered: the background, then every remaining sprite that may
+     * overlap the area, in their order, clipped to the area.
+     *
+     * @param r the collision rectangle of the removed sprite
+     */
+    private void patch(Rectangle r) {
+        // Outlines are drawn one pixel past the rectangle's width and height, so widen the area by a pixel
+        int x = (int) Math.floor(r.getUpperLeft().getX()) - 1;
+        int y = (int) Math.floor(r.getUpperLeft().getY()) - 1;
+        int w = (int) Math.ceil(r.getWidth()) + 3;
+        int h = (int) Math.ceil(r.getHeight()) + 3;
+        beginEdit();
+        this.surface.setClip(x, y, w, h);
+        this.surface.setColor(this.background);
+        this.surface.fillRectangle(x, y, w, h);
+        for (int i = 0; i < this.sprites.end(); i++) {
+            Sprite s = this.sprites.get(i);
+            if (s instanceof PartialSprite) {
+                ((PartialSprite) s).drawInside(this.surface, x, y, w, h);
+            } else if (s != null && overlaps(s, x, y, w, h)) {
+                s.drawOn(this.surface);
+            }
+        }
+        this.surface.clearClip();
+        this.pending.add(x, y, w, h);
+        this.changed.add(x, y, w, h);
+        this.patches++;
+    }
+
+    /**
+     * Checks if a sprite may draw inside the given area. Sprites that are not collidable may draw anywhere.
+     *
+     * @param s the sprite
+     * @param x the x-coordinate of the area's upper-left corner
+     * @param y the y-coordinate of the area's upper-left corner
+     * @param w the width of the area
+     * @param h the height of the area
+     * @return false only if the sprite surely does not draw inside the area
+     */
+    private static boolean overlaps(Sprite s, int x, int y, int w, int h) {
+        if (!(s instanceof Collidable)) {
+            return true;
+        }
+        Rectangle r = ((Collidable) s).getCollisionRectangle();
+        return r.getMinX() - 1 <= x + w && r.getMaxX() + 1 >= x && r.getMinY() - 1 <= y + h && r.getMaxY() + 1 >= y;
+    }
+}
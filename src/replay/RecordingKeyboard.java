@@ -0,0 +1,54 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package replay;
+
+import biuoop.KeyboardSensor;
+
+/**
+ * The RecordingKeyboard class is a KeyboardSensor that passes another sensor's keys on to the paddle
+ * and records them, one key state per tick, with a ReplayWriter.
+ * The paddle asks for the left key and then the right key once per tick, so the left query reads both
+ * keys, records them, and the right query answers with the state that was recorded. The paddle thus
+ * sees exactly what the replay will give it.
+ */
+public class RecordingKeyboard implements KeyboardSensor {
+    private final KeyboardSensor keyboard;
+    private final ReplayWriter writer;
+    private int keys;
+
+    /**
+     * Constructs a recording keyboard.
+     *
+     * @param keyboard the keyboard actually played on
+     * @param writer   the writer the keys are recorded with
+     */
+    public RecordingKeyboard(KeyboardSensor keyboard, ReplayWriter writer) {
+        this.keyboard = keyboard;
+        this.writer = writer;
+    }
+
+    /**
+     * Checks if a key is pressed on the keyboard played on. Asking for the left key, as the paddle does first on
+     * every tick, reads both arrow keys and records them for the tick; asking for the right key then returns the
+     * recorded state, so the game sees exactly what is recorded. Other keys are passed through unrecorded.
+     *
+     * @param key the key to check
+     * @return true if the key is pressed
+     */
+    @Override
+    public boolean isPressed(String key) {
+        if (KeyboardSensor.LEFT_KEY.equals(key)) {
+            this.keys = (this.keyboard.isPressed(KeyboardSensor.LEFT_KEY) ? ReplayFormat.LEFT : 0)
+                    | (this.keyboard.isPressed(KeyboardSensor.RIGHT_KEY) ? ReplayFormat.RIGHT : 0);
+            this.writer.record(this.keys);
+            return (this.keys & ReplayFormat.LEFT) != 0;
+        }
+        if (KeyboardSensor.RIGHT_KEY.equals(key)) {
+            return (this.keys & ReplayFormat.RIGHT) != 0;
+        }
+        return this.keyboard.isPressed(key);
+    }
+}
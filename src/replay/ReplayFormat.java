@@ -0,0 +1,58 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package replay;
+
+/**
+ * The ReplayFormat class holds the constants of the replay file format.
+ * A replay file is:
+ * <ul>
+ *   <li>a header: the MAGIC bytes, the VERSION byte, then the game setup as varints
+ *   (the update rate, and the flags: FLAG_EVENT_DRIVEN and FLAG_COMPACT_BLOCKS), then the SHA-256 of the level
+ *   file as a varint length and that many hex digits, none for the classic level;</li>
+ *   <li>the input: one varint per run of ticks that held the same keys, (run length &lt;&lt; 2) | keys,
+ *   where keys is LEFT and RIGHT or'ed together; a run is never empty, so a varint 0 ends the input;</li>
+ *   <li>a trailer: the number of ticks and the final score as varints, then the block removal digest
+ *   as 8 big-endian bytes. A file whose game was not finished has no trailer.</li>
+ * </ul>
+ * A varint holds 7 bits per byte, lowest first, with the high bit set on every byte but the last.
+ * The paddle's keys rarely change from one tick to the next, so a minute of play takes a few hundred bytes.
+ */
+public final class ReplayFormat {
+    /**
+     * The bytes every replay file starts with.
+     */
+    public static final byte[] MAGIC = {'B', 'R', 'P', 'L'};
+    /**
+     * The version of the format.
+     */
+    public static final int VERSION = 2;
+    /**
+     * The key bit of the left key.
+     */
+    public static final int LEFT = 1;
+    /**
+     * The key bit of the right key.
+     */
+    public static final int RIGHT = 2;
+    /**
+     * The setup flag of a game with event-driven ball stepping.
+     */
+    public static final int FLAG_EVENT_DRIVEN = 1;
+    /**
+     * The setup flag of a game that kept its blocks in a compact block table.
+     */
+    public static final int FLAG_COMPACT_BLOCKS = 2;
+    /**
+     * The level hash of the classic level, which has no file.
+     */
+    public static final String CLASSIC_LEVEL = "";
+
+    /**
+     * Not instantiable.
+     */
+    private ReplayFormat() {
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package replay;
+
+import biuoop.KeyboardSensor;
+
+/**
+ * The ReplayKeyboard class is a KeyboardSensor that plays the keys of a replay file back to the paddle.
+ * Like the RecordingKeyboard, it moves on to the next tick's keys on the left query and answers the right
+ * query from the same tick. Once the replay runs out it holds no keys.
+ */
+public class ReplayKeyboard implements KeyboardSensor {
+    private final ReplayReader reader;
+    private int keys;
+    private long ticks;
+
+    /**
+     * Constructs a keyboard that replays the given file.
+     *
+     * @param reader the reader of the replay file, with its header read
+     */
+    public ReplayKeyboard(ReplayReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the number of ticks replayed so far.
+     *
+     * @return the number of ticks
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Checks if a key is held on the current tick of the replay. The paddle asks for the left key first on
+     * every tick, so asking for it reads the next tick's keys; after the last tick no key is held.
+     *
+     * @param key the key, KeyboardSensor.LEFT_KEY or KeyboardSensor.RIGHT_KEY
+     * @return true if the key was held on this tick of the recorded game
+     */
+    @Override
+    public boolean isPressed(String key) {
+        if (KeyboardSensor.LEFT_KEY.equals(key)) {
+            if (this.reader.hasNextTick()) {
+                this.keys = this.reader.nextKeys();
+                this.ticks++;
+            } else {
+                this.keys = 0;
+            }
+            return (this.keys & ReplayFormat.LEFT) != 0;
+        }
+        if (KeyboardSensor.RIGHT_KEY.equals(key)) {
+            return (this.keys & ReplayFormat.RIGHT) != 0;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,251 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package replay;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The ReplayReader class reads a replay file, see ReplayFormat, one tick at a time.
+ * It streams the input, holding only the current run of ticks, so a replay of any length reads in
+ * constant memory. The trailer is read once the input ends; a file without one replays all its input
+ * but has no outcome to check the replay against.
+ */
+public class ReplayReader implements Closeable {
+    private static final int MAX_HASH_LENGTH = 64;
+    private final InputStream in;
+    private final int updatesPerSecond;
+    private final int flags;
+    private final String levelHash;
+    private int keys;
+    private long run;
+    private boolean ended;
+    private boolean hasOutcome;
+    private long ticks;
+    private int score;
+    private long removalDigest;
+
+    /**
+     * Constructs a reader and reads the header.
+     *
+     * @param in the stream to read from; closed by close()
+     * @throws IllegalArgumentException if the stream is not a replay file of this version
+     * @throws UncheckedIOException     if the header cannot be read
+     */
+    public ReplayReader(InputStream in) {
+        this.in = new BufferedInputStream(in);
+        try {
+            for (byte b : ReplayFormat.MAGIC) {
+                if (this.in.read() != b) {
+                    throw new IllegalArgumentException("Not a replay file");
+                }
+            }
+            int version = this.in.read();
+            if (version != ReplayFormat.VERSION) {
+                throw new IllegalArgumentException("Unsupported replay version " + version);
+            }
+            this.updatesPerSecond = (int) readVarint();
+            this.flags = (int) readVarint();
+            int hashLength = (int) readVarint();
+            if (hashLength > MAX_HASH_LENGTH) {
+                throw new IllegalArgumentException("Malformed replay header");
+            }
+            byte[] hash = new byte[hashLength];
+            for (int i = 0; i < hashLength; i++) {
+                hash[i] = (byte) readByte();
+            }
+            this.levelHash = new String(hash, StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the update rate the game was recorded at.
+     *
+     * @return the physics updates per second
+     */
+    public int getUpdatesPerSecond() {
+        return this.updatesPerSecond;
+    }
+
+    /**
+     * Checks if the recorded game used event-driven ball stepping.
+     *
+     * @return true for event-driven stepping
+     */
+    public boolean isEventDriven() {
+        return (this.flags & ReplayFormat.FLAG_EVENT_DRIVEN) != 0;
+    }
+
+    /**
+     * Checks if the recorded game kept its blocks in a compact block table.
+     *
+     * @return true for a compact block table
+     */
+    public boolean isCompactBlocks() {
+        return (this.flags & ReplayFormat.FLAG_COMPACT_BLOCKS) != 0;
+    }
+
+    /**
+     * Returns the SHA-256 of the level file the game was recorded on.
+     *
+     * @return the hash as hex, or ReplayFormat.CLASSIC_LEVEL for the classic level
+     */
+    public String getLevelHash() {
+        return this.levelHash;
+    }
+
+    /**
+     * Checks that the game is replayed on the level it was recorded on. The recorded keys only reproduce
+     * the game on the exact same level, so any other level is rejected rather than replayed into a divergence.
+     *
+     * @param hash the SHA-256 of the level file to replay on as hex, or ReplayFormat.CLASSIC_LEVEL
+     * @throws IllegalArgumentException if the replay was recorded on another level
+     */
+    public void checkLevel(String hash) {
+        if (!this.levelHash.equals(hash)) {
+            throw new IllegalArgumentException("The replay was recorded on "
+                    + (this.levelHash.isEmpty() ? "the classic level" : "a level with SHA-256 " + this.levelHash)
+                    + ", not on " + (hash.isEmpty() ? "the classic level" : "a level with SHA-256 " + hash));
+        }
+    }
+
+    /**
+     * Checks if there are keys recorded for another tick.
+     *
+     * @return true if nextKeys() can be called
+     * @throws UncheckedIOException if the input cannot be read
+     */
+    public boolean hasNextTick() {
+        if (this.run > 0) {
+            return true;
+        }
+        if (this.ended) {
+            return false;
+        }
+        try {
+            long value = readVarint();
+            if (value != 0) {
+                this.keys = (int) (value & 3);
+                this.run = value >>> 2;
+                return true;
+            }
+            this.ended = true;
+            this.ticks = readVarint();
+            this.score = (int) readVarint();
+            long digest = 0;
+            for (int i = 0; i < 8; i++) {
+                digest = digest << 8 | readByte();
+            }
+            this.removalDigest = digest;
+            this.hasOutcome = true;
+        } catch (EOFException e) {
+            // The recorded game was cut short: replay what there is
+            this.ended = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return false;
+    }
+
+    /**
+     * Returns the keys held on the next tick.
+     *
+     * @return the keys, LEFT and RIGHT or'ed together
+     * @throws IllegalStateException if the input ended
+     */
+    public int nextKeys() {
+        if (!hasNextTick()) {
+            throw new IllegalStateException("The replay has no more ticks");
+        }
+        this.run--;
+        return this.keys;
+    }
+
+    /**
+     * Checks if the file recorded the outcome of its game. Known once hasNextTick() returned false.
+     *
+     * @return true if getTicks, getScore and getRemovalDigest hold the recorded outcome
+     */
+    public boolean hasOutcome() {
+        return this.hasOutcome;
+    }
+
+    /**
+     * Returns the number of ticks the recorded game was played for.
+     *
+     * @return the recorded number of ticks
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Returns the final score of the recorded game.
+     *
+     * @return the recorded score
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * Returns the digest of the order the recorded game removed its blocks in, see Game.getRemovalDigest.
+     *
+     * @return the recorded removal digest
+     */
+    public long getRemovalDigest() {
+        return this.removalDigest;
+    }
+
+    /**
+     * Closes the input stream.
+     *
+     * @throws IOException if the stream cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    /**
+     * Reads one byte.
+     *
+     * @return the byte, between 0 and 255
+     * @throws IOException if it cannot be read, EOFException at the end of the stream
+     */
+    private int readByte() throws IOException {
+        int b = this.in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    /**
+     * Reads a non-negative varint.
+     *
+     * @return the number
+     * @throws IOException if it cannot be read, EOFException at the end of the stream
+     */
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package replay;
+
+import gameRunning.Game;
+import levels.LevelCache;
+import levels.LevelDefinition;
+import levels.LevelLoader;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * The ReplayRunner class replays a recorded game headless, as fast as the CPU allows, and checks that it
+ * plays out like the recording: the same number of ticks, the same final score, and the same blocks
+ * removed in the same order. The game's physics only depend on the paddle's keys on each tick, so a
+ * replay that diverges means the simulation is not deterministic.
+ */
+public class ReplayRunner {
+    private final ReplayReader reader;
+    private final ReplayKeyboard keyboard;
+    private final Game game;
+
+    /**
+     * Constructs a runner for a new game on the classic level, set up like the recorded one.
+     *
+     * @param reader the reader of the replay file, with its header read
+     * @throws IllegalArgumentException if the replay was recorded on another level
+     */
+    public ReplayRunner(ReplayReader reader) {
+        this(reader, LevelDefinition.classic(), ReplayFormat.CLASSIC_LEVEL);
+    }
+
+    /**
+     * Constructs a runner for a new game set up like the recorded one.
+     *
+     * @param reader    the reader of the replay file, with its header read
+     * @param level     the level the game was recorded on
+     * @param levelHash the SHA-256 of the level's file as hex, see LevelLoader.hash, or ReplayFormat.CLASSIC_LEVEL
+     * @throws IllegalArgumentException if the replay was recorded on another level
+     */
+    public ReplayRunner(ReplayReader reader, LevelDefinition level, String levelHash) {
+        reader.checkLevel(levelHash);
+        this.reader = reader;
+        this.keyboard = new ReplayKeyboard(reader);
+        this.game = new Game(this.keyboard);
+        this.game.setCompactBlocks(reader.isCompactBlocks());
+        this.game.initialize(level);
+        this.game.setUpdatesPerSecond(reader.getUpdatesPerSecond());
+        this.game.setEventDriven(reader.isEventDriven());
+    }
+
+    /**
+     * Replays the recorded ticks, or fewer if the game ends first, then reads the rest of the file.
+     *
+     * @return the number of ticks replayed
+     */
+    public long run() {
+        long ticks = 0;
+        while (this.game.isRunning() && this.reader.hasNextTick()) {
+            this.game.tick();
+            ticks++;
+        }
+        this.game.end();
+        while (this.reader.hasNextTick()) {
+            this.reader.nextKeys();
+        }
+        return ticks;
+    }
+
+    /**
+     * Returns the replayed game.
+     *
+     * @return the game
+     */
+    public Game getGame() {
+        return this.game;
+    }
+
+    /**
+     * Checks if the replay played out like the recording. Only meaningful after run().
+     *
+     * @param ticks the number of ticks replayed
+     * @return true if the file recorded an outcome and the replay reproduced it
+     */
+    public boolean matches(long ticks) {
+        return this.reader.hasOutcome() && ticks == this.reader.getTicks()
+                && this.game.getScore() == this.reader.getScore()
+                && this.game.getRemovalDigest() == this.reader.getRemovalDigest();
+    }
+
+    /**
+     * Replays a recorded game and prints whether it played out like the recording.
+     * Exits with status 1 if it did not.
+     *
+     * @param args command line arguments: the replay file, then the level file if it was not the classic level
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: ReplayRunner <replay file> [level file]");
+            System.exit(2);
+        }
+        LevelDefinition level = LevelDefinition.classic();
+        String levelHash = ReplayFormat.CLASSIC_LEVEL;
+        if (args.length > 1 && !args[1].isEmpty()) {
+            LevelLoader loader = new LevelLoader(new LevelCache(Paths.get(".levelcache")));
+            level = loader.load(Paths.get(args[1]));
+            levelHash = loader.getLastHash();
+        }
+        try (ReplayReader reader = new ReplayReader(new FileInputStream(args[0]))) {
+            ReplayRunner runner;
+            try {
+                runner = new ReplayRunner(reader, level, levelHash);
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+                System.exit(1);
+                return;
+            }
+            long start = System.nanoTime();
+            long ticks = runner.run();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Game game = runner.getGame();
+            System.out.printf("ticks: %d, score: %d, digest: %016x, ticks/second: %.0f%n",
+                    ticks, game.getScore(), game.getRemovalDigest(), seconds == 0 ? 0 : ticks / seconds);
+            if (!reader.hasOutcome()) {
+                System.out.println("the recording was cut short; nothing to compare against");
+            } else if (runner.matches(ticks)) {
+                System.out.println("replay matches the recording");
+            } else {
+                System.out.printf("replay diverged: recorded ticks: %d, score: %d, digest: %016x%n",
+                        reader.getTicks(), reader.getScore(), reader.getRemovalDigest());
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * ID 325742948
+ * Name: Avishag Lavi.
+ */
+
+package replay;
+
+import gameRunning.Game;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The ReplayWriter class writes a replay file, see ReplayFormat, as the game is played.
+ * It keeps the current run of identical key states in memory and writes it out once the keys change,
+ * flushing the stream, so a game that is killed still leaves a file that replays up to its last key change.
+ */
+public class ReplayWriter implements Closeable {
+    private final OutputStream out;
+    private int keys;
+    private long run;
+    private long ticks;
+    private boolean begun;
+    private boolean finished;
+
+    /**
+     * Constructs a writer. Nothing is written until begin() is called.
+     *
+     * @param out the stream to write to; closed by close()
+     */
+    public ReplayWriter(OutputStream out) {
+        this.out = new BufferedOutputStream(out);
+    }
+
+    /**
+     * Writes the header of a game on the classic level. Must be called before the game's first tick.
+     *
+     * @param game the game being recorded, set up but not yet run
+     * @throws UncheckedIOException if the header cannot be written
+     */
+    public void begin(Game game) {
+        begin(game, ReplayFormat.CLASSIC_LEVEL);
+    }
+
+    /**
+     * Writes the header, with the setup of the given game and the level it plays.
+     * Must be called before the game's first tick.
+     *
+     * @param game      the game being recorded, set up but not yet run
+     * @param levelHash the SHA-256 of the level file as hex, see LevelLoader.hash, or CLASSIC_LEVEL
+     * @throws UncheckedIOException if the header cannot be written
+     */
+    public void begin(Game game, String levelHash) {
+        try {
+            this.out.write(ReplayFormat.MAGIC);
+            this.out.write(ReplayFormat.VERSION);
+            writeVarint(game.getUpdatesPerSecond());
+            int flags = 0;
+            if (game.isEventDriven()) {
+                flags |= ReplayFormat.FLAG_EVENT_DRIVEN;
+            }
+            if (game.isCompactBlocks()) {
+                flags |= ReplayFormat.FLAG_COMPACT_BLOCKS;
+            }
+            writeVarint(flags);
+            byte[] hash = levelHash.getBytes(StandardCharsets.US_ASCII);
+            writeVarint(hash.length);
+            this.out.write(hash);
+            this.out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.begun = true;
+    }
+
+    /**
+     * Records the keys held on the next tick.
+     *
+     * @param tickKeys the keys, LEFT and RIGHT or'ed together
+     * @throws IllegalStateException if begin() was not called
+     * @throws UncheckedIOException  if the input cannot be written
+     */
+    public void record(int tickKeys) {
+        if (!this.begun) {
+            throw new IllegalStateException("The replay header was not written");
+        }
+        if (this.run > 0 && tickKeys != this.keys) {
+            writeRun();
+        }
+        this.keys = tickKeys;
+        this.run++;
+        this.ticks++;
+    }
+
+    /**
+     * Returns the number of ticks recorded so far.
+     *
+     * @return the number of ticks
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Ends the input and writes the trailer with the outcome of the recorded game. Does not close the stream.
+     *
+     * @param game the recorded game, after its last tick
+     * @throws UncheckedIOException if the trailer cannot be written
+     */
+    public void finish(Game game) {
+        if (!this.begun || this.finished) {
+            return;
+        }
+        try {
+            if (this.run > 0) {
+                writeRun();
+            }
+            writeVarint(0);
+            writeVarint(this.ticks);
+            writeVarint(game.getScore());
+            long digest = game.getRemovalDigest();
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                this.out.write((int) (digest >>> shift));
+            }
+            this.out.flush();
+            this.finished = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Closes the output stream. A replay closed before finish() lacks its last run of input and its trailer.
+     *
+     * @throws IOException if the stream cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+
+    /**
+     * Writes out the current run and flushes it.
+     */
+    private void writeRun() {
+        try {
+            writeVarint(this.run << 2 | this.keys);
+            this.out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.run = 0;
+    }
+
+    /**
+     * Writes a non-negative number as a varint.
+     *
+     * @param value the number
+     * @throws IOException if it cannot be written
+     */
+    private void writeVarint(long value) throws IOException {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            this.out.write((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        this.out.write((int) v);
+    }
+}